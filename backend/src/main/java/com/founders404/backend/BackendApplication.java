@@ -4,6 +4,8 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Map;
+
 @SpringBootApplication
 @EnableScheduling
 public class BackendApplication {
@@ -23,6 +25,13 @@ public class BackendApplication {
         if (jwtSecret != null) System.setProperty("JWT_SECRET", jwtSecret);
         else System.setProperty("JWT_SECRET", "dev_jwt_secret_change_in_production");
 
-        SpringApplication.run(BackendApplication.class, args);
+        SpringApplication application = new SpringApplication(BackendApplication.class);
+        // A @Scheduled metódusok szálkészlete (alapból egy szál); a nehéz jobok innen csak a saját sorukba
+        // kerülnek (ScheduledJobService). Az application.properties nincs verziókezelve, ezért az alapértéket
+        // a kód adja; az application.properties / környezeti változó felülírja.
+        application.setDefaultProperties(Map.of(
+                "spring.task.scheduling.pool.size", "4",
+                "spring.task.scheduling.thread-name-prefix", "scheduling-"));
+        application.run(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.founders404.backend.analytics;
+
+import com.founders404.backend.model.AbcClass;
+import com.founders404.backend.model.XyzClass;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * ABC/XYZ besorolás primitív tömbökön.
+ * ABC: érték szerint csökkenő sorrendben a kumulált részesedés alapján.
+ * XYZ: a periódusonkénti (havi) kereslet variációs együtthatója alapján.
+ */
+public class AbcXyzClassifier {
+
+    private final double aShare;
+    private final double bShare;
+    private final double xMaxCv;
+    private final double yMaxCv;
+
+    public AbcXyzClassifier(double aShare, double bShare, double xMaxCv, double yMaxCv) {
+        this.aShare = aShare;
+        this.bShare = bShare;
+        this.xMaxCv = xMaxCv;
+        this.yMaxCv = yMaxCv;
+    }
+
+    /**
+     * ABC osztályok. values[i] = i. termék felhasználási értéke.
+     */
+    public AbcClass[] classifyAbc(double[] values) {
+        int n = values.length;
+        AbcClass[] result = new AbcClass[n];
+        double total = 0.0;
+        for (double value : values) {
+            total += Math.max(0.0, value);
+        }
+        if (total <= 0.0) {
+            Arrays.fill(result, AbcClass.C);
+            return result;
+        }
+
+        // Index rendezés érték szerint csökkenően (érték bitjei + index egy long-ba pakolva, primitív rendezés)
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            long bits = Double.doubleToLongBits(Math.max(0.0, values[i]));
+            order[i] = ((bits >>> 20) << 20) | i;
+        }
+        if (n > 1 << 20) {
+            // Túl sok elem az index bitekhez: boxolt rendezés
+            Integer[] boxed = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+            Arrays.parallelSort(boxed, (a, b) -> Double.compare(values[b], values[a]));
+            assignAbc(result, values, total, Arrays.stream(boxed).mapToInt(Integer::intValue).toArray());
+            return result;
+        }
+        Arrays.parallelSort(order);
+
+        int[] descending = new int[n];
+        for (int i = 0; i < n; i++) {
+            descending[i] = (int) (order[n - 1 - i] & ((1 << 20) - 1));
+        }
+        assignAbc(result, values, total, descending);
+        return result;
+    }
+
+    /**
+     * Termékenkénti variációs együttható párhuzamosan.
+     * demand[i * periods + t] = i. termék t. periódusának kereslete.
+     */
+    public static double[] coefficientsOfVariation(double[] demand, int periods) {
+        int n = periods == 0 ? 0 : demand.length / periods;
+        double[] result = new double[n];
+        IntStream.range(0, n).parallel()
+                .forEach(i -> result[i] = coefficientOfVariation(demand, i * periods, periods));
+        return result;
+    }
+
+    /**
+     * XYZ osztályok a variációs együtthatókból (kereslet nélküli termék: Z).
+     */
+    public XyzClass[] classifyXyz(double[] coefficientsOfVariation) {
+        XyzClass[] result = new XyzClass[coefficientsOfVariation.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = classifyCv(coefficientsOfVariation[i]);
+        }
+        return result;
+    }
+
+    public XyzClass classifyCv(double cv) {
+        if (Double.isNaN(cv)) {
+            return XyzClass.Z;
+        }
+        if (cv <= xMaxCv) {
+            return XyzClass.X;
+        }
+        return cv <= yMaxCv ? XyzClass.Y : XyzClass.Z;
+    }
+
+    /**
+     * Variációs együttható (szórás / átlag); átlag 0 esetén NaN.
+     */
+    public static double coefficientOfVariation(double[] data, int offset, int length) {
+        double sum = 0.0;
+        double sumSquares = 0.0;
+        for (int t = offset; t < offset + length; t++) {
+            sum += data[t];
+            sumSquares += data[t] * data[t];
+        }
+        double mean = sum / length;
+        if (mean <= 0.0) {
+            return Double.NaN;
+        }
+        double variance = Math.max(0.0, sumSquares / length - mean * mean);
+        return Math.sqrt(variance) / mean;
+    }
+
+    private void assignAbc(AbcClass[] result, double[] values, double total, int[] descending) {
+        double cumulative = 0.0;
+        for (int index : descending) {
+            double value = Math.max(0.0, values[index]);
+            // A határt átlépő elem még a magasabb osztályba esik
+            double shareBefore = cumulative / total;
+            cumulative += value;
+            if (value <= 0.0) {
+                result[index] = AbcClass.C;
+            } else if (shareBefore < aShare) {
+                result[index] = AbcClass.A;
+            } else if (shareBefore < bShare) {
+                result[index] = AbcClass.B;
+            } else {
+                result[index] = AbcClass.C;
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.founders404.backend.analytics;
+
+/**
+ * Count-Min sketch gyakoriság becsléshez (heavy hitters).
+ * A becslés sosem kisebb a valós értéknél; felülbecslés legfeljebb epsilon * N,
+ * 1 - delta valószínűséggel (epsilon = e / width, delta = e^-depth).
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long[] table;
+    private long totalCount;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Count-Min sketch depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.table = new long[depth * width];
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void add(long item, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count-Min sketch does not support negative counts");
+        }
+        for (int row = 0; row < depth; row++) {
+            table[row * width + bucket(item, row)] += count;
+        }
+        totalCount += count;
+    }
+
+    public long estimate(long item) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row * width + bucket(item, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * Másik sketch hozzáadása (azonos méret szükséges).
+     */
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge Count-Min sketches with different dimensions");
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += other.table[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    public double epsilon() {
+        return Math.E / width;
+    }
+
+    public double delta() {
+        return Math.exp(-depth);
+    }
+
+    /**
+     * Maximális felülbecslés (epsilon * N).
+     */
+    public long errorBound() {
+        return (long) Math.ceil(epsilon() * totalCount);
+    }
+
+    public CountMinSketch copy() {
+        CountMinSketch copy = new CountMinSketch(depth, width);
+        System.arraycopy(table, 0, copy.table, 0, table.length);
+        copy.totalCount = totalCount;
+        return copy;
+    }
+
+    private int bucket(long item, int row) {
+        return (int) Long.remainderUnsigned(Hashing.mix64(item, row), width);
+    }
+}
@@ -0,0 +1,107 @@
+package com.founders404.backend.analytics;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Egy cég egy napjának mozgás sketch-ei:
+ * eladott (OUT) különböző SKU-k, aktív userek (HyperLogLog) és
+ * termékenkénti mozgás gyakoriság (Count-Min + korlátos jelölt lista a top elemekhez).
+ */
+public class DailyMovementSketch {
+
+    public static final int HLL_PRECISION = 12;
+    public static final int CMS_DEPTH = 4;
+    public static final int CMS_WIDTH = 1024;
+    public static final int HEAVY_HITTER_CANDIDATES = 64;
+
+    private final HyperLogLog skusSold;
+    private final HyperLogLog activeUsers;
+    private final CountMinSketch movedItems;
+    private final Map<Long, Long> candidates;
+
+    public DailyMovementSketch() {
+        this(new HyperLogLog(HLL_PRECISION), new HyperLogLog(HLL_PRECISION),
+                new CountMinSketch(CMS_DEPTH, CMS_WIDTH), new HashMap<>());
+    }
+
+    private DailyMovementSketch(HyperLogLog skusSold, HyperLogLog activeUsers,
+                                CountMinSketch movedItems, Map<Long, Long> candidates) {
+        this.skusSold = skusSold;
+        this.activeUsers = activeUsers;
+        this.movedItems = movedItems;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Egy mozgás rögzítése.
+     */
+    public synchronized void record(long productId, Long userId, boolean sold) {
+        if (sold) {
+            skusSold.add(productId);
+        }
+        if (userId != null) {
+            activeUsers.add(userId);
+        }
+        movedItems.add(productId, 1);
+        offerCandidate(productId, movedItems.estimate(productId));
+    }
+
+    /**
+     * Másik nap beolvasztása (a jelöltek becslését az összevont Count-Min adja).
+     */
+    public synchronized void merge(DailyMovementSketch other) {
+        DailyMovementSketch snapshot = other.copy();
+        skusSold.merge(snapshot.skusSold);
+        activeUsers.merge(snapshot.activeUsers);
+        movedItems.merge(snapshot.movedItems);
+
+        Set<Long> ids = new HashSet<>(candidates.keySet());
+        ids.addAll(snapshot.candidates.keySet());
+        candidates.clear();
+        for (Long id : ids) {
+            offerCandidate(id, movedItems.estimate(id));
+        }
+    }
+
+    public synchronized DailyMovementSketch copy() {
+        return new DailyMovementSketch(skusSold.copy(), activeUsers.copy(), movedItems.copy(), new HashMap<>(candidates));
+    }
+
+    public synchronized HyperLogLog getSkusSold() {
+        return skusSold.copy();
+    }
+
+    public synchronized HyperLogLog getActiveUsers() {
+        return activeUsers.copy();
+    }
+
+    public synchronized CountMinSketch getMovedItems() {
+        return movedItems.copy();
+    }
+
+    public synchronized Set<Long> getCandidates() {
+        return Set.copyOf(candidates.keySet());
+    }
+
+    private void offerCandidate(long productId, long estimate) {
+        if (candidates.containsKey(productId) || candidates.size() < HEAVY_HITTER_CANDIDATES) {
+            candidates.put(productId, estimate);
+            return;
+        }
+
+        // Tele: a legkisebb jelöltet cseréljük, ha az új nagyobb
+        Map.Entry<Long, Long> smallest = null;
+        for (Map.Entry<Long, Long> entry : candidates.entrySet()) {
+            if (smallest == null || entry.getValue() < smallest.getValue()) {
+                smallest = entry;
+            }
+        }
+        if (smallest != null && estimate > smallest.getValue()) {
+            candidates.remove(smallest.getKey());
+            candidates.put(productId, estimate);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.founders404.backend.analytics;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Termékenkénti napi kereslet primitív tömbökben.
+ * demand[i * days + d] = i. termék kereslete a firstDay + d napon.
+ */
+public class DemandMatrix {
+
+    private final LocalDate firstDay;
+    private final int days;
+    private final long[] productIds;
+    private final int[] currentStock;
+    private final int[] minStockLevel;
+    private final double[] demand;
+
+    private DemandMatrix(LocalDate firstDay, int days, long[] productIds, int[] currentStock,
+                         int[] minStockLevel, double[] demand) {
+        this.firstDay = firstDay;
+        this.days = days;
+        this.productIds = productIds;
+        this.currentStock = currentStock;
+        this.minStockLevel = minStockLevel;
+        this.demand = demand;
+    }
+
+    /**
+     * Felépítés kész kereslet tömbből (pl. szintetikus adat); készletszintek nélkül.
+     */
+    public static DemandMatrix of(LocalDate firstDay, int days, long[] productIds, double[] demand) {
+        if (demand.length != productIds.length * days) {
+            throw new IllegalArgumentException("Demand array size does not match products x days");
+        }
+        return new DemandMatrix(firstDay, days, productIds, new int[productIds.length],
+                new int[productIds.length], demand);
+    }
+
+    /**
+     * Felépítés productId szerint rendezett sorokból:
+     * productId, currentStock, minStockLevel, day (nullable), quantity (nullable).
+     */
+    public static DemandMatrix fromRows(List<Object[]> rows, LocalDate firstDay, int days) {
+        int n = 0;
+        Long previous = null;
+        for (Object[] row : rows) {
+            Long productId = (Long) row[0];
+            if (!productId.equals(previous)) {
+                n++;
+                previous = productId;
+            }
+        }
+
+        long[] productIds = new long[n];
+        int[] currentStock = new int[n];
+        int[] minStockLevel = new int[n];
+        double[] demand = new double[n * days];
+
+        int i = -1;
+        previous = null;
+        for (Object[] row : rows) {
+            Long productId = (Long) row[0];
+            if (!productId.equals(previous)) {
+                i++;
+                previous = productId;
+                productIds[i] = productId;
+                currentStock[i] = row[1] != null ? ((Number) row[1]).intValue() : 0;
+                minStockLevel[i] = row[2] != null ? ((Number) row[2]).intValue() : 0;
+            }
+            if (row[3] == null || row[4] == null) {
+                continue;
+            }
+            long offset = ChronoUnit.DAYS.between(firstDay, (LocalDate) row[3]);
+            if (offset >= 0 && offset < days) {
+                demand[i * days + (int) offset] += ((Number) row[4]).doubleValue();
+            }
+        }
+        return new DemandMatrix(firstDay, days, productIds, currentStock, minStockLevel, demand);
+    }
+
+    /**
+     * Felépítés ismert (növekvő) termék id-kból és napi sorokból: productId, day, quantity.
+     * Az ids közé nem eső termékek és az intervallumon kívüli napok sorai kimaradnak; készletszintek nélkül.
+     */
+    public static DemandMatrix fromDailyRows(long[] productIds, List<Object[]> rows, LocalDate firstDay, int days) {
+        double[] demand = new double[productIds.length * days];
+        for (Object[] row : rows) {
+            int i = Arrays.binarySearch(productIds, (Long) row[0]);
+            if (i < 0 || row[1] == null || row[2] == null) {
+                continue;
+            }
+            long offset = ChronoUnit.DAYS.between(firstDay, (LocalDate) row[1]);
+            if (offset >= 0 && offset < days) {
+                demand[i * days + (int) offset] += ((Number) row[2]).doubleValue();
+            }
+        }
+        return of(firstDay, days, productIds, demand);
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    public int days() {
+        return days;
+    }
+
+    public LocalDate firstDay() {
+        return firstDay;
+    }
+
+    public long productId(int i) {
+        return productIds[i];
+    }
+
+    public int currentStock(int i) {
+        return currentStock[i];
+    }
+
+    public int minStockLevel(int i) {
+        return minStockLevel[i];
+    }
+
+    public double demand(int i, int day) {
+        return demand[i * days + day];
+    }
+
+    /**
+     * Nyers tömb (csak olvasásra); az i. termék sora az i * days() indexen kezdődik.
+     */
+    public double[] demandArray() {
+        return demand;
+    }
+
+    public double total(int i) {
+        double sum = 0.0;
+        for (int d = i * days; d < (i + 1) * days; d++) {
+            sum += demand[d];
+        }
+        return sum;
+    }
+}
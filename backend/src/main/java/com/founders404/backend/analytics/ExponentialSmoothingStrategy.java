@@ -0,0 +1,28 @@
+package com.founders404.backend.analytics;
+
+/**
+ * Egyszerű exponenciális simítás (szint, trend nélkül).
+ */
+public class ExponentialSmoothingStrategy implements ForecastStrategy {
+
+    private final double alpha;
+
+    public ExponentialSmoothingStrategy(double alpha) {
+        this.alpha = alpha;
+    }
+
+    @Override
+    public String name() {
+        return "exponential-smoothing-" + alpha;
+    }
+
+    @Override
+    public void forecastSeries(double[] data, int offset, int length, double[] out) {
+        double level = 0.0;
+        for (int t = 0; t < length; t++) {
+            out[t] = level;
+            double demand = data[offset + t];
+            level = t == 0 ? demand : alpha * demand + (1 - alpha) * level;
+        }
+    }
+}
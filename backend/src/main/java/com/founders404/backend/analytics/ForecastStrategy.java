@@ -0,0 +1,16 @@
+package com.founders404.backend.analytics;
+
+/**
+ * Napi kereslet előrejelző stratégia backtestinghez.
+ * A stratégia egy idősoron végigmenve minden napra egylépéses előrejelzést ad,
+ * kizárólag az adott nap előtti adatok alapján.
+ */
+public interface ForecastStrategy {
+
+    String name();
+
+    /**
+     * out[t] = előrejelzés a data[offset + t] napra a data[offset .. offset + t) adatokból (t = 0: 0).
+     */
+    void forecastSeries(double[] data, int offset, int length, double[] out);
+}
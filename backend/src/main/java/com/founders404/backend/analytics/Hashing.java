@@ -0,0 +1,27 @@
+package com.founders404.backend.analytics;
+
+/**
+ * 64 bites hash függvények a sketch-ekhez (splitmix64 keverés).
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * Jól szórt 64 bites hash egy long értékből.
+     */
+    public static long mix64(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Seed-elt hash (pl. Count-Min soronként független hash-ei).
+     */
+    public static long mix64(long value, long seed) {
+        return mix64(value ^ mix64(seed));
+    }
+}
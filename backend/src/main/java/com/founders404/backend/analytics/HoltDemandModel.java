@@ -0,0 +1,146 @@
+package com.founders404.backend.analytics;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Egy termék online napi kereslet modellje (Holt-féle kettős exponenciális simítás).
+ * A folyamatban lévő nap mennyisége gyűlik; a nap lezárásakor frissül a szint, a trend és
+ * az egylépéses előrejelzési hiba exponenciálisan súlyozott varianciája.
+ * Egy mozgás rögzítése O(1); napváltáskor a kihagyott (0 keresletű) napok lépésenként zárulnak le.
+ */
+public class HoltDemandModel {
+
+    // Ennél hosszabb szünet után a modell már gyakorlatilag nullára simult
+    private static final int MAX_GAP_DAYS = 366;
+
+    public record Parameters(double alpha, double beta, double gamma) {
+    }
+
+    private double level;
+    private double trend;
+    private double variance;
+    private long observations;
+    private LocalDate lastDay;
+    private double pendingQuantity;
+    private long lastMovementId;
+
+    public HoltDemandModel() {
+    }
+
+    public HoltDemandModel(double level, double trend, double variance, long observations,
+                           LocalDate lastDay, double pendingQuantity, long lastMovementId) {
+        this.level = level;
+        this.trend = trend;
+        this.variance = variance;
+        this.observations = observations;
+        this.lastDay = lastDay;
+        this.pendingQuantity = pendingQuantity;
+        this.lastMovementId = lastMovementId;
+    }
+
+    /**
+     * Mozgás rögzítése; a duplikátumok szűrése a hívó dolga (DemandStateService, MovementIdWindow).
+     * A folyamatban lévő napnál korábbi mozgás a folyamatban lévő naphoz adódik.
+     * lastMovementId a legnagyobb beépült id (tájékoztató; a visszajátszás a lezárt napok alapján szűr).
+     */
+    public synchronized void record(LocalDate day, double quantity, long movementId, Parameters parameters) {
+        if (lastDay == null) {
+            lastDay = day;
+        } else if (day.isAfter(lastDay)) {
+            advanceTo(day, parameters);
+        }
+        pendingQuantity += quantity;
+        lastMovementId = Math.max(lastMovementId, movementId);
+    }
+
+    /**
+     * Egy teljes nap keresletének rögzítése (visszatöltéshez, napi aggregátumokból).
+     */
+    public synchronized void recordDay(LocalDate day, double quantity, Parameters parameters) {
+        record(day, quantity, 0L, parameters);
+    }
+
+    /**
+     * Következő napi kereslet előrejelzése az asOf napra (a lezárt napok alapján, >= 0).
+     */
+    public synchronized double forecastDaily(LocalDate asOf, Parameters parameters) {
+        HoltDemandModel projected = copy();
+        if (projected.lastDay != null && asOf.isAfter(projected.lastDay)) {
+            projected.advanceTo(asOf, parameters);
+        }
+        if (projected.observations == 0) {
+            // Még nincs lezárt nap: az első (folyamatban lévő) nap eddigi keresletét vesszük
+            return projected.pendingQuantity;
+        }
+        return Math.max(0.0, projected.level + projected.trend);
+    }
+
+    /**
+     * Egylépéses előrejelzési hiba szórása.
+     */
+    public synchronized double standardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    public synchronized HoltDemandModel copy() {
+        return new HoltDemandModel(level, trend, variance, observations, lastDay, pendingQuantity, lastMovementId);
+    }
+
+    public synchronized double getLevel() {
+        return level;
+    }
+
+    public synchronized double getTrend() {
+        return trend;
+    }
+
+    public synchronized double getVariance() {
+        return variance;
+    }
+
+    public synchronized long getObservations() {
+        return observations;
+    }
+
+    public synchronized LocalDate getLastDay() {
+        return lastDay;
+    }
+
+    public synchronized double getPendingQuantity() {
+        return pendingQuantity;
+    }
+
+    public synchronized long getLastMovementId() {
+        return lastMovementId;
+    }
+
+    /**
+     * A folyamatban lévő nap és a day előtti üres napok lezárása.
+     */
+    private void advanceTo(LocalDate day, Parameters parameters) {
+        observe(pendingQuantity, parameters);
+        long gap = Math.min(ChronoUnit.DAYS.between(lastDay, day) - 1, MAX_GAP_DAYS);
+        for (long i = 0; i < gap; i++) {
+            observe(0.0, parameters);
+        }
+        lastDay = day;
+        pendingQuantity = 0.0;
+    }
+
+    private void observe(double demand, Parameters parameters) {
+        if (observations == 0) {
+            level = demand;
+            trend = 0.0;
+            variance = 0.0;
+        } else {
+            double forecast = level + trend;
+            double error = demand - forecast;
+            double newLevel = parameters.alpha() * demand + (1 - parameters.alpha()) * forecast;
+            trend = parameters.beta() * (newLevel - level) + (1 - parameters.beta()) * trend;
+            level = newLevel;
+            variance = (1 - parameters.gamma()) * variance + parameters.gamma() * error * error;
+        }
+        observations++;
+    }
+}
@@ -0,0 +1,32 @@
+package com.founders404.backend.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * Az éles előrejelzés modellje (HoltDemandModel) stratégiaként: napról napra rögzíti a keresletet,
+ * és minden nap előtt a modell előrejelzését adja.
+ */
+public class HoltStrategy implements ForecastStrategy {
+
+    private final HoltDemandModel.Parameters parameters;
+
+    public HoltStrategy(HoltDemandModel.Parameters parameters) {
+        this.parameters = parameters;
+    }
+
+    @Override
+    public String name() {
+        return "holt-" + parameters.alpha() + "-" + parameters.beta();
+    }
+
+    @Override
+    public void forecastSeries(double[] data, int offset, int length, double[] out) {
+        HoltDemandModel model = new HoltDemandModel();
+        for (int t = 0; t < length; t++) {
+            // A modell csak a napok különbségét használja, a t. nap dátuma lehet az epoch + t
+            LocalDate day = LocalDate.ofEpochDay(t);
+            out[t] = t == 0 ? 0.0 : model.forecastDaily(day, parameters);
+            model.recordDay(day, data[offset + t], parameters);
+        }
+    }
+}
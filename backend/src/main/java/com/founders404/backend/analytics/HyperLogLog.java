@@ -0,0 +1,100 @@
+package com.founders404.backend.analytics;
+
+/**
+ * HyperLogLog számosság becslő (distinct count) konstans memóriával.
+ * Összefésülhető: két sketch uniója a regiszterek maximuma.
+ * Relatív standard hiba: 1.04 / sqrt(2^precision).
+ */
+public class HyperLogLog {
+
+    private final int precision;
+    private final int registerCount;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18: " + precision);
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.registers = new byte[registerCount];
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Elem hozzáadása (pl. productId, userId).
+     */
+    public void add(long value) {
+        addHash(Hashing.mix64(value));
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Másik sketch beolvasztása (unió).
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches with different precision");
+        }
+        for (int i = 0; i < registerCount; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Becsült különböző elemszám.
+     */
+    public long estimate() {
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = alpha() * registerCount * registerCount / sum;
+
+        // Kis tartomány korrekció: linear counting
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            estimate = registerCount * Math.log((double) registerCount / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Relatív standard hiba (1 szigma).
+     */
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registerCount);
+    }
+
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registerCount);
+        return copy;
+    }
+
+    private double alpha() {
+        return switch (registerCount) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1.0 + 1.079 / registerCount);
+        };
+    }
+}
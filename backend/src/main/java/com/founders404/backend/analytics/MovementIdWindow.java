@@ -0,0 +1,41 @@
+package com.founders404.backend.analytics;
+
+import java.util.TreeSet;
+
+/**
+ * Már feldolgozott mozgás id-k, az összes termékre közösen: egy vízszint, ami alatt minden feldolgozottnak számít,
+ * és a fölötte látott id-k korlátos halmaza. A később commitolt, kisebb id-jú mozgás így sem vész el,
+ * amíg a vízszint el nem hagyja (capacity újabb mozgás után).
+ */
+public class MovementIdWindow {
+
+    private final int capacity;
+    private long watermark;
+    private final TreeSet<Long> above = new TreeSet<>();
+
+    public MovementIdWindow(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Id megjelölése feldolgozottként.
+     * @return false, ha már feldolgozott volt (vagy a vízszint alá esik)
+     */
+    public synchronized boolean add(long movementId) {
+        if (movementId <= watermark || !above.add(movementId)) {
+            return false;
+        }
+        while (above.size() > capacity) {
+            watermark = above.pollFirst();
+        }
+        return true;
+    }
+
+    public synchronized long getWatermark() {
+        return watermark;
+    }
+
+    public synchronized int size() {
+        return above.size();
+    }
+}
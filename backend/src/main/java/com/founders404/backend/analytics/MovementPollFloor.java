@@ -0,0 +1,44 @@
+package com.founders404.backend.analytics;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Periodikus mozgás lekérdezés alsó határa (id vízszint). Minden lekérdezés a végén felvesz egy jelölőt
+ * (időpont, addig látott legnagyobb id); a margónál régebbi jelölők emelik a vízszintet. Ha egy mozgás a rögzítése
+ * után a margón belül commitolódik, a vízszint alatti id-k már mind commitolódtak, és egy korábbi lekérdezés
+ * beolvasta őket, így a lekérdezés költsége a vízszint feletti mozgásokkal arányos.
+ */
+public class MovementPollFloor {
+
+    private final Deque<Mark> marks = new ArrayDeque<>();
+    private long floor;
+    private long lastSeenId;
+
+    /**
+     * A vízszint emelése a since előtt felvett jelölőkkel.
+     * @return a lekérdezés alsó határa (ennél nagyobb id-kat kell olvasni)
+     */
+    public synchronized long advance(LocalDateTime since) {
+        while (!marks.isEmpty() && !marks.peekFirst().at().isAfter(since)) {
+            floor = Math.max(floor, marks.pollFirst().maxId());
+        }
+        return floor;
+    }
+
+    /**
+     * Jelölő a lekérdezés végén: a lastId-ig tartó mozgások id-ja ez előtt kiosztódott.
+     */
+    public synchronized void mark(long lastId, LocalDateTime at) {
+        lastSeenId = Math.max(lastSeenId, lastId);
+        marks.addLast(new Mark(at, lastSeenId));
+    }
+
+    public synchronized long getFloor() {
+        return floor;
+    }
+
+    private record Mark(LocalDateTime at, long maxId) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.founders404.backend.analytics;
+
+/**
+ * Mozgóátlag az utolsó window napra (a korábbi PredictionService módszere), futó összeggel O(1) / nap.
+ */
+public class MovingAverageStrategy implements ForecastStrategy {
+
+    private final int window;
+
+    public MovingAverageStrategy(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.window = window;
+    }
+
+    @Override
+    public String name() {
+        return "moving-average-" + window;
+    }
+
+    @Override
+    public void forecastSeries(double[] data, int offset, int length, double[] out) {
+        double sum = 0.0;
+        for (int t = 0; t < length; t++) {
+            int count = Math.min(t, window);
+            out[t] = count == 0 ? 0.0 : sum / count;
+            sum += data[offset + t];
+            if (t >= window) {
+                sum -= data[offset + t - window];
+            }
+        }
+    }
+}
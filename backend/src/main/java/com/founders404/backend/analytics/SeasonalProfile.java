@@ -0,0 +1,72 @@
+package com.founders404.backend.analytics;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Arrays;
+
+/**
+ * Termék multiplikatív szezonális indexei: hét napjai (hétfő..vasárnap) és hónapok (január..december).
+ * Átlaguk 1; szezonalitás nélkül minden index 1.
+ */
+public record SeasonalProfile(double[] weekly, double[] monthly) {
+
+    public static final SeasonalProfile FLAT = new SeasonalProfile(fill(7), fill(12));
+
+    // Év napja (0-tól) -> hónap (0-tól), sima és szökőévre
+    private static final int[] MONTH_OF_DAY = monthOfDay(2025);
+    private static final int[] MONTH_OF_DAY_LEAP = monthOfDay(2024);
+
+    public double index(LocalDate day) {
+        return weekly[day.getDayOfWeek().getValue() - 1] * monthly[day.getMonthValue() - 1];
+    }
+
+    /**
+     * Átlagos index a [from, from + days) intervallumban osztva az előtte lévő baselineDays nap átlagos indexével.
+     * Az előrejelző modell szintje a közelmúlt keresletét követi (abban már benne van az akkori szezon),
+     * ezért a jövőbeli időszakot ahhoz viszonyítjuk.
+     */
+    public double factor(LocalDate from, int days, int baselineDays) {
+        double target = averageIndex(from, days);
+        double baseline = averageIndex(from.minusDays(baselineDays), baselineDays);
+        return baseline > 0.0 ? target / baseline : 1.0;
+    }
+
+    // A hét napja és az év napja léptetve, napi LocalDate nélkül
+    private double averageIndex(LocalDate from, int days) {
+        if (days <= 0) {
+            return 1.0;
+        }
+        int dow = from.getDayOfWeek().getValue() - 1;
+        int year = from.getYear();
+        int dayOfYear = from.getDayOfYear() - 1;
+        int[] months = Year.isLeap(year) ? MONTH_OF_DAY_LEAP : MONTH_OF_DAY;
+        double sum = 0.0;
+        for (int d = 0; d < days; d++) {
+            sum += weekly[dow] * monthly[months[dayOfYear]];
+            if (++dow == 7) {
+                dow = 0;
+            }
+            if (++dayOfYear == months.length) {
+                dayOfYear = 0;
+                months = Year.isLeap(++year) ? MONTH_OF_DAY_LEAP : MONTH_OF_DAY;
+            }
+        }
+        return sum / days;
+    }
+
+    private static int[] monthOfDay(int year) {
+        int[] months = new int[Year.of(year).length()];
+        LocalDate day = LocalDate.of(year, 1, 1);
+        for (int d = 0; d < months.length; d++) {
+            months[d] = day.getMonthValue() - 1;
+            day = day.plusDays(1);
+        }
+        return months;
+    }
+
+    private static double[] fill(int length) {
+        double[] values = new double[length];
+        Arrays.fill(values, 1.0);
+        return values;
+    }
+}
@@ -0,0 +1,204 @@
+package com.founders404.backend.analytics;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Heti és éves szezonalitás felismerése napi kereslet idősorokon autokorrelációval.
+ * Heti: a centrált 7 napos mozgóátlagtól vett eltérés (trend nélkül) autokorrelációja 7 napos késleltetésnél.
+ * Éves: heti összegekből, lineáris trend levonása után, 52 hetes késleltetésnél (legalább 2 év adat kell).
+ * Felismert szezonalitásnál multiplikatív indexek (hét napja, hónap), különben 1.
+ */
+public final class SeasonalityDetector {
+
+    public static final int WEEK = 7;
+    public static final int YEAR_WEEKS = 52;
+
+    private SeasonalityDetector() {
+    }
+
+    /**
+     * @param weeklyIndices  [i * 7 + k] = i. termék indexe a hét k. napján (hétfő = 0)
+     * @param monthlyIndices [i * 12 + m] = i. termék indexe az m. hónapban (január = 0)
+     */
+    public record Result(int products, double[] weeklyStrength, double[] yearlyStrength,
+                         boolean[] weeklySeasonal, boolean[] yearlySeasonal,
+                         double[] weeklyIndices, double[] monthlyIndices) {
+
+        public SeasonalProfile profile(int i) {
+            return new SeasonalProfile(Arrays.copyOfRange(weeklyIndices, i * 7, i * 7 + 7),
+                    Arrays.copyOfRange(monthlyIndices, i * 12, i * 12 + 12));
+        }
+    }
+
+    /**
+     * Az egész mátrix elemzése termékenként párhuzamosan.
+     * @param minAutocorrelation e fölötti autokorrelációnál számít szezonálisnak
+     */
+    public static Result detect(DemandMatrix matrix, double minAutocorrelation) {
+        int n = matrix.size();
+        int days = matrix.days();
+        double[] demand = matrix.demandArray();
+        LocalDate firstDay = matrix.firstDay();
+        int firstDow = firstDay.getDayOfWeek().getValue() - 1;
+
+        double[] weeklyStrength = new double[n];
+        double[] yearlyStrength = new double[n];
+        boolean[] weeklySeasonal = new boolean[n];
+        boolean[] yearlySeasonal = new boolean[n];
+        double[] weeklyIndices = new double[n * 7];
+        double[] monthlyIndices = new double[n * 12];
+        Arrays.fill(weeklyIndices, 1.0);
+        Arrays.fill(monthlyIndices, 1.0);
+
+        // Napi hónap index előre (minden termékre ugyanaz)
+        int[] monthOfDay = new int[days];
+        for (int d = 0; d < days; d++) {
+            monthOfDay[d] = firstDay.plusDays(d).getMonthValue() - 1;
+        }
+        int weeks = days / WEEK;
+        ThreadLocal<double[]> residuals = ThreadLocal.withInitial(() -> new double[Math.max(days, 1)]);
+
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int offset = i * days;
+            if (matrix.total(i) <= 0.0) {
+                return;
+            }
+            double[] buffer = residuals.get();
+
+            if (days >= 4 * WEEK) {
+                weeklyStrength[i] = weeklyAutocorrelation(demand, offset, days, buffer);
+                if (weeklyStrength[i] >= minAutocorrelation) {
+                    weeklySeasonal[i] = true;
+                    weeklyIndices(demand, offset, weeks * WEEK, firstDow, weeklyIndices, i * 7);
+                }
+            }
+            if (weeks >= 2 * YEAR_WEEKS) {
+                yearlyStrength[i] = yearlyAutocorrelation(demand, offset, weeks, buffer);
+                if (yearlyStrength[i] >= minAutocorrelation) {
+                    yearlySeasonal[i] = true;
+                    monthlyIndices(demand, offset, days, monthOfDay, monthlyIndices, i * 12);
+                }
+            }
+        });
+
+        return new Result(n, weeklyStrength, yearlyStrength, weeklySeasonal, yearlySeasonal, weeklyIndices, monthlyIndices);
+    }
+
+    /**
+     * Minta autokorreláció adott késleltetésnél (0, ha a sor konstans).
+     */
+    public static double autocorrelation(double[] data, int offset, int length, int lag) {
+        if (lag <= 0 || lag >= length) {
+            return 0.0;
+        }
+        double mean = 0.0;
+        for (int t = offset; t < offset + length; t++) {
+            mean += data[t];
+        }
+        mean /= length;
+
+        double denominator = 0.0;
+        double numerator = 0.0;
+        for (int t = offset; t < offset + length; t++) {
+            double centered = data[t] - mean;
+            denominator += centered * centered;
+            if (t + lag < offset + length) {
+                numerator += centered * (data[t + lag] - mean);
+            }
+        }
+        return denominator > 1e-12 ? numerator / denominator : 0.0;
+    }
+
+    private static double weeklyAutocorrelation(double[] demand, int offset, int days, double[] buffer) {
+        // Centrált 7 napos mozgóátlag levonása (görgetett összeggel)
+        int half = WEEK / 2;
+        int length = days - 2 * half;
+        double window = 0.0;
+        for (int t = 0; t < WEEK; t++) {
+            window += demand[offset + t];
+        }
+        for (int t = half; t < days - half; t++) {
+            if (t > half) {
+                window += demand[offset + t + half] - demand[offset + t - half - 1];
+            }
+            buffer[t - half] = demand[offset + t] - window / WEEK;
+        }
+        return autocorrelation(buffer, 0, length, WEEK);
+    }
+
+    private static double yearlyAutocorrelation(double[] demand, int offset, int weeks, double[] buffer) {
+        for (int w = 0; w < weeks; w++) {
+            double sum = 0.0;
+            for (int d = 0; d < WEEK; d++) {
+                sum += demand[offset + w * WEEK + d];
+            }
+            buffer[w] = sum;
+        }
+        removeLinearTrend(buffer, weeks);
+        return autocorrelation(buffer, 0, weeks, YEAR_WEEKS);
+    }
+
+    private static void removeLinearTrend(double[] data, int length) {
+        double meanX = (length - 1) / 2.0;
+        double meanY = 0.0;
+        for (int t = 0; t < length; t++) {
+            meanY += data[t];
+        }
+        meanY /= length;
+        double sxy = 0.0;
+        double sxx = 0.0;
+        for (int t = 0; t < length; t++) {
+            sxy += (t - meanX) * (data[t] - meanY);
+            sxx += (t - meanX) * (t - meanX);
+        }
+        double slope = sxx > 0.0 ? sxy / sxx : 0.0;
+        for (int t = 0; t < length; t++) {
+            data[t] -= meanY + slope * (t - meanX);
+        }
+    }
+
+    // Hét napjainak átlaga / teljes átlag (csak teljes heteken, hogy minden nap egyformán szerepeljen)
+    private static void weeklyIndices(double[] demand, int offset, int days, int firstDow, double[] out, int outOffset) {
+        double[] sums = new double[WEEK];
+        double total = 0.0;
+        for (int d = 0; d < days; d++) {
+            sums[(firstDow + d) % WEEK] += demand[offset + d];
+            total += demand[offset + d];
+        }
+        double mean = total / WEEK;
+        if (mean <= 0.0) {
+            return;
+        }
+        for (int k = 0; k < WEEK; k++) {
+            out[outOffset + k] = sums[k] / mean;
+        }
+    }
+
+    // Hónapok átlagos napi kereslete / teljes átlag (a lefedett hónapok indexeinek átlaga 1)
+    private static void monthlyIndices(double[] demand, int offset, int days, int[] monthOfDay,
+                                       double[] out, int outOffset) {
+        double[] sums = new double[12];
+        int[] counts = new int[12];
+        for (int d = 0; d < days; d++) {
+            sums[monthOfDay[d]] += demand[offset + d];
+            counts[monthOfDay[d]]++;
+        }
+        double sumOfMeans = 0.0;
+        int covered = 0;
+        for (int m = 0; m < 12; m++) {
+            if (counts[m] > 0) {
+                sumOfMeans += sums[m] / counts[m];
+                covered++;
+            }
+        }
+        double mean = covered > 0 ? sumOfMeans / covered : 0.0;
+        if (mean <= 0.0) {
+            return;
+        }
+        for (int m = 0; m < 12; m++) {
+            out[outOffset + m] = counts[m] > 0 ? sums[m] / counts[m] / mean : 1.0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.founders404.backend.analytics;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo készlethiány szimuláció.
+ * Termékenként trials darab keresleti pályát húz a historikus napi keresletből (visszatevéses mintavétel,
+ * a nulla keresletű napokkal együtt), és megnézi, hányadik napon fogy el a készlet.
+ * Termékenként párhuzamosan fut; a belső ciklusok primitívek és szálanként újrahasznált pufferekkel dolgoznak.
+ * A termék véletlenszám-generátora (seed, productId)-ből származik, így az eredmény független az ütemezéstől.
+ */
+public final class StockoutSimulator {
+
+    private StockoutSimulator() {
+    }
+
+    /**
+     * @param percentiles            kért percentilisek (0..1)
+     * @param stockoutProbability    termékenként P(elfogy a horizonton belül)
+     * @param stockoutDayPercentiles [i * p + k] = i. termék k. percentilis elfogyási napja (horizon + 1: nem fogy el)
+     * @param demandPercentiles      [i * p + k] = i. termék horizontra összesített keresletének k. percentilise
+     */
+    public record Result(int products, int horizonDays, int trials, double[] percentiles,
+                         double[] stockoutProbability, int[] stockoutDayPercentiles, double[] demandPercentiles,
+                         long elapsedNanos) {
+
+        public double skusPerMinute() {
+            return elapsedNanos > 0 ? products * 60_000_000_000.0 / elapsedNanos : 0.0;
+        }
+    }
+
+    /**
+     * Szimuláció a mátrix aktuális készletszintjeivel.
+     */
+    public static Result simulate(DemandMatrix matrix, int horizonDays, int trials, long seed, double[] percentiles) {
+        int[] stock = new int[matrix.size()];
+        for (int i = 0; i < stock.length; i++) {
+            stock[i] = matrix.currentStock(i);
+        }
+        return simulate(matrix, stock, horizonDays, trials, seed, percentiles);
+    }
+
+    public static Result simulate(DemandMatrix matrix, int[] stock, int horizonDays, int trials, long seed,
+                                  double[] percentiles) {
+        if (horizonDays < 1) {
+            throw new IllegalArgumentException("Horizon must be at least 1 day");
+        }
+        if (trials < 1) {
+            throw new IllegalArgumentException("Trials must be at least 1");
+        }
+        for (double p : percentiles) {
+            if (p < 0.0 || p > 1.0) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 1: " + p);
+            }
+        }
+
+        int n = matrix.size();
+        int days = matrix.days();
+        int p = percentiles.length;
+        double[] demand = matrix.demandArray();
+        double[] probability = new double[n];
+        int[] stockoutDays = new int[n * p];
+        double[] demandQuantiles = new double[n * p];
+
+        ThreadLocal<int[]> histograms = ThreadLocal.withInitial(() -> new int[horizonDays + 2]);
+        ThreadLocal<double[]> totals = ThreadLocal.withInitial(() -> new double[trials]);
+
+        long started = System.nanoTime();
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int[] histogram = histograms.get();
+            double[] total = totals.get();
+            Arrays.fill(histogram, 0);
+            SplittableRandom random = new SplittableRandom(Hashing.mix64(matrix.productId(i), seed));
+            simulateProduct(demand, i * days, days, stock[i], horizonDays, trials, random, histogram, total);
+
+            probability[i] = 1.0 - (double) histogram[horizonDays + 1] / trials;
+            Arrays.sort(total, 0, trials);
+            for (int k = 0; k < p; k++) {
+                int rank = rank(percentiles[k], trials);
+                stockoutDays[i * p + k] = histogramValue(histogram, rank);
+                demandQuantiles[i * p + k] = total[rank];
+            }
+        });
+        long elapsed = System.nanoTime() - started;
+
+        return new Result(n, horizonDays, trials, percentiles.clone(), probability, stockoutDays, demandQuantiles, elapsed);
+    }
+
+    /**
+     * Egy termék trials pályája. histogram[d] = d. napon elfogyott pályák száma
+     * (0: már most nincs készlet, horizon + 1: nem fogyott el), total[t] = t. pálya összes kereslete.
+     */
+    static void simulateProduct(double[] demand, int offset, int days, int stock, int horizonDays, int trials,
+                                SplittableRandom random, int[] histogram, double[] total) {
+        int noStockout = horizonDays + 1;
+        for (int t = 0; t < trials; t++) {
+            double cumulative = 0.0;
+            int stockoutDay = stock <= 0 ? 0 : noStockout;
+            for (int d = 1; d <= horizonDays; d++) {
+                cumulative += demand[offset + random.nextInt(days)];
+                if (stockoutDay == noStockout && cumulative >= stock) {
+                    stockoutDay = d;
+                }
+            }
+            histogram[stockoutDay]++;
+            total[t] = cumulative;
+        }
+    }
+
+    // Legközelebbi rang módszer (0 alapú index)
+    private static int rank(double percentile, int trials) {
+        int rank = (int) Math.ceil(percentile * trials) - 1;
+        return Math.max(0, Math.min(trials - 1, rank));
+    }
+
+    private static int histogramValue(int[] histogram, int rank) {
+        int cumulative = 0;
+        for (int d = 0; d < histogram.length; d++) {
+            cumulative += histogram[d];
+            if (cumulative > rank) {
+                return d;
+            }
+        }
+        return histogram.length - 1;
+    }
+}
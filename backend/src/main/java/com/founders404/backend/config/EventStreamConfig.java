@@ -0,0 +1,35 @@
+package com.founders404.backend.config;
+
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tomcat kapcsolat limit az SSE kapcsolatokhoz.
+ * A tétlen SSE kapcsolat nem foglal szálat, de a Tomcat alapból 8192 nyitott kapcsolatnál többet nem fogad el;
+ * a limit legalább events.max-connections + tartalék lesz (a magasabb explicit beállítás megmarad).
+ */
+@Configuration
+public class EventStreamConfig {
+
+    @Value("${events.max-connections:20000}")
+    private int maxEventConnections = 20_000;
+
+    // A normál REST kérések kapcsolatai
+    @Value("${events.reserved-connections:1000}")
+    private int reservedConnections = 1_000;
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> eventStreamConnectionCustomizer() {
+        int required = maxEventConnections + reservedConnections;
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            if (connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol
+                    && protocol.getMaxConnections() < required) {
+                protocol.setMaxConnections(required);
+            }
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.founders404.backend.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate JDBC batch beállítások a tömeges (batch job) mentésekhez.
+ * IDENTITY id-s entitásoknál a Hibernate úgyis egyesével szúr be, rájuk nincs hatása.
+ */
+@Configuration
+public class JpaBatchConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", 500);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.founders404.backend.controller;
+
+import com.founders404.backend.dto.DashboardSummaryDTO;
+import com.founders404.backend.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dashboard REST API.
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    /**
+     * Dashboard összesítő egy kérésben.
+     * GET /api/dashboard/summary?companyId=1&startDate=...&endDate=...
+     * Alapértelmezett intervallum: utolsó 30 nap.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<DashboardSummaryDTO> getSummary(
+            @RequestParam(required = false) Long companyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "5") int topLimit,
+            @RequestParam(defaultValue = "10") int recentLimit) {
+        LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
+        LocalDateTime start = startDate != null ? startDate : end.minusDays(30);
+        return ResponseEntity.ok(dashboardService.getSummary(companyId, start, end, topLimit, recentLimit));
+    }
+}
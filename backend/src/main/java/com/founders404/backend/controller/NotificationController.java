@@ -1,17 +1,28 @@
 package com.founders404.backend.controller;
 
-import com.founders404.backend.model.Notification;
+import com.founders404.backend.dto.NotificationResponse;
+import com.founders404.backend.model.NotificationType;
 import com.founders404.backend.model.Product;
 import com.founders404.backend.model.User;
 import com.founders404.backend.repository.ProductRepository;
-import com.founders404.backend.service.NotificationService;
+import com.founders404.backend.service.EventStreamService;
+import com.founders404.backend.service.NotificationRetentionService;
 import com.founders404.backend.service.NotificationScheduler;
+import com.founders404.backend.service.NotificationService;
+import com.founders404.backend.service.ScheduledJobService;
+import com.founders404.backend.service.UnreadCounterService;
 import com.founders404.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,17 +39,29 @@ public class NotificationController {
     private final NotificationService notificationService;
     private final UserService userService;
     private final NotificationScheduler notificationScheduler;
+    private final EventStreamService eventStreamService;
+    private final UnreadCounterService unreadCounterService;
+    private final NotificationRetentionService notificationRetentionService;
+    private final ScheduledJobService scheduledJobService;
     private final ProductRepository productRepository;
 
     /**
-     * Aktuális user összes értesítése.
-     * GET /api/notifications
+     * Aktuális user értesítései lapozva, legújabb elöl (keyset: a következő oldal a nextCursor értékkel).
+     * GET /api/notifications?limit=50&cursor=...
      */
     @GetMapping
-    public ResponseEntity<List<Notification>> getUserNotifications(Authentication authentication) {
+    public ResponseEntity<Object> getUserNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication
+    ) {
         User user = getCurrentUser(authentication);
-        List<Notification> notifications = notificationService.getUserNotifications(user.getId());
-        return ResponseEntity.ok(notifications);
+        try {
+            return ResponseEntity.ok(notificationService.listNotifications(user, cursor, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -46,9 +69,9 @@ public class NotificationController {
      * GET /api/notifications/unread
      */
     @GetMapping("/unread")
-    public ResponseEntity<List<Notification>> getUnreadNotifications(Authentication authentication) {
+    public ResponseEntity<List<NotificationResponse>> getUnreadNotifications(Authentication authentication) {
         User user = getCurrentUser(authentication);
-        List<Notification> unreadNotifications = notificationService.getUnreadNotifications(user.getId());
+        List<NotificationResponse> unreadNotifications = notificationService.getUnreadNotifications(user);
         return ResponseEntity.ok(unreadNotifications);
     }
 
@@ -59,10 +82,26 @@ public class NotificationController {
     @GetMapping("/unread-count")
     public ResponseEntity<Map<String, Long>> getUnreadCount(Authentication authentication) {
         User user = getCurrentUser(authentication);
-        long count = notificationService.getUnreadCount(user.getId());
+        long count = unreadCounterService.getUnreadCount(user);
         return ResponseEntity.ok(Map.of("unreadCount", count));
     }
 
+    /**
+     * Élő esemény folyam (SSE): új értesítések ("notification") és a cég készletváltozásai ("stock").
+     * Az EventSource nem tud headert küldeni, ezért a token query paraméterben is jöhet.
+     * GET /api/notifications/stream?token=...
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        try {
+            return eventStreamService.subscribe(user);
+        } catch (RuntimeException e) {
+            // Az emitter típusú válasz nem lehet JSON hiba body
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
     /**
      * Értesítés megjelölése olvasottként.
      * PUT /api/notifications/{id}/read
@@ -80,15 +119,50 @@ public class NotificationController {
         return ResponseEntity.ok(Map.of("message", "Notification marked as read"));
     }
 
+    /**
+     * Cégszintű értesítés megjelölése olvasottként.
+     * PUT /api/notifications/company/{id}/read
+     */
+    @PutMapping("/company/{id}/read")
+    public ResponseEntity<Object> markCompanyNotificationAsRead(
+            @PathVariable Long id,
+            Authentication authentication
+    ) {
+        User user = getCurrentUser(authentication);
+        try {
+            notificationService.markCompanyNotificationAsRead(id, user);
+            return ResponseEntity.ok(Map.of("message", "Notification marked as read"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Összes értesítés megjelölése olvasottként.
      * PUT /api/notifications/mark-all-read
      */
     @PutMapping("/mark-all-read")
-    public ResponseEntity<Map<String, String>> markAllAsRead(Authentication authentication) {
+    public ResponseEntity<Map<String, Object>> markAllAsRead(Authentication authentication) {
         User user = getCurrentUser(authentication);
-        notificationService.markAllAsRead(user.getId());
-        return ResponseEntity.ok(Map.of("message", "All notifications marked as read"));
+        long updated = notificationService.markAllAsRead(user);
+        return ResponseEntity.ok(Map.of("message", "All notifications marked as read", "updated", updated));
+    }
+
+    /**
+     * Tömeges olvasottra jelölés típus, termék és/vagy időpont szerint (a szűrők ÉS kapcsolatban).
+     * PUT /api/notifications/mark-read?type=LOW_STOCK&productId=1&before=2025-01-31T00:00:00
+     */
+    @PutMapping("/mark-read")
+    public ResponseEntity<Map<String, Object>> markRead(
+            @RequestParam(required = false) NotificationType type,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            Authentication authentication
+    ) {
+        User user = getCurrentUser(authentication);
+        long updated = notificationService.markRead(user, type, productId, before);
+        return ResponseEntity.ok(Map.of("message", "Notifications marked as read", "updated", updated));
     }
 
     /**
@@ -123,9 +197,8 @@ public class NotificationController {
                 .collect(Collectors.toList());
         debugInfo.put("lowStockProducts", lowStockDetails);
 
-        // Aktuális user értesítései
-        List<Notification> userNotifications = notificationService.getUserNotifications(user.getId());
-        debugInfo.put("userNotificationsCount", userNotifications.size());
+        // Aktuális user olvasatlan értesítései
+        debugInfo.put("userUnreadCount", unreadCounterService.getUnreadCount(user));
 
         // Összes értesítés az adatbázisban
         debugInfo.put("message", "Run /api/notifications/debug/run-scheduler to trigger scheduler now");
@@ -134,17 +207,55 @@ public class NotificationController {
     }
 
     /**
-     * DEBUG: Scheduler manuális futtatás - teszteléshez
+     * Ütemezett jobok statisztikái: futási idő, késés, kimaradt futások (csak SYSTEM_ADMIN)
+     * GET /api/notifications/debug/jobs
+     */
+    @GetMapping("/debug/jobs")
+    public ResponseEntity<Object> getJobStats(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        if (!user.isSystemAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only system admins can view scheduled job statistics"));
+        }
+        return ResponseEntity.ok(scheduledJobService.getStats());
+    }
+
+    /**
+     * DEBUG: Scheduler manuális indítása (csak SYSTEM_ADMIN) - teszteléshez
      * POST /api/notifications/debug/run-scheduler
      */
     @PostMapping("/debug/run-scheduler")
     public ResponseEntity<Map<String, String>> runSchedulerManually(Authentication authentication) {
         User user = getCurrentUser(authentication);
-        System.out.println("\n!!! MANUAL SCHEDULER RUN TRIGGERED BY " + user.getUsername() + " !!!");
-        
-        notificationScheduler.checkLowStock();
-        
-        return ResponseEntity.ok(Map.of("message", "Scheduler ran manually. Check backend console logs for details."));
+        if (!user.isSystemAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only system admins can run the stock alert reconciliation"));
+        }
+        if (!notificationScheduler.reconcileNow()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Stock alert reconciliation is already running"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Map.of("message", "Stock alert reconciliation queued. Check backend logs for details."));
+    }
+
+    /**
+     * DEBUG: Retention törlés manuális indítása (csak SYSTEM_ADMIN) - teszteléshez
+     * POST /api/notifications/debug/run-retention
+     */
+    @PostMapping("/debug/run-retention")
+    public ResponseEntity<Map<String, String>> runRetentionManually(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        if (!user.isSystemAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only system admins can run the retention purge"));
+        }
+        if (!notificationRetentionService.purgeNow()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Retention purge is already running"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Map.of("message", "Retention purge queued. Check backend logs for details."));
     }
 
     /**
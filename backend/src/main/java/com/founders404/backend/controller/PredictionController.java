@@ -1,33 +1,265 @@
 package com.founders404.backend.controller;
 
+import com.founders404.backend.dto.BacktestReportDTO;
 import com.founders404.backend.dto.ReorderPointDTO;
 import com.founders404.backend.dto.StockForecastDTO;
-import com.founders404.backend.service.PredictionService;
+import com.founders404.backend.model.ProductSeasonality;
+import com.founders404.backend.model.User;
+import com.founders404.backend.service.BacktestService;
+import com.founders404.backend.service.ForecastService;
+import com.founders404.backend.service.SeasonalityService;
+import com.founders404.backend.service.StockoutSimulationService;
+import com.founders404.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/predictions")
 @RequiredArgsConstructor
 public class PredictionController {
 
-    private final PredictionService predictionService;
+    private final ForecastService forecastService;
+    private final BacktestService backtestService;
+    private final StockoutSimulationService stockoutSimulationService;
+    private final SeasonalityService seasonalityService;
+    private final UserService userService;
 
     @GetMapping("/stock-forecast/{productId}")
     public ResponseEntity<StockForecastDTO> getStockForecast(@PathVariable Long productId) {
-        return ResponseEntity.ok(predictionService.predictStockRunout(productId));
+        return ResponseEntity.ok(forecastService.getForecast(productId));
     }
 
     @GetMapping("/stock-forecast")
-    public ResponseEntity<List<StockForecastDTO>> getCriticalStockForecasts() {
-        return ResponseEntity.ok(predictionService.getCriticalStockPredictions());
+    public ResponseEntity<List<StockForecastDTO>> getCriticalStockForecasts(
+            @RequestParam(required = false) Long companyId) {
+        return ResponseEntity.ok(forecastService.getCriticalForecasts(companyId));
     }
 
     @GetMapping("/reorder-recommendations")
-    public ResponseEntity<List<ReorderPointDTO>> getReorderRecommendations() {
-        return ResponseEntity.ok(predictionService.getReorderRecommendations());
+    public ResponseEntity<List<ReorderPointDTO>> getReorderRecommendations(
+            @RequestParam(required = false) Long companyId) {
+        return ResponseEntity.ok(forecastService.getReorderRecommendations(companyId));
+    }
+
+    /**
+     * Előrejelzés job kézi indítása (háttérben fut, csak SYSTEM_ADMIN).
+     * POST /api/predictions/forecast-job/run
+     */
+    @PostMapping("/forecast-job/run")
+    public ResponseEntity<Object> runForecastJob(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        if (!user.isSystemAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only system admins can run the forecast job"));
+        }
+        if (!forecastService.startJob()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Forecast job is already running"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(forecastService.getJobStatus());
+    }
+
+    @GetMapping("/forecast-job")
+    public ResponseEntity<Map<String, Object>> getForecastJobStatus() {
+        return ResponseEntity.ok(forecastService.getJobStatus());
+    }
+
+    /**
+     * Előrejelző stratégiák visszamérése a tényleges mozgásokon (nem admin csak a saját cégén).
+     * GET /api/predictions/backtest?companyId=1&days=365&warmupDays=30
+     */
+    @GetMapping("/backtest")
+    public ResponseEntity<Object> backtestHistory(
+            @RequestParam(required = false) Long companyId,
+            @RequestParam(defaultValue = "365") int days,
+            @RequestParam(defaultValue = "30") int warmupDays,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        if (!canAccessCompany(user, companyId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "You can only backtest your own company"));
+        }
+        try {
+            BacktestReportDTO report = backtestService.runHistorical(scopedCompanyId(user, companyId), days, warmupDays);
+            return ResponseEntity.ok(report);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Visszamérés szintetikus, többéves adathalmazon (csak SYSTEM_ADMIN).
+     * GET /api/predictions/backtest/synthetic?products=1000&years=3&seed=42&warmupDays=30
+     */
+    @GetMapping("/backtest/synthetic")
+    public ResponseEntity<Object> backtestSynthetic(
+            @RequestParam(defaultValue = "1000") int products,
+            @RequestParam(defaultValue = "3") int years,
+            @RequestParam(defaultValue = "42") long seed,
+            @RequestParam(defaultValue = "30") int warmupDays,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        if (!user.isSystemAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only system admins can run synthetic backtests"));
+        }
+        try {
+            BacktestReportDTO report = backtestService.runSynthetic(products, years, seed, warmupDays);
+            return ResponseEntity.ok(report);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Készlethiány valószínűség Monte Carlo szimulációval, kockázat szerint rendezve (nem admin csak a saját cégén).
+     * GET /api/predictions/stockout-risk?companyId=1&horizonDays=30&trials=2000
+     */
+    @GetMapping("/stockout-risk")
+    public ResponseEntity<Object> getStockoutRisk(
+            @RequestParam(required = false) Long companyId,
+            @RequestParam(defaultValue = "30") int horizonDays,
+            @RequestParam(defaultValue = "2000") int trials,
+            @RequestParam(defaultValue = "90") int historyDays,
+            @RequestParam(defaultValue = "42") long seed,
+            @RequestParam(defaultValue = "0") double minProbability,
+            @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        if (!canAccessCompany(user, companyId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "You can only simulate your own company"));
+        }
+        try {
+            return ResponseEntity.ok(stockoutSimulationService.simulateCompany(
+                    scopedCompanyId(user, companyId), horizonDays, trials, historyDays, seed, minProbability, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Egy termék készlethiány szimulációja.
+     * GET /api/predictions/stockout-risk/5?horizonDays=30
+     */
+    @GetMapping("/stockout-risk/{productId}")
+    public ResponseEntity<Object> getProductStockoutRisk(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "30") int horizonDays,
+            @RequestParam(defaultValue = "2000") int trials,
+            @RequestParam(defaultValue = "90") int historyDays,
+            @RequestParam(defaultValue = "42") long seed) {
+        try {
+            return ResponseEntity.ok(stockoutSimulationService.simulateProduct(
+                    productId, horizonDays, trials, historyDays, seed));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Szimuláció áteresztőképesség mérése szintetikus termékeken (csak SYSTEM_ADMIN).
+     * GET /api/predictions/stockout-risk/benchmark?products=20000&trials=1000
+     */
+    @GetMapping("/stockout-risk/benchmark")
+    public ResponseEntity<Object> benchmarkStockoutSimulation(
+            @RequestParam(defaultValue = "10000") int products,
+            @RequestParam(defaultValue = "30") int horizonDays,
+            @RequestParam(defaultValue = "1000") int trials,
+            @RequestParam(defaultValue = "365") int historyDays,
+            @RequestParam(defaultValue = "42") long seed,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        if (!user.isSystemAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only system admins can run the stockout simulation benchmark"));
+        }
+        try {
+            return ResponseEntity.ok(stockoutSimulationService.benchmark(products, horizonDays, trials, historyDays, seed));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Cég termékeinek felismert szezonalitása (az utolsó batch futás eredménye).
+     * GET /api/predictions/seasonality?companyId=1
+     */
+    @GetMapping("/seasonality")
+    public ResponseEntity<List<ProductSeasonality>> getSeasonality(@RequestParam(required = true) Long companyId) {
+        return ResponseEntity.ok(seasonalityService.findByCompanyId(companyId));
+    }
+
+    /**
+     * Egy termék szezonalitása.
+     * GET /api/predictions/seasonality/5
+     */
+    @GetMapping("/seasonality/{productId}")
+    public ResponseEntity<Object> getProductSeasonality(@PathVariable Long productId) {
+        return seasonalityService.findByProductId(productId)
+                .<ResponseEntity<Object>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "No seasonality analysis for product " + productId)));
+    }
+
+    /**
+     * Szezonalitás elemzés kézi indítása egy cégre (csak SYSTEM_ADMIN).
+     * POST /api/predictions/seasonality/run?companyId=1
+     */
+    @PostMapping("/seasonality/run")
+    public ResponseEntity<Object> runSeasonality(@RequestParam(required = true) Long companyId,
+                                                 Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        if (!user.isSystemAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only system admins can run the seasonality analysis"));
+        }
+        try {
+            return seasonalityService.analyzeCompanyExclusive(companyId)
+                    .<ResponseEntity<Object>>map(analysed -> ResponseEntity.ok(
+                            Map.of("companyId", companyId, "analysed", analysed)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("error", "Seasonality analysis is already running for company " + companyId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * SYSTEM_ADMIN bármelyik céget (companyId nélkül az összeset) lekérdezheti, más csak a sajátját.
+     */
+    private static boolean canAccessCompany(User user, Long companyId) {
+        if (user.isSystemAdmin()) {
+            return true;
+        }
+        Long ownCompanyId = user.getCompany() != null ? user.getCompany().getId() : null;
+        return ownCompanyId != null && (companyId == null || ownCompanyId.equals(companyId));
+    }
+
+    /**
+     * A lekérdezett cég: adminnál a kért, másnál a saját (canAccessCompany után hívandó).
+     */
+    private static Long scopedCompanyId(User user, Long companyId) {
+        return user.isSystemAdmin() ? companyId : user.getCompany().getId();
+    }
+
+    /**
+     * Aktuális bejelentkezett user lekérése JWT token-ből.
+     */
+    private User getCurrentUser(Authentication authentication) {
+        String username = authentication.getName();
+        return userService.findByUsername(username);
     }
 }
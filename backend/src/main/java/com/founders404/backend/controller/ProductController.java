@@ -3,30 +3,41 @@ package com.founders404.backend.controller;
 import com.founders404.backend.dto.CreateProductRequest;
 import com.founders404.backend.dto.ProductResponse;
 import com.founders404.backend.dto.UpdateProductRequest;
+import com.founders404.backend.model.AbcClass;
 import com.founders404.backend.model.InventoryMovement;
 import com.founders404.backend.model.MovementType;
 import com.founders404.backend.model.Product;
 import com.founders404.backend.model.User;
 import com.founders404.backend.model.Category;
+import com.founders404.backend.model.ProductClassification;
+import com.founders404.backend.model.XyzClass;
 import com.founders404.backend.service.InventoryService;
+import com.founders404.backend.service.LabelSheetService;
 import com.founders404.backend.service.ProductService;
 import com.founders404.backend.service.CategoryService;
+import com.founders404.backend.service.ProductClassificationService;
+import com.founders404.backend.service.QRCodeImageStore;
+import com.founders404.backend.service.QRCodeService;
 import com.founders404.backend.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Base64;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.io.IOException;
 
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -41,10 +52,14 @@ public class ProductController {
     private final CategoryService categoryService;
     private final InventoryService inventoryService;
     private final UserService userService;
+    private final ProductClassificationService productClassificationService;
+    private final QRCodeImageStore qrCodeImageStore;
+    private final LabelSheetService labelSheetService;
 
     /**
      * Összes termék lekérése szűrési lehetőségekkel.
      * GET /api/products?companyId=1&active=true&search=laptop&categoryId=5&supplierId=3
+     * GET /api/products?companyId=1&abcClass=A&xyzClass=X
      */
     @GetMapping
     public ResponseEntity<List<ProductResponse>> getAllProducts(
@@ -52,11 +67,21 @@ public class ProductController {
             @RequestParam(required = false) Boolean active,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) Long supplierId) {
+            @RequestParam(required = false) Long supplierId,
+            @RequestParam(required = false) AbcClass abcClass,
+            @RequestParam(required = false) XyzClass xyzClass) {
 
         List<Product> products;
 
-        if (companyId != null && search != null && !search.isEmpty()) {
+        if (companyId != null && (abcClass != null || xyzClass != null)) {
+            // ABC/XYZ besorolás szerint
+            products = productService.findByClassification(companyId, abcClass, xyzClass);
+            if (active != null && active) {
+                products = products.stream()
+                        .filter(p -> Boolean.TRUE.equals(p.getIsActive()))
+                        .collect(Collectors.toList());
+            }
+        } else if (companyId != null && search != null && !search.isEmpty()) {
             // Keresés cég és név alapján
             if (active != null && active) {
                 products = productService.searchActiveByName(companyId, search);
@@ -167,6 +192,34 @@ public class ProductController {
         }
     }
 
+    /**
+     * Cég termékeinek ABC/XYZ besorolása (az utolsó batch futás eredménye).
+     * GET /api/products/classification?companyId=1
+     */
+    @GetMapping("/classification")
+    public ResponseEntity<List<ProductClassification>> getClassifications(
+            @RequestParam(required = true) Long companyId) {
+        return ResponseEntity.ok(productClassificationService.findByCompanyId(companyId));
+    }
+
+    /**
+     * ABC/XYZ besorolás azonnali újraszámolása egy cégre.
+     * POST /api/products/classification/run?companyId=1
+     */
+    @PostMapping("/classification/run")
+    public ResponseEntity<Object> runClassification(@RequestParam(required = true) Long companyId) {
+        try {
+            return productClassificationService.classifyCompanyExclusive(companyId)
+                    .<ResponseEntity<Object>>map(classified -> ResponseEntity.ok(
+                            Map.of("companyId", companyId, "classified", classified)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("error", "Classification is already running for company " + companyId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Új termék létrehozása.
      * POST /api/products
@@ -369,46 +422,165 @@ public class ProductController {
         }
     }
 
+    /**
+     * Termék QR kódja PNG-ként.
+     * Az ETag a kép tartalom hash-e: változatlan termékre 304 megy renderelés és fájl olvasás nélkül.
+     * A Content-Location a változtathatatlan, hosszan cache-elhető kép URL-je.
+     * GET /api/products/{id}/qrcode?size=300
+     */
     @GetMapping("/{id}/qrcode")
-    public ResponseEntity<byte[]> getProductQRCode(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getProductQRCode(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "300") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        if (size < QRCodeService.MIN_SIZE || size > QRCodeService.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        Product product;
         try {
-            Product product = productService.findById(id);
-
-            byte[] qrBytes = null;
-
-            // 1) Ha fájlként tárolod → megpróbáljuk betölteni
-            if (product.getQrCode() != null && !product.getQrCode().isEmpty()) {
-                Path qrPath = Paths.get(product.getQrCode());
-                if (Files.exists(qrPath)) {
-                    qrBytes = Files.readAllBytes(qrPath);
-                }
-            }
-
-            // 2) Ha Base64-ben van tárolva → dekódoljuk
-            if (qrBytes == null && product.getQrCode() != null) {
-                try {
-                    qrBytes = Base64.getDecoder().decode(product.getQrCode());
-                } catch (IllegalArgumentException ignore) {
-                    // Nem Base64, átugorjuk
-                }
-            }
+            product = productService.findById(id);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
 
-            // 3) Ha nincs QR → generáljuk és mentjük
-            if (qrBytes == null) {
-                qrBytes = productService.regenerateQrAndReturnBytes(id);
-            }
+        String hash = qrCodeImageStore.hashOf(product, size);
+        String eTag = "\"" + hash + "\"";
+        // A termék változhat, ezért a kliens minden használat előtt újraellenőriz (olcsó 304)
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
 
+        try {
+            byte[] png = productService.getQrImage(product, size).png();
             return ResponseEntity.ok()
-                    .header("Content-Type", "image/png")
-                    .body(qrBytes);
-
+                    .contentType(MediaType.IMAGE_PNG)
+                    .eTag(eTag)
+                    .cacheControl(cacheControl)
+                    .header(HttpHeaders.CONTENT_LOCATION, "/api/products/qr-images/" + hash + ".png")
+                    .body(png);
         } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
+    /**
+     * QR kép tartalom hash alapján (a kép sosem változik, így a kliens egy évig cache-elheti).
+     * GET /api/products/qr-images/{hash}.png
+     */
+    @GetMapping("/qr-images/{hash}.png")
+    public ResponseEntity<byte[]> getQrImage(
+            @PathVariable String hash,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        if (!QRCodeImageStore.isValidHash(hash)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        String eTag = "\"" + hash + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        try {
+            return qrCodeImageStore.getByHash(hash)
+                    .map(png -> ResponseEntity.ok()
+                            .contentType(MediaType.IMAGE_PNG)
+                            .eTag(eTag)
+                            .cacheControl(cacheControl)
+                            .body(png))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    /**
+     * Címkék tömeges nyomtatáshoz (QR + név + SKU), ZIP-ben streamelve.
+     * Pontosan egy kiválasztás: ids (vesszővel elválasztva, ebben a sorrendben), shelfId vagy categoryId
+     * (polcnál és kategóriánál csak az aktív termékek).
+     * layout=labels: címkénként egy PNG (size = QR méret); layout=sheet: A4 oldalak columns x rows rácsban.
+     * GET /api/products/labels?shelfId=3&layout=sheet&columns=3&rows=8
+     */
+    @GetMapping("/labels")
+    public ResponseEntity<StreamingResponseBody> getLabels(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) Long shelfId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "labels") String layout,
+            @RequestParam(defaultValue = "" + QRCodeService.QR_CODE_WIDTH) int size,
+            @RequestParam(defaultValue = "3") int columns,
+            @RequestParam(defaultValue = "8") int rows,
+            HttpServletRequest request
+    ) {
+        int selectors = (ids != null && !ids.isEmpty() ? 1 : 0) + (shelfId != null ? 1 : 0) + (categoryId != null ? 1 : 0);
+        LabelSheetService.Layout labelLayout;
+        try {
+            labelLayout = LabelSheetService.Layout.valueOf(layout.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (selectors != 1
+                || size < QRCodeService.MIN_SIZE || size > QRCodeService.MAX_SIZE
+                || columns < 1 || columns > LabelSheetService.MAX_COLUMNS
+                || rows < 1 || rows > LabelSheetService.MAX_ROWS) {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        // A túl hosszú id lista az adatbázisig sem jut el
+        if (ids != null && ids.size() > labelSheetService.getMaxProducts()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(null);
+        }
+
+        List<Product> products;
+        if (ids != null && !ids.isEmpty()) {
+            products = productService.findAllById(ids);
+        } else {
+            products = (shelfId != null ? productService.findByShelfId(shelfId) : productService.findByCategoryId(categoryId))
+                    .stream()
+                    .filter(product -> !Boolean.FALSE.equals(product.getIsActive()))
+                    .collect(Collectors.toList());
+        }
+        if (products.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        if (products.size() > labelSheetService.getMaxProducts()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(null);
+        }
+
+        List<Product> selected = products;
+        StreamingResponseBody body = out -> labelSheetService.writeZip(selected, labelLayout, size, columns, rows, out);
+        // A stream saját időkorláttal fut: a StreamingResponseBody a kérés async időkorlátját örökli,
+        // ami beállítás nélkül a Tomcat 30 mp-e
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(labelSheetService.getStreamTimeoutMs());
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"labels.zip\"")
+                .body(body);
+    }
+
+    /**
+     * If-None-Match egyezés (lista, * és gyenge W/ ETag is).
+     */
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 
     /**
      * Product entitás konvertálása ProductResponse DTO-vá.
@@ -0,0 +1,132 @@
+package com.founders404.backend.controller;
+
+import com.founders404.backend.dto.PurchaseOrderResponse;
+import com.founders404.backend.model.PurchaseOrder;
+import com.founders404.backend.model.PurchaseOrderStatus;
+import com.founders404.backend.model.User;
+import com.founders404.backend.service.PurchaseOrderService;
+import com.founders404.backend.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Beszerzési rendelések REST API.
+ */
+@RestController
+@RequestMapping("/api/purchase-orders")
+@RequiredArgsConstructor
+public class PurchaseOrderController {
+
+    private final PurchaseOrderService purchaseOrderService;
+    private final UserService userService;
+
+    /**
+     * Cég rendelései, opcionálisan állapot szerint szűrve.
+     * GET /api/purchase-orders?companyId=1&status=DRAFT
+     */
+    @GetMapping
+    public ResponseEntity<List<PurchaseOrderResponse>> getPurchaseOrders(
+            @RequestParam(required = true) Long companyId,
+            @RequestParam(required = false) PurchaseOrderStatus status) {
+        List<PurchaseOrder> orders = purchaseOrderService.findByCompanyId(companyId, status);
+        return ResponseEntity.ok(purchaseOrderService.toResponses(orders));
+    }
+
+    /**
+     * Rendelés lekérése tételekkel.
+     * GET /api/purchase-orders/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Object> getPurchaseOrder(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(toResponse(purchaseOrderService.findById(id)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Tervezet rendelések generálása a cég összes újrarendelési pont alatti termékére.
+     * POST /api/purchase-orders/generate?companyId=1
+     */
+    @PostMapping("/generate")
+    public ResponseEntity<List<PurchaseOrderResponse>> generate(@RequestParam(required = true) Long companyId) {
+        List<PurchaseOrder> orders = purchaseOrderService.generateForCompany(companyId);
+        return ResponseEntity.ok(purchaseOrderService.toResponses(orders));
+    }
+
+    /**
+     * Tétel mennyiség módosítása (0: törlés).
+     * PUT /api/purchase-orders/{id}/lines/{lineId}?quantity=20
+     */
+    @PutMapping("/{id}/lines/{lineId}")
+    public ResponseEntity<Object> updateLine(
+            @PathVariable Long id,
+            @PathVariable Long lineId,
+            @RequestParam int quantity) {
+        try {
+            return ResponseEntity.ok(toResponse(purchaseOrderService.updateLineQuantity(id, lineId, quantity)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Elküldés a beszállítónak.
+     * POST /api/purchase-orders/{id}/send
+     */
+    @PostMapping("/{id}/send")
+    public ResponseEntity<Object> send(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(toResponse(purchaseOrderService.send(id)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Visszavonás.
+     * POST /api/purchase-orders/{id}/cancel
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Object> cancel(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(toResponse(purchaseOrderService.cancel(id)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Beérkezés: minden tétel egy batch-ben kerül készletre.
+     * POST /api/purchase-orders/{id}/receive
+     */
+    @PostMapping("/{id}/receive")
+    public ResponseEntity<Object> receive(@PathVariable Long id, Authentication authentication) {
+        try {
+            if (authentication == null || authentication.getName() == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Authentication required"));
+            }
+            User user = userService.findByUsername(authentication.getName());
+            return ResponseEntity.ok(toResponse(purchaseOrderService.receive(id, user)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private PurchaseOrderResponse toResponse(PurchaseOrder order) {
+        return purchaseOrderService.toResponses(List.of(order)).get(0);
+    }
+}
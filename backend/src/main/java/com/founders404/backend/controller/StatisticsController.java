@@ -1,27 +1,33 @@
 package com.founders404.backend.controller;
 
 import com.founders404.backend.dto.*;
-import com.founders404.backend.service.StatisticsService;
+import com.founders404.backend.service.MovementSketchService;
+import com.founders404.backend.service.StatisticsCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/statistics")
 @RequiredArgsConstructor
 public class StatisticsController {
 
-    private final StatisticsService statisticsService;
+    private final StatisticsCacheService statisticsCacheService;
+    private final MovementSketchService movementSketchService;
 
     @GetMapping("/top-selling")
     public ResponseEntity<List<TopSellingProductDTO>> getTopSellingProducts(
             @RequestParam(defaultValue = "10") int limit,
             @RequestParam(required = false) Long companyId) {
-        return ResponseEntity.ok(statisticsService.getTopSellingProducts(limit, companyId));
+        return ResponseEntity.ok(statisticsCacheService.getTopSellingProducts(limit, companyId));
     }
 
     @GetMapping("/inventory-turnover")
@@ -29,7 +35,7 @@ public class StatisticsController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(required = false) Long companyId) {
-        return ResponseEntity.ok(statisticsService.calculateInventoryTurnover(startDate, endDate, companyId));
+        return ResponseEntity.ok(statisticsCacheService.calculateInventoryTurnover(startDate, endDate, companyId));
     }
 
     @GetMapping("/revenue")
@@ -37,7 +43,7 @@ public class StatisticsController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(required = false) Long companyId) {
-        FinancialStatsDTO stats = statisticsService.calculateFinancialStats(startDate, endDate, companyId);
+        FinancialStatsDTO stats = statisticsCacheService.calculateFinancialStats(startDate, endDate, companyId);
         return ResponseEntity.ok(stats);
     }
 
@@ -46,12 +52,99 @@ public class StatisticsController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(required = false) Long companyId) {
-        return ResponseEntity.ok(statisticsService.calculateFinancialStats(startDate, endDate, companyId));
+        return ResponseEntity.ok(statisticsCacheService.calculateFinancialStats(startDate, endDate, companyId));
+    }
+
+    /**
+     * Bevétel / költség / profit idősor egy kérésben.
+     * GET /api/statistics/financial-series?companyId=1&from=2025-01-01&to=2025-12-31&granularity=MONTH&zone=Europe/Budapest
+     * Alapértelmezés: az utolsó 12 hónap havi bontásban, Europe/Budapest időzónában.
+     */
+    @GetMapping("/financial-series")
+    public ResponseEntity<Object> getFinancialSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "MONTH") TimeGranularity granularity,
+            @RequestParam(defaultValue = "Europe/Budapest") String zone,
+            @RequestParam(required = false) Long companyId) {
+        try {
+            ZoneId zoneId = ZoneId.of(zone);
+            LocalDate end = to != null ? to : LocalDate.now(zoneId);
+            LocalDate start = from != null ? from : end.minusYears(1).plusDays(1);
+            return ResponseEntity.ok(statisticsCacheService.getFinancialSeries(start, end, granularity, zoneId, companyId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/category-distribution")
     public ResponseEntity<List<CategoryDistributionDTO>> getCategoryDistribution(
             @RequestParam(required = false) Long companyId) {
-        return ResponseEntity.ok(statisticsService.getCategoryDistribution(companyId));
+        return ResponseEntity.ok(statisticsCacheService.getCategoryDistribution(companyId));
+    }
+
+    /**
+     * Statisztika cache hit/miss adatai.
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<StatisticsCacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(statisticsCacheService.getStats());
+    }
+
+    /**
+     * Különböző eladott SKU-k becsült száma (HyperLogLog, hibahatárral).
+     * GET /api/statistics/distinct-skus-sold?companyId=1&from=2025-01-01&to=2025-01-31
+     */
+    @GetMapping("/distinct-skus-sold")
+    public ResponseEntity<Object> getDistinctSkusSold(
+            @RequestParam Long companyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            return ResponseEntity.ok(movementSketchService.estimateDistinctSkusSold(companyId, start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Különböző aktív userek becsült száma (HyperLogLog, hibahatárral).
+     */
+    @GetMapping("/distinct-active-users")
+    public ResponseEntity<Object> getDistinctActiveUsers(
+            @RequestParam Long companyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            return ResponseEntity.ok(movementSketchService.estimateDistinctActiveUsers(companyId, start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Leggyakrabban mozgatott termékek (Count-Min, hibahatárral).
+     */
+    @GetMapping("/most-moved")
+    public ResponseEntity<Object> getMostMovedProducts(
+            @RequestParam Long companyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            return ResponseEntity.ok(movementSketchService.getHeavyHitters(companyId, start, end, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 }
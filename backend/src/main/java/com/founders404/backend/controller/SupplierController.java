@@ -120,6 +120,7 @@ public class SupplierController {
             supplier.setCountry(request.getCountry());
             supplier.setTaxNumber(request.getTaxNumber());
             supplier.setNotes(request.getNotes());
+            supplier.setLeadTimeDays(request.getLeadTimeDays());
             supplier.setIsActive(true);
 
             Supplier savedSupplier = supplierService.create(supplier);
@@ -154,6 +155,7 @@ public class SupplierController {
             supplierDetails.setTaxNumber(request.getTaxNumber());
             supplierDetails.setIsActive(request.getIsActive());
             supplierDetails.setNotes(request.getNotes());
+            supplierDetails.setLeadTimeDays(request.getLeadTimeDays());
 
             Supplier updatedSupplier = supplierService.update(id, supplierDetails);
 
@@ -212,6 +214,7 @@ public class SupplierController {
                 supplier.getTaxNumber(),
                 supplier.getIsActive(),
                 supplier.getNotes(),
+                supplier.getLeadTimeDays(),
                 supplier.getCreatedAt(),
                 supplier.getUpdatedAt()
         );
@@ -0,0 +1,28 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Backtest riport: az adathalmaz leírása és stratégiánkénti eredmények.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BacktestReportDTO {
+    // "history" vagy "synthetic"
+    private String dataset;
+    private Long companyId;
+    private Long seed;
+    private Integer products;
+    private LocalDate from;
+    private Integer days;
+    private Integer warmupDays;
+    private List<BacktestResultDTO> results;
+}
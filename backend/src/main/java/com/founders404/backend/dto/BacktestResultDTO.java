@@ -0,0 +1,28 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Egy előrejelző stratégia backtest eredménye (pontosság és sebesség).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BacktestResultDTO {
+    private String strategy;
+    private Long forecasts;
+    // Átlagos abszolút százalékos hiba (csak pozitív keresletű napok)
+    private Double mape;
+    // Súlyozott abszolút százalékos hiba (összes hiba / összes kereslet)
+    private Double wape;
+    // Átlagos hiba (pozitív: túlbecslés)
+    private Double bias;
+    private Double mae;
+    private Double rmse;
+    private Long elapsedMs;
+    private Double forecastsPerSecond;
+}
@@ -0,0 +1,29 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * HyperLogLog alapú distinct count becslés hibahatárokkal.
+ * A lower/upperBound kb. 95%-os intervallum (2 szigma).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CardinalityEstimateDTO {
+    private String metric;
+    private Long companyId;
+    private LocalDate from;
+    private LocalDate to;
+    private Long estimate;
+    private Double relativeStandardError;
+    private Long lowerBound;
+    private Long upperBound;
+    private Map<LocalDate, Long> dailyEstimates;
+}
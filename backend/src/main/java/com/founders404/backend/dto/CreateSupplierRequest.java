@@ -42,4 +42,7 @@ public class CreateSupplierRequest {
     private String taxNumber;
 
     private String notes;
+
+    @Min(value = 0, message = "Lead time must not be negative")
+    private Integer leadTimeDays;
 }
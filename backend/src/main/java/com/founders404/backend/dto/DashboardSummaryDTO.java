@@ -0,0 +1,38 @@
+package com.founders404.backend.dto;
+
+import com.founders404.backend.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard összesítő válasz (egy kérés a sok külön helyett).
+ * A sikertelen / időtúllépett részek null értékűek, okuk a failedParts-ban.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardSummaryDTO {
+    private Long companyId;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    private List<TopSellingProductDTO> topSelling;
+    private InventoryTurnoverDTO inventoryTurnover;
+    private FinancialStatsDTO financialStats;
+    private List<CategoryDistributionDTO> categoryDistribution;
+    private List<StockForecastDTO> criticalForecasts;
+    private List<Product> lowStockProducts;
+    private List<InventoryMovementDTO> recentMovements;
+    private Double inventoryValue;
+
+    private Map<String, String> failedParts;
+    private LocalDateTime generatedAt;
+    private Long elapsedMillis;
+}
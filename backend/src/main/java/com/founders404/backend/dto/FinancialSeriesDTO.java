@@ -0,0 +1,29 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Bevétel / költség / profit idősor (nap, hét vagy hónap szerinti bontásban).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FinancialSeriesDTO {
+    private Long companyId;
+    private TimeGranularity granularity;
+    private String zone;
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal totalRevenue;
+    private BigDecimal totalCost;
+    private BigDecimal totalProfit;
+    private List<FinancialSeriesPointDTO> points;
+}
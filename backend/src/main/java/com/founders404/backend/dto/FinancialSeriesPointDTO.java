@@ -0,0 +1,22 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FinancialSeriesPointDTO {
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private String label;
+    private BigDecimal revenue;
+    private BigDecimal cost;
+    private BigDecimal profit;
+}
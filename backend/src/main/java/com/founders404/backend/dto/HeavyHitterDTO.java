@@ -0,0 +1,24 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Count-Min alapú gyakoriság becslés.
+ * estimatedCount felülbecslés lehet legfeljebb errorBound-dal (1 - delta valószínűséggel).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HeavyHitterDTO {
+    private Long productId;
+    private String productName;
+    private String sku;
+    private Long estimatedCount;
+    private Long lowerBound;
+    private Long errorBound;
+    private Double confidence;
+}
@@ -51,8 +51,11 @@ public class InventoryMovementDTO {
         dto.setProductId(entity.getProduct().getId());
         dto.setProductName(entity.getProduct().getName());
         dto.setProductSku(entity.getProduct().getSku());
-        dto.setUserId(entity.getUser().getId());
-        dto.setUsername(entity.getUser().getUsername());
+        // Rendszer által rögzített (pl. importált) mozgásnál nincs user
+        if (entity.getUser() != null) {
+            dto.setUserId(entity.getUser().getId());
+            dto.setUsername(entity.getUser().getUsername());
+        }
         dto.setMovementType(entity.getMovementType());
         dto.setQuantity(entity.getQuantity());
         dto.setReason(entity.getReason());
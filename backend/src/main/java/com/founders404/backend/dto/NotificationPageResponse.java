@@ -0,0 +1,22 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Értesítés lista egy oldala (keyset lapozás).
+ * A következő oldal a nextCursor értékkel kérhető; null, ha nincs több.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageResponse {
+
+    private List<NotificationResponse> items;
+    private String nextCursor;
+}
@@ -0,0 +1,70 @@
+package com.founders404.backend.dto;
+
+import com.founders404.backend.model.CompanyNotification;
+import com.founders404.backend.model.Notification;
+import com.founders404.backend.model.NotificationScope;
+import com.founders404.backend.model.NotificationType;
+import com.founders404.backend.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Értesítés válasz (user és cégszintű értesítésekhez közösen).
+ * Az id a scope-on belül egyedi.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationResponse {
+
+    private Long id;
+    private NotificationScope scope;
+    private NotificationType type;
+    private String title;
+    private String message;
+    private Long productId;
+
+    // Összesítő értesítésnél az érintett termékek (egyébként a productId egyelemű listája)
+    private List<Long> productIds;
+
+    // Cégszintű értesítésnél a célzott szerepkör (null: mindenki)
+    private Role targetRole;
+
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+
+    public static NotificationResponse fromEntity(Notification notification) {
+        return NotificationResponse.builder()
+                .id(notification.getId())
+                .scope(NotificationScope.USER)
+                .type(notification.getType())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .productId(notification.getProduct() != null ? notification.getProduct().getId() : null)
+                .productIds(notification.getProduct() != null ? List.of(notification.getProduct().getId()) : List.of())
+                .isRead(notification.getIsRead())
+                .createdAt(notification.getCreatedAt())
+                .build();
+    }
+
+    public static NotificationResponse fromEntity(CompanyNotification notification, boolean read) {
+        return NotificationResponse.builder()
+                .id(notification.getId())
+                .scope(NotificationScope.COMPANY)
+                .type(notification.getType())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .productId(notification.getProductId())
+                .productIds(notification.getProductIdList())
+                .targetRole(notification.getTargetRole())
+                .isRead(read)
+                .createdAt(notification.getCreatedAt())
+                .build();
+    }
+}
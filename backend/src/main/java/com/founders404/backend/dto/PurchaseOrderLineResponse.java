@@ -0,0 +1,29 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Beszerzési rendelés tétel válasz.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderLineResponse {
+
+    private Long id;
+    private Long productId;
+    private String productName;
+    private String sku;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+
+    // Készlet állapot a lekérdezéskor
+    private Integer currentStock;
+    private Integer reorderPoint;
+}
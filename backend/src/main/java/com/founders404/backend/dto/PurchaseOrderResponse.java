@@ -0,0 +1,38 @@
+package com.founders404.backend.dto;
+
+import com.founders404.backend.model.PurchaseOrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Beszerzési rendelés válasz tételekkel.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderResponse {
+
+    private Long id;
+    private Long companyId;
+    private Long supplierId;
+    private PurchaseOrderStatus status;
+    private Boolean autoGenerated;
+    private String notes;
+
+    private List<PurchaseOrderLineResponse> lines;
+    private Integer totalQuantity;
+    private BigDecimal totalValue;
+
+    private LocalDateTime sentAt;
+    private LocalDateTime receivedAt;
+    private Long receivedBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
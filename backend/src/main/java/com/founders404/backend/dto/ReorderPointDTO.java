@@ -16,4 +16,7 @@ public class ReorderPointDTO {
     private Integer leadTimeDays;
     private Integer safetyStock;
     private Integer reorderPoint;
+    private BigDecimal averageDailyDemand;
+    private BigDecimal demandStdDev;
+    private Double serviceLevel;
 }
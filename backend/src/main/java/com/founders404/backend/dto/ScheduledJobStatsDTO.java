@@ -0,0 +1,29 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledJobStatsDTO {
+    private String job;
+    private String queue;
+    private Boolean running;
+    private Long runs;
+    private Long failures;
+    // Kimaradt futások (az előző még tartott)
+    private Long skipped;
+    private LocalDateTime lastStartedAt;
+    private Long lastDurationMs;
+    private Long maxDurationMs;
+    private Long avgDurationMs;
+    // Beadástól az indulásig eltelt idő (a sor foglaltsága miatti késés)
+    private Long lastLagMs;
+    private Long maxLagMs;
+}
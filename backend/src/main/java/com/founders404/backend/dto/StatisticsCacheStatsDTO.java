@@ -0,0 +1,20 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatisticsCacheStatsDTO {
+    private Long hits;
+    private Long misses;
+    private Long coalesced;
+    private Long invalidations;
+    private Long evictions;
+    private Integer size;
+    private Double hitRatio;
+}
@@ -0,0 +1,31 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Egy termék szimulált készlethiány kockázata.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockoutRiskDTO {
+    private Long productId;
+    private String productName;
+    private String sku;
+    private Integer currentStock;
+
+    // P(elfogy a horizonton belül)
+    private Double stockoutProbability;
+
+    // Percentilis -> elfogyásig hátralévő napok (null: a horizonton belül nem fogy el)
+    private Map<String, Integer> daysUntilStockout;
+
+    // Percentilis -> a horizont alatti összes kereslet
+    private Map<String, Double> horizonDemand;
+}
@@ -0,0 +1,30 @@
+package com.founders404.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Monte Carlo készlethiány szimuláció eredménye (kockázat szerint csökkenő sorrendben).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockoutSimulationDTO {
+    // "history" vagy "synthetic"
+    private String dataset;
+    private Long companyId;
+    private Integer horizonDays;
+    private Integer trials;
+    private Integer historyDays;
+    private Long seed;
+    private Integer products;
+    private Integer atRisk;
+    private Long elapsedMs;
+    private Double skusPerMinute;
+    private List<StockoutRiskDTO> results;
+}
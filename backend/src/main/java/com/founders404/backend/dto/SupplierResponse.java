@@ -23,6 +23,7 @@ public class SupplierResponse {
     private String taxNumber;
     private Boolean isActive;
     private String notes;
+    private Integer leadTimeDays;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,10 @@
+package com.founders404.backend.dto;
+
+/**
+ * Idősoros statisztikák felbontása.
+ */
+public enum TimeGranularity {
+    DAY,
+    WEEK, // hétfőtől vasárnapig (magyar naptár)
+    MONTH
+}
@@ -1,6 +1,7 @@
 package com.founders404.backend.dto;
 
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -41,4 +42,7 @@ public class UpdateSupplierRequest {
     private Boolean isActive;
 
     private String notes;
+
+    @Min(value = 0, message = "Lead time must not be negative")
+    private Integer leadTimeDays;
 }
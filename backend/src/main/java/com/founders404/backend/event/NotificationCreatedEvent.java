@@ -0,0 +1,22 @@
+package com.founders404.backend.event;
+
+import com.founders404.backend.dto.NotificationResponse;
+import com.founders404.backend.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Új értesítés esemény (élő push-hoz).
+ * Userhez szóló értesítésnél userId van kitöltve, cégszintűnél companyId (és opcionálisan targetRole).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class NotificationCreatedEvent {
+
+    private final Long userId;
+    private final Long companyId;
+    private final Role targetRole;
+    private final NotificationResponse notification;
+}
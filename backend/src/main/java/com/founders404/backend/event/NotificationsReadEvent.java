@@ -0,0 +1,17 @@
+package com.founders404.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Olvasottra jelölés esemény: a user ennyi korábban olvasatlan értesítése lett olvasott.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class NotificationsReadEvent {
+
+    private final Long userId;
+    private final long count;
+}
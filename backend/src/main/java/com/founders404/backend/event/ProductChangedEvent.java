@@ -0,0 +1,41 @@
+package com.founders404.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Termék törzsadat változás (létrehozás, módosítás, törlés) esemény.
+ * Készletmozgás nélküli készletváltozásnál (kézi korrekció) a korábbi és az új készletet is viszi, így a készlet
+ * listenerek (beszerzés, riasztás) nem csak a StockMovementEvent-ből értesülnek.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Long companyId;
+    private final Long productId;
+    private final ChangeType changeType;
+
+    // Változott készletnél a korábbi és az új készlet (egyébként null)
+    private final Integer previousStock;
+    private final Integer newStock;
+
+    // Módosult-e az alacsony készlet küszöbe (min. szint vagy újrarendelési pont)
+    private final boolean stockLevelsChanged;
+
+    public ProductChangedEvent(Long companyId, Long productId, ChangeType changeType) {
+        this(companyId, productId, changeType, null, null, false);
+    }
+
+    public boolean isStockChanged() {
+        return newStock != null && !newStock.equals(previousStock);
+    }
+}
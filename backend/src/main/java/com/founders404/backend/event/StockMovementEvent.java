@@ -0,0 +1,28 @@
+package com.founders404.backend.event;
+
+import com.founders404.backend.model.MovementType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rögzített készletmozgás esemény.
+ * Az InventoryService publikálja, a listenerek commit után kapják meg.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StockMovementEvent {
+
+    private final Long companyId;
+    private final Long productId;
+    private final Long movementId;
+    private final Long userId;
+    private final MovementType movementType;
+    private final Integer quantity;
+    private final Integer previousStock;
+    private final Integer newStock;
+    private final LocalDateTime timestamp;
+}
@@ -0,0 +1,24 @@
+package com.founders404.backend.exception;
+
+/**
+ * Kivétel, ha egy ütemezett job lease-e lejárt vagy egy másik node átvette (a job nem írhat tovább).
+ */
+public class LeaseLostException extends RuntimeException {
+
+    private final String leaseName;
+    private final Long fencingToken;
+
+    public LeaseLostException(String leaseName, Long fencingToken) {
+        super(String.format("A lease elveszett! Név: %s, token: %d", leaseName, fencingToken));
+        this.leaseName = leaseName;
+        this.fencingToken = fencingToken;
+    }
+
+    public String getLeaseName() {
+        return leaseName;
+    }
+
+    public Long getFencingToken() {
+        return fencingToken;
+    }
+}
@@ -0,0 +1,10 @@
+package com.founders404.backend.model;
+
+/**
+ * ABC osztály: érték alapú hozzájárulás (A: ~80%, B: következő ~15%, C: maradék).
+ */
+public enum AbcClass {
+    A,
+    B,
+    C
+}
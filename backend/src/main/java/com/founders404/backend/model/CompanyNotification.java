@@ -0,0 +1,83 @@
+package com.founders404.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Cégszintű (opcionálisan szerepkörre szűkített) értesítés, egyszer tárolva.
+ * A userek olvasási állapota a NotificationReadState táblában van, így egy riasztás egy beszúrás.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "company_notifications", indexes = {
+        @Index(name = "idx_company_notification_company_id", columnList = "company_id, id"),
+        @Index(name = "idx_company_notification_created_at", columnList = "created_at"),
+        @Index(name = "idx_company_notification_company_created", columnList = "company_id, created_at")
+})
+public class CompanyNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    // null: a cég minden userének szól
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_role", length = 20)
+    private Role targetRole;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private NotificationType type;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    // Kapcsolódó termék (opcionális)
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Összesítő (digest) értesítésnél az érintett termékek, vesszővel elválasztva; ilyenkor productId null
+    @Column(name = "product_ids", columnDefinition = "TEXT")
+    private String productIds;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public List<Long> getProductIdList() {
+        if (productIds == null || productIds.isEmpty()) {
+            return productId != null ? List.of(productId) : List.of();
+        }
+        return parseProductIds(productIds);
+    }
+
+    public static List<Long> parseProductIds(String productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(productIds.split(",")).map(Long::valueOf).toList();
+    }
+
+    public void setProductIdList(List<Long> ids) {
+        productIds = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,35 @@
+package com.founders404.backend.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Rövid double tömb tárolása vesszővel elválasztott szövegként (pl. szezonális indexek).
+ */
+@Converter
+public class DoubleArrayConverter implements AttributeConverter<double[], String> {
+
+    @Override
+    public String convertToDatabaseColumn(double[] values) {
+        if (values == null) {
+            return null;
+        }
+        return Arrays.stream(values)
+                .mapToObj(value -> String.format(Locale.ROOT, "%.4f", value))
+                .collect(Collectors.joining(","));
+    }
+
+    @Override
+    public double[] convertToEntityAttribute(String column) {
+        if (column == null || column.isBlank()) {
+            return null;
+        }
+        return Arrays.stream(column.split(","))
+                .mapToDouble(Double::parseDouble)
+                .toArray();
+    }
+}
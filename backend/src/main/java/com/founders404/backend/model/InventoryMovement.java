@@ -14,7 +14,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "inventory_movements")
+@Table(name = "inventory_movements", indexes = {
+        // A kereslet modellek lekérdezése id szerint lapozza az OUT mozgásokat
+        @Index(name = "idx_movement_type_id", columnList = "movement_type, id")
+})
 public class InventoryMovement {
 
     @Id
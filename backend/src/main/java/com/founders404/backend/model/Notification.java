@@ -14,7 +14,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notification_created_at", columnList = "created_at"),
+        @Index(name = "idx_notification_user_read", columnList = "user_id, is_read"),
+        @Index(name = "idx_notification_user_created", columnList = "user_id, created_at")
+})
 public class Notification {
 
     @Id
@@ -0,0 +1,142 @@
+package com.founders404.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * User olvasási állapota a cégszintű értesítésekhez.
+ * lastReadId-ig minden olvasott; felette a readExceptionIds a külön olvasottnak jelölt értesítések
+ * azonosítói (rendezett long tömb, 8 bájt / id), így a méret a kivételek számától függ, nem a globális id távolságtól.
+ * A vízjel az első olvasatlan értesítés elé lép, így a lista rövid marad.
+ * Az állapot a cég akkori legutolsó látható értesítésénél jön létre, így a korábbi előzmény nem olvasatlan.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "notification_read_state")
+public class NotificationReadState {
+
+    private static final long[] NONE = new long[0];
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "last_read_id", nullable = false)
+    private Long lastReadId = 0L;
+
+    @Lob
+    @Column(name = "read_exception_ids")
+    private byte[] readExceptionIds;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private long[] exceptions;
+
+    public NotificationReadState(Long userId) {
+        this.userId = userId;
+    }
+
+    public boolean isRead(long notificationId) {
+        long watermark = lastReadId != null ? lastReadId : 0L;
+        return notificationId <= watermark || Arrays.binarySearch(exceptions(), notificationId) >= 0;
+    }
+
+    public void markRead(long notificationId) {
+        if (notificationId <= lastReadId) {
+            return;
+        }
+        long[] current = exceptions();
+        int index = Arrays.binarySearch(current, notificationId);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        long[] updated = new long[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = notificationId;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        exceptions = updated;
+        encode();
+    }
+
+    /**
+     * Olvasott kivételek száma a vízjel felett.
+     */
+    public int exceptionCount() {
+        return exceptions().length;
+    }
+
+    /**
+     * Vízjel előre léptetése (minden newLastReadId-ig olvasott); az alatta lévő kivételek kiesnek.
+     */
+    public void advanceTo(long newLastReadId) {
+        if (newLastReadId <= lastReadId) {
+            return;
+        }
+        long[] current = exceptions();
+        int index = Arrays.binarySearch(current, newLastReadId);
+        int from = index >= 0 ? index + 1 : -index - 1;
+        exceptions = Arrays.copyOfRange(current, from, current.length);
+        lastReadId = newLastReadId;
+        encode();
+    }
+
+    /**
+     * Csak a megadott (még létező, látható) azonosítók kivételei maradnak meg (törölt értesítések után).
+     */
+    public void retainOnly(Collection<Long> notificationIds) {
+        long[] current = exceptions();
+        exceptions = notificationIds.stream()
+                .mapToLong(Long::longValue)
+                .filter(id -> Arrays.binarySearch(current, id) >= 0)
+                .sorted()
+                .distinct()
+                .toArray();
+        encode();
+    }
+
+    private long[] exceptions() {
+        if (exceptions == null) {
+            if (readExceptionIds == null) {
+                exceptions = NONE;
+            } else {
+                LongBuffer buffer = ByteBuffer.wrap(readExceptionIds).asLongBuffer();
+                exceptions = new long[buffer.remaining()];
+                buffer.get(exceptions);
+            }
+        }
+        return exceptions;
+    }
+
+    private void encode() {
+        if (exceptions.length == 0) {
+            readExceptionIds = null;
+        } else {
+            ByteBuffer buffer = ByteBuffer.allocate(exceptions.length * Long.BYTES);
+            buffer.asLongBuffer().put(exceptions);
+            readExceptionIds = buffer.array();
+        }
+        updatedAt = LocalDateTime.now();
+    }
+}
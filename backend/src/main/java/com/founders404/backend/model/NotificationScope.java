@@ -0,0 +1,10 @@
+package com.founders404.backend.model;
+
+public enum NotificationScope {
+
+     // Egy userhez szóló értesítés (notifications tábla).
+    USER,
+
+     // Cégszintű értesítés (company_notifications tábla).
+    COMPANY
+}
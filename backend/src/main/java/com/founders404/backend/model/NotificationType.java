@@ -10,6 +10,10 @@ public enum NotificationType {
 
     STOCK_OUT,
 
+     // Készlet a maximum szint felett.
+
+    OVER_STOCK,
+
      // Rendszer értesítés.
 
     SYSTEM,
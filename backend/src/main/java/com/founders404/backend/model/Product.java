@@ -16,7 +16,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Készlet riasztás egyeztetés: a legutóbb módosult termékek
+        @Index(name = "idx_product_updated_at", columnList = "updated_at")
+})
 public class
 Product {
 
@@ -121,6 +124,12 @@ Product {
     @Column(name = "image_url", length = 255)
     private String imageUrl;
 
+    // Az utoljára riasztott készlet állapot (null: a küszöbökön belül van); a riasztás egyeztetés
+    // ez alapján csak az elmaradt riasztásokat pótolja, a már riasztott állapotot nem ismétli
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_state", length = 20)
+    private NotificationType alertState;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
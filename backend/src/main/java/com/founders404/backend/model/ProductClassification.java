@@ -0,0 +1,74 @@
+package com.founders404.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Termék ABC/XYZ besorolása (side table, a batch job tölti).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_classifications", indexes = {
+        @Index(name = "idx_classification_company_abc", columnList = "company_id, abc_class"),
+        @Index(name = "idx_classification_company_xyz", columnList = "company_id, xyz_class")
+})
+public class ProductClassification implements Persistable<Long> {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "abc_class", nullable = false, length = 1)
+    private AbcClass abcClass;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "xyz_class", nullable = false, length = 1)
+    private XyzClass xyzClass;
+
+    // Időszaki felhasználási érték (OUT mennyiség * nettó beszerzési ár)
+    @Column(name = "consumption_value", precision = 18, scale = 2)
+    private BigDecimal consumptionValue;
+
+    // Havi kereslet variációs együtthatója
+    @Column(name = "demand_cv")
+    private Double demandCv;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    // A batch mindig újra beszúr (előtte törli a céget), így nem kell select a mentés előtt
+    @Transient
+    @JsonIgnore
+    private boolean newEntity = true;
+
+    @Override
+    @JsonIgnore
+    public Long getId() {
+        return productId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        newEntity = false;
+    }
+}
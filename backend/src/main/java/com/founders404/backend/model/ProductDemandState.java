@@ -0,0 +1,54 @@
+package com.founders404.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Termék online kereslet modelljének mentett állapota (a memóriában élő modell periodikus mentése).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_demand_states")
+public class ProductDemandState {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Simított napi kereslet szint
+    @Column(nullable = false)
+    private Double level;
+
+    // Napi trend
+    @Column(nullable = false)
+    private Double trend;
+
+    // Egylépéses előrejelzési hiba varianciája
+    @Column(nullable = false)
+    private Double variance;
+
+    // Lezárt napok száma
+    @Column(nullable = false)
+    private Long observations;
+
+    // Folyamatban lévő (még le nem zárt) nap
+    @Column(name = "last_day")
+    private LocalDate lastDay;
+
+    @Column(name = "pending_quantity", nullable = false)
+    private Double pendingQuantity;
+
+    // Utolsó beépített mozgás id-ja (újraindításkor innen folytatódik)
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,61 @@
+package com.founders404.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Előre kiszámolt készlet előrejelzés és újrarendelési pont termékenként (az éjszakai job tölti).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_forecasts", indexes = {
+        @Index(name = "idx_forecast_company_days", columnList = "company_id, days_until_stockout"),
+        @Index(name = "idx_forecast_computed_at", columnList = "computed_at")
+})
+public class ProductForecast {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "company_id")
+    private Long companyId;
+
+    @Column(name = "current_stock")
+    private Integer currentStock;
+
+    @Column(name = "average_daily_sales", precision = 12, scale = 2)
+    private BigDecimal averageDailySales;
+
+    @Column(name = "days_until_stockout")
+    private Integer daysUntilStockout;
+
+    @Column(name = "estimated_stockout_date")
+    private LocalDate estimatedStockoutDate;
+
+    @Column(name = "lead_time_days")
+    private Integer leadTimeDays;
+
+    @Column(name = "safety_stock")
+    private Integer safetyStock;
+
+    @Column(name = "reorder_point")
+    private Integer reorderPoint;
+
+    @Column(name = "demand_std_dev", precision = 12, scale = 2)
+    private BigDecimal demandStdDev;
+
+    @Column(name = "service_level")
+    private Double serviceLevel;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,82 @@
+package com.founders404.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Termék felismert szezonalitása és szezonális indexei (side table, a batch job tölti).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_seasonality", indexes = {
+        @Index(name = "idx_seasonality_company", columnList = "company_id")
+})
+public class ProductSeasonality implements Persistable<Long> {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    // Autokorreláció 7 napos / 52 hetes késleltetésnél
+    @Column(name = "weekly_strength")
+    private Double weeklyStrength;
+
+    @Column(name = "yearly_strength")
+    private Double yearlyStrength;
+
+    @Column(name = "weekly_seasonal", nullable = false)
+    private Boolean weeklySeasonal;
+
+    @Column(name = "yearly_seasonal", nullable = false)
+    private Boolean yearlySeasonal;
+
+    // Hétfő..vasárnap
+    @Convert(converter = DoubleArrayConverter.class)
+    @Column(name = "weekly_indices", length = 100)
+    private double[] weeklyIndices;
+
+    // Január..december
+    @Convert(converter = DoubleArrayConverter.class)
+    @Column(name = "monthly_indices", length = 150)
+    private double[] monthlyIndices;
+
+    @Column(name = "history_days")
+    private Integer historyDays;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    // A batch mindig újra beszúr (előtte törli a céget), így nem kell select a mentés előtt
+    @Transient
+    @JsonIgnore
+    private boolean newEntity = true;
+
+    @Override
+    @JsonIgnore
+    public Long getId() {
+        return productId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        newEntity = false;
+    }
+}
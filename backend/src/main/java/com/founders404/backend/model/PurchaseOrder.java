@@ -0,0 +1,89 @@
+package com.founders404.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Beszerzési rendelés fejléc (beszállítónként egy nyitott tervezet).
+ * A tételek a PurchaseOrderLine táblában vannak.
+ * Cégenként és beszállítónként legfeljebb egy nyitott automatikus tervezet lehet (open_draft_key egyedi).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "purchase_orders", indexes = {
+        @Index(name = "idx_po_company_status", columnList = "company_id, status")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_po_open_draft", columnNames = "open_draft_key")
+})
+public class PurchaseOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    // null: a termékekhez nincs beszállító rendelve
+    @Column(name = "supplier_id")
+    private Long supplierId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PurchaseOrderStatus status = PurchaseOrderStatus.DRAFT;
+
+    // Készlet események alapján automatikusan jött létre
+    @Column(name = "auto_generated")
+    private Boolean autoGenerated = false;
+
+    // "cég:beszállító" a nyitott automatikus tervezetnél, egyébként null (az egyedi kulcs csak ezekre vonatkozik)
+    @Column(name = "open_draft_key", length = 64)
+    private String openDraftKey;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "received_at")
+    private LocalDateTime receivedAt;
+
+    @Column(name = "received_by")
+    private Long receivedBy;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (status == null) {
+            status = PurchaseOrderStatus.DRAFT;
+        }
+        openDraftKey = openDraftKey();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+        openDraftKey = openDraftKey();
+    }
+
+    private String openDraftKey() {
+        if (status != PurchaseOrderStatus.DRAFT || !Boolean.TRUE.equals(autoGenerated)) {
+            return null;
+        }
+        return companyId + ":" + (supplierId != null ? supplierId : "-");
+    }
+}
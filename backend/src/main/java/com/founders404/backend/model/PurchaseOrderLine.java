@@ -0,0 +1,39 @@
+package com.founders404.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Beszerzési rendelés tétel (termékenként egy sor).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "purchase_order_lines", indexes = {
+        @Index(name = "idx_po_line_order", columnList = "order_id"),
+        @Index(name = "idx_po_line_product", columnList = "product_id")
+})
+public class PurchaseOrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Nettó beszerzési egységár a rendelés pillanatában
+    @Column(name = "unit_price", precision = 12, scale = 2)
+    private BigDecimal unitPrice;
+}
@@ -0,0 +1,11 @@
+package com.founders404.backend.model;
+
+/**
+ * Beszerzési rendelés állapotai.
+ */
+public enum PurchaseOrderStatus {
+    DRAFT, //automatikusan generált / szerkeszthető
+    SENT, //beszállítónak elküldve
+    RECEIVED, //beérkezett, készletre véve
+    CANCELLED
+}
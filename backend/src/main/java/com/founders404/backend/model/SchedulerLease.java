@@ -0,0 +1,38 @@
+package com.founders404.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ütemezett job zárolása több node között (lease).
+ * A fencing token minden új megszerzéskor nő, így a lejárt lease-ű (pl. megakadt) node már nem tudja meghosszabbítani.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "scheduler_leases")
+public class SchedulerLease {
+
+    // Job neve, cégenkénti jobnál a céggel együtt (pl. "classification:company:42")
+    @Id
+    @Column(length = 150)
+    private String name;
+
+    // A lease-t tartó node azonosítója
+    @Column(nullable = false, length = 100)
+    private String owner;
+
+    @Column(name = "fencing_token", nullable = false)
+    private Long fencingToken;
+
+    @Column(name = "locked_at", nullable = false)
+    private LocalDateTime lockedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -53,6 +53,10 @@ public class Supplier {
     @Column(name = "tax_number", length = 50)
     private String taxNumber;
 
+    // Rendelés átfutási ideje napokban (újrarendelési pont számításhoz; null: alapértelmezett)
+    @Column(name = "lead_time_days")
+    private Integer leadTimeDays;
+
     @Column(name = "is_active")
     private Boolean isActive = true;
 
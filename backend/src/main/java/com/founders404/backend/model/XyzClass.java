@@ -0,0 +1,10 @@
+package com.founders404.backend.model;
+
+/**
+ * XYZ osztály: kereslet ingadozása (variációs együttható alapján).
+ */
+public enum XyzClass {
+    X, // stabil
+    Y, // ingadozó
+    Z  // rendszertelen
+}
@@ -0,0 +1,128 @@
+package com.founders404.backend.repository;
+
+import com.founders404.backend.model.CompanyNotification;
+import com.founders404.backend.model.NotificationType;
+import com.founders404.backend.model.Role;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cégszintű értesítés repository.
+ * A "látható" feltétel: a user cége, és a célzott szerepkör üres vagy a user szerepköre.
+ */
+@Repository
+public interface CompanyNotificationRepository extends JpaRepository<CompanyNotification, Long> {
+
+    // User számára látható értesítések afterId felett, legújabb elöl
+    @Query("""
+        SELECT n FROM CompanyNotification n
+        WHERE n.companyId = :companyId
+        AND (n.targetRole IS NULL OR n.targetRole = :role)
+        AND n.id > :afterId
+        ORDER BY n.id DESC
+    """)
+    List<CompanyNotification> findVisibleAfter(
+            @Param("companyId") Long companyId,
+            @Param("role") Role role,
+            @Param("afterId") Long afterId
+    );
+
+    // Látható értesítések azonosítói afterId felett, növekvő sorrendben (vízjel léptetéshez)
+    @Query("""
+        SELECT n.id FROM CompanyNotification n
+        WHERE n.companyId = :companyId
+        AND (n.targetRole IS NULL OR n.targetRole = :role)
+        AND n.id > :afterId
+        ORDER BY n.id
+    """)
+    List<Long> findVisibleIdsAfter(
+            @Param("companyId") Long companyId,
+            @Param("role") Role role,
+            @Param("afterId") Long afterId
+    );
+
+    // Szűrőknek megfelelő látható értesítések azonosítói afterId felett (tömeges olvasott jelöléshez);
+    // termék szűrőnél azok a digest-ek is, amelyek productIds listájában szerepel
+    @Query("""
+        SELECT n.id FROM CompanyNotification n
+        WHERE n.companyId = :companyId
+        AND (n.targetRole IS NULL OR n.targetRole = :role)
+        AND n.id > :afterId
+        AND (:type IS NULL OR n.type = :type)
+        AND (:productId IS NULL OR n.productId = :productId
+             OR CONCAT(',', n.productIds, ',') LIKE CONCAT('%,', CAST(:productId AS String), ',%'))
+        AND (:before IS NULL OR n.createdAt < :before)
+    """)
+    List<Long> findVisibleIdsMatchingAfter(
+            @Param("companyId") Long companyId,
+            @Param("role") Role role,
+            @Param("afterId") Long afterId,
+            @Param("type") NotificationType type,
+            @Param("productId") Long productId,
+            @Param("before") LocalDateTime before
+    );
+
+    @Query("""
+        SELECT COUNT(n) FROM CompanyNotification n
+        WHERE n.companyId = :companyId
+        AND (n.targetRole IS NULL OR n.targetRole = :role)
+        AND n.id > :afterId
+    """)
+    long countVisibleAfter(
+            @Param("companyId") Long companyId,
+            @Param("role") Role role,
+            @Param("afterId") Long afterId
+    );
+
+    @Query("""
+        SELECT MAX(n.id) FROM CompanyNotification n
+        WHERE n.companyId = :companyId
+        AND (n.targetRole IS NULL OR n.targetRole = :role)
+    """)
+    Long findMaxVisibleId(@Param("companyId") Long companyId, @Param("role") Role role);
+
+    // Dedupe index újraépítéshez: (cég, termék, típus, létrehozás, digest termékei) a since óta létrehozott
+    // termékes és összesítő értesítésekre
+    @Query("""
+        SELECT n.companyId, n.productId, n.type, n.createdAt, n.productIds FROM CompanyNotification n
+        WHERE n.createdAt >= :since
+        AND (n.productId IS NOT NULL OR n.productIds IS NOT NULL)
+    """)
+    List<Object[]> findDedupeKeysCreatedSince(@Param("since") LocalDateTime since);
+
+    // Keyset lapozás a látható értesítéseken (lásd NotificationRepository.findPageByUserId)
+    @Query("""
+        SELECT n FROM CompanyNotification n
+        WHERE n.companyId = :companyId
+        AND (n.targetRole IS NULL OR n.targetRole = :role)
+        AND (:before IS NULL OR n.createdAt < :before OR (n.createdAt = :before AND n.id < :tieId))
+        ORDER BY n.createdAt DESC, n.id DESC
+    """)
+    List<CompanyNotification> findVisiblePage(
+            @Param("companyId") Long companyId,
+            @Param("role") Role role,
+            @Param("before") LocalDateTime before,
+            @Param("tieId") Long tieId,
+            Pageable pageable
+    );
+
+    // Lejárt értesítések azonosítói (retention törléshez, chunkonként)
+    @Query("SELECT n.id FROM CompanyNotification n WHERE n.type = :type AND n.createdAt < :cutoff")
+    List<Long> findIdsByTypeCreatedBefore(
+            @Param("type") NotificationType type,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable
+    );
+
+    @Modifying
+    @Query("DELETE FROM CompanyNotification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -2,6 +2,7 @@ package com.founders404.backend.repository;
 
 import com.founders404.backend.model.InventoryMovement;
 import com.founders404.backend.model.MovementType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -30,6 +31,18 @@ public interface InventoryRepository extends JpaRepository<InventoryMovement, Lo
 
     List<InventoryMovement> findByProduct_CompanyIdOrderByTimestampDesc(Long companyId);
 
+    /**
+     * Legutóbbi mozgások termékkel és userrel együtt betöltve (tranzakción kívüli DTO konverzióhoz).
+     */
+    @Query("""
+        SELECT im FROM InventoryMovement im
+        JOIN FETCH im.product p
+        LEFT JOIN FETCH im.user
+        WHERE (:companyId IS NULL OR p.companyId = :companyId)
+        ORDER BY im.timestamp DESC
+    """)
+    List<InventoryMovement> findRecentWithDetails(@Param("companyId") Long companyId, Pageable pageable);
+
     //STATISZTIKAI QUERY
 
     /**
@@ -113,6 +126,52 @@ public interface InventoryRepository extends JpaRepository<InventoryMovement, Lo
             @Param("companyId") Long companyId
     );
 
+    /**
+     * Bevétel és költség napi + órás bontásban, egyetlen csoportosított query-vel (idősoros grafikonokhoz).
+     * Visszaadja: dátum, óra, mozgás típus, bevétel (OUT * grossSellingPrice), költség (IN * netPurchasePrice)
+     */
+    @Query("""
+        SELECT CAST(im.timestamp AS LocalDate),
+               EXTRACT(HOUR FROM im.timestamp),
+               im.movementType,
+               SUM(im.quantity * p.grossSellingPrice),
+               SUM(im.quantity * p.netPurchasePrice)
+        FROM InventoryMovement im
+        JOIN im.product p
+        WHERE im.movementType IN ('IN', 'OUT')
+        AND im.timestamp >= :startDate
+        AND im.timestamp < :endDate
+        AND (:companyId IS NULL OR p.companyId = :companyId)
+        GROUP BY CAST(im.timestamp AS LocalDate), EXTRACT(HOUR FROM im.timestamp), im.movementType
+    """)
+    List<Object[]> findHourlyFinancials(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("companyId") Long companyId
+    );
+
+    /**
+     * Cég termékeinek havi OUT mennyisége és felhasználási értéke (ABC/XYZ besoroláshoz).
+     * Visszaadja: productId, év, hónap, mennyiség, érték (mennyiség * netPurchasePrice)
+     */
+    @Query("""
+        SELECT p.id,
+               EXTRACT(YEAR FROM im.timestamp),
+               EXTRACT(MONTH FROM im.timestamp),
+               SUM(im.quantity),
+               SUM(im.quantity * p.netPurchasePrice)
+        FROM InventoryMovement im
+        JOIN im.product p
+        WHERE im.movementType = 'OUT'
+        AND p.companyId = :companyId
+        AND im.timestamp >= :since
+        GROUP BY p.id, EXTRACT(YEAR FROM im.timestamp), EXTRACT(MONTH FROM im.timestamp)
+    """)
+    List<Object[]> findMonthlyOutByCompany(
+            @Param("companyId") Long companyId,
+            @Param("since") LocalDateTime since
+    );
+
     /**
      * Összes eladott termék bizonyos idő alatt.
      */
@@ -134,19 +193,125 @@ public interface InventoryRepository extends JpaRepository<InventoryMovement, Lo
      * Termék napi OUT mozgásai (predikciókhoz).
      */
     @Query("""
-        SELECT DATE(im.timestamp) as date, SUM(im.quantity) as dailyQuantity
+        SELECT CAST(im.timestamp AS LocalDate) as date, SUM(im.quantity) as dailyQuantity
         FROM InventoryMovement im
         WHERE im.product.id = :productId
         AND im.movementType = 'OUT'
         AND im.timestamp >= :startDate
-        GROUP BY DATE(im.timestamp)
-        ORDER BY DATE(im.timestamp) DESC
+        GROUP BY CAST(im.timestamp AS LocalDate)
+        ORDER BY CAST(im.timestamp AS LocalDate) DESC
     """)
     List<Object[]> findDailyOutMovements(
             @Param("productId") Long productId,
             @Param("startDate") LocalDateTime startDate
     );
 
+    /**
+     * Aktív termékek napi OUT kereslete egyetlen lekérdezésben (batch előrejelzéshez).
+     * Mozgás nélküli termék is visszajön (day = null, quantity = null).
+     * Visszaadja: productId, currentStock, minStockLevel, day, SUM(quantity); productId szerint rendezve
+     */
+    @Query("""
+        SELECT p.id, p.currentStock, p.minStockLevel, CAST(im.timestamp AS LocalDate), SUM(im.quantity)
+        FROM Product p
+        LEFT JOIN InventoryMovement im ON im.product = p
+            AND im.movementType = 'OUT'
+            AND im.timestamp >= :startDate
+        WHERE p.isActive = true
+        AND (:companyId IS NULL OR p.companyId = :companyId)
+        GROUP BY p.id, p.currentStock, p.minStockLevel, CAST(im.timestamp AS LocalDate)
+        ORDER BY p.id
+    """)
+    List<Object[]> findDailyOutDemandForActiveProducts(
+            @Param("companyId") Long companyId,
+            @Param("startDate") LocalDateTime startDate
+    );
+
+    /**
+     * Egy cég (afterId, lastId] tartományba eső termékeinek napi OUT kereslete (darabolt szezonalitás elemzéshez).
+     * Csak a mozgással rendelkező napok jönnek vissza.
+     * Visszaadja: productId, day, SUM(quantity)
+     */
+    @Query("""
+        SELECT im.product.id, CAST(im.timestamp AS LocalDate), SUM(im.quantity)
+        FROM InventoryMovement im
+        WHERE im.product.companyId = :companyId
+        AND im.product.id > :afterId
+        AND im.product.id <= :lastId
+        AND im.movementType = 'OUT'
+        AND im.timestamp >= :startDate
+        GROUP BY im.product.id, CAST(im.timestamp AS LocalDate)
+    """)
+    List<Object[]> findDailyOutDemandInProductRange(
+            @Param("companyId") Long companyId,
+            @Param("afterId") Long afterId,
+            @Param("lastId") Long lastId,
+            @Param("startDate") LocalDateTime startDate
+    );
+
+    /**
+     * OUT mozgások id szerinti lapozással (kereslet modellek visszajátszásához és lekérdezéséhez);
+     * az afterId alatti mozgásokat nem olvassa, a since csak szűrő.
+     * Visszaadja: id, productId, timestamp, quantity
+     */
+    @Query("""
+        SELECT im.id, im.product.id, im.timestamp, im.quantity
+        FROM InventoryMovement im
+        WHERE im.id > :afterId
+        AND im.movementType = 'OUT'
+        AND im.timestamp >= :since
+        ORDER BY im.id
+    """)
+    List<Object[]> findOutMovementRows(
+            @Param("afterId") Long afterId,
+            @Param("since") LocalDateTime since,
+            Pageable pageable
+    );
+
+    /**
+     * Egy cég (afterId, lastId] tartományba eső termékeinek OUT mozgásai since óta (kereslet modellek cseréjéhez).
+     * Visszaadja: id, productId, timestamp, quantity
+     */
+    @Query("""
+        SELECT im.id, im.product.id, im.timestamp, im.quantity
+        FROM InventoryMovement im
+        WHERE im.product.companyId = :companyId
+        AND im.product.id > :afterId
+        AND im.product.id <= :lastId
+        AND im.movementType = 'OUT'
+        AND im.timestamp >= :since
+        ORDER BY im.id
+    """)
+    List<Object[]> findOutMovementRowsInProductRange(
+            @Param("companyId") Long companyId,
+            @Param("afterId") Long afterId,
+            @Param("lastId") Long lastId,
+            @Param("since") LocalDateTime since
+    );
+
+    /**
+     * Könnyűsúlyú mozgás sorok a sketch-ek visszatöltéséhez (id szerinti lapozás).
+     * Visszaadja: id, companyId, productId, userId, movementType, timestamp
+     */
+    @Query("""
+        SELECT im.id, p.companyId, p.id, im.user.id, im.movementType, im.timestamp
+        FROM InventoryMovement im
+        JOIN im.product p
+        WHERE im.id > :afterId
+        AND im.id <= :maxId
+        AND im.timestamp >= :since
+        ORDER BY im.id
+    """)
+    List<Object[]> findSketchRows(
+            @Param("afterId") Long afterId,
+            @Param("maxId") Long maxId,
+            @Param("since") LocalDateTime since,
+            Pageable pageable
+    );
+
+    @Query("SELECT MAX(im.id) FROM InventoryMovement im")
+    Long findMaxId();
+
     /**
      * OUT mozgások termékenkénti összesítése (átlagok számításához).
      */
@@ -0,0 +1,52 @@
+package com.founders404.backend.repository;
+
+import com.founders404.backend.model.NotificationReadState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Értesítés olvasási állapot repository.
+ */
+@Repository
+public interface NotificationReadStateRepository extends JpaRepository<NotificationReadState, Long> {
+
+    /**
+     * Állapot zárolva (egyidejű olvasott jelölések ne írják felül egymást).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM NotificationReadState s WHERE s.userId = :userId")
+    Optional<NotificationReadState> findByIdForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Első állapot beszúrása (a hívó saját írási tranzakciójában, lásd NotificationService);
+     * ha közben egy másik kérés beszúrta, kulcsütközéssel elbukik.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notification_read_state (user_id, last_read_id, updated_at) " +
+                   "VALUES (:userId, :lastReadId, :now)", nativeQuery = true)
+    int insert(@Param("userId") Long userId, @Param("lastReadId") Long lastReadId, @Param("now") LocalDateTime now);
+
+    // Kivételt tartalmazó állapotok, amelyek vízjele maxId alatt van, userId szerinti keyset lapozással
+    @Query("""
+        SELECT s.userId FROM NotificationReadState s
+        WHERE s.lastReadId < :maxId
+        AND s.readExceptionIds IS NOT NULL
+        AND s.userId > :afterUserId
+        ORDER BY s.userId
+    """)
+    List<Long> findUserIdsWithExceptionsBelow(
+            @Param("maxId") Long maxId,
+            @Param("afterUserId") Long afterUserId,
+            Pageable pageable
+    );
+}
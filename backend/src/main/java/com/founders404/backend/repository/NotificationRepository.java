@@ -2,14 +2,16 @@ package com.founders404.backend.repository;
 
 import com.founders404.backend.model.Notification;
 import com.founders404.backend.model.NotificationType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Értesítés repository.
@@ -32,11 +34,51 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      // Értesítés keresése ID és user alapján (security check-hez).
     Notification findByIdAndUserId(Long id, Long userId);
 
-    // Legutóbbi notifikáció egy adott termékhez és userhez
-    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.product.id = :productId AND n.type = :type ORDER BY n.createdAt DESC")
-    List<Notification> findRecentByUserIdAndProductIdAndType(
+    // Egy értesítés olvasottra állítása (0: nem létezik, nem a useré, vagy már olvasott)
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.user.id = :userId AND n.isRead = false")
+    int markReadByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Tömeges olvasottra állítás egy UPDATE-tel; a null szűrő nem szűr
+    @Modifying
+    @Query("""
+        UPDATE Notification n SET n.isRead = true
+        WHERE n.user.id = :userId
+        AND n.isRead = false
+        AND (:type IS NULL OR n.type = :type)
+        AND (:productId IS NULL OR n.product.id = :productId)
+        AND (:before IS NULL OR n.createdAt < :before)
+    """)
+    int markReadMatching(
             @Param("userId") Long userId,
+            @Param("type") NotificationType type,
             @Param("productId") Long productId,
-            @Param("type") NotificationType type
+            @Param("before") LocalDateTime before
+    );
+
+    // Keyset lapozás: createdAt < before, vagy azonos createdAt mellett id < tieId (legújabb elöl)
+    @Query("""
+        SELECT n FROM Notification n
+        WHERE n.user.id = :userId
+        AND (:before IS NULL OR n.createdAt < :before OR (n.createdAt = :before AND n.id < :tieId))
+        ORDER BY n.createdAt DESC, n.id DESC
+    """)
+    List<Notification> findPageByUserId(
+            @Param("userId") Long userId,
+            @Param("before") LocalDateTime before,
+            @Param("tieId") Long tieId,
+            Pageable pageable
     );
-}
\ No newline at end of file
+
+    // Lejárt értesítések azonosítói (retention törléshez, chunkonként)
+    @Query("SELECT n.id FROM Notification n WHERE n.type = :type AND n.createdAt < :cutoff")
+    List<Long> findIdsByTypeCreatedBefore(
+            @Param("type") NotificationType type,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable
+    );
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,24 @@
+package com.founders404.backend.repository;
+
+import com.founders404.backend.model.ProductClassification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * ABC/XYZ besorolások repository.
+ */
+@Repository
+public interface ProductClassificationRepository extends JpaRepository<ProductClassification, Long> {
+
+    List<ProductClassification> findByCompanyId(Long companyId);
+
+    // Cég besorolásainak törlése egyetlen utasítással (újraszámolás előtt)
+    @Modifying
+    @Query("DELETE FROM ProductClassification c WHERE c.companyId = :companyId")
+    int deleteByCompanyId(@Param("companyId") Long companyId);
+}
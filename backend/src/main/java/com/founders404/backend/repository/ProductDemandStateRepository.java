@@ -0,0 +1,21 @@
+package com.founders404.backend.repository;
+
+import com.founders404.backend.model.ProductDemandState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Kereslet modell állapotok repository.
+ */
+@Repository
+public interface ProductDemandStateRepository extends JpaRepository<ProductDemandState, Long> {
+
+    @Modifying
+    @Query("DELETE FROM ProductDemandState s WHERE s.productId IN :ids")
+    int deleteByProductIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,92 @@
+package com.founders404.backend.repository;
+
+import com.founders404.backend.model.ProductForecast;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Előre kiszámolt előrejelzések repository.
+ */
+@Repository
+public interface ProductForecastRepository extends JpaRepository<ProductForecast, Long> {
+
+    /**
+     * Hamarosan elfogyó termékek (companyId = null: minden cég; véglegesen törölt termék sora nélkül).
+     */
+    @Query("""
+        SELECT f FROM ProductForecast f, Product p
+        WHERE p.id = f.productId
+        AND (:companyId IS NULL OR f.companyId = :companyId)
+        AND f.daysUntilStockout <= :maxDays
+        ORDER BY f.daysUntilStockout, f.productId
+    """)
+    List<ProductForecast> findCritical(@Param("companyId") Long companyId, @Param("maxDays") int maxDays);
+
+    @Query("""
+        SELECT f FROM ProductForecast f, Product p
+        WHERE p.id = f.productId
+        AND (:companyId IS NULL OR f.companyId = :companyId)
+        ORDER BY f.productId
+    """)
+    List<ProductForecast> findByCompany(@Param("companyId") Long companyId);
+
+    /**
+     * Egy termék előrejelzése, ha friss: staleBefore után és a termék utolsó módosítása (mozgás, szerkesztés) után számolt.
+     */
+    @Query("""
+        SELECT f FROM ProductForecast f, Product p
+        WHERE f.productId = :productId
+        AND p.id = f.productId
+        AND f.computedAt >= :staleBefore
+        AND f.computedAt >= p.updatedAt
+    """)
+    Optional<ProductForecast> findFresh(@Param("productId") Long productId,
+                                        @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Since óta módosult termékek (mozgás, szerkesztés), amelyeknek nincs azóta számolt előrejelzése
+     * (companyId = null: minden cég). Az updated_at-ből dolgozik, így bármelyik node-on történt változást látja.
+     */
+    @Query("""
+        SELECT p.id FROM Product p
+        LEFT JOIN ProductForecast f ON f.productId = p.id
+        WHERE p.updatedAt >= :since
+        AND (f.productId IS NULL OR f.computedAt < p.updatedAt)
+        AND (:companyId IS NULL OR p.companyId = :companyId)
+        ORDER BY p.id
+    """)
+    List<Long> findTouchedProductIds(@Param("companyId") Long companyId, @Param("since") LocalDateTime since);
+
+    /**
+     * Cég aktív termékei, amelyeknek nincs a cutoff óta számolt előrejelzése (id szerinti lapozás, folytatható).
+     */
+    @Query("""
+        SELECT p.id FROM Product p
+        WHERE p.companyId = :companyId
+        AND p.isActive = true
+        AND p.id > :afterId
+        AND NOT EXISTS (
+            SELECT 1 FROM ProductForecast f WHERE f.productId = p.id AND f.computedAt >= :cutoff
+        )
+        ORDER BY p.id
+    """)
+    List<Long> findStaleProductIds(
+            @Param("companyId") Long companyId,
+            @Param("afterId") Long afterId,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable
+    );
+
+    @Modifying
+    @Query("DELETE FROM ProductForecast f WHERE f.productId IN :ids")
+    int deleteByProductIds(@Param("ids") Collection<Long> ids);
+}
@@ -1,11 +1,18 @@
 package com.founders404.backend.repository;
 
+import com.founders404.backend.model.AbcClass;
+import com.founders404.backend.model.NotificationType;
 import com.founders404.backend.model.Product;
+import com.founders404.backend.model.XyzClass;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,7 +36,119 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByShelfId(Long shelfId);
     List<Product> findByCompanyIdAndNameContainingIgnoreCase(Long companyId, String name);
     List<Product> findByCompanyIdAndIsActiveTrueAndNameContainingIgnoreCase(Long companyId, String name);
-    List<Product> findByCompanyIdAndReorderPointIsNotNull(Long companyId);
+
+    /**
+     * Cég aktív termékeinek azonosítói (batch jobokhoz, teljes entitás betöltése nélkül).
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.companyId = :companyId AND p.isActive = true ORDER BY p.id")
+    List<Long> findActiveIdsByCompanyId(@Param("companyId") Long companyId);
+
+    /**
+     * Cég aktív termékeinek azonosítói afterId után, id szerint lapozva (darabolt batch jobokhoz).
+     */
+    @Query("""
+        SELECT p.id FROM Product p
+        WHERE p.companyId = :companyId
+        AND p.isActive = true
+        AND p.id > :afterId
+        ORDER BY p.id
+    """)
+    List<Long> findActiveIdsByCompanyIdAfter(
+            @Param("companyId") Long companyId,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    /**
+     * Megadott termékek készletszintjei.
+     * Visszaadja: id, companyId, currentStock, minStockLevel, isActive, beszállító átfutási ideje (nullable)
+     */
+    @Query("""
+        SELECT p.id, p.companyId, p.currentStock, p.minStockLevel, p.isActive, s.leadTimeDays
+        FROM Product p
+        LEFT JOIN Supplier s ON s.id = p.supplierId
+        WHERE p.id IN :ids
+    """)
+    List<Object[]> findStockLevelsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Újrarendelési pont alá (vagy rá) került aktív termékek (companyId = null: minden cég).
+     */
+    @Query("""
+        SELECT p FROM Product p
+        WHERE p.isActive = true
+        AND p.reorderPoint IS NOT NULL
+        AND p.currentStock <= p.reorderPoint
+        AND (:companyId IS NULL OR p.companyId = :companyId)
+        ORDER BY p.id
+    """)
+    List<Product> findBelowReorderPoint(@Param("companyId") Long companyId);
+
+    /**
+     * Automatikus beszerzéshez: az újrarendelési pont alá (vagy rá) került aktív termékek, ahol az újrarendelési pont
+     * a kézzel megadott, ha nincs, az előrejelzésből számolt (product_forecasts, csak ha > 0).
+     * Visszaadja: Product, effektív újrarendelési pont; id szerint rendezve (companyId = null: minden cég)
+     */
+    @Query("""
+        SELECT p, COALESCE(p.reorderPoint, f.reorderPoint) FROM Product p
+        LEFT JOIN ProductForecast f ON f.productId = p.id
+        WHERE p.isActive = true
+        AND (p.reorderPoint IS NOT NULL OR f.reorderPoint > 0)
+        AND p.currentStock <= COALESCE(p.reorderPoint, f.reorderPoint)
+        AND (:companyId IS NULL OR p.companyId = :companyId)
+        ORDER BY p.id
+    """)
+    List<Object[]> findReorderCandidates(@Param("companyId") Long companyId);
+
+    /**
+     * Mint a findReorderCandidates, a megadott termékek közül.
+     */
+    @Query("""
+        SELECT p, COALESCE(p.reorderPoint, f.reorderPoint) FROM Product p
+        LEFT JOIN ProductForecast f ON f.productId = p.id
+        WHERE p.id IN :ids
+        AND p.isActive = true
+        AND (p.reorderPoint IS NOT NULL OR f.reorderPoint > 0)
+        AND p.currentStock <= COALESCE(p.reorderPoint, f.reorderPoint)
+    """)
+    List<Object[]> findReorderCandidatesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Since óta módosult aktív termékek, amelyek elfogytak, a min. szinten / újrarendelési ponton vagy alatta,
+     * illetve a max. szinten vagy felette vannak (készlet riasztás egyeztetés, updated_at index);
+     * továbbá a riasztott állapotú termékek, hogy a küszöbökön belül visszatértek állapota törlődjön.
+     */
+    @Query("""
+        SELECT p FROM Product p
+        WHERE p.updatedAt >= :since
+        AND p.isActive = true
+        AND (p.currentStock <= 0
+          OR (p.minStockLevel IS NOT NULL AND p.currentStock <= p.minStockLevel)
+          OR (p.reorderPoint IS NOT NULL AND p.currentStock <= p.reorderPoint)
+          OR (p.maxStockLevel IS NOT NULL AND p.currentStock >= p.maxStockLevel)
+          OR p.alertState IS NOT NULL)
+        ORDER BY p.id
+    """)
+    List<Product> findStockAlertCandidatesUpdatedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT DISTINCT p.companyId FROM Product p WHERE p.companyId IS NOT NULL")
+    List<Long> findDistinctCompanyIds();
+
+    /**
+     * Cég termékei ABC/XYZ besorolás szerint szűrve (null = nincs szűrés).
+     */
+    @Query("""
+        SELECT p FROM Product p, ProductClassification c
+        WHERE c.productId = p.id
+        AND p.companyId = :companyId
+        AND (:abcClass IS NULL OR c.abcClass = :abcClass)
+        AND (:xyzClass IS NULL OR c.xyzClass = :xyzClass)
+    """)
+    List<Product> findByCompanyIdAndClassification(
+            @Param("companyId") Long companyId,
+            @Param("abcClass") AbcClass abcClass,
+            @Param("xyzClass") XyzClass xyzClass
+    );
 
     //STATISZTIKAI QUERY
 
@@ -50,6 +169,29 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Object[]> findCategoryDistribution(@Param("companyId") Long companyId);
 
 
+    /**
+     * Alacsony készletű termékek (currentStock <= minStockLevel).
+     */
+    @Query("""
+        SELECT p FROM Product p
+        WHERE p.minStockLevel IS NOT NULL
+        AND p.currentStock <= p.minStockLevel
+        AND (:companyId IS NULL OR p.companyId = :companyId)
+    """)
+    List<Product> findLowStockProducts(@Param("companyId") Long companyId);
+
+    /**
+     * Teljes készlet érték (netPurchasePrice * currentStock) aktív termékekre.
+     */
+    @Query("""
+        SELECT SUM(p.netPurchasePrice * p.currentStock)
+        FROM Product p
+        WHERE p.isActive = true
+        AND p.netPurchasePrice IS NOT NULL
+        AND (:companyId IS NULL OR p.companyId = :companyId)
+    """)
+    java.math.BigDecimal sumInventoryValue(@Param("companyId") Long companyId);
+
     @Query("""
         SELECT SUM(p.currentStock)
         FROM Product p
@@ -64,6 +206,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
     Long countActiveProducts();
 
+    /**
+     * Cég aktív termékeinek száma (companyId = null: minden cég).
+     */
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.isActive = true AND (:companyId IS NULL OR p.companyId = :companyId)")
+    long countActiveProductsByCompanyId(@Param("companyId") Long companyId);
+
     /**
      * Készleten lévő termékek (currentStock > 0).
      */
@@ -75,4 +223,20 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @Query("SELECT COUNT(p) FROM Product p WHERE p.currentStock = 0")
     Long countOutOfStockProducts();
+
+    /**
+     * Csak a QR kód oszlop frissítése (a háttérben renderelt kép útvonala), a többi mezőt nem írja felül.
+     */
+    // Riasztott készlet állapot beállítása (null: törlés); bulk update, az updated_at nem változik
+    @Modifying
+    @Query("UPDATE Product p SET p.alertState = :state WHERE p.id IN :ids")
+    int updateAlertState(@Param("ids") Collection<Long> ids, @Param("state") NotificationType state);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.qrCode = :qrCode WHERE p.id = :id")
+    int updateQrCode(@Param("id") Long id, @Param("qrCode") String qrCode);
+
+    // A QR kép tár takarításához: a termékek által hivatkozott képek
+    @Query("SELECT p.qrCode FROM Product p WHERE p.qrCode IS NOT NULL")
+    List<String> findAllQrCodes();
 }
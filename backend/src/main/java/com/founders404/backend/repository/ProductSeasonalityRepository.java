@@ -0,0 +1,40 @@
+package com.founders404.backend.repository;
+
+import com.founders404.backend.model.ProductSeasonality;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Termék szezonalitás repository.
+ */
+@Repository
+public interface ProductSeasonalityRepository extends JpaRepository<ProductSeasonality, Long> {
+
+    List<ProductSeasonality> findByCompanyId(Long companyId);
+
+    // Egy cég szezonális termékei (memóriabeli indexek betöltéséhez)
+    @Query("SELECT s FROM ProductSeasonality s WHERE s.companyId = :companyId " +
+           "AND (s.weeklySeasonal = true OR s.yearlySeasonal = true)")
+    List<ProductSeasonality> findSeasonalByCompanyId(@Param("companyId") Long companyId);
+
+    // Cégenként a legrégebbi sor számítási ideje (más node futásának felismeréséhez): darabolt futás közben
+    // még a régi sorok ideje, így egy félkész futás nem töltődik be; a futás végén az új
+    @Query("SELECT s.companyId, MIN(s.computedAt) FROM ProductSeasonality s GROUP BY s.companyId")
+    List<Object[]> findComputedAtByCompany();
+
+    @Modifying
+    @Query("DELETE FROM ProductSeasonality s WHERE s.productId IN :productIds")
+    int deleteByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // Egy futás végén: a cég azon sorai, amelyeket ez a futás nem írt újra (azóta inaktív termékek)
+    @Modifying
+    @Query("DELETE FROM ProductSeasonality s WHERE s.companyId = :companyId AND s.computedAt <> :computedAt")
+    int deleteStale(@Param("companyId") Long companyId, @Param("computedAt") LocalDateTime computedAt);
+}
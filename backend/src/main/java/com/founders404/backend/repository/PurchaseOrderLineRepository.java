@@ -0,0 +1,33 @@
+package com.founders404.backend.repository;
+
+import com.founders404.backend.model.PurchaseOrderLine;
+import com.founders404.backend.model.PurchaseOrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Beszerzési rendelés tételek repository.
+ */
+@Repository
+public interface PurchaseOrderLineRepository extends JpaRepository<PurchaseOrderLine, Long> {
+
+    List<PurchaseOrderLine> findByOrderIdOrderById(Long orderId);
+    List<PurchaseOrderLine> findByOrderIdInOrderById(Collection<Long> orderIds);
+
+    /**
+     * A megadott termékek közül azok, amelyek már szerepelnek nyitott (adott állapotú) rendelésen.
+     */
+    @Query("""
+        SELECT DISTINCT l.productId FROM PurchaseOrderLine l, PurchaseOrder o
+        WHERE o.id = l.orderId
+        AND o.status IN :statuses
+        AND l.productId IN :productIds
+    """)
+    List<Long> findProductIdsOnOrders(@Param("productIds") Collection<Long> productIds,
+                                      @Param("statuses") Collection<PurchaseOrderStatus> statuses);
+}
@@ -0,0 +1,43 @@
+package com.founders404.backend.repository;
+
+import com.founders404.backend.model.PurchaseOrder;
+import com.founders404.backend.model.PurchaseOrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Beszerzési rendelés repository.
+ */
+@Repository
+public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
+
+    List<PurchaseOrder> findByCompanyIdOrderByCreatedAtDesc(Long companyId);
+    List<PurchaseOrder> findByCompanyIdAndStatusOrderByCreatedAtDesc(Long companyId, PurchaseOrderStatus status);
+
+    /**
+     * Nyitott automatikus tervezetek zárolva, hogy a bővítés alatt ne lehessen elküldeni / visszavonni őket.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT o FROM PurchaseOrder o
+        WHERE o.companyId IN :companyIds
+        AND o.status = com.founders404.backend.model.PurchaseOrderStatus.DRAFT
+        AND o.autoGenerated = true
+    """)
+    List<PurchaseOrder> findOpenAutoDraftsForUpdate(@Param("companyIds") Collection<Long> companyIds);
+
+    /**
+     * Rendelés zárolva (állapotváltáshoz, hogy ugyanaz a rendelés ne legyen kétszer bevételezve).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM PurchaseOrder o WHERE o.id = :id")
+    Optional<PurchaseOrder> findByIdForUpdate(@Param("id") Long id);
+}
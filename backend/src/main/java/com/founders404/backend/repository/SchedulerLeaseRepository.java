@@ -0,0 +1,67 @@
+package com.founders404.backend.repository;
+
+import com.founders404.backend.model.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Lejárt lease átvétele új fencing tokennel (feltételes UPDATE, így egyszerre csak egy node nyerhet).
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.fencingToken = l.fencingToken + 1, " +
+           "l.lockedAt = :now, l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND l.expiresAt <= :now")
+    int takeOver(@Param("name") String name, @Param("owner") String owner,
+                 @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Első megszerzés; ha közben egy másik node beszúrta, kulcsütközéssel elbukik.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_leases (name, owner, fencing_token, locked_at, expires_at) " +
+                   "VALUES (:name, :owner, 1, :now, :expiresAt)", nativeQuery = true)
+    int insert(@Param("name") String name, @Param("owner") String owner,
+               @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Meghosszabbítás, csak ha még a miénk és nem járt le.
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :token AND l.expiresAt > :now")
+    int extend(@Param("name") String name, @Param("owner") String owner, @Param("token") Long token,
+               @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Elengedés: a lejárat a megadott időpontra áll (legalább a minimális tartási idő végéig).
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :token")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("token") Long token,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Fencing a védett írás tranzakciójában: a lease sor zárolódik a commitig (az átvétel addig vár),
+     * és csak akkor érint sort, ha a token még az aktuális és a lease nem járt le.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("UPDATE SchedulerLease l SET l.fencingToken = l.fencingToken " +
+           "WHERE l.name = :name AND :token >= l.fencingToken AND l.expiresAt > :now")
+    int fence(@Param("name") String name, @Param("token") Long token, @Param("now") LocalDateTime now);
+
+    @Query("SELECT l.fencingToken FROM SchedulerLease l WHERE l.name = :name")
+    Optional<Long> findTokenByName(@Param("name") String name);
+}
@@ -14,6 +14,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Set;
 
 /**
  * JWT Authentication Filter.
@@ -23,6 +24,8 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Set<String> QUERY_TOKEN_PATHS = Set.of("/api/notifications/stream");
+
     private final JwtUtil jwtUtil;
 
     @Override
@@ -34,15 +37,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Authorization header kinyerése
         String authHeader = request.getHeader("Authorization");
 
-        // Ha nincs header vagy nem Bearer token, akkor tovább a következő filterre
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        // Token kinyerése (eltávolítjuk a "Bearer " prefix-et);
+        // az SSE végpontnál query paraméterből is, mert az EventSource nem tud headert küldeni
+        String token = null;
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            token = authHeader.substring(7);
+        } else if (QUERY_TOKEN_PATHS.contains(request.getRequestURI())) {
+            token = request.getParameter("token");
+        }
+
+        // Ha nincs token, akkor tovább a következő filterre
+        if (token == null || token.isBlank()) {
             filterChain.doFilter(request, response);
             return;
         }
 
         try {
-            // Token kinyerése (eltávolítjuk a "Bearer " prefix-et)
-            String token = authHeader.substring(7);
 
             // Username kinyerése a tokenből
             String username = jwtUtil.extractUsername(token);
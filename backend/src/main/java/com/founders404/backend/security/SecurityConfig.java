@@ -1,5 +1,6 @@
 package com.founders404.backend.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,6 +37,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/h2-console/**").permitAll() // H2 console hozzáférés (fejlesztéshez)
                         .requestMatchers("/error").permitAll()
+                        // SSE: a kérés már hitelesítve volt, a lezáráskori async dispatch-nek nincs tokenje
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 
                         // Védett endpointok (JWT token kell)
                         .requestMatchers("/api/products/**").authenticated()
@@ -0,0 +1,127 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.analytics.Backtester;
+import com.founders404.backend.analytics.DemandMatrix;
+import com.founders404.backend.analytics.ExponentialSmoothingStrategy;
+import com.founders404.backend.analytics.ForecastStrategy;
+import com.founders404.backend.analytics.HoltStrategy;
+import com.founders404.backend.analytics.MovingAverageStrategy;
+import com.founders404.backend.analytics.SyntheticDemandGenerator;
+import com.founders404.backend.dto.BacktestReportDTO;
+import com.founders404.backend.dto.BacktestResultDTO;
+import com.founders404.backend.repository.InventoryRepository;
+import com.founders404.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Előrejelző stratégiák visszamérése a cég tényleges mozgásain vagy szintetikus adaton.
+ * Stratégiák: a régi 30 napos mozgóátlag, 7 napos mozgóátlag, egyszerű exponenciális simítás és
+ * az éles Holt modell (a beállított paraméterekkel).
+ */
+@Service
+@RequiredArgsConstructor
+public class BacktestService {
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductRepository productRepository;
+    private final DemandStateService demandStateService;
+
+    // Memória korlát: termékek x napok (double cellák)
+    @Value("${forecast.backtest.max-cells:10000000}")
+    private long maxCells = 10_000_000L;
+
+    @Value("${forecast.backtest.ses-alpha:0.3}")
+    private double sesAlpha = 0.3;
+
+    /**
+     * Visszamérés a cég aktív termékeinek elmúlt days napi OUT keresletén (companyId = null: minden cég).
+     * A méret korlát a lekérdezés előtt, a termékszámból ellenőrződik.
+     */
+    public BacktestReportDTO runHistorical(Long companyId, int days, int warmupDays) {
+        checkSize(productRepository.countActiveProductsByCompanyId(companyId), days);
+        LocalDate from = LocalDate.now().minusDays(days - 1L);
+        DemandMatrix matrix = DemandMatrix.fromRows(
+                inventoryRepository.findDailyOutDemandForActiveProducts(companyId, from.atStartOfDay()), from, days);
+
+        return BacktestReportDTO.builder()
+                .dataset("history")
+                .companyId(companyId)
+                .products(matrix.size())
+                .from(from)
+                .days(days)
+                .warmupDays(warmupDays)
+                .results(runAll(matrix, warmupDays))
+                .build();
+    }
+
+    /**
+     * Visszamérés reprodukálható szintetikus (többéves) adathalmazon.
+     */
+    public BacktestReportDTO runSynthetic(int products, int years, long seed, int warmupDays) {
+        int days = years * 365;
+        checkSize(products, days);
+        LocalDate from = LocalDate.now().minusDays(days);
+        DemandMatrix matrix = SyntheticDemandGenerator.generate(products, days, from, seed);
+
+        return BacktestReportDTO.builder()
+                .dataset("synthetic")
+                .seed(seed)
+                .products(products)
+                .from(from)
+                .days(days)
+                .warmupDays(warmupDays)
+                .results(runAll(matrix, warmupDays))
+                .build();
+    }
+
+    /**
+     * A visszamért stratégiák.
+     */
+    public List<ForecastStrategy> strategies() {
+        return List.of(
+                new MovingAverageStrategy(30),
+                new MovingAverageStrategy(7),
+                new ExponentialSmoothingStrategy(sesAlpha),
+                new HoltStrategy(demandStateService.getParameters())
+        );
+    }
+
+    private List<BacktestResultDTO> runAll(DemandMatrix matrix, int warmupDays) {
+        return strategies().stream()
+                .map(strategy -> toDTO(Backtester.run(strategy, matrix, warmupDays)))
+                .toList();
+    }
+
+    private void checkSize(long products, long days) {
+        if (days <= 0) {
+            throw new RuntimeException("Days must be positive");
+        }
+        if (products * days > maxCells) {
+            throw new RuntimeException("Backtest dataset too large: " + products + " products x " + days
+                    + " days (max " + maxCells + " cells)");
+        }
+    }
+
+    private static BacktestResultDTO toDTO(Backtester.Result result) {
+        return BacktestResultDTO.builder()
+                .strategy(result.strategy())
+                .forecasts(result.forecasts())
+                .mape(finiteOrNull(result.mape()))
+                .wape(finiteOrNull(result.wape()))
+                .bias(result.bias())
+                .mae(result.mae())
+                .rmse(result.rmse())
+                .elapsedMs(result.elapsedNanos() / 1_000_000)
+                .forecastsPerSecond(result.forecastsPerSecond())
+                .build();
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+}
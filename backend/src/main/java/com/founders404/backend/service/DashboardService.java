@@ -0,0 +1,114 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.DashboardSummaryDTO;
+import com.founders404.backend.dto.InventoryMovementDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Dashboard összesítő.
+ * A független részeket párhuzamosan, virtuális szálakon számolja, részenkénti timeouttal,
+ * így a teljes válaszidő a leglassabb rész ideje (nem az összegük).
+ * Timeoutkor a rész szála megszakítódik, így a lassú részek nem gyűlnek fel a háttérben.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    private final StatisticsCacheService statisticsCacheService;
+    private final ForecastService forecastService;
+    private final InventoryService inventoryService;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${dashboard.part-timeout-ms:3000}")
+    private long partTimeoutMs = 3000;
+
+    public DashboardSummaryDTO getSummary(Long companyId, LocalDateTime startDate, LocalDateTime endDate,
+                                          int topLimit, int recentLimit) {
+        long started = System.nanoTime();
+        Map<String, String> failedParts = new ConcurrentHashMap<>();
+
+        var topSelling = part("topSelling", failedParts,
+                () -> statisticsCacheService.getTopSellingProducts(topLimit, companyId));
+        var turnover = part("inventoryTurnover", failedParts,
+                () -> statisticsCacheService.calculateInventoryTurnover(startDate, endDate, companyId));
+        var financial = part("financialStats", failedParts,
+                () -> statisticsCacheService.calculateFinancialStats(startDate, endDate, companyId));
+        var categories = part("categoryDistribution", failedParts,
+                () -> statisticsCacheService.getCategoryDistribution(companyId));
+        var forecasts = part("criticalForecasts", failedParts,
+                () -> forecastService.getCriticalForecasts(companyId));
+        var lowStock = part("lowStockProducts", failedParts,
+                () -> inventoryService.getLowStockProducts(companyId));
+        var recent = part("recentMovements", failedParts,
+                () -> inventoryService.getRecentMovements(companyId, recentLimit).stream()
+                        .map(InventoryMovementDTO::fromEntity)
+                        .toList());
+        var value = part("inventoryValue", failedParts,
+                () -> inventoryService.getInventoryValue(companyId));
+
+        CompletableFuture.allOf(topSelling, turnover, financial, categories, forecasts, lowStock, recent, value).join();
+
+        return DashboardSummaryDTO.builder()
+                .companyId(companyId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .topSelling(topSelling.join())
+                .inventoryTurnover(turnover.join())
+                .financialStats(financial.join())
+                .categoryDistribution(categories.join())
+                .criticalForecasts(forecasts.join())
+                .lowStockProducts(lowStock.join())
+                .recentMovements(recent.join())
+                .inventoryValue(value.join())
+                .failedParts(failedParts)
+                .generatedAt(LocalDateTime.now())
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+                .build();
+    }
+
+    /**
+     * Egy rész aszinkron indítása. Hiba vagy timeout esetén null, az ok a failedParts-ba kerül.
+     * Az orTimeout csak az eredményt zárja le, a futó feladatot a Future cancel(true) szakítja meg.
+     */
+    private <T> CompletableFuture<T> part(String name, Map<String, String> failedParts, Supplier<T> supplier) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                result.complete(supplier.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result
+                .orTimeout(partTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    task.cancel(true);
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    failedParts.put(name, cause instanceof TimeoutException
+                            ? "timeout after " + partTimeoutMs + " ms"
+                            : String.valueOf(cause.getMessage()));
+                    return null;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
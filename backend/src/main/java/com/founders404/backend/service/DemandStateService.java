@@ -0,0 +1,438 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.analytics.DemandMatrix;
+import com.founders404.backend.analytics.HoltDemandModel;
+import com.founders404.backend.analytics.MovementIdWindow;
+import com.founders404.backend.analytics.MovementPollFloor;
+import com.founders404.backend.event.StockMovementEvent;
+import com.founders404.backend.model.MovementType;
+import com.founders404.backend.model.ProductDemandState;
+import com.founders404.backend.repository.InventoryRepository;
+import com.founders404.backend.repository.ProductDemandStateRepository;
+import com.founders404.backend.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Termékenkénti online kereslet modellek (Holt simítás + hiba variancia) a memóriában.
+ * Minden OUT mozgás O(1) időben frissíti a modellt, az előrejelzés egy map lookup.
+ * A modellek minden node-on az adatbázisba commitolt összes mozgást követik: a helyi mozgás eseményből azonnal,
+ * a más node-on rögzítettek a periodikus lekérdezésből (id szerint lapozva egy vízszint fölött, az időablak csak
+ * biztonsági margó; a duplikátumszűrés közös: MovementIdWindow).
+ * A mentett állapot (product_demand_states) a lezárt napok alapállapota: az előrejelző job a cég lease-e alatt
+ * az adatbázis napi aggregátumaiból építi újra és fencing-gel menti, így node-onkénti részleges modell nem íródik.
+ * Induláskor (ApplicationReadyEvent, háttérszálon) az alapállapot töltődik be, és a lezárt napja utáni mozgások
+ * visszajátszódnak; addig az olvasások várnak (forecast.demand.ready-timeout-ms), az élő mozgásokat pedig
+ * a betöltés utáni első lekérdezés építi be.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DemandStateService {
+
+    private static final int REPLAY_PAGE_SIZE = 5000;
+    private static final int CHUNK_SIZE = 1000;
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductRepository productRepository;
+    private final ProductDemandStateRepository demandStateRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Long, HoltDemandModel> models = new ConcurrentHashMap<>();
+
+    // Rögzítés (olvasó zár, párhuzamos) és a modellek cseréje újraépítéskor (író zár)
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    @Value("${forecast.demand.alpha:0.3}")
+    private double alpha = 0.3;
+
+    @Value("${forecast.demand.beta:0.1}")
+    private double beta = 0.1;
+
+    @Value("${forecast.demand.gamma:0.1}")
+    private double gamma = 0.1;
+
+    // Az alapállapot ennyi lezárt nap historikus keresletéből épül
+    @Value("${forecast.demand.bootstrap-days:90}")
+    private int bootstrapDays = 90;
+
+    // A periodikus lekérdezés az előző futás előtti ennyi másodpercet is átnézi (későn commitolt mozgások, óraeltérés)
+    @Value("${forecast.demand.poll-margin-seconds:60}")
+    private int pollMarginSeconds = 60;
+
+    // A közös duplikátumszűrő ennyi legutóbbi mozgás id-t tart a vízszint felett
+    @Value("${forecast.demand.dedupe-window:10000}")
+    private int dedupeWindow = 10_000;
+
+    private HoltDemandModel.Parameters parameters;
+    private MovementIdWindow recentMovementIds;
+
+    // Az olvasások legfeljebb ennyit várnak az induláskori betöltésre
+    @Value("${forecast.demand.ready-timeout-ms:120000}")
+    private long readyTimeoutMs = 120_000L;
+
+    // Az előző lekérdezés kezdete (null: még nem töltődött be)
+    private volatile LocalDateTime pollCursor;
+
+    // A lekérdezés alsó határa: ez alatt minden mozgást beolvasott a betöltés vagy egy korábbi lekérdezés
+    private final MovementPollFloor pollFloor = new MovementPollFloor();
+
+    // Nyitva, ha lefutott az induláskori betöltés (sikertelenül is: akkor üres modellekkel)
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    @PostConstruct
+    void init() {
+        parameters = new HoltDemandModel.Parameters(alpha, beta, gamma);
+        recentMovementIds = new MovementIdWindow(dedupeWindow);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoad() {
+        Thread.ofVirtual().name("demand-state-load").start(this::loadOnStartup);
+    }
+
+    /**
+     * Induláskori betöltés; utána nyílnak meg az olvasások.
+     */
+    void loadOnStartup() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            // Üres modellekkel, de az élő mozgásokat innentől követi
+            pollCursor = LocalDateTime.now();
+            log.error("Demand state load failed, models start empty", e);
+        } finally {
+            ready.countDown();
+        }
+    }
+
+    /**
+     * OUT mozgás beépítése a termék modelljébe (a már beépült id kimarad).
+     * Betöltés közben kimarad: a betöltés kezdete óta commitolt mozgásokat az első lekérdezés építi be.
+     */
+    public void record(Long productId, long movementId, LocalDateTime timestamp, double quantity) {
+        if (ready.getCount() > 0) {
+            return;
+        }
+        apply(productId, movementId, timestamp, quantity);
+    }
+
+    private void apply(Long productId, long movementId, LocalDateTime timestamp, double quantity) {
+        if (productId == null || timestamp == null) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            if (movementId > 0 && !recentMovementIds.add(movementId)) {
+                return;
+            }
+            HoltDemandModel model = models.computeIfAbsent(productId, id -> new HoltDemandModel());
+            model.record(timestamp.toLocalDate(), quantity, movementId, parameters);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        if (event.getMovementType() != MovementType.OUT || event.getQuantity() == null) {
+            return;
+        }
+        long movementId = event.getMovementId() != null ? event.getMovementId() : 0L;
+        record(event.getProductId(), movementId, event.getTimestamp(), event.getQuantity());
+    }
+
+    /**
+     * Más node-on (vagy esemény nélkül) rögzített mozgások beépítése: a vízszint feletti, az előző lekérdezés óta
+     * (margóval) rögzített OUT mozgások, id szerinti duplikátumszűréssel. A költség a vízszint feletti mozgásokkal
+     * arányos, nem a teljes mozgás táblával.
+     */
+    @Scheduled(fixedDelayString = "${forecast.demand.poll-interval-ms:5000}",
+            initialDelayString = "${forecast.demand.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime cursor = pollCursor;
+        if (cursor == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = cursor.minusSeconds(pollMarginSeconds);
+        try {
+            long lastId = replay(pollFloor.advance(since), since, Map.of());
+            pollCursor = started;
+            pollFloor.mark(lastId, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // Következő körben ugyanattól a ponttól újra
+            log.error("Demand movement poll failed", e);
+        }
+    }
+
+    /**
+     * Előrejelzett napi kereslet a mai napra (0, ha a terméknek nincs keresleti előzménye).
+     */
+    public double forecastDailyDemand(Long productId) {
+        awaitReady();
+        HoltDemandModel model = models.get(productId);
+        return model != null ? model.forecastDaily(LocalDate.now(), parameters) : 0.0;
+    }
+
+    /**
+     * Előrejelzési hiba szórása (napi).
+     */
+    public double demandStandardDeviation(Long productId) {
+        awaitReady();
+        HoltDemandModel model = models.get(productId);
+        return model != null ? model.standardDeviation() : 0.0;
+    }
+
+    /**
+     * A modell pillanatnyi másolata.
+     */
+    public Optional<HoltDemandModel> getModel(Long productId) {
+        awaitReady();
+        HoltDemandModel model = models.get(productId);
+        return model != null ? Optional.of(model.copy()) : Optional.empty();
+    }
+
+    public HoltDemandModel.Parameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Egy cég modelljeinek újraépítése az adatbázisból, termék chunk-onként (a cég lease-e alatt hívandó):
+     * a lezárt napok alapállapota a napi aggregátumokból, mentés fencing-gel, majd a memóriabeli modell
+     * cseréje az alapállapot + a mai mozgások alapján.
+     * @return újraépített modellek száma
+     */
+    public int rebuildCompany(Long companyId, SchedulerLockService.Lease lease) {
+        // A betöltés ne írja felül az újraépített modelleket
+        awaitReady();
+        long started = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        int rebuilt = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = productRepository.findActiveIdsByCompanyIdAfter(companyId, afterId,
+                    PageRequest.of(0, CHUNK_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            long[] productIds = ids.stream().mapToLong(Long::longValue).toArray();
+            long lastId = productIds[productIds.length - 1];
+            Map<Long, HoltDemandModel> baseline = buildBaseline(companyId, afterId, productIds, today);
+
+            if (lease != null) {
+                lease.checkpoint();
+            }
+            saveBaseline(ids, baseline, lease);
+            swap(companyId, afterId, lastId, ids, baseline, today);
+            rebuilt += baseline.size();
+            afterId = lastId;
+        }
+        log.info("Demand models of company {} rebuilt from history: {} products in {} ms",
+                companyId, rebuilt, System.currentTimeMillis() - started);
+        return rebuilt;
+    }
+
+    /**
+     * Lezárt napok (today előtti bootstrapDays nap) alapállapota; csak a keresettel rendelkező termékekre.
+     */
+    private Map<Long, HoltDemandModel> buildBaseline(Long companyId, long afterId, long[] productIds, LocalDate today) {
+        LocalDate from = today.minusDays(bootstrapDays);
+        DemandMatrix matrix = DemandMatrix.fromDailyRows(productIds, inventoryRepository.findDailyOutDemandInProductRange(
+                companyId, afterId, productIds[productIds.length - 1], from.atStartOfDay()), from, bootstrapDays);
+
+        Map<Long, HoltDemandModel> baseline = new HashMap<>();
+        for (int i = 0; i < matrix.size(); i++) {
+            if (matrix.total(i) <= 0.0) {
+                continue;
+            }
+            HoltDemandModel model = new HoltDemandModel();
+            boolean started = false;
+            for (int d = 0; d < bootstrapDays; d++) {
+                double quantity = matrix.demand(i, d);
+                // Az első eladási naptól indul a modell
+                if (started || quantity > 0.0) {
+                    model.recordDay(from.plusDays(d), quantity, parameters);
+                    started = true;
+                }
+            }
+            baseline.put(matrix.productId(i), model);
+        }
+        return baseline;
+    }
+
+    private void saveBaseline(List<Long> ids, Map<Long, HoltDemandModel> baseline, SchedulerLockService.Lease lease) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (lease != null) {
+                lease.fence();
+            }
+            demandStateRepository.deleteByProductIds(ids);
+            // A törlés JPQL, a perzisztencia kontextusban maradt példányok ne ütközzenek az új sorokkal
+            entityManager.clear();
+            for (Map.Entry<Long, HoltDemandModel> entry : baseline.entrySet()) {
+                ProductDemandState state = new ProductDemandState();
+                state.setProductId(entry.getKey());
+                copyToState(entry.getValue(), state, now);
+                entityManager.persist(state);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    /**
+     * A chunk modelljeinek cseréje: alapállapot + a mai OUT mozgások. Az író zár alatt nem fut rögzítés,
+     * így a lekérdezés előtt commitolt mozgás a lekérdezésből, az utána commitolt az eseményből / lekérdezésből épül be.
+     */
+    private void swap(Long companyId, long afterId, long lastId, List<Long> ids, Map<Long, HoltDemandModel> baseline,
+                      LocalDate today) {
+        swapLock.writeLock().lock();
+        try {
+            Map<Long, HoltDemandModel> fresh = new HashMap<>();
+            baseline.forEach((productId, model) -> fresh.put(productId, model.copy()));
+            for (Object[] row : inventoryRepository.findOutMovementRowsInProductRange(companyId, afterId, lastId,
+                    today.atStartOfDay())) {
+                long movementId = (Long) row[0];
+                recentMovementIds.add(movementId);
+                fresh.computeIfAbsent((Long) row[1], id -> new HoltDemandModel())
+                        .record(((LocalDateTime) row[2]).toLocalDate(), ((Number) row[3]).doubleValue(), movementId,
+                                parameters);
+            }
+            for (Long productId : ids) {
+                HoltDemandModel model = fresh.get(productId);
+                if (model != null) {
+                    models.put(productId, model);
+                } else {
+                    models.remove(productId);
+                }
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mentett alapállapotok betöltése és a lezárt napjuk utáni mozgások visszajátszása.
+     * Mentett állapot nélkül (első indulás) az alapállapot cégenként a napi aggregátumokból épül (mentés nélkül,
+     * azt a cég lease-ét tartó előrejelző job végzi).
+     */
+    void load() {
+        long started = System.currentTimeMillis();
+        LocalDateTime loadStarted = LocalDateTime.now();
+        LocalDate today = LocalDate.now();
+        LocalDate oldest = today.minusDays(bootstrapDays);
+
+        // termék -> az alapállapot utolsó lezárt napja (az addigi mozgások már benne vannak)
+        Map<Long, LocalDate> closedThrough = new HashMap<>();
+        LocalDate replayFrom = null;
+        for (ProductDemandState state : demandStateRepository.findAll()) {
+            models.put(state.getProductId(), toModel(state));
+            LocalDate lastDay = state.getLastDay() != null ? state.getLastDay() : oldest.minusDays(1);
+            closedThrough.put(state.getProductId(), lastDay);
+            if (replayFrom == null || lastDay.plusDays(1).isBefore(replayFrom)) {
+                replayFrom = lastDay.plusDays(1);
+            }
+        }
+
+        if (replayFrom == null) {
+            for (Long companyId : productRepository.findDistinctCompanyIds()) {
+                long afterId = 0L;
+                while (true) {
+                    List<Long> ids = productRepository.findActiveIdsByCompanyIdAfter(companyId, afterId,
+                            PageRequest.of(0, CHUNK_SIZE));
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+                    long[] productIds = ids.stream().mapToLong(Long::longValue).toArray();
+                    models.putAll(buildBaseline(companyId, afterId, productIds, today));
+                    afterId = productIds[productIds.length - 1];
+                }
+            }
+            replayFrom = today;
+        } else if (replayFrom.isBefore(oldest)) {
+            replayFrom = oldest;
+        }
+
+        long lastId = replay(0L, replayFrom.atStartOfDay(), closedThrough);
+        pollFloor.mark(lastId, LocalDateTime.now());
+        pollCursor = loadStarted;
+
+        log.info("Demand models ready for {} products (movements replayed up to id {}) in {} ms",
+                models.size(), lastId, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Az afterId feletti, since óta rögzített OUT mozgások beépítése id szerinti lapozással; a termék
+     * alapállapotának lezárt napjáig (closedThrough) tartó mozgások kimaradnak, a többit a duplikátumszűrő szűri.
+     * @return az utolsó átnézett mozgás id-ja (afterId, ha nem volt ilyen)
+     */
+    private long replay(long afterId, LocalDateTime since, Map<Long, LocalDate> closedThrough) {
+        while (true) {
+            List<Object[]> rows = inventoryRepository.findOutMovementRows(afterId, since,
+                    PageRequest.of(0, REPLAY_PAGE_SIZE));
+            if (rows.isEmpty()) {
+                return afterId;
+            }
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                Long productId = (Long) row[1];
+                LocalDateTime timestamp = (LocalDateTime) row[2];
+                LocalDate closed = closedThrough.get(productId);
+                if (closed != null && !timestamp.toLocalDate().isAfter(closed)) {
+                    continue;
+                }
+                apply(productId, afterId, timestamp, ((Number) row[3]).doubleValue());
+            }
+        }
+    }
+
+    private void awaitReady() {
+        try {
+            if (!ready.await(readyTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Demand models are still loading");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for demand models", e);
+        }
+    }
+
+    private static HoltDemandModel toModel(ProductDemandState state) {
+        return new HoltDemandModel(state.getLevel(), state.getTrend(), state.getVariance(),
+                state.getObservations(), state.getLastDay(), state.getPendingQuantity(), state.getLastMovementId());
+    }
+
+    private static void copyToState(HoltDemandModel model, ProductDemandState state, LocalDateTime now) {
+        state.setLevel(model.getLevel());
+        state.setTrend(model.getTrend());
+        state.setVariance(model.getVariance());
+        state.setObservations(model.getObservations());
+        state.setLastDay(model.getLastDay());
+        state.setPendingQuantity(model.getPendingQuantity());
+        state.setLastMovementId(model.getLastMovementId());
+        state.setUpdatedAt(now);
+    }
+}
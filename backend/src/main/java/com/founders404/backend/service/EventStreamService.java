@@ -0,0 +1,227 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.event.NotificationCreatedEvent;
+import com.founders404.backend.event.StockMovementEvent;
+import com.founders404.backend.model.Role;
+import com.founders404.backend.model.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Élő események (új értesítés, készletváltozás) SSE-n a bejelentkezett usereknek.
+ * A tétlen kapcsolat nem foglal szálat (servlet async); a publikáló szál csak sorba tesz,
+ * a küldés előfizetőnként sorrendben, virtuális szálon megy. A lassú kliens túlcsorduláskor lekapcsolódik.
+ */
+@Slf4j
+@Service
+public class EventStreamService {
+
+    private final ConcurrentHashMap<Long, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Subscriber>> byCompany = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Ennyi idő után a kapcsolat lezárul, az EventSource magától újracsatlakozik
+    @Value("${events.sse-timeout-ms:1800000}")
+    private long timeoutMs = 1_800_000L;
+
+    @Value("${events.max-connections:20000}")
+    private int maxConnections = 20_000;
+
+    // Előfizetőnként ennyi el nem küldött üzenet fér a sorba
+    @Value("${events.max-queued-messages:256}")
+    private int maxQueuedMessages = 256;
+
+    record Message(String name, Object data) {
+    }
+
+    static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final Long companyId;
+        private final Role role;
+        private final ConcurrentLinkedQueue<Message> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Long userId, Long companyId, Role role) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.companyId = companyId;
+            this.role = role;
+        }
+    }
+
+    /**
+     * Feliratkozás a user saját és cégszintű eseményeire.
+     */
+    public SseEmitter subscribe(User user) {
+        Long companyId = user.getCompany() != null ? user.getCompany().getId() : null;
+        return register(new SseEmitter(timeoutMs), user.getId(), companyId, user.getRole());
+    }
+
+    SseEmitter register(SseEmitter emitter, Long userId, Long companyId, Role role) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new RuntimeException("Too many event stream connections");
+        }
+        Subscriber subscriber = new Subscriber(emitter, userId, companyId, role);
+        add(byUser, userId, subscriber);
+        if (companyId != null) {
+            add(byCompany, companyId, subscriber);
+        }
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        enqueue(subscriber, new Message("connected", Map.of("userId", userId)));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        Message message = new Message("notification", event.getNotification());
+        if (event.getUserId() != null) {
+            for (Subscriber subscriber : byUser.getOrDefault(event.getUserId(), Set.of())) {
+                enqueue(subscriber, message);
+            }
+        } else if (event.getCompanyId() != null) {
+            for (Subscriber subscriber : byCompany.getOrDefault(event.getCompanyId(), Set.of())) {
+                if (event.getTargetRole() == null || event.getTargetRole() == subscriber.role) {
+                    enqueue(subscriber, message);
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        if (event.getCompanyId() == null) {
+            return;
+        }
+        Message message = new Message("stock", event);
+        for (Subscriber subscriber : byCompany.getOrDefault(event.getCompanyId(), Set.of())) {
+            enqueue(subscriber, message);
+        }
+    }
+
+    /**
+     * Életjel: a proxyk nem zárják le a tétlen kapcsolatot, és a halott kapcsolatok kiesnek.
+     */
+    @Scheduled(fixedDelayString = "${events.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        Message ping = new Message(null, "ping");
+        for (Set<Subscriber> subscribers : byUser.values()) {
+            for (Subscriber subscriber : subscribers) {
+                enqueue(subscriber, ping);
+            }
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    private void enqueue(Subscriber subscriber, Message message) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (subscriber.queued.incrementAndGet() > maxQueuedMessages) {
+            log.warn("Event stream of user {} is too slow, disconnecting", subscriber.userId);
+            close(subscriber);
+            return;
+        }
+        subscriber.queue.add(message);
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Előfizetőnként egyszerre egy küldő fut, így az üzenetek sorrendje megmarad.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            Message message;
+            while ((message = subscriber.queue.poll()) != null) {
+                subscriber.queued.decrementAndGet();
+                try {
+                    subscriber.emitter.send(toEvent(message));
+                } catch (IOException | IllegalStateException e) {
+                    close(subscriber);
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private static SseEmitter.SseEventBuilder toEvent(Message message) {
+        if (message.name() == null) {
+            return SseEmitter.event().comment(String.valueOf(message.data()));
+        }
+        return SseEmitter.event().name(message.name()).data(message.data(), MediaType.APPLICATION_JSON);
+    }
+
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        try {
+            subscriber.emitter.complete();
+        } catch (RuntimeException ignored) {
+            // már lezárt kapcsolat
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connections.decrementAndGet();
+        remove(byUser, subscriber.userId, subscriber);
+        if (subscriber.companyId != null) {
+            remove(byCompany, subscriber.companyId, subscriber);
+        }
+    }
+
+    // Hozzáadás és törlés ugyanazon a kulcson atomikus, így üres halmaz nem marad a mapben
+    private static void add(ConcurrentHashMap<Long, Set<Subscriber>> index, Long key, Subscriber subscriber) {
+        index.compute(key, (k, set) -> {
+            Set<Subscriber> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+            subscribers.add(subscriber);
+            return subscribers;
+        });
+    }
+
+    private static void remove(ConcurrentHashMap<Long, Set<Subscriber>> index, Long key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Set<Subscriber> subscribers : byUser.values()) {
+            subscribers.forEach(this::close);
+        }
+        sender.shutdown();
+    }
+}
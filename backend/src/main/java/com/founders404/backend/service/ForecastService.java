@@ -0,0 +1,337 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.ReorderPointDTO;
+import com.founders404.backend.dto.StockForecastDTO;
+import com.founders404.backend.model.ProductForecast;
+import com.founders404.backend.repository.ProductForecastRepository;
+import com.founders404.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Előre kiszámolt előrejelzések (product_forecasts tábla).
+ * Az éjszakai job cégenként párhuzamosan, termék chunk-onként tölti a táblát; a már aznap kiszámolt
+ * termékeket kihagyja, így megszakadás után folytatható. A cég kereslet modelljei a számolás előtt, a cég
+ * lease-e alatt az adatbázisból épülnek újra. Az endpointok a táblából szolgálnak ki, egy terméket csak akkor
+ * számolnak újra, ha az elavult: régi, vagy a termék azóta mozgott / módosult (updated_at, bármelyik node-on).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ForecastService {
+
+    private static final int CRITICAL_DAYS = 7;
+
+    private final PredictionService predictionService;
+    private final DemandStateService demandStateService;
+    private final ProductRepository productRepository;
+    private final ProductForecastRepository forecastRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService schedulerLockService;
+    private final ScheduledJobService scheduledJobService;
+
+    private final AtomicBoolean jobRunning = new AtomicBoolean(false);
+    private final LongAdder jobProcessed = new LongAdder();
+    private volatile LocalDateTime lastJobStartedAt;
+    private volatile LocalDateTime lastJobFinishedAt;
+
+    @Value("${forecast.job.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${forecast.stale-after-hours:24}")
+    private long staleAfterHours = 24;
+
+    @Value("${forecast.job.resume-on-startup:true}")
+    private boolean resumeOnStartup = true;
+
+    /**
+     * Egy termék előrejelzése a táblából; elavult vagy hiányzó sor esetén újraszámolja.
+     */
+    public StockForecastDTO getForecast(Long productId) {
+        ProductForecast forecast = forecastRepository.findFresh(productId, staleBefore())
+                .orElseGet(() -> {
+                    List<ProductForecast> refreshed = refresh(List.of(productId));
+                    if (refreshed.isEmpty()) {
+                        throw new RuntimeException("Product not found");
+                    }
+                    return refreshed.get(0);
+                });
+        return toForecastDTO(forecast);
+    }
+
+    /**
+     * Hamarosan elfogyó termékek a táblából (előtte a mozgott termékek frissülnek).
+     * A staleAfterHours-nál régebbi kritikus sorok újraszámolódnak, és a lista újra lekérdeződik.
+     */
+    public List<StockForecastDTO> getCriticalForecasts(Long companyId) {
+        refreshTouched(companyId);
+        List<ProductForecast> critical = forecastRepository.findCritical(companyId, CRITICAL_DAYS);
+        if (refreshStale(critical)) {
+            critical = forecastRepository.findCritical(companyId, CRITICAL_DAYS);
+        }
+        return critical.stream()
+                .map(ForecastService::toForecastDTO)
+                .toList();
+    }
+
+    /**
+     * Újrarendelési javaslatok a táblából; a staleAfterHours-nál régebbi sorok előbb újraszámolódnak.
+     */
+    public List<ReorderPointDTO> getReorderRecommendations(Long companyId) {
+        refreshTouched(companyId);
+        List<ProductForecast> forecasts = forecastRepository.findByCompany(companyId);
+        if (refreshStale(forecasts)) {
+            forecasts = forecastRepository.findByCompany(companyId);
+        }
+        return forecasts.stream()
+                .map(ForecastService::toReorderPointDTO)
+                .toList();
+    }
+
+    /**
+     * Éjszakai teljes újraszámolás.
+     */
+    @Scheduled(cron = "${forecast.job.cron:0 0 3 * * *}")
+    public void runNightly() {
+        LocalDateTime cutoff = LocalDate.now().atStartOfDay();
+        submitJob(cutoff);
+    }
+
+    /**
+     * Induláskor a megszakadt / kimaradt futás folytatása a háttérben.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        if (resumeOnStartup) {
+            submitJob(LocalDate.now().atStartOfDay());
+        }
+    }
+
+    /**
+     * Kézi indítás a háttérben.
+     * @return false, ha már fut egy job
+     */
+    public boolean startJob() {
+        return submitJob(LocalDateTime.now());
+    }
+
+    /**
+     * Minden indítás ugyanazon a sor jobon megy át, így a futás ellenőrzése és az indítás egy lépés.
+     */
+    private boolean submitJob(LocalDateTime cutoff) {
+        return scheduledJobService.submit(ScheduledJobService.ANALYTICS, "forecast", () -> runJob(cutoff));
+    }
+
+    /**
+     * Job állapot.
+     */
+    public Map<String, Object> getJobStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", jobRunning.get());
+        status.put("processed", jobProcessed.sum());
+        status.put("lastStartedAt", lastJobStartedAt);
+        status.put("lastFinishedAt", lastJobFinishedAt);
+        return status;
+    }
+
+    /**
+     * Minden cég azon termékeinek újraszámolása, amelyeknek nincs cutoff óta számolt sora.
+     * Több node esetén cégenként az a node számol, amelyik a cég lease-ét megszerzi
+     * (SchedulerLockService.runPerCompany, a párhuzamosság scheduler.company-parallelism).
+     */
+    void runJob(LocalDateTime cutoff) {
+        if (!jobRunning.compareAndSet(false, true)) {
+            log.info("Forecast job already running, skipped");
+            return;
+        }
+        long started = System.currentTimeMillis();
+        lastJobStartedAt = LocalDateTime.now();
+        jobProcessed.reset();
+        try {
+            schedulerLockService.runPerCompany("forecast", productRepository.findDistinctCompanyIds(),
+                    (companyId, lease) -> runCompany(companyId, cutoff, lease));
+            lastJobFinishedAt = LocalDateTime.now();
+            log.info("Forecast job finished: {} products in {} ms", jobProcessed.sum(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Forecast job failed after {} products", jobProcessed.sum(), e);
+        } finally {
+            jobRunning.set(false);
+        }
+    }
+
+    private void runCompany(Long companyId, LocalDateTime cutoff, SchedulerLockService.Lease lease) {
+        long afterId = 0L;
+        while (true) {
+            lease.checkpoint();
+            List<Long> ids = forecastRepository.findStaleProductIds(companyId, afterId, cutoff,
+                    PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                return;
+            }
+            if (afterId == 0L) {
+                // Van mit számolni: a cég modelljei előbb az adatbázisból (nem csak az ezen a node-on látott mozgásokból)
+                demandStateService.rebuildCompany(companyId, lease);
+            }
+            refresh(ids, lease);
+            jobProcessed.add(ids.size());
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    /**
+     * Termékek újraszámolása és mentése egy tranzakcióban (inaktív / törölt termék sora törlődik).
+     */
+    List<ProductForecast> refresh(List<Long> productIds) {
+        return refresh(productIds, null);
+    }
+
+    /**
+     * Lease alatti újraszámolás: a mentő tranzakció fencing-gel indul.
+     */
+    private List<ProductForecast> refresh(List<Long> productIds, SchedulerLockService.Lease lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = productRepository.findStockLevelsByIds(productIds).stream()
+                .filter(row -> Boolean.TRUE.equals(row[4]))
+                .toList();
+
+        // Újrarendelési pontok a teljes chunk-ra egy batch-ben
+        long[] ids = new long[rows.size()];
+        int[] leadTimeDays = new int[rows.size()];
+        int defaultLeadTime = predictionService.getDefaultLeadTimeDays();
+        for (int i = 0; i < rows.size(); i++) {
+            ids[i] = (Long) rows.get(i)[0];
+            Integer supplierLeadTime = (Integer) rows.get(i)[5];
+            leadTimeDays[i] = supplierLeadTime != null ? supplierLeadTime : defaultLeadTime;
+        }
+        List<ReorderPointDTO> reorderPoints = predictionService.calculateReorderPoints(ids, leadTimeDays);
+
+        List<ProductForecast> result = transactionTemplate.execute(status -> {
+            if (lease != null) {
+                lease.fence();
+            }
+            Map<Long, ProductForecast> existing = forecastRepository.findAllById(productIds).stream()
+                    .collect(Collectors.toMap(ProductForecast::getProductId, Function.identity()));
+            List<ProductForecast> saved = new ArrayList<>(rows.size());
+            List<Long> removed = new ArrayList<>(existing.keySet());
+
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                Long productId = (Long) row[0];
+                removed.remove(productId);
+                ProductForecast forecast = existing.get(productId);
+                boolean isNew = forecast == null;
+                if (isNew) {
+                    forecast = new ProductForecast();
+                    forecast.setProductId(productId);
+                }
+                apply(forecast, (Long) row[1], (Integer) row[2], reorderPoints.get(i), now);
+                if (isNew) {
+                    entityManager.persist(forecast);
+                }
+                saved.add(forecast);
+            }
+            if (!removed.isEmpty()) {
+                forecastRepository.deleteByProductIds(removed);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return saved;
+        });
+        return result != null ? result : List.of();
+    }
+
+    /**
+     * A staleAfterHours óta mozgott / módosult termékek újraszámolása (régebbi változás sorát az életkora jelzi).
+     */
+    private void refreshTouched(Long companyId) {
+        List<Long> ids = forecastRepository.findTouchedProductIds(companyId, staleBefore());
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            refresh(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+    }
+
+    /**
+     * A staleAfterHours-nál régebbi sorok újraszámolása chunk-onként.
+     * @return true, ha volt újraszámolt sor (a listát újra kell kérdezni)
+     */
+    private boolean refreshStale(List<ProductForecast> forecasts) {
+        List<Long> stale = forecasts.stream()
+                .filter(this::isStale)
+                .map(ProductForecast::getProductId)
+                .toList();
+        for (int from = 0; from < stale.size(); from += chunkSize) {
+            refresh(stale.subList(from, Math.min(from + chunkSize, stale.size())));
+        }
+        return !stale.isEmpty();
+    }
+
+    private boolean isStale(ProductForecast forecast) {
+        return forecast.getComputedAt().isBefore(staleBefore());
+    }
+
+    private LocalDateTime staleBefore() {
+        return LocalDateTime.now().minusHours(staleAfterHours);
+    }
+
+    private void apply(ProductForecast forecast, Long companyId, Integer currentStock, ReorderPointDTO reorder,
+                       LocalDateTime now) {
+        StockForecastDTO stock = predictionService.forecastFromStock(forecast.getProductId(), currentStock);
+
+        forecast.setCompanyId(companyId);
+        forecast.setCurrentStock(stock.getCurrentStock());
+        forecast.setAverageDailySales(stock.getAverageDailySales());
+        forecast.setDaysUntilStockout(stock.getDaysUntilStockout());
+        forecast.setEstimatedStockoutDate(stock.getEstimatedStockoutDate());
+        forecast.setLeadTimeDays(reorder.getLeadTimeDays());
+        forecast.setSafetyStock(reorder.getSafetyStock());
+        forecast.setReorderPoint(reorder.getReorderPoint());
+        forecast.setDemandStdDev(reorder.getDemandStdDev());
+        forecast.setServiceLevel(reorder.getServiceLevel());
+        forecast.setComputedAt(now);
+    }
+
+    private static StockForecastDTO toForecastDTO(ProductForecast forecast) {
+        return StockForecastDTO.builder()
+                .productId(forecast.getProductId())
+                .currentStock(forecast.getCurrentStock())
+                .averageDailySales(forecast.getAverageDailySales())
+                .daysUntilStockout(forecast.getDaysUntilStockout())
+                .estimatedStockoutDate(forecast.getEstimatedStockoutDate())
+                .build();
+    }
+
+    private static ReorderPointDTO toReorderPointDTO(ProductForecast forecast) {
+        return ReorderPointDTO.builder()
+                .productId(forecast.getProductId())
+                .leadTimeDays(forecast.getLeadTimeDays())
+                .safetyStock(forecast.getSafetyStock())
+                .reorderPoint(forecast.getReorderPoint())
+                .averageDailyDemand(forecast.getAverageDailySales())
+                .demandStdDev(forecast.getDemandStdDev())
+                .serviceLevel(forecast.getServiceLevel())
+                .build();
+    }
+}
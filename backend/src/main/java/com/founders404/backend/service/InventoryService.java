@@ -1,16 +1,23 @@
 package com.founders404.backend.service;
 
+import com.founders404.backend.event.StockMovementEvent;
 import com.founders404.backend.exception.InsufficientStockException;
 import com.founders404.backend.model.*;
 import com.founders404.backend.repository.InventoryRepository;
 import com.founders404.backend.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Készletkezelés.
@@ -22,6 +29,7 @@ public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * @return A rögzített mozgás
@@ -82,7 +90,86 @@ public class InventoryService {
         movement.setNewStock(newStock);
         movement.setTimestamp(LocalDateTime.now());
 
-        return inventoryRepository.save(movement);
+        InventoryMovement saved = inventoryRepository.save(movement);
+
+        // Esemény a listenereknek (commit után futnak)
+        eventPublisher.publishEvent(new StockMovementEvent(
+                product.getCompanyId(),
+                product.getId(),
+                saved.getId(),
+                user != null ? user.getId() : null,
+                movementType,
+                quantity,
+                previousStock,
+                newStock,
+                saved.getTimestamp()
+        ));
+
+        return saved;
+    }
+
+    /**
+     * Több termék bevételezése (IN) egy tranzakcióban, pl. beszerzési rendelés beérkezésekor.
+     * A termékek egy lekérdezéssel töltődnek be, a készletek és a mozgások együtt mentődnek.
+     * @param quantities termék id -> bevételezett mennyiség
+     * @return A rögzített mozgások
+     */
+    @Transactional
+    public List<InventoryMovement> recordInMovements(
+            Map<Long, Integer> quantities,
+            String reason,
+            String notes,
+            User user
+    ) {
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<InventoryMovement> movements = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null) {
+                throw new RuntimeException("Termék nem található: " + entry.getKey());
+            }
+            Integer quantity = entry.getValue();
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Érvénytelen mennyiség: " + quantity + " (termék: " + entry.getKey() + ")");
+            }
+
+            Integer previousStock = product.getCurrentStock();
+            product.setCurrentStock(previousStock + quantity);
+
+            InventoryMovement movement = new InventoryMovement();
+            movement.setProduct(product);
+            movement.setUser(user);
+            movement.setMovementType(MovementType.IN);
+            movement.setQuantity(quantity);
+            movement.setReason(reason);
+            movement.setNotes(notes);
+            movement.setPreviousStock(previousStock);
+            movement.setNewStock(product.getCurrentStock());
+            movement.setTimestamp(now);
+            movements.add(movement);
+        }
+
+        productRepository.saveAll(products.values());
+        List<InventoryMovement> saved = inventoryRepository.saveAll(movements);
+
+        for (InventoryMovement movement : saved) {
+            Product product = movement.getProduct();
+            eventPublisher.publishEvent(new StockMovementEvent(
+                    product.getCompanyId(),
+                    product.getId(),
+                    movement.getId(),
+                    user != null ? user.getId() : null,
+                    MovementType.IN,
+                    movement.getQuantity(),
+                    movement.getPreviousStock(),
+                    movement.getNewStock(),
+                    movement.getTimestamp()
+            ));
+        }
+        return saved;
     }
 
     /**
@@ -102,6 +189,14 @@ public class InventoryService {
         return movements.stream().limit(limit).toList();
     }
 
+    /**
+     * Cég legutóbbi mozgásai termékkel és userrel együtt (dashboard-hoz).
+     */
+    @Transactional(readOnly = true)
+    public List<InventoryMovement> getRecentMovements(Long companyId, int limit) {
+        return inventoryRepository.findRecentWithDetails(companyId, PageRequest.of(0, limit));
+    }
+
     /**
      * Mozgások időintervallumban.
      */
@@ -136,6 +231,23 @@ public class InventoryService {
                 .sum();
     }
 
+    /**
+     * Cég készlet értéke egyetlen aggregált query-vel.
+     */
+    @Transactional(readOnly = true)
+    public Double getInventoryValue(Long companyId) {
+        BigDecimal value = productRepository.sumInventoryValue(companyId);
+        return value != null ? value.doubleValue() : 0.0;
+    }
+
+    /**
+     * Cég alacsony készletű termékei.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getLowStockProducts(Long companyId) {
+        return productRepository.findLowStockProducts(companyId);
+    }
+
     /**
      * Alacsony készletű termékek listája.
      */
@@ -0,0 +1,285 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.model.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tömeges címke nyomtatás: termékenként QR + név + SKU, ZIP-ben streamelve.
+ * LABELS: címkénként egy PNG; SHEET: A4 oldalakra (150 DPI) rácsba rendezett címkék, oldalanként egy PNG.
+ * A renderelés párhuzamos, de egyszerre csak egy korlátos ablaknyi kész kép van a memóriában:
+ * a ZIP-be sorrendben kerülnek, és az ablak csak a legrégebbi kiírása után lép tovább.
+ */
+@Service
+@RequiredArgsConstructor
+public class LabelSheetService {
+
+    public enum Layout {
+        LABELS, SHEET
+    }
+
+    // A4 150 DPI-n
+    static final int PAGE_WIDTH = 1240;
+    static final int PAGE_HEIGHT = 1754;
+    private static final int PAGE_MARGIN = 45;
+    private static final int PADDING = 12;
+
+    // Ennél sűrűbb rácsban a QR a minimális méret alá esne
+    public static final int MAX_COLUMNS = 6;
+    public static final int MAX_ROWS = 16;
+
+    private final QRCodeImageStore qrCodeImageStore;
+
+    @Value("${labels.render-threads:0}")
+    private int renderThreads = 0;
+
+    // Egy kérés egyszerre legfeljebb ennyi renderelt (még ki nem írt) képet tart
+    @Value("${labels.max-in-flight:0}")
+    private int maxInFlight = 0;
+
+    @Value("${labels.max-products:5000}")
+    private int maxProducts = 5000;
+
+    // A ZIP stream időkorlátja; 5000 címke a Tomcat 30 mp-es async alapértékébe nem fér bele
+    @Value("${labels.stream-timeout-ms:600000}")
+    private long streamTimeoutMs = 600000;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("labels-", 1).daemon(true).factory());
+        if (maxInFlight <= 0) {
+            maxInFlight = threads * 2;
+        }
+    }
+
+    public int getMaxProducts() {
+        return maxProducts;
+    }
+
+    public long getStreamTimeoutMs() {
+        return streamTimeoutMs;
+    }
+
+    /**
+     * Címkék ZIP-be írása.
+     * size: LABELS-nél a QR mérete pixelben; SHEET-nél a rács oszlop / sor számából adódik.
+     */
+    public void writeZip(List<Product> products, Layout layout, int size, int columns, int rows, OutputStream out)
+            throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // A PNG már tömörített, a deflate csak CPU-t vinne
+        zip.setLevel(0);
+        List<Callable<byte[]>> tasks = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        if (layout == Layout.SHEET) {
+            int perPage = columns * rows;
+            for (int from = 0, page = 1; from < products.size(); from += perPage, page++) {
+                List<Product> pageProducts = products.subList(from, Math.min(from + perPage, products.size()));
+                tasks.add(() -> toPng(renderSheet(pageProducts, columns, rows)));
+                names.add(String.format("sheet-%03d.png", page));
+            }
+        } else {
+            for (Product product : products) {
+                tasks.add(() -> toPng(renderLabel(product, size)));
+                names.add("label-" + product.getId() + "-" + safeName(product.getSku()) + ".png");
+            }
+        }
+        writeOrdered(tasks, names, zip);
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * Párhuzamos renderelés, sorrendben kiírva; a kliens megszakadásakor a hátralévő munka leáll.
+     * Visszatérés előtt a már elindult renderelések is befejeződnek, így a kérés után nem írnak tovább (QR tár).
+     */
+    private void writeOrdered(List<Callable<byte[]>> tasks, List<String> names, ZipOutputStream zip) throws IOException {
+        Deque<Future<byte[]>> window = new ArrayDeque<>();
+        Phaser running = new Phaser(1);
+        int next = 0;
+        int written = 0;
+        try {
+            while (written < tasks.size()) {
+                while (next < tasks.size() && window.size() < maxInFlight) {
+                    window.add(executor.submit(tracked(tasks.get(next++), running)));
+                }
+                byte[] png = await(window.poll());
+                zip.putNextEntry(new ZipEntry(names.get(written++)));
+                zip.write(png);
+                zip.closeEntry();
+            }
+        } finally {
+            window.forEach(future -> future.cancel(true));
+            running.awaitAdvance(running.arriveAndDeregister());
+        }
+    }
+
+    /**
+     * A feladat induláskor regisztrál; ha a kérés már lezárult (a phaser véget ért), nem fut le.
+     */
+    private static Callable<byte[]> tracked(Callable<byte[]> task, Phaser running) {
+        return () -> {
+            if (running.register() < 0) {
+                return null;
+            }
+            try {
+                return task.call();
+            } finally {
+                running.arriveAndDeregister();
+            }
+        };
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Label rendering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Label rendering failed", e.getCause());
+        }
+    }
+
+    /**
+     * Egy címke: balra a QR (pontosan qrSize méretben, így a QR lekéréssel közös a cache), jobbra a név és az SKU.
+     */
+    BufferedImage renderLabel(Product product, int qrSize) throws Exception {
+        int height = qrSize + 2 * PADDING;
+        BufferedImage label = new BufferedImage(height * 2, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = label.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, label.getWidth(), label.getHeight());
+            drawLabel(g, product, 0, 0, label.getWidth(), label.getHeight(), qrSize);
+        } finally {
+            g.dispose();
+        }
+        return label;
+    }
+
+    /**
+     * Egy A4 oldal, a címkék soronként balról jobbra.
+     * A QR a cellához skálázva az alap méretű (a termék QR-jével közös) képből készül, így a rács mérete
+     * nem hoz létre újabb tárolt képet.
+     */
+    BufferedImage renderSheet(List<Product> products, int columns, int rows) throws Exception {
+        BufferedImage page = new BufferedImage(PAGE_WIDTH, PAGE_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        int cellWidth = (PAGE_WIDTH - 2 * PAGE_MARGIN) / columns;
+        int cellHeight = (PAGE_HEIGHT - 2 * PAGE_MARGIN) / rows;
+        Graphics2D g = page.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, PAGE_WIDTH, PAGE_HEIGHT);
+            for (int i = 0; i < products.size(); i++) {
+                int x = PAGE_MARGIN + (i % columns) * cellWidth;
+                int y = PAGE_MARGIN + (i / columns) * cellHeight;
+                drawLabel(g, products.get(i), x, y, cellWidth, cellHeight, QRCodeService.QR_CODE_WIDTH);
+                // Vágójel
+                g.setColor(Color.LIGHT_GRAY);
+                g.drawRect(x, y, cellWidth - 1, cellHeight - 1);
+            }
+        } finally {
+            g.dispose();
+        }
+        return page;
+    }
+
+    /**
+     * sourceSize: ekkora QR képet kér a tárból; ha eltér a cellában elérhető mérettől, skálázva rajzolja
+     * (legközelebbi szomszéd, hogy a modulok élesek maradjanak).
+     */
+    private void drawLabel(Graphics2D g, Product product, int x, int y, int width, int height, int sourceSize)
+            throws Exception {
+        int qrSize = Math.max(QRCodeService.MIN_SIZE, Math.min(QRCodeService.MAX_SIZE,
+                Math.min(height, width / 2) - 2 * PADDING));
+        byte[] png = qrCodeImageStore.getProductImage(product, sourceSize).png();
+        BufferedImage qr = ImageIO.read(new ByteArrayInputStream(png));
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g.drawImage(qr, x + PADDING, y + (height - qrSize) / 2, qrSize, qrSize, null);
+
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.BLACK);
+        int textX = x + qrSize + 2 * PADDING;
+        int textWidth = width - (textX - x) - PADDING;
+        int fontSize = Math.max(10, qrSize / 8);
+        Font nameFont = new Font(Font.SANS_SERIF, Font.BOLD, fontSize);
+        Font skuFont = new Font(Font.MONOSPACED, Font.PLAIN, Math.max(9, fontSize * 3 / 4));
+
+        g.setFont(nameFont);
+        FontMetrics nameMetrics = g.getFontMetrics();
+        int baseline = y + (height - qrSize) / 2 + nameMetrics.getAscent();
+        g.drawString(fit(product.getName(), nameMetrics, textWidth), textX, baseline);
+        if (product.getSku() != null) {
+            g.setFont(skuFont);
+            FontMetrics skuMetrics = g.getFontMetrics();
+            g.drawString(fit(product.getSku(), skuMetrics, textWidth), textX,
+                    baseline + nameMetrics.getDescent() + PADDING + skuMetrics.getAscent());
+        }
+    }
+
+    /**
+     * Levágás "…"-vel, ha a szöveg nem fér ki.
+     */
+    private static String fit(String text, FontMetrics metrics, int width) {
+        if (text == null || metrics.stringWidth(text) <= width) {
+            return text != null ? text : "";
+        }
+        String ellipsis = "…";
+        int end = text.length();
+        while (end > 0 && metrics.stringWidth(text.substring(0, end) + ellipsis) > width) {
+            end--;
+        }
+        return text.substring(0, end) + ellipsis;
+    }
+
+    private static String safeName(String sku) {
+        return sku == null || sku.isBlank() ? "nosku" : sku.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static byte[] toPng(BufferedImage image) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "PNG", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,349 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.analytics.CountMinSketch;
+import com.founders404.backend.analytics.DailyMovementSketch;
+import com.founders404.backend.analytics.HyperLogLog;
+import com.founders404.backend.analytics.MovementIdWindow;
+import com.founders404.backend.analytics.MovementPollFloor;
+import com.founders404.backend.dto.CardinalityEstimateDTO;
+import com.founders404.backend.dto.HeavyHitterDTO;
+import com.founders404.backend.event.StockMovementEvent;
+import com.founders404.backend.model.MovementType;
+import com.founders404.backend.model.Product;
+import com.founders404.backend.repository.InventoryRepository;
+import com.founders404.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cégenkénti, napi mozgás sketch-ek (HyperLogLog, Count-Min) karbantartása a mozgás eseményekből.
+ * Lekérdezéskor a napi sketch-ek összefésülődnek: konstans memória és O(napok) idő.
+ * Induláskor a megőrzési ablak visszatöltődik az adatbázisból.
+ * Egy cég-nap kb. 40 KB; a sketch-ek száma globálisan korlátos (analytics.sketch.max-sketches), e fölött
+ * a legrégebbi napok dobódnak el, és a lekérdezhető ablak ennyivel rövidebb lesz.
+ * Minden node az összes mozgást látja: a helyi mozgás eseményből azonnal, a más node-on rögzítetteket a periodikus
+ * lekérdezésből (id szerint lapozva egy vízszint fölött, az időablak csak biztonsági margó; id szerinti
+ * duplikátumszűrés: MovementIdWindow).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MovementSketchService {
+
+    private static final int BACKFILL_PAGE_SIZE = 5000;
+    private static final int DEDUPE_WINDOW = 10_000;
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductRepository productRepository;
+
+    private final ConcurrentHashMap<SketchKey, DailyMovementSketch> sketches = new ConcurrentHashMap<>();
+
+    // Az eseményből / lekérdezésből már rögzített (visszatöltés feletti) mozgások
+    private final MovementIdWindow recentMovementIds = new MovementIdWindow(DEDUPE_WINDOW);
+
+    // Az előző lekérdezés kezdete (null: még fut a visszatöltés)
+    private volatile LocalDateTime pollCursor;
+
+    // Visszatöltés felső határa: ennél nagyobb id-jú mozgásokat az eseménykezelő rögzít
+    // (-1: nincs / sikertelen visszatöltés, minden élő mozgás rögzül)
+    private volatile long backfillUpperBound = -1L;
+
+    // A lekérdezés alsó határa: ez alatt minden mozgást beolvasott egy korábbi lekérdezés
+    private final MovementPollFloor pollFloor = new MovementPollFloor();
+
+    @Value("${analytics.sketch.retention-days:90}")
+    private int retentionDays = 90;
+
+    // Legfeljebb ennyi (cég, nap) sketch a memóriában, összesen kb. 160 MB
+    @Value("${analytics.sketch.max-sketches:4096}")
+    private int maxSketches = 4096;
+
+    // A korlát miatt eldobott napok határa (null: nincs eldobott nap)
+    private volatile LocalDate capacityCutoff;
+
+    // A lekérdezés az előző futás előtti ennyi másodpercet is átnézi (későn commitolt mozgások, óraeltérés)
+    @Value("${analytics.sketch.poll-margin-seconds:60}")
+    private int pollMarginSeconds = 60;
+
+    /**
+     * Egy mozgás rögzítése a napi sketch-ben.
+     */
+    public void record(Long companyId, Long productId, Long userId, MovementType movementType, LocalDateTime timestamp) {
+        if (companyId == null || productId == null || timestamp == null) {
+            return;
+        }
+        LocalDate day = timestamp.toLocalDate();
+        if (day.isBefore(oldestDay())) {
+            return;
+        }
+        sketches.computeIfAbsent(new SketchKey(companyId, day), key -> new DailyMovementSketch())
+                .record(productId, userId, movementType == MovementType.OUT);
+        if (sketches.size() > maxSketches) {
+            enforceCapacity();
+        }
+    }
+
+    /**
+     * Korlát felett a legrégebbi nap összes sketch-e eldobódik (a mai nap soha).
+     */
+    private synchronized void enforceCapacity() {
+        LocalDate today = LocalDate.now();
+        while (sketches.size() > maxSketches) {
+            LocalDate oldest = sketches.keySet().stream().map(SketchKey::day).min(LocalDate::compareTo).orElse(today);
+            if (!oldest.isBefore(today)) {
+                return;
+            }
+            capacityCutoff = oldest.plusDays(1);
+            sketches.keySet().removeIf(key -> key.day.isBefore(capacityCutoff));
+            log.warn("Movement sketch limit ({}) reached, days before {} dropped", maxSketches, capacityCutoff);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        if (event.getMovementId() != null && event.getMovementId() <= backfillUpperBound) {
+            // Még fut / lefutott a visszatöltés, ami ezt a mozgást is tartalmazza
+            return;
+        }
+        if (event.getMovementId() != null && !recentMovementIds.add(event.getMovementId())) {
+            return;
+        }
+        record(event.getCompanyId(), event.getProductId(), event.getUserId(), event.getMovementType(), event.getTimestamp());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        LocalDateTime started = LocalDateTime.now();
+        if (beginBackfill()) {
+            Thread.ofVirtual().name("sketch-backfill").start(() -> backfill(started));
+        }
+    }
+
+    /**
+     * A visszatöltés felső határának beállítása a szál indulása előtt, így a közben érkező események
+     * biztosan a határ fölött rögzülnek.
+     * @return false, ha a határ nem kérdezhető le (ekkor csak az élő mozgások rögzülnek)
+     */
+    boolean beginBackfill() {
+        try {
+            Long maxId = inventoryRepository.findMaxId();
+            backfillUpperBound = maxId != null ? maxId : 0L;
+            return true;
+        } catch (RuntimeException e) {
+            pollCursor = LocalDateTime.now();
+            log.error("Movement sketch backfill could not start, recording live movements only", e);
+            return false;
+        }
+    }
+
+    /**
+     * Megőrzési ablak visszatöltése id szerinti lapozással (a beginBackfill határáig).
+     * A határ beállítása előtt eseményből rögzített mozgások a duplikátumszűrő miatt nem számolódnak újra.
+     * Hiba esetén a határ visszaáll, és a lekérdezés a visszatöltés kezdetétől követi a mozgásokat.
+     */
+    void backfill(LocalDateTime started) {
+        long upperBound = backfillUpperBound;
+        LocalDateTime since = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        long afterId = 0L;
+        long loaded = 0L;
+        try {
+            while (afterId < upperBound) {
+                List<Object[]> rows = inventoryRepository.findSketchRows(afterId, upperBound, since,
+                        PageRequest.of(0, BACKFILL_PAGE_SIZE));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : rows) {
+                    afterId = (Long) row[0];
+                    if (recentMovementIds.add(afterId)) {
+                        record((Long) row[1], (Long) row[2], (Long) row[3], (MovementType) row[4],
+                                (LocalDateTime) row[5]);
+                    }
+                }
+                loaded += rows.size();
+            }
+            log.info("Movement sketches backfilled from {} movements ({} company-days)", loaded, sketches.size());
+        } catch (RuntimeException e) {
+            backfillUpperBound = -1L;
+            log.error("Movement sketch backfill failed after {} movements", loaded, e);
+        } finally {
+            pollCursor = started;
+        }
+    }
+
+    /**
+     * Más node-on rögzített mozgások beépítése: a visszatöltés és a lekérdezés vízszintje feletti, az előző lekérdezés
+     * óta (margóval) rögzített mozgások, id szerinti duplikátumszűréssel.
+     */
+    @Scheduled(fixedDelayString = "${analytics.sketch.poll-interval-ms:5000}",
+            initialDelayString = "${analytics.sketch.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime cursor = pollCursor;
+        if (cursor == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = cursor.minusSeconds(pollMarginSeconds);
+        long afterId = Math.max(backfillUpperBound, pollFloor.advance(since));
+        try {
+            while (true) {
+                List<Object[]> rows = inventoryRepository.findSketchRows(afterId, Long.MAX_VALUE, since,
+                        PageRequest.of(0, BACKFILL_PAGE_SIZE));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : rows) {
+                    afterId = (Long) row[0];
+                    if (recentMovementIds.add(afterId)) {
+                        record((Long) row[1], (Long) row[2], (Long) row[3], (MovementType) row[4], (LocalDateTime) row[5]);
+                    }
+                }
+            }
+            pollCursor = started;
+            pollFloor.mark(afterId, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // Következő körben ugyanattól a ponttól újra
+            log.error("Movement sketch poll failed", e);
+        }
+    }
+
+    /**
+     * Megőrzési időn túli napok eldobása.
+     */
+    @Scheduled(cron = "${analytics.sketch.evict-cron:0 5 0 * * *}")
+    public void evictExpired() {
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        sketches.keySet().removeIf(key -> key.day.isBefore(cutoff));
+    }
+
+    /**
+     * Különböző eladott SKU-k becsült száma (naponként és a teljes intervallumra).
+     */
+    public CardinalityEstimateDTO estimateDistinctSkusSold(Long companyId, LocalDate from, LocalDate to) {
+        return estimateCardinality("distinct-skus-sold", companyId, from, to, DailyMovementSketch::getSkusSold);
+    }
+
+    /**
+     * Különböző aktív userek becsült száma.
+     */
+    public CardinalityEstimateDTO estimateDistinctActiveUsers(Long companyId, LocalDate from, LocalDate to) {
+        return estimateCardinality("distinct-active-users", companyId, from, to, DailyMovementSketch::getActiveUsers);
+    }
+
+    /**
+     * Leggyakrabban mozgatott termékek becsült mozgásszámmal.
+     */
+    public List<HeavyHitterDTO> getHeavyHitters(Long companyId, LocalDate from, LocalDate to, int limit) {
+        DayRange range = range(from, to);
+        DailyMovementSketch merged = new DailyMovementSketch();
+        for (LocalDate day = range.from(); !day.isAfter(range.to()); day = day.plusDays(1)) {
+            DailyMovementSketch sketch = sketches.get(new SketchKey(companyId, day));
+            if (sketch != null) {
+                merged.merge(sketch);
+            }
+        }
+
+        CountMinSketch counts = merged.getMovedItems();
+        long errorBound = counts.errorBound();
+        double confidence = 1.0 - counts.delta();
+
+        List<Map.Entry<Long, Long>> top = merged.getCandidates().stream()
+                .map(id -> Map.entry(id, counts.estimate(id)))
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(limit)
+                .toList();
+
+        Map<Long, Product> products = productRepository.findAllById(top.stream().map(Map.Entry::getKey).toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return top.stream()
+                .map(entry -> {
+                    Product product = products.get(entry.getKey());
+                    return HeavyHitterDTO.builder()
+                            .productId(entry.getKey())
+                            .productName(product != null ? product.getName() : null)
+                            .sku(product != null ? product.getSku() : null)
+                            .estimatedCount(entry.getValue())
+                            .lowerBound(Math.max(0L, entry.getValue() - errorBound))
+                            .errorBound(errorBound)
+                            .confidence(confidence)
+                            .build();
+                })
+                .toList();
+    }
+
+    private CardinalityEstimateDTO estimateCardinality(String metric, Long companyId, LocalDate from, LocalDate to,
+                                                       Function<DailyMovementSketch, HyperLogLog> selector) {
+        DayRange range = range(from, to);
+        HyperLogLog union = new HyperLogLog(DailyMovementSketch.HLL_PRECISION);
+        Map<LocalDate, Long> daily = new TreeMap<>();
+
+        for (LocalDate day = range.from(); !day.isAfter(range.to()); day = day.plusDays(1)) {
+            DailyMovementSketch sketch = sketches.get(new SketchKey(companyId, day));
+            if (sketch == null) {
+                daily.put(day, 0L);
+                continue;
+            }
+            HyperLogLog hll = selector.apply(sketch);
+            daily.put(day, hll.estimate());
+            union.merge(hll);
+        }
+
+        long estimate = union.estimate();
+        double rse = union.relativeStandardError();
+        long margin = Math.round(2 * rse * estimate);
+
+        return CardinalityEstimateDTO.builder()
+                .metric(metric)
+                .companyId(companyId)
+                .from(range.from())
+                .to(range.to())
+                .estimate(estimate)
+                .relativeStandardError(rse)
+                .lowerBound(Math.max(0L, estimate - margin))
+                .upperBound(estimate + margin)
+                .dailyEstimates(daily)
+                .build();
+    }
+
+    /**
+     * Lekérdezett napok: a megőrzött ablakra és legfeljebb a mai napig vágva.
+     */
+    private DayRange range(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        LocalDate oldest = oldestDay();
+        LocalDate today = LocalDate.now();
+        return new DayRange(from.isBefore(oldest) ? oldest : from, to.isAfter(today) ? today : to);
+    }
+
+    private LocalDate oldestDay() {
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+        LocalDate cutoff = capacityCutoff;
+        return cutoff != null && cutoff.isAfter(oldest) ? cutoff : oldest;
+    }
+
+    private record DayRange(LocalDate from, LocalDate to) {
+    }
+
+    private record SketchKey(Long companyId, LocalDate day) {
+    }
+}
@@ -0,0 +1,208 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.model.NotificationType;
+import com.founders404.backend.repository.CompanyNotificationRepository;
+import com.founders404.backend.repository.NotificationReadStateRepository;
+import com.founders404.backend.repository.NotificationRepository;
+import com.founders404.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Értesítés retention: típusonként beállítható megőrzési idő, a lejártak törlése chunkonként
+ * (külön tranzakciókban, hogy a tábla ne legyen sokáig zárolva).
+ * Cégszintű értesítések törlése után a read state kivétel listák is tömörödnek, és az olvasatlan számlálók újratöltődnek.
+ * Beállítás: notifications.retention-days.low_stock=30 stb. (0: nincs törlés).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationRetentionService {
+
+    // Alapértelmezett megőrzés napokban: a készlet riasztások hamar elavulnak
+    private static final Map<NotificationType, Integer> DEFAULT_RETENTION_DAYS = Map.of(
+            NotificationType.LOW_STOCK, 30,
+            NotificationType.STOCK_OUT, 30,
+            NotificationType.OVER_STOCK, 30,
+            NotificationType.SYSTEM, 90,
+            NotificationType.WARNING, 90
+    );
+
+    private final NotificationRepository notificationRepository;
+    private final CompanyNotificationRepository companyNotificationRepository;
+    private final NotificationReadStateRepository readStateRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final UnreadCounterService unreadCounterService;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+    private final SchedulerLockService schedulerLockService;
+    private final ScheduledJobService scheduledJobService;
+
+    @Value("${notifications.retention.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    // Szünet a chunkok között, hogy a törlés ne fojtsa el az egyidejű írásokat
+    @Value("${notifications.retention.chunk-pause-ms:50}")
+    private long chunkPauseMs = 50;
+
+    public record PurgeResult(long userNotifications, long companyNotifications, long compactedReadStates) {
+    }
+
+    @Scheduled(cron = "${notifications.retention.cron:0 15 3 * * *}")
+    public void purgeScheduled() {
+        purgeNow();
+    }
+
+    /**
+     * Törlés indítása a karbantartó sorban, a cluster lease alatt (ugyanaz az út, mint az ütemezett futásé).
+     * @return false, ha a törlés már fut
+     */
+    public boolean purgeNow() {
+        return scheduledJobService.submit(ScheduledJobService.MAINTENANCE, "notification-retention", this::purgeExclusive);
+    }
+
+    void purgeExclusive() {
+        try {
+            schedulerLockService.runExclusive("notification-retention", lease -> {
+                PurgeResult result = purge(lease);
+                log.info("Notification retention purged {} user and {} company notifications, compacted {} read states",
+                        result.userNotifications(), result.companyNotifications(), result.compactedReadStates());
+            });
+        } catch (RuntimeException e) {
+            log.error("Notification retention purge failed", e);
+        }
+    }
+
+    /**
+     * Lejárt értesítések törlése minden típusra, lease nélkül (csak a purgeExclusive és a tesztek hívják).
+     */
+    PurgeResult purge() {
+        return purge(null);
+    }
+
+    /**
+     * Ütemezett futásnál a lease minden chunk előtt hosszabbodik (és ha más node átvette, a törlés leáll).
+     */
+    synchronized PurgeResult purge(SchedulerLockService.Lease lease) {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        long userDeleted = 0;
+        long companyDeleted = 0;
+        long maxCompanyId = 0;
+        for (NotificationType type : NotificationType.values()) {
+            int days = retentionDays(type);
+            if (days <= 0) {
+                continue;
+            }
+            LocalDateTime cutoff = now.minusDays(days);
+            userDeleted += purgeChunks(lease,
+                    () -> notificationRepository.findIdsByTypeCreatedBefore(type, cutoff, chunk),
+                    notificationRepository::deleteByIdIn).count();
+            Purged company = purgeChunks(lease,
+                    () -> companyNotificationRepository.findIdsByTypeCreatedBefore(type, cutoff, chunk),
+                    companyNotificationRepository::deleteByIdIn);
+            companyDeleted += company.count();
+            maxCompanyId = Math.max(maxCompanyId, company.maxId());
+        }
+
+        long compacted = companyDeleted > 0 ? compactReadStates(lease, maxCompanyId) : 0;
+        if (userDeleted > 0 || companyDeleted > 0) {
+            unreadCounterService.invalidateAll();
+        }
+        return new PurgeResult(userDeleted, companyDeleted, compacted);
+    }
+
+    public int retentionDays(NotificationType type) {
+        Integer days = environment.getProperty("notifications.retention-days." + type.name().toLowerCase(), Integer.class);
+        return days != null ? days : DEFAULT_RETENTION_DAYS.getOrDefault(type, 90);
+    }
+
+    private record Purged(long count, long maxId) {
+    }
+
+    /**
+     * Chunkonkénti törlés, chunkonként külön tranzakcióban (checkpoint előtte, fencing a tranzakcióban).
+     */
+    private Purged purgeChunks(SchedulerLockService.Lease lease, Supplier<List<Long>> nextChunk,
+                               Function<List<Long>, Integer> delete) {
+        long deleted = 0;
+        long maxId = 0;
+        while (true) {
+            if (lease != null) {
+                lease.checkpoint();
+            }
+            List<Long> ids = transactionTemplate.execute(status -> {
+                if (lease != null) {
+                    lease.fence();
+                }
+                List<Long> chunk = nextChunk.get();
+                if (!chunk.isEmpty()) {
+                    delete.apply(chunk);
+                }
+                return chunk;
+            });
+            if (ids == null || ids.isEmpty()) {
+                return new Purged(deleted, maxId);
+            }
+            deleted += ids.size();
+            for (Long id : ids) {
+                maxId = Math.max(maxId, id);
+            }
+            pause();
+        }
+    }
+
+    /**
+     * Azok a read state-ek, amelyek kivétel listája törölt értesítésekre is mutathat (vízjel a legnagyobb törölt id alatt).
+     * A lease oldalanként hosszabbodik, felhasználónként fencing-gel íródik.
+     */
+    private long compactReadStates(SchedulerLockService.Lease lease, long maxDeletedId) {
+        long compacted = 0;
+        long afterUserId = 0;
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        while (true) {
+            if (lease != null) {
+                lease.checkpoint();
+            }
+            List<Long> userIds = readStateRepository.findUserIdsWithExceptionsBelow(maxDeletedId, afterUserId, chunk);
+            if (userIds.isEmpty()) {
+                return compacted;
+            }
+            for (Long userId : userIds) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (lease != null) {
+                        lease.fence();
+                    }
+                    userRepository.findById(userId).ifPresent(notificationService::compactReadState);
+                });
+                compacted++;
+            }
+            afterUserId = userIds.get(userIds.size() - 1);
+        }
+    }
+
+    private void pause() {
+        if (chunkPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(chunkPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Retention purge interrupted", e);
+        }
+    }
+}
@@ -1,141 +1,85 @@
 package com.founders404.backend.service;
 
-import com.founders404.backend.model.Notification;
-import com.founders404.backend.model.NotificationType;
-import com.founders404.backend.model.Product;
-import com.founders404.backend.model.User;
-import com.founders404.backend.repository.NotificationRepository;
-import com.founders404.backend.repository.ProductRepository;
-import com.founders404.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * Ütemezett feladatok - Értesítések automatikus küldése.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationScheduler {
 
-    private final ProductRepository productRepository;
-    private final UserRepository userRepository;
-    private final NotificationService notificationService;
-    private final NotificationRepository notificationRepository;
+    private final StockAlertService stockAlertService;
+    private final NotificationThrottle notificationThrottle;
+    private final SchedulerLockService schedulerLockService;
+    private final ScheduledJobService scheduledJobService;
 
-    /**
-     * Alacsony készlet ellenőrzés.
-     * Futtatás: percenként (60000 ms = 1 perc)
-     * Küszöbérték: 10 egység alatt
-     * Duplikációs ellenőrzés: csak akkor hoz létre notifikációt, ha az elmúlt 30 percben nem volt
-     */
-    @Scheduled(fixedRate = 60000) // percenként
-    public void checkLowStock() {
-        System.out.println("=== Running scheduled task: checkLowStock at " + LocalDateTime.now() + " ===");
-
-        try {
-            // Összes aktív termék lekérése
-            List<Product> products = productRepository.findAll();
-            System.out.println("Found " + products.size() + " total products to check");
-
-            // Filter only products with low stock
-            List<Product> lowStockProducts = products.stream()
-                    .filter(p -> p.getCurrentStock() != null && p.getCurrentStock() < 10)
-                    .toList();
-            System.out.println("Found " + lowStockProducts.size() + " products with low stock (<10 units)");
-
-            int notificationsCreated = 0;
-
-            for (Product product : lowStockProducts) {
-                System.out.println("Processing low-stock product: '" + product.getName() + "' (Stock: " + 
-                                 product.getCurrentStock() + ", CompanyId: " + product.getCompanyId() + ")");
-
-                // Cégen belüli összes user értesítése
-                List<User> usersToNotify = getUsersToNotify(product.getCompanyId());
-                System.out.println("  -> Found " + usersToNotify.size() + " users to notify for company: " + product.getCompanyId());
-
-                if (usersToNotify.isEmpty() && product.getCompanyId() != null) {
-                    System.out.println("  -> WARNING: No users found for company " + product.getCompanyId());
-                }
-
-                for (User user : usersToNotify) {
-                    try {
-                        // Duplikáció ellenőrzés: volt-e már notifikáció az elmúlt 30 percben erre a termékhöz?
-                        LocalDateTime thirtyMinutesAgo = LocalDateTime.now().minusMinutes(30);
-                        List<Notification> recentNotifications = notificationRepository
-                                .findRecentByUserIdAndProductIdAndType(
-                                        user.getId(),
-                                        product.getId(),
-                                        NotificationType.LOW_STOCK
-                                );
+    @Value("${notifications.reconcile-interval-ms:300000}")
+    private long reconcileIntervalMs = 300_000L;
 
-                        boolean recentNotificationExists = recentNotifications.stream()
-                                .anyMatch(n -> n.getCreatedAt().isAfter(thirtyMinutesAgo));
+    // Első futáskor ennyi órára visszamenőleg egyeztet (leállás alatt elveszett események)
+    @Value("${notifications.reconcile-startup-lookback-hours:24}")
+    private long startupLookbackHours = 24;
 
-                        if (!recentNotificationExists) {
-                            // Alacsony készlet jellegzetesség
-                            String title = "Alacsony készlet!";
+    // Átfedés az előző futással (futás közben commitolt módosítások)
+    @Value("${notifications.reconcile-overlap-minutes:5}")
+    private long overlapMinutes = 5;
 
-                            String message = String.format(
-                                    "A(z) '%s' termék készlete alacsony! Jelenlegi: %d",
-                                    product.getName(),
-                                    product.getCurrentStock()
-                            );
+    private LocalDateTime lastRun;
 
-                            Notification createdNotification = notificationService.createNotification(
-                                    user,
-                                    NotificationType.LOW_STOCK,
-                                    title,
-                                    message,
-                                    product
-                            );
-                            notificationsCreated++;
-                            System.out.println("     -> Created notification ID: " + createdNotification.getId() + " for user: " + user.getUsername());
-                        } else {
-                            System.out.println("     -> Skipped (recent notification exists for user: " + user.getUsername() + ")");
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Error creating notification for user " + user.getUsername() + ": " + e.getMessage());
-                        e.printStackTrace();
-                    }
-                }
-            }
-            System.out.println("=== Completed checkLowStock: " + notificationsCreated + " notifications created ===\n");
-        } catch (Exception e) {
-            System.err.println("Fatal error in checkLowStock scheduler: " + e.getMessage());
-            e.printStackTrace();
-        }
+    /**
+     * Készlet riasztások egyeztetése.
+     * A riasztások a készletmozgás eseményekből mennek (StockAlertService); ez csak az előző futás óta
+     * módosult termékeket nézi át (updated_at index), és pótolja az elmaradt riasztásokat.
+     * Több node esetén egy intervallumban csak a lease-t tartó node egyeztet.
+     */
+    @Scheduled(fixedDelayString = "${notifications.reconcile-interval-ms:300000}",
+            initialDelayString = "${notifications.reconcile-initial-delay-ms:60000}")
+    public void reconcileStockAlerts() {
+        // A lease majdnem egy intervallumig foglalt marad, így a többi node ebben az intervallumban nem fut
+        Duration holdFor = Duration.ofMillis(reconcileIntervalMs * 9 / 10);
+        scheduledJobService.submit(ScheduledJobService.ALERTS, "stock-alert-reconcile", () -> reconcileExclusive(holdFor));
     }
 
     /**
-     * Cégen belüli értesítendő userek lekérése.
-     * Jelenleg: minden user a cégnél
-     * Opcionális: csak OWNER és CLERK role-ok
+     * Kézi indítás ugyanazon a soron és lease-en, mint az ütemezett futás (a lease nem marad tovább foglalva).
+     * Ha egy másik node az intervallumban már egyeztetett, a kézi futás kimarad.
+     * @return false, ha az egyeztetés már fut
      */
-    private List<User> getUsersToNotify(Long companyId) {
+    public boolean reconcileNow() {
+        return scheduledJobService.submit(ScheduledJobService.ALERTS, "stock-alert-reconcile",
+                () -> reconcileExclusive(Duration.ZERO));
+    }
+
+    synchronized void reconcileExclusive(Duration holdFor) {
         try {
-            if (companyId == null) {
-                System.out.println("WARNING: Product has null companyId - no users to notify!");
-                return List.of();
+            if (!schedulerLockService.runExclusive("stock-alert-reconcile", holdFor, lease -> reconcile())) {
+                log.info("Stock alert reconciliation skipped, the lease is held by another node");
             }
+        } catch (RuntimeException e) {
+            log.error("Stock alert reconciliation failed", e);
+        }
+    }
 
-            // Összes user a cégnél
-            List<User> users = userRepository.findByCompanyId(companyId);
-            System.out.println("  -> Company " + companyId + " has " + users.size() + " users");
-            
-            return users;
-
-            // Vagy csak bizonyos role-ok:
-            // return userRepository.findByCompanyId(companyId).stream()
-            //     .filter(u -> u.getRole() == Role.OWNER || u.getRole() == Role.CLERK)
-            //     .toList();
-        } catch (Exception e) {
-            System.err.println("Error getting users for company " + companyId + ": " + e.getMessage());
-            e.printStackTrace();
-            return List.of();
+    private void reconcile() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = lastRun != null
+                ? lastRun.minusMinutes(overlapMinutes)
+                : started.minusHours(startupLookbackHours);
+        // Más node-ok riasztásai is számítsanak az ismétlés szűrésnél
+        notificationThrottle.refresh();
+        int created = stockAlertService.reconcile(since);
+        lastRun = started;
+        if (created > 0) {
+            log.info("Stock alert reconciliation alerted {} products (changes since {})", created, since);
         }
     }
-}
\ No newline at end of file
+}
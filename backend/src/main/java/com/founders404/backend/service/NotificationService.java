@@ -1,24 +1,94 @@
 package com.founders404.backend.service;
 
+import com.founders404.backend.dto.NotificationPageResponse;
+import com.founders404.backend.dto.NotificationResponse;
+import com.founders404.backend.event.NotificationCreatedEvent;
+import com.founders404.backend.event.NotificationsReadEvent;
+import com.founders404.backend.model.CompanyNotification;
 import com.founders404.backend.model.Notification;
+import com.founders404.backend.model.NotificationReadState;
+import com.founders404.backend.model.NotificationScope;
 import com.founders404.backend.model.NotificationType;
 import com.founders404.backend.model.Product;
+import com.founders404.backend.model.Role;
 import com.founders404.backend.model.User;
+import com.founders404.backend.repository.CompanyNotificationRepository;
+import com.founders404.backend.repository.NotificationReadStateRepository;
 import com.founders404.backend.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Értesítés szolgáltatás.
+ * A cégszintű értesítések egyszer tárolódnak (fan-out olvasáskor); a userenkénti olvasottságot
+ * egy vízjel + olvasott kivételek listája (NotificationReadState) írja le.
  */
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    private static final Comparator<NotificationResponse> NEWEST_FIRST =
+            Comparator.comparing(NotificationResponse::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private static final Comparator<NotificationResponse> PAGE_ORDER = NEWEST_FIRST
+            .thenComparing(NotificationResponse::getScope)
+            .thenComparing(NotificationResponse::getId, Comparator.reverseOrder());
+
     private final NotificationRepository notificationRepository;
+    private final CompanyNotificationRepository companyNotificationRepository;
+    private final NotificationReadStateRepository readStateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${notifications.page-max-size:100}")
+    private int maxPageSize = 100;
+
+    /**
+     * Lapozási kurzor: az előző oldal utolsó elemének (createdAt, scope, id) kulcsa.
+     */
+    record PageCursor(LocalDateTime createdAt, NotificationScope scope, Long id) {
+
+        static final PageCursor FIRST = new PageCursor(null, null, null);
+
+        static PageCursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return FIRST;
+            }
+            String[] parts = cursor.split("_");
+            try {
+                return new PageCursor(LocalDateTime.parse(parts[0]), NotificationScope.valueOf(parts[1]),
+                        Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor: " + cursor);
+            }
+        }
+
+        static String of(NotificationResponse last) {
+            return last.getCreatedAt() + "_" + last.getScope() + "_" + last.getId();
+        }
+
+        // Azonos createdAt mellett az adott scope-ból ez alatti id-k jönnek
+        Long tieId(NotificationScope tableScope) {
+            if (scope == null || tableScope == scope) {
+                return id;
+            }
+            return tableScope.compareTo(scope) > 0 ? Long.MAX_VALUE : 0L;
+        }
+    }
 
     /**
      * Új értesítés létrehozása.
@@ -39,7 +109,10 @@ public class NotificationService {
         notification.setProduct(product);
         notification.setIsRead(false);
 
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        eventPublisher.publishEvent(new NotificationCreatedEvent(
+                user.getId(), null, null, NotificationResponse.fromEntity(saved)));
+        return saved;
     }
 
     /**
@@ -55,6 +128,32 @@ public class NotificationService {
         return createNotification(user, type, title, message, null);
     }
 
+    /**
+     * Cégszintű értesítés: egy sor a cég összes (vagy a megadott szerepkörű) userének.
+     */
+    @Transactional
+    public CompanyNotification createCompanyNotification(
+            Long companyId,
+            Role targetRole,
+            NotificationType type,
+            String title,
+            String message,
+            Long productId
+    ) {
+        CompanyNotification notification = new CompanyNotification();
+        notification.setCompanyId(companyId);
+        notification.setTargetRole(targetRole);
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setProductId(productId);
+
+        CompanyNotification saved = companyNotificationRepository.save(notification);
+        eventPublisher.publishEvent(new NotificationCreatedEvent(
+                null, companyId, targetRole, NotificationResponse.fromEntity(saved, false)));
+        return saved;
+    }
+
     /**
      * Egy értesítés lekérése ID alapján.
      */
@@ -67,24 +166,81 @@ public class NotificationService {
     }
 
     /**
-     * User összes értesítése.
+     * User értesítései (saját és cégszintű) lapozva, legújabb elöl.
+     * Sorrend: createdAt csökkenő, azonos időpontnál USER a COMPANY előtt, azon belül id csökkenő;
+     * a kurzor az előző oldal utolsó eleme ("createdAt_scope_id").
      */
-    public List<Notification> getUserNotifications(Long userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    @Transactional(readOnly = true)
+    public NotificationPageResponse listNotifications(User user, String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new RuntimeException("Limit must be between 1 and " + maxPageSize);
+        }
+        PageCursor after = PageCursor.parse(cursor);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+
+        List<NotificationResponse> merged = new ArrayList<>();
+        notificationRepository.findPageByUserId(user.getId(), after.createdAt(),
+                        after.tieId(NotificationScope.USER), fetch)
+                .forEach(n -> merged.add(NotificationResponse.fromEntity(n)));
+
+        Long companyId = companyId(user);
+        if (companyId != null) {
+            NotificationReadState state = readState(user, companyId);
+            companyNotificationRepository.findVisiblePage(companyId, user.getRole(), after.createdAt(),
+                            after.tieId(NotificationScope.COMPANY), fetch)
+                    .forEach(n -> merged.add(NotificationResponse.fromEntity(n, state.isRead(n.getId()))));
+        }
+        merged.sort(PAGE_ORDER);
+
+        String nextCursor = null;
+        List<NotificationResponse> items = merged;
+        if (merged.size() > limit) {
+            items = new ArrayList<>(merged.subList(0, limit));
+            nextCursor = PageCursor.of(items.get(limit - 1));
+        }
+        return NotificationPageResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     /**
-     * User olvasatlan értesítései.
+     * User olvasatlan értesítései. Cégszintűből csak a vízjel felettiek jönnek szóba.
      */
-    public List<Notification> getUnreadNotifications(Long userId) {
-        return notificationRepository.findByUserIdAndIsReadFalse(userId);
+    @Transactional(readOnly = true)
+    public List<NotificationResponse> getUnreadNotifications(User user) {
+        List<NotificationResponse> result = new ArrayList<>();
+        notificationRepository.findByUserIdAndIsReadFalse(user.getId())
+                .forEach(n -> result.add(NotificationResponse.fromEntity(n)));
+
+        Long companyId = companyId(user);
+        if (companyId != null) {
+            NotificationReadState state = readState(user, companyId);
+            for (CompanyNotification n : companyNotificationRepository.findVisibleAfter(
+                    companyId, user.getRole(), state.getLastReadId())) {
+                if (!state.isRead(n.getId())) {
+                    result.add(NotificationResponse.fromEntity(n, false));
+                }
+            }
+        }
+        result.sort(NEWEST_FIRST);
+        return result;
     }
 
     /**
-     * Olvasatlan értesítések száma.
+     * Olvasatlan értesítések száma az adatbázisból: saját olvasatlanok + vízjel feletti látható cégszintűek - olvasott kivételek.
+     * A badge az UnreadCounterService memóriabeli számlálóját használja, ez csak annak a betöltése.
      */
-    public long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+    @Transactional(readOnly = true)
+    public long countUnread(User user) {
+        long count = notificationRepository.countByUserIdAndIsReadFalse(user.getId());
+        Long companyId = companyId(user);
+        if (companyId != null) {
+            NotificationReadState state = readState(user, companyId);
+            count += companyNotificationRepository.countVisibleAfter(companyId, user.getRole(), state.getLastReadId())
+                    - state.exceptionCount();
+        }
+        return count;
     }
 
     /**
@@ -92,18 +248,170 @@ public class NotificationService {
      */
     @Transactional
     public void markAsRead(Long notificationId, Long userId) {
-        Notification notification = getUserNotification(notificationId, userId);
-        notification.setIsRead(true);
-        notificationRepository.save(notification);
+        int updated = notificationRepository.markReadByIdAndUserId(notificationId, userId);
+        if (updated == 0) {
+            // Nem létezik / nem a useré (hiba), vagy már olvasott
+            getUserNotification(notificationId, userId);
+            return;
+        }
+        eventPublisher.publishEvent(new NotificationsReadEvent(userId, updated));
+    }
+
+    /**
+     * Cégszintű értesítés megjelölése olvasottként.
+     * A vízjel az első olvasatlan látható értesítés elé lép, a lista csak az afeletti kivételeket tartja.
+     */
+    @Transactional
+    public void markCompanyNotificationAsRead(Long notificationId, User user) {
+        Long companyId = companyId(user);
+        CompanyNotification notification = companyNotificationRepository.findById(notificationId)
+                .filter(n -> isVisible(n, companyId, user.getRole()))
+                .orElseThrow(() -> new RuntimeException("Notification not found or access denied"));
+
+        NotificationReadState state = lockedReadState(user, companyId);
+        if (state.isRead(notification.getId())) {
+            return;
+        }
+        state.markRead(notification.getId());
+        advanceWatermark(state, companyId, user.getRole());
+        readStateRepository.save(state);
+        eventPublisher.publishEvent(new NotificationsReadEvent(user.getId(), 1));
+    }
+
+    /**
+     * Összes értesítés megjelölése olvasottként: egy UPDATE a saját értesítésekre,
+     * cégszintűeknél csak a vízjel lép előre.
+     * @return olvasottá vált értesítések száma
+     */
+    @Transactional
+    public long markAllAsRead(User user) {
+        return markRead(user, null, null, null);
     }
 
     /**
-     * Összes értesítés megjelölése olvasottként.
+     * Tömeges olvasottra jelölés típus, termék és/vagy időpont szerint (a null szűrő nem szűr).
+     * Saját értesítéseknél egy UPDATE, cégszintűeknél a read state kivétel listája frissül.
+     * @return olvasottá vált értesítések száma
      */
     @Transactional
-    public void markAllAsRead(Long userId) {
-        List<Notification> unreadNotifications = notificationRepository.findByUserIdAndIsReadFalse(userId);
-        unreadNotifications.forEach(n -> n.setIsRead(true));
-        notificationRepository.saveAll(unreadNotifications);
+    public long markRead(User user, NotificationType type, Long productId, LocalDateTime before) {
+        long count = notificationRepository.markReadMatching(user.getId(), type, productId, before);
+
+        Long companyId = companyId(user);
+        if (companyId != null) {
+            NotificationReadState state = lockedReadState(user, companyId);
+            long watermark = state.getLastReadId();
+            if (type == null && productId == null && before == null) {
+                Long maxId = companyNotificationRepository.findMaxVisibleId(companyId, user.getRole());
+                if (maxId != null && maxId > watermark) {
+                    count += companyNotificationRepository.countVisibleAfter(companyId, user.getRole(), watermark)
+                            - state.exceptionCount();
+                    state.advanceTo(maxId);
+                    readStateRepository.save(state);
+                }
+            } else {
+                int marked = 0;
+                for (Long id : companyNotificationRepository.findVisibleIdsMatchingAfter(
+                        companyId, user.getRole(), watermark, type, productId, before)) {
+                    if (!state.isRead(id)) {
+                        state.markRead(id);
+                        marked++;
+                    }
+                }
+                if (marked > 0) {
+                    advanceWatermark(state, companyId, user.getRole());
+                    readStateRepository.save(state);
+                    count += marked;
+                }
+            }
+        }
+
+        if (count > 0) {
+            eventPublisher.publishEvent(new NotificationsReadEvent(user.getId(), count));
+        }
+        return count;
+    }
+
+    // Vízjel az első olvasatlan látható értesítés elé (ha minden olvasott, a legutolsó láthatóra)
+    private void advanceWatermark(NotificationReadState state, Long companyId, Role role) {
+        Long firstUnread = null;
+        Long lastVisible = null;
+        for (Long id : companyNotificationRepository.findVisibleIdsAfter(companyId, role, state.getLastReadId())) {
+            if (!state.isRead(id)) {
+                firstUnread = id;
+                break;
+            }
+            lastVisible = id;
+        }
+        if (firstUnread != null) {
+            state.advanceTo(firstUnread - 1);
+        } else if (lastVisible != null) {
+            state.advanceTo(lastVisible);
+        }
+    }
+
+    /**
+     * Read state tömörítés (pl. retention törlés után): a már nem létező értesítések kivétel bitjei törlődnek,
+     * és a vízjel az első olvasatlan látható értesítés elé lép.
+     */
+    @Transactional
+    public void compactReadState(User user) {
+        NotificationReadState state = readStateRepository.findByIdForUpdate(user.getId()).orElse(null);
+        if (state == null) {
+            return;
+        }
+        Long companyId = companyId(user);
+        if (companyId == null) {
+            state.retainOnly(List.of());
+        } else {
+            state.retainOnly(companyNotificationRepository.findVisibleIdsAfter(
+                    companyId, user.getRole(), state.getLastReadId()));
+            advanceWatermark(state, companyId, user.getRole());
+        }
+        readStateRepository.save(state);
+    }
+
+    private NotificationReadState readState(User user, Long companyId) {
+        return readStateRepository.findById(user.getId()).orElseGet(() -> createReadState(user, companyId));
+    }
+
+    private NotificationReadState lockedReadState(User user, Long companyId) {
+        Optional<NotificationReadState> state = readStateRepository.findByIdForUpdate(user.getId());
+        if (state.isPresent()) {
+            return state.get();
+        }
+        NotificationReadState created = createReadState(user, companyId);
+        return readStateRepository.findByIdForUpdate(user.getId()).orElse(created);
+    }
+
+    /**
+     * Első állapot a cég akkori legutolsó látható értesítésénél: a belépés előtti előzmény olvasottnak számít.
+     * Saját írási tranzakcióban (REQUIRES_NEW), így az olvasó (read-only) kérésekből is commitolódik,
+     * és az egyidejű beszúrás kulcsütközése csak ezt a tranzakciót görgeti vissza, a hívóét nem.
+     */
+    private NotificationReadState createReadState(User user, Long companyId) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            return requiresNew.execute(status -> {
+                Long maxId = companyNotificationRepository.findMaxVisibleId(companyId, user.getRole());
+                NotificationReadState state = new NotificationReadState(user.getId());
+                state.setLastReadId(maxId != null ? maxId : 0L);
+                readStateRepository.insert(user.getId(), state.getLastReadId(), LocalDateTime.now());
+                return state;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Egy egyidejű kérés már létrehozta (és commitolta)
+            return readStateRepository.findById(user.getId()).orElseThrow(() -> e);
+        }
+    }
+
+    private static boolean isVisible(CompanyNotification notification, Long companyId, Role role) {
+        return companyId != null && companyId.equals(notification.getCompanyId())
+                && (notification.getTargetRole() == null || notification.getTargetRole() == role);
+    }
+
+    private static Long companyId(User user) {
+        return user.getCompany() != null ? user.getCompany().getId() : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.model.CompanyNotification;
+import com.founders404.backend.model.NotificationType;
+import com.founders404.backend.repository.CompanyNotificationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Értesítés ismétlés szűrő (cég, termék, típus) kulcsra, lejárati idővel.
+ * A döntés memóriában, O(1) alatt születik; indításkor a dedupe ablakon belüli értesítésekből
+ * (created_at index, az összesítők minden termékével) épül újra, így az értesítés táblát utána csak a beszúrások érik.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationThrottle {
+
+    private final CompanyNotificationRepository companyNotificationRepository;
+
+    // kulcs -> lejárat (epoch ms)
+    private final ConcurrentHashMap<Key, Long> expiries = new ConcurrentHashMap<>();
+
+    // Ennyi percen belül ugyanarról a termékről azonos típusú értesítés nem megy újra a cégnek
+    @Value("${notifications.dedupe-minutes:30}")
+    private long dedupeMinutes = 30;
+
+    record Key(long companyId, long productId, NotificationType type) {
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Notification dedupe index rebuild failed, starting empty", e);
+        }
+    }
+
+    /**
+     * Index újraépítése a dedupe ablakon belül létrehozott értesítésekből.
+     * @return betöltött kulcsok száma
+     */
+    public int rebuild() {
+        expiries.clear();
+        LocalDateTime since = load();
+        log.info("Notification dedupe index rebuilt with {} keys (since {})", expiries.size(), since);
+        return expiries.size();
+    }
+
+    /**
+     * A dedupe ablakon belüli kulcsok bemásolása törlés nélkül (más node-ok által küldött értesítések,
+     * pl. egyeztetés előtt, hogy az ne ismételje meg őket).
+     */
+    public void refresh() {
+        load();
+    }
+
+    private LocalDateTime load() {
+        LocalDateTime since = LocalDateTime.now().minusMinutes(dedupeMinutes);
+        long ttl = ttlMillis();
+        for (Object[] row : companyNotificationRepository.findDedupeKeysCreatedSince(since)) {
+            long expiresAt = toEpochMillis((LocalDateTime) row[3]) + ttl;
+            // Összesítő értesítésnél a termékek csak a product_ids listában vannak
+            List<Long> productIds = row[1] != null ? List.of((Long) row[1])
+                    : CompanyNotification.parseProductIds((String) row[4]);
+            for (Long productId : productIds) {
+                expiries.merge(new Key((Long) row[0], productId, (NotificationType) row[2]), expiresAt, Math::max);
+            }
+        }
+        return since;
+    }
+
+    /**
+     * Mehet-e értesítés; ha igen, a kulcs a dedupe ablak végéig foglalt lesz.
+     */
+    public boolean tryAcquire(Long companyId, Long productId, NotificationType type) {
+        return tryAcquire(companyId, productId, type, System.currentTimeMillis());
+    }
+
+    boolean tryAcquire(Long companyId, Long productId, NotificationType type, long now) {
+        if (companyId == null || productId == null) {
+            return true;
+        }
+        long expiresAt = now + ttlMillis();
+        boolean[] acquired = {false};
+        expiries.compute(new Key(companyId, productId, type), (key, current) -> {
+            if (current != null && current > now) {
+                return current;
+            }
+            acquired[0] = true;
+            return expiresAt;
+        });
+        return acquired[0];
+    }
+
+    /**
+     * Foglalás visszaadása (pl. sikertelen beszúrás után).
+     */
+    public void release(Long companyId, Long productId, NotificationType type) {
+        if (companyId != null && productId != null) {
+            expiries.remove(new Key(companyId, productId, type));
+        }
+    }
+
+    /**
+     * Lejárt kulcsok törlése, hogy az index mérete a dedupe ablakon belüli értesítésekkel arányos maradjon.
+     */
+    @Scheduled(fixedDelayString = "${notifications.dedupe-evict-interval-ms:300000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        expiries.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    public int size() {
+        return expiries.size();
+    }
+
+    private long ttlMillis() {
+        return dedupeMinutes * 60_000L;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,57 +1,99 @@
 package com.founders404.backend.service;
 
+import com.founders404.backend.analytics.ReorderPointCalculator;
 import com.founders404.backend.dto.ReorderPointDTO;
 import com.founders404.backend.dto.StockForecastDTO;
-import com.founders404.backend.model.Product;
-import com.founders404.backend.repository.InventoryRepository;
-import com.founders404.backend.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class PredictionService {
 
-    private final InventoryRepository inventoryRepository;
-    private final ProductRepository productRepository;
+    private final DemandStateService demandStateService;
+    private final SeasonalityService seasonalityService;
+
+    // Cél kiszolgálási szint (készlethiány nélküli ciklusok aránya)
+    @Value("${forecast.service-level:0.95}")
+    private double serviceLevel = 0.95;
+
+    // Átfutási idő, ha a terméknek nincs beszállítója / a beszállítónál nincs megadva
+    @Value("${forecast.default-lead-time-days:7}")
+    private int defaultLeadTimeDays = 7;
+
+    // Készlet előrejelzésnél ennyi nap szezonális átlagával korrigál
+    @Value("${forecast.seasonal-horizon-days:30}")
+    private int seasonalHorizonDays = 30;
 
     /**
-     * Átlagos napi (OUT mozgás) az utolsó N napban (windowSize).
+     * Előrejelzett napi kereslet az online kereslet modellből (lookup, nincs lekérdezés),
+     * a következő időszak szezonális indexével korrigálva.
      */
-    public BigDecimal calculateMovingAverage(Long productId, int windowSize) {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(windowSize);
-        List<Object[]> dailySales = inventoryRepository.findDailyOutMovements(productId, startDate);
+    public BigDecimal forecastDailyDemand(Long productId) {
+        double demand = demandStateService.forecastDailyDemand(productId)
+                * seasonalityService.factor(productId, LocalDate.now(), seasonalHorizonDays);
+        return BigDecimal.valueOf(demand).setScale(2, RoundingMode.HALF_UP);
+    }
 
-        if (dailySales.isEmpty()) {
-            return BigDecimal.ZERO;
+    /**
+     * Újrarendelési pontok egy batch-ben.
+     * Kereslet és szórás a memóriában élő modellekből, a számítás egyetlen primitív ciklus:
+     * biztonsági készlet = z(kiszolgálási szint) * szórás * sqrt(átfutási idő).
+     */
+    public List<ReorderPointDTO> calculateReorderPoints(long[] productIds, int[] leadTimeDays) {
+        int n = productIds.length;
+        double[] demand = new double[n];
+        double[] stdDev = new double[n];
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < n; i++) {
+            // Szezonális termékeknél az átfutási idő alatti várható szezonhoz igazítva
+            double seasonal = seasonalityService.factor(productIds[i], today, leadTimeDays[i]);
+            demand[i] = demandStateService.forecastDailyDemand(productIds[i]) * seasonal;
+            stdDev[i] = demandStateService.demandStandardDeviation(productIds[i]) * seasonal;
         }
 
-        double totalQuantity = dailySales.stream()
-                .mapToDouble(row -> ((Number) row[1]).doubleValue())
-                .sum();
-
-        return BigDecimal.valueOf(totalQuantity / windowSize).setScale(2, RoundingMode.HALF_UP);
+        int[] safetyStock = new int[n];
+        int[] reorderPoint = new int[n];
+        ReorderPointCalculator.compute(demand, stdDev, leadTimeDays, ReorderPointCalculator.zScore(serviceLevel),
+                safetyStock, reorderPoint);
+
+        List<ReorderPointDTO> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(ReorderPointDTO.builder()
+                    .productId(productIds[i])
+                    .leadTimeDays(leadTimeDays[i])
+                    .safetyStock(safetyStock[i])
+                    .reorderPoint(reorderPoint[i])
+                    .averageDailyDemand(scale(demand[i]))
+                    .demandStdDev(scale(stdDev[i]))
+                    .serviceLevel(serviceLevel)
+                    .build());
+        }
+        return result;
     }
 
     /**
-     * Stock elfogyásának prdikciója:.
+     * Alapértelmezett átfutási idő (ha a beszállítónál nincs megadva).
      */
-    public StockForecastDTO predictStockRunout(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+    public int getDefaultLeadTimeDays() {
+        return defaultLeadTimeDays;
+    }
 
-        int windowSize = 30; // 30 napos időtartam
-        BigDecimal avgDailySales = calculateMovingAverage(productId, windowSize);
-        Integer currentStock = product.getCurrentStock();
+    /**
+     * Előrejelzés már betöltött készletszintből (batch jobokhoz, termék betöltés nélkül).
+     */
+    public StockForecastDTO forecastFromStock(Long productId, Integer currentStock) {
+        return toForecast(productId, currentStock != null ? currentStock : 0, forecastDailyDemand(productId));
+    }
 
+    private static StockForecastDTO toForecast(Long productId, Integer currentStock, BigDecimal avgDailySales) {
         int daysUntilStockout = 999; // Alap
         LocalDate estimatedDate = null;
 
@@ -70,63 +112,7 @@ public class PredictionService {
                 .build();
     }
 
-    /**
-     * Úrjarendelési idő meghatározás.
-     */
-    public ReorderPointDTO calculateReorderPoint(Long productId, int leadTimeDays) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        int windowSize = 30;
-        BigDecimal avgDailySales = calculateMovingAverage(productId, windowSize);
-
-        // Safety Stock: minStockLevel, else 0
-        int safetyStock = product.getMinStockLevel() != null ? product.getMinStockLevel() : 0;
-
-        BigDecimal reorderPointCalc = avgDailySales.multiply(BigDecimal.valueOf(leadTimeDays))
-                .add(BigDecimal.valueOf(safetyStock));
-
-        int reorderPoint = reorderPointCalc.setScale(0, RoundingMode.CEILING).intValue();
-
-        return ReorderPointDTO.builder()
-                .productId(productId)
-                .leadTimeDays(leadTimeDays)
-                .safetyStock(safetyStock)
-                .reorderPoint(reorderPoint)
-                .build();
-    }
-
-    /**
-     * Előrejelzés a fontosabb termékeknek.
-     */
-    public List<StockForecastDTO> getCriticalStockPredictions() {
-        List<Product> products = productRepository.findAll();
-        List<StockForecastDTO> criticalProducts = new ArrayList<>();
-
-        for (Product product : products) {
-            if (!product.getIsActive()) continue;
-
-            StockForecastDTO forecast = predictStockRunout(product.getId());
-            // Define critical: e.g. stockout within 7 days
-            if (forecast.getDaysUntilStockout() <= 7) {
-                criticalProducts.add(forecast);
-            }
-        }
-        return criticalProducts;
-    }
-
-    public List<ReorderPointDTO> getReorderRecommendations() {
-        List<Product> products = productRepository.findAll();
-        List<ReorderPointDTO> recommendations = new ArrayList<>();
-
-        int defaultLeadTime = 7;
-
-        for(Product product : products) {
-            if(!product.getIsActive()) continue;
-
-            ReorderPointDTO dto = calculateReorderPoint(product.getId(), defaultLeadTime);
-            recommendations.add(dto);
-        }
-        return recommendations;
+    private static BigDecimal scale(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
     }
 }
@@ -0,0 +1,180 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.analytics.AbcXyzClassifier;
+import com.founders404.backend.model.AbcClass;
+import com.founders404.backend.model.ProductClassification;
+import com.founders404.backend.model.XyzClass;
+import com.founders404.backend.repository.InventoryRepository;
+import com.founders404.backend.repository.ProductClassificationRepository;
+import com.founders404.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * ABC/XYZ besorolás batch job.
+ * Cégenként 2 query (aktív termék id-k + havi OUT aggregátum), a számítás memóriában,
+ * párhuzamosan, primitív tömbökön fut; az eredmény a product_classifications táblába kerül.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductClassificationService {
+
+    private static final int SAVE_CHUNK_SIZE = 1000;
+    private static final String JOB = "classification";
+
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ProductClassificationRepository classificationRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService schedulerLockService;
+    private final ScheduledJobService scheduledJobService;
+
+    @Value("${classification.window-months:12}")
+    private int windowMonths = 12;
+
+    @Value("${classification.a-share:0.80}")
+    private double aShare = 0.80;
+
+    @Value("${classification.b-share:0.95}")
+    private double bShare = 0.95;
+
+    @Value("${classification.x-max-cv:0.5}")
+    private double xMaxCv = 0.5;
+
+    @Value("${classification.y-max-cv:1.0}")
+    private double yMaxCv = 1.0;
+
+    /**
+     * Éjszakai futás minden cégre (több node esetén a cégek a node-ok között szétosztva).
+     */
+    @Scheduled(cron = "${classification.cron:0 30 2 * * *}")
+    public void classifyAllCompanies() {
+        scheduledJobService.submit(ScheduledJobService.ANALYTICS, JOB,
+                () -> schedulerLockService.runPerCompany(JOB, productRepository.findDistinctCompanyIds(),
+                        this::classifyCompany));
+    }
+
+    /**
+     * Egy cég összes termékének besorolása.
+     * @return besorolt termékek száma
+     */
+    public int classifyCompany(Long companyId) {
+        return classifyCompany(companyId, null);
+    }
+
+    /**
+     * Kézi futtatás az ütemezett jobbal azonos cégenkénti lease-en (így a két futás nem fedi egymást).
+     * @return a feldolgozott termékek száma, vagy üres, ha a cégre éppen fut egy besorolás
+     */
+    public Optional<Integer> classifyCompanyExclusive(Long companyId) {
+        int[] processed = new int[1];
+        boolean ran = schedulerLockService.runExclusive(SchedulerLockService.companyLease(JOB, companyId), Duration.ZERO,
+                lease -> processed[0] = classifyCompany(companyId, lease));
+        return ran ? Optional.of(processed[0]) : Optional.empty();
+    }
+
+    /**
+     * Besorolás lease alatt: mentés előtt checkpoint (hosszabbítás), a mentő tranzakció elején fencing,
+     * így ha a lease közben lejárt és más node átvette, a mentés nem íródik be a másik node eredménye mellé.
+     */
+    public int classifyCompany(Long companyId, SchedulerLockService.Lease lease) {
+        long started = System.currentTimeMillis();
+        LocalDate firstMonth = LocalDate.now().withDayOfMonth(1).minusMonths(windowMonths - 1L);
+
+        List<Long> productIds = productRepository.findActiveIdsByCompanyId(companyId);
+        int n = productIds.size();
+        Map<Long, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            index.put(productIds.get(i), i);
+        }
+
+        double[] values = new double[n];
+        double[] demand = new double[n * windowMonths];
+        for (Object[] row : inventoryRepository.findMonthlyOutByCompany(companyId, firstMonth.atStartOfDay())) {
+            Integer i = index.get((Long) row[0]);
+            if (i == null) {
+                continue; // inaktív termék
+            }
+            int period = (((Number) row[1]).intValue() - firstMonth.getYear()) * 12
+                    + ((Number) row[2]).intValue() - firstMonth.getMonthValue();
+            if (period < 0 || period >= windowMonths) {
+                continue;
+            }
+            demand[i * windowMonths + period] += ((Number) row[3]).doubleValue();
+            if (row[4] != null) {
+                values[i] += ((Number) row[4]).doubleValue();
+            }
+        }
+
+        AbcXyzClassifier classifier = new AbcXyzClassifier(aShare, bShare, xMaxCv, yMaxCv);
+        AbcClass[] abc = classifier.classifyAbc(values);
+        double[] cv = AbcXyzClassifier.coefficientsOfVariation(demand, windowMonths);
+        XyzClass[] xyz = classifier.classifyXyz(cv);
+
+        LocalDateTime computedAt = LocalDateTime.now();
+        checkpoint(lease);
+        transactionTemplate.executeWithoutResult(status -> {
+            fence(lease);
+            classificationRepository.deleteByCompanyId(companyId);
+            List<ProductClassification> chunk = new ArrayList<>(SAVE_CHUNK_SIZE);
+            for (int i = 0; i < n; i++) {
+                ProductClassification classification = new ProductClassification();
+                classification.setProductId(productIds.get(i));
+                classification.setCompanyId(companyId);
+                classification.setAbcClass(abc[i]);
+                classification.setXyzClass(xyz[i]);
+                classification.setConsumptionValue(BigDecimal.valueOf(values[i]).setScale(2, RoundingMode.HALF_UP));
+                classification.setDemandCv(Double.isNaN(cv[i]) ? null : cv[i]);
+                classification.setComputedAt(computedAt);
+                chunk.add(classification);
+
+                if (chunk.size() == SAVE_CHUNK_SIZE || i == n - 1) {
+                    classificationRepository.saveAll(chunk);
+                    classificationRepository.flush();
+                    entityManager.clear();
+                    chunk.clear();
+                }
+            }
+        });
+
+        log.info("Classified {} products of company {} in {} ms", n, companyId, System.currentTimeMillis() - started);
+        return n;
+    }
+
+    private static void checkpoint(SchedulerLockService.Lease lease) {
+        if (lease != null) {
+            lease.checkpoint();
+        }
+    }
+
+    private static void fence(SchedulerLockService.Lease lease) {
+        if (lease != null) {
+            lease.fence();
+        }
+    }
+
+    /**
+     * Cég besorolásai.
+     */
+    public List<ProductClassification> findByCompanyId(Long companyId) {
+        return classificationRepository.findByCompanyId(companyId);
+    }
+}
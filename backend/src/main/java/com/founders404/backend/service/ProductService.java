@@ -1,8 +1,12 @@
 package com.founders404.backend.service;
 
+import com.founders404.backend.event.ProductChangedEvent;
+import com.founders404.backend.model.AbcClass;
 import com.founders404.backend.model.Product;
+import com.founders404.backend.model.XyzClass;
 import com.founders404.backend.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.google.zxing.WriterException;
@@ -10,6 +14,10 @@ import java.io.IOException;
 
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * A Product entitás üzleti logikája.
@@ -19,7 +27,8 @@ import java.util.List;
 public class ProductService {
 
     private final ProductRepository productRepository;
-    private final QRCodeService qrCodeService;
+    private final QRCodeImageStore qrCodeImageStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Összes termék lekérése.
@@ -114,14 +123,30 @@ public class ProductService {
     }
 
     /**
-     * Újrarendelésre váró termékek.
+     * Termékek id lista alapján, a lista sorrendjében (a nem létezők kimaradnak).
+     */
+    public List<Product> findAllById(List<Long> ids) {
+        Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream().distinct().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Újrarendelésre váró termékek (készlet az újrarendelési ponton vagy alatta).
      */
     public List<Product> findProductsNeedingReorder(Long companyId) {
-        return productRepository.findByCompanyIdAndReorderPointIsNotNull(companyId);
+        return productRepository.findBelowReorderPoint(companyId);
+    }
+
+    /**
+     * ABC/XYZ osztály szerinti szűrés (null = bármely osztály).
+     */
+    public List<Product> findByClassification(Long companyId, AbcClass abcClass, XyzClass xyzClass) {
+        return productRepository.findByCompanyIdAndClassification(companyId, abcClass, xyzClass);
     }
 
     /**
-     * Új termék létrehozása automatikus QR kód generálással.
+     * Új termék létrehozása; a QR kód a commit után a háttérben generálódik.
      */
     @Transactional
     public Product create(Product product) {
@@ -140,27 +165,10 @@ public class ProductService {
             throw new RuntimeException("Product with barcode already exists: " + product.getBarcode());
         }
 
-        // 1. Termék mentése
+        // A QR kód a commit után a háttérben készül el (QRCodeRenderService), addig a lekérés rendereli
         Product savedProduct = productRepository.save(product);
 
-        // 2. QR kód automatikus generálása
-        try {
-            // OPCIÓ 1: Fájlba mentés (qrcodes/ mappába)
-            String qrFilePath = qrCodeService.saveQRCodeAsFile(savedProduct);
-            savedProduct.setQrCode(qrFilePath);
-
-            // OPCIÓ 2: Base64 string adatbázisba (kommentezd ki OPCIÓ 1-et ha ezt használod)
-            // String qrBase64 = qrCodeService.generateQRCodeAsBase64(savedProduct);
-            // savedProduct.setQrCode(qrBase64);
-
-            // Frissítés QR kóddal
-            productRepository.save(savedProduct);
-
-        } catch (WriterException | IOException e) {
-            // QR kód generálás nem kritikus, logoljuk és folytatjuk
-            System.err.println("QR kód generálás sikertelen termékhez (ID: " + savedProduct.getId() + "): " + e.getMessage());
-        }
-
+        publishChange(savedProduct, ProductChangedEvent.ChangeType.CREATED);
         return savedProduct;
     }
 
@@ -185,6 +193,8 @@ public class ProductService {
     @Transactional
     public Product update(Long id, Product productDetails) {
         Product product = findById(id);
+        Integer previousMinStockLevel = product.getMinStockLevel();
+        Integer previousReorderPoint = product.getReorderPoint();
 
         // SKU ellenőrzés (ha változik és már létezik)
         if (productDetails.getSku() != null
@@ -286,38 +296,42 @@ public class ProductService {
             product.setImageUrl(productDetails.getImageUrl());
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        // A küszöb emelése újrarendelést válthat ki készletváltozás nélkül is
+        boolean stockLevelsChanged = !Objects.equals(previousMinStockLevel, saved.getMinStockLevel())
+                || !Objects.equals(previousReorderPoint, saved.getReorderPoint());
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getCompanyId(), saved.getId(),
+                ProductChangedEvent.ChangeType.UPDATED, null, null, stockLevelsChanged));
+        return saved;
     }
 
     /**
      * QR kód újragenerálása létező termékhez.
      */
     @Transactional
-    public void regenerateQRCode(Long productId) throws WriterException, IOException {
-        Product product = findById(productId);
-
-        String qrFilePath = qrCodeService.saveQRCodeAsFile(product);
-        product.setQrCode(qrFilePath);
-
-        productRepository.save(product);
+    public void regenerateQRCode(Long productId) {
+        getQrImage(findById(productId), QRCodeService.QR_CODE_WIDTH);
     }
 
-    public byte[] regenerateQrAndReturnBytes(Long productId) {
+    /**
+     * A termék QR képe (memória / fájl tár / renderelés).
+     * Alapméretnél a qr_code oszlop a tárolt képre mutat (ha még nem oda mutatott, frissül).
+     */
+    @Transactional
+    public QRCodeImageStore.QRImage getQrImage(Product product, int size) {
         try {
-            Product product = findById(productId);
-
-            // QR generálás
-            byte[] qrBytes = qrCodeService.generateProductQRCode(product);
-
-            // Fájlba is mentjük, hogy később elérhető legyen
-            String qrFilePath = qrCodeService.saveQRCodeAsFile(product);
-            product.setQrCode(qrFilePath);
-            productRepository.save(product);
-
-            return qrBytes;
-
-        } catch (Exception e) {
-            throw new RuntimeException("QR code generation failed: " + e.getMessage());
+            QRCodeImageStore.QRImage image = qrCodeImageStore.getProductImage(product, size);
+            if (size == QRCodeService.QR_CODE_WIDTH) {
+                String path = qrCodeImageStore.pathOf(image.hash()).toString();
+                // Csak generált (fájl) értéket írunk felül, kézzel megadott QR kódot nem
+                boolean generated = product.getQrCode() == null || product.getQrCode().endsWith(".png");
+                if (generated && !path.equals(product.getQrCode())) {
+                    productRepository.updateQrCode(product.getId(), path);
+                }
+            }
+            return image;
+        } catch (WriterException | IOException e) {
+            throw new IllegalStateException("QR code generation failed: " + e.getMessage(), e);
         }
     }
 
@@ -329,6 +343,7 @@ public class ProductService {
         Product product = findById(id);
         product.setIsActive(false);
         productRepository.save(product);
+        publishChange(product, ProductChangedEvent.ChangeType.UPDATED);
     }
 
     /**
@@ -338,10 +353,12 @@ public class ProductService {
     public void delete(Long id) {
         Product product = findById(id);
         productRepository.delete(product);
+        publishChange(product, ProductChangedEvent.ChangeType.DELETED);
     }
 
     /**
      * Adjust product stock by a delta (can be negative). Never drops below zero.
+     * Nem rögzít készletmozgást; a változás (korábbi -> új készlet) a ProductChangedEvent-ben megy a listenereknek.
      */
     @Transactional
     public Product adjustQuantity(Long id, Integer delta) {
@@ -356,6 +373,16 @@ public class ProductService {
             newQty = 0;
         }
         product.setCurrentStock(newQty);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getCompanyId(), saved.getId(),
+                ProductChangedEvent.ChangeType.UPDATED, current, newQty, false));
+        return saved;
+    }
+
+    /**
+     * Változás esemény publikálása (cache-ek, listenerek számára).
+     */
+    private void publishChange(Product product, ProductChangedEvent.ChangeType changeType) {
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getCompanyId(), product.getId(), changeType));
     }
 }
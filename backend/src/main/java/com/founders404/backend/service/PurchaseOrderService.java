@@ -0,0 +1,409 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.analytics.ReorderPointCalculator;
+import com.founders404.backend.dto.PurchaseOrderLineResponse;
+import com.founders404.backend.dto.PurchaseOrderResponse;
+import com.founders404.backend.event.ProductChangedEvent;
+import com.founders404.backend.event.StockMovementEvent;
+import com.founders404.backend.model.Product;
+import com.founders404.backend.model.PurchaseOrder;
+import com.founders404.backend.model.PurchaseOrderLine;
+import com.founders404.backend.model.PurchaseOrderStatus;
+import com.founders404.backend.model.User;
+import com.founders404.backend.repository.ProductRepository;
+import com.founders404.backend.repository.PurchaseOrderLineRepository;
+import com.founders404.backend.repository.PurchaseOrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Beszerzési rendelések automatikus generálása és bevételezése.
+ * A készletcsökkentő mozgások termékei egy várólistára kerülnek; a periodikus feldolgozás csak ezeket
+ * ellenőrzi, és az újrarendelési pont alá került termékeket beszállítónként egy-egy tervezet rendelésre teszi.
+ * Újrarendelési pont: a termékre kézzel megadott, ennek hiányában az előrejelzésből számolt (ProductForecast).
+ * Rendelési mennyiség: reorderQuantity, ha meg van adva, különben EOQ az előrejelzett keresletből.
+ * A várólista node-onkénti; a feldolgozást egyszerre csak a "purchase-order-drafts" lease-t tartó node végzi,
+ * a tervezetek egyediségét (cég, beszállító) pedig a zárolt lekérdezés és az egyedi kulcs biztosítja.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PurchaseOrderService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String LEASE = "purchase-order-drafts";
+    private static final List<PurchaseOrderStatus> OPEN_STATUSES = List.of(PurchaseOrderStatus.DRAFT, PurchaseOrderStatus.SENT);
+
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderLineRepository lineRepository;
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final DemandStateService demandStateService;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService schedulerLockService;
+
+    // Feldolgozásra váró termékek (készletük csökkent)
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @Value("${purchasing.auto-generate:true}")
+    private boolean autoGenerate = true;
+
+    // Egy rendelés fix költsége (EOQ)
+    @Value("${purchasing.order-cost:50}")
+    private double orderCost = 50;
+
+    // Éves tárolási költség a nettó beszerzési ár arányában (EOQ)
+    @Value("${purchasing.holding-cost-rate:0.25}")
+    private double holdingCostRate = 0.25;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        if (event.getNewStock() != null) {
+            onStockChange(event.getProductId(), event.getPreviousStock(), event.getNewStock());
+        }
+    }
+
+    /**
+     * Mozgás nélküli készletkorrekció vagy küszöb módosítás (ProductService).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!autoGenerate || event.getProductId() == null) {
+            return;
+        }
+        if (event.isStockLevelsChanged()) {
+            pending.add(event.getProductId());
+        } else if (event.isStockChanged()) {
+            onStockChange(event.getProductId(), event.getPreviousStock(), event.getNewStock());
+        }
+    }
+
+    private void onStockChange(Long productId, Integer previousStock, int newStock) {
+        if (!autoGenerate || productId == null) {
+            return;
+        }
+        // Csak csökkenő készlet viheti a terméket az újrarendelési pont alá
+        if (previousStock != null && newStock >= previousStock) {
+            return;
+        }
+        pending.add(productId);
+    }
+
+    /**
+     * Várólista feldolgozása a lease alatt; ha másik node tartja, a termékek a következő körre maradnak.
+     */
+    @Scheduled(fixedDelayString = "${purchasing.process-interval-ms:5000}",
+            initialDelayString = "${purchasing.process-interval-ms:5000}")
+    public void processPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pending);
+        ids.forEach(pending::remove);
+        try {
+            boolean ran = schedulerLockService.runExclusive(LEASE, Duration.ZERO, lease -> {
+                List<PurchaseOrder> orders = generateDrafts(ids);
+                if (!orders.isEmpty()) {
+                    log.info("Draft purchase orders updated: {} (from {} stock changes)", orders.size(), ids.size());
+                }
+            });
+            if (!ran) {
+                pending.addAll(ids);
+            }
+        } catch (RuntimeException e) {
+            // Következő körben újra próbálkozik
+            pending.addAll(ids);
+            log.error("Purchase order generation failed for {} products", ids.size(), e);
+        }
+    }
+
+    /**
+     * Tervezet rendelések a megadott termékekre (amelyek az újrarendelési ponton vagy alatta vannak).
+     * @return A létrehozott / bővített rendelések
+     */
+    public synchronized List<PurchaseOrder> generateDrafts(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        return transactionTemplate.execute(status -> {
+            List<Candidate> candidates = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                candidates.addAll(toCandidates(productRepository.findReorderCandidatesByIds(
+                        ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())))));
+            }
+            return createDrafts(candidates);
+        });
+    }
+
+    /**
+     * Cég összes termékének ellenőrzése (bevezetéskor / kézi indításra).
+     */
+    public synchronized List<PurchaseOrder> generateForCompany(Long companyId) {
+        return transactionTemplate.execute(status ->
+                createDrafts(toCandidates(productRepository.findReorderCandidates(companyId))));
+    }
+
+    /**
+     * Rendelés mennyiség: reorderQuantity, különben EOQ, végső esetben az optimális/max szintig feltöltés.
+     * Legalább annyi, hogy a készlet az (effektív) újrarendelési pont fölé kerüljön.
+     */
+    int orderQuantity(Product product, int reorderPoint) {
+        int stock = product.getCurrentStock() != null ? product.getCurrentStock() : 0;
+        int minimum = Math.max(1, reorderPoint - stock + 1);
+
+        if (product.getReorderQuantity() != null && product.getReorderQuantity() > 0) {
+            return Math.max(minimum, product.getReorderQuantity());
+        }
+
+        double annualDemand = demandStateService.forecastDailyDemand(product.getId()) * 365.0;
+        double unitPrice = product.getNetPurchasePrice() != null ? product.getNetPurchasePrice().doubleValue() : 0.0;
+        int quantity = ReorderPointCalculator.economicOrderQuantity(annualDemand, orderCost, unitPrice * holdingCostRate);
+        if (quantity == 0) {
+            Integer target = product.getOptimalStockLevel() != null ? product.getOptimalStockLevel() : product.getMaxStockLevel();
+            quantity = target != null ? target - stock : 0;
+        }
+        return Math.max(minimum, quantity);
+    }
+
+    // Termék az effektív újrarendelési ponttal
+    private record Candidate(Product product, int reorderPoint) {
+    }
+
+    private static List<Candidate> toCandidates(List<Object[]> rows) {
+        return rows.stream().map(row -> new Candidate((Product) row[0], ((Number) row[1]).intValue())).toList();
+    }
+
+    private List<PurchaseOrder> createDrafts(List<Candidate> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        // Nyitott rendelésen már szereplő termékek kimaradnak
+        Set<Long> onOrder = new HashSet<>(lineRepository.findProductIdsOnOrders(
+                candidates.stream().map(candidate -> candidate.product().getId()).toList(), OPEN_STATUSES));
+        Map<DraftKey, List<Candidate>> groups = new LinkedHashMap<>();
+        for (Candidate candidate : candidates) {
+            Product product = candidate.product();
+            if (!onOrder.contains(product.getId())) {
+                groups.computeIfAbsent(new DraftKey(product.getCompanyId(), product.getSupplierId()), key -> new ArrayList<>())
+                        .add(candidate);
+            }
+        }
+        if (groups.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> companyIds = groups.keySet().stream().map(DraftKey::companyId).collect(Collectors.toSet());
+        Map<DraftKey, PurchaseOrder> drafts = new LinkedHashMap<>();
+        for (PurchaseOrder order : purchaseOrderRepository.findOpenAutoDraftsForUpdate(companyIds)) {
+            drafts.putIfAbsent(new DraftKey(order.getCompanyId(), order.getSupplierId()), order);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PurchaseOrder> result = new ArrayList<>(groups.size());
+        List<PurchaseOrderLine> lines = new ArrayList<>();
+        for (Map.Entry<DraftKey, List<Candidate>> group : groups.entrySet()) {
+            PurchaseOrder order = drafts.get(group.getKey());
+            if (order == null) {
+                order = new PurchaseOrder();
+                order.setCompanyId(group.getKey().companyId());
+                order.setSupplierId(group.getKey().supplierId());
+                order.setStatus(PurchaseOrderStatus.DRAFT);
+                order.setAutoGenerated(true);
+            }
+            order.setUpdatedAt(now);
+            order = purchaseOrderRepository.save(order);
+
+            for (Candidate candidate : group.getValue()) {
+                Product product = candidate.product();
+                lines.add(new PurchaseOrderLine(null, order.getId(), product.getId(),
+                        orderQuantity(product, candidate.reorderPoint()), product.getNetPurchasePrice()));
+            }
+            result.add(order);
+        }
+        lineRepository.saveAll(lines);
+        return result;
+    }
+
+    /**
+     * Rendelés beérkezése: az összes tétel egy tranzakcióban, egy batch-ben kerül készletre (IN mozgások).
+     */
+    @Transactional
+    public PurchaseOrder receive(Long orderId, User user) {
+        PurchaseOrder order = purchaseOrderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new RuntimeException("Beszerzési rendelés nem található: " + orderId));
+        if (!OPEN_STATUSES.contains(order.getStatus())) {
+            throw new RuntimeException("A rendelés nem vételezhető be, állapota: " + order.getStatus());
+        }
+
+        List<PurchaseOrderLine> lines = lineRepository.findByOrderIdOrderById(orderId);
+        if (lines.isEmpty()) {
+            throw new RuntimeException("A rendelésnek nincs tétele: " + orderId);
+        }
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (PurchaseOrderLine line : lines) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+
+        inventoryService.recordInMovements(quantities, "PURCHASE_ORDER", "Beszerzési rendelés #" + orderId, user);
+
+        order.setStatus(PurchaseOrderStatus.RECEIVED);
+        order.setReceivedAt(LocalDateTime.now());
+        order.setReceivedBy(user != null ? user.getId() : null);
+        return purchaseOrderRepository.save(order);
+    }
+
+    /**
+     * Tervezet elküldése a beszállítónak.
+     */
+    @Transactional
+    public PurchaseOrder send(Long orderId) {
+        PurchaseOrder order = findForUpdate(orderId);
+        if (order.getStatus() != PurchaseOrderStatus.DRAFT) {
+            throw new RuntimeException("Csak tervezet küldhető el, állapota: " + order.getStatus());
+        }
+        order.setStatus(PurchaseOrderStatus.SENT);
+        order.setSentAt(LocalDateTime.now());
+        return purchaseOrderRepository.save(order);
+    }
+
+    /**
+     * Nyitott rendelés visszavonása.
+     */
+    @Transactional
+    public PurchaseOrder cancel(Long orderId) {
+        PurchaseOrder order = findForUpdate(orderId);
+        if (!OPEN_STATUSES.contains(order.getStatus())) {
+            throw new RuntimeException("A rendelés nem vonható vissza, állapota: " + order.getStatus());
+        }
+        order.setStatus(PurchaseOrderStatus.CANCELLED);
+        return purchaseOrderRepository.save(order);
+    }
+
+    /**
+     * Tervezet tétel mennyiségének módosítása (0: tétel törlése).
+     */
+    @Transactional
+    public PurchaseOrder updateLineQuantity(Long orderId, Long lineId, int quantity) {
+        PurchaseOrder order = findForUpdate(orderId);
+        if (order.getStatus() != PurchaseOrderStatus.DRAFT) {
+            throw new RuntimeException("Csak tervezet módosítható, állapota: " + order.getStatus());
+        }
+        if (quantity < 0) {
+            throw new RuntimeException("A mennyiség nem lehet negatív: " + quantity);
+        }
+        PurchaseOrderLine line = lineRepository.findById(lineId)
+                .filter(l -> l.getOrderId().equals(orderId))
+                .orElseThrow(() -> new RuntimeException("Rendelés tétel nem található: " + lineId));
+        if (quantity == 0) {
+            lineRepository.delete(line);
+        } else {
+            line.setQuantity(quantity);
+            lineRepository.save(line);
+        }
+        order.setUpdatedAt(LocalDateTime.now());
+        return purchaseOrderRepository.save(order);
+    }
+
+    @Transactional(readOnly = true)
+    public PurchaseOrder findById(Long orderId) {
+        return purchaseOrderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Beszerzési rendelés nem található: " + orderId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PurchaseOrder> findByCompanyId(Long companyId, PurchaseOrderStatus status) {
+        return status != null
+                ? purchaseOrderRepository.findByCompanyIdAndStatusOrderByCreatedAtDesc(companyId, status)
+                : purchaseOrderRepository.findByCompanyIdOrderByCreatedAtDesc(companyId);
+    }
+
+    /**
+     * Válaszok tételekkel (a tételek és a termékek egy-egy lekérdezéssel töltődnek be).
+     */
+    @Transactional(readOnly = true)
+    public List<PurchaseOrderResponse> toResponses(List<PurchaseOrder> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<PurchaseOrderLine>> linesByOrder = lineRepository
+                .findByOrderIdInOrderById(orders.stream().map(PurchaseOrder::getId).toList()).stream()
+                .collect(Collectors.groupingBy(PurchaseOrderLine::getOrderId));
+        Map<Long, Product> products = productRepository.findAllById(linesByOrder.values().stream()
+                        .flatMap(List::stream)
+                        .map(PurchaseOrderLine::getProductId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return orders.stream()
+                .map(order -> toResponse(order, linesByOrder.getOrDefault(order.getId(), List.of()), products))
+                .toList();
+    }
+
+    private PurchaseOrder findForUpdate(Long orderId) {
+        return purchaseOrderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new RuntimeException("Beszerzési rendelés nem található: " + orderId));
+    }
+
+    private static PurchaseOrderResponse toResponse(PurchaseOrder order, List<PurchaseOrderLine> lines,
+                                                    Map<Long, Product> products) {
+        int totalQuantity = 0;
+        BigDecimal totalValue = BigDecimal.ZERO;
+        List<PurchaseOrderLineResponse> lineResponses = new ArrayList<>(lines.size());
+        for (PurchaseOrderLine line : lines) {
+            Product product = products.get(line.getProductId());
+            totalQuantity += line.getQuantity();
+            if (line.getUnitPrice() != null) {
+                totalValue = totalValue.add(line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+            }
+            lineResponses.add(PurchaseOrderLineResponse.builder()
+                    .id(line.getId())
+                    .productId(line.getProductId())
+                    .productName(product != null ? product.getName() : null)
+                    .sku(product != null ? product.getSku() : null)
+                    .quantity(line.getQuantity())
+                    .unitPrice(line.getUnitPrice())
+                    .currentStock(product != null ? product.getCurrentStock() : null)
+                    .reorderPoint(product != null ? product.getReorderPoint() : null)
+                    .build());
+        }
+
+        return PurchaseOrderResponse.builder()
+                .id(order.getId())
+                .companyId(order.getCompanyId())
+                .supplierId(order.getSupplierId())
+                .status(order.getStatus())
+                .autoGenerated(order.getAutoGenerated())
+                .notes(order.getNotes())
+                .lines(lineResponses)
+                .totalQuantity(totalQuantity)
+                .totalValue(totalValue)
+                .sentAt(order.getSentAt())
+                .receivedAt(order.getReceivedAt())
+                .receivedBy(order.getReceivedBy())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+
+    private record DraftKey(Long companyId, Long supplierId) {
+    }
+}
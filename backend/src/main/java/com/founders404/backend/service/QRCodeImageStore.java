@@ -0,0 +1,228 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.model.Product;
+import com.google.zxing.WriterException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Renderelt QR PNG-k tartalom szerinti tárolása.
+ * Kulcs: a QR tartalom és a méret SHA-256 hash-e, így ugyanaz a kép mindig ugyanazon a kulcson van
+ * (termék módosításkor új kulcs, a régi kép érvényes marad). Először a méretkorlátos LRU-ból
+ * (memória), utána a fájl tárból (qrcode.store-dir/<hash>.png) jön, végül renderelődik.
+ * A már nem hivatkozott képeket a QRCodeRetentionService takarítja.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QRCodeImageStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    // A createTempFile csak a tulajdonosnak ad jogot; a tárolt képek mindenki számára olvashatók
+    private static final Set<PosixFilePermission> FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-r--r--");
+
+    private final QRCodeService qrCodeService;
+
+    // Hozzáférési sorrendű map: a legrégebben használt kép esik ki először
+    private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder renders = new LongAdder();
+
+    // Az LRU-ban tartott PNG-k összmérete legfeljebb ennyi bájt
+    @Value("${qrcode.cache-max-bytes:16777216}")
+    private long maxBytes = 16L * 1024 * 1024;
+
+    @Value("${qrcode.store-dir:qrcodes/cas}")
+    private String storeDir = "qrcodes/cas";
+
+    public record QRImage(String hash, byte[] png) {
+    }
+
+    /**
+     * A termék QR képének kulcsa (renderelés nélkül, pl. ETag egyeztetéshez).
+     */
+    public String hashOf(Product product, int size) {
+        return hash(qrCodeService.buildProductQRContent(product), size);
+    }
+
+    /**
+     * A termék QR képe: memória, fájl tár, vagy renderelés (és mentés mindkettőbe).
+     */
+    public QRImage getProductImage(Product product, int size) throws WriterException, IOException {
+        String content = qrCodeService.buildProductQRContent(product);
+        String hash = hash(content, size);
+        Optional<byte[]> stored = getByHash(hash);
+        if (stored.isPresent()) {
+            return new QRImage(hash, stored.get());
+        }
+        byte[] png = qrCodeService.generateQRCode(content, size, size);
+        renders.increment();
+        write(hash, png);
+        put(hash, png);
+        return new QRImage(hash, png);
+    }
+
+    /**
+     * Kép kulcs alapján (memória, majd fájl tár).
+     */
+    public Optional<byte[]> getByHash(String hash) throws IOException {
+        if (!isValidHash(hash)) {
+            return Optional.empty();
+        }
+        byte[] png = get(hash);
+        if (png != null) {
+            hits.increment();
+            return Optional.of(png);
+        }
+        Path path = pathOf(hash);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        png = Files.readAllBytes(path);
+        diskHits.increment();
+        put(hash, png);
+        return Optional.of(png);
+    }
+
+    public Path pathOf(String hash) {
+        return Paths.get(storeDir).resolve(hash + ".png");
+    }
+
+    public static boolean isValidHash(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+
+    /**
+     * Kulcs a tárolt útvonalból (pl. a qr_code oszlopból: qrcodes/cas/<hash>.png).
+     */
+    public static Optional<String> hashFromPath(String path) {
+        if (path == null || !path.endsWith(".png")) {
+            return Optional.empty();
+        }
+        String name = Paths.get(path).getFileName().toString();
+        String hash = name.substring(0, name.length() - ".png".length());
+        return isValidHash(hash) ? Optional.of(hash) : Optional.empty();
+    }
+
+    /**
+     * Nem hivatkozott képek (és félbemaradt mentések) törlése a fájl tárból.
+     * Csak az olderThan előtt módosult fájlok törlődnek, így a frissen renderelt, még nem hivatkozott képek
+     * (egyedi méretek, címkék) a türelmi időn belül megmaradnak. A memóriából nem töröl, azt az LRU kiszorítja.
+     * @return törölt fájlok száma
+     */
+    public int deleteUnreferenced(Set<String> keep, Instant olderThan) throws IOException {
+        Path dir = Paths.get(storeDir);
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Optional<String> hash = hashFromPath(name);
+                boolean orphan = hash.isPresent() ? !keep.contains(hash.get()) : name.endsWith(".tmp");
+                if (orphan && Files.getLastModifiedTime(file).toInstant().isBefore(olderThan)
+                        && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    public Map<String, Object> getStats() {
+        synchronized (cache) {
+            return Map.of(
+                    "entries", cache.size(),
+                    "bytes", cachedBytes,
+                    "hits", hits.sum(),
+                    "diskHits", diskHits.sum(),
+                    "renders", renders.sum());
+        }
+    }
+
+    static String hash(String content, int size) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((size + "\n").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private byte[] get(String hash) {
+        synchronized (cache) {
+            return cache.get(hash);
+        }
+    }
+
+    private void put(String hash, byte[] png) {
+        if (png.length > maxBytes) {
+            return;
+        }
+        synchronized (cache) {
+            byte[] previous = cache.put(hash, png);
+            cachedBytes += png.length - (previous != null ? previous.length : 0);
+            Iterator<byte[]> eldest = cache.values().iterator();
+            while (cachedBytes > maxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Mentés ideiglenes fájlon át, atomikus átnevezéssel (az olvasó sosem lát félkész képet).
+     */
+    private void write(String hash, byte[] png) throws IOException {
+        Path target = pathOf(hash);
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            setPermissions(temp);
+            Files.write(temp, png);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void setPermissions(Path path) throws IOException {
+        try {
+            Files.setPosixFilePermissions(path, FILE_PERMISSIONS);
+        } catch (UnsupportedOperationException e) {
+            // Nem POSIX fájlrendszer: a könyvtár alapértelmezett jogai maradnak
+        }
+    }
+}
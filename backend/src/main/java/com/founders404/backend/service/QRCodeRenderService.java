@@ -0,0 +1,114 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.event.ProductChangedEvent;
+import com.founders404.backend.model.Product;
+import com.founders404.backend.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Termék QR kódok renderelése a háttérben, a létrehozás commitja után.
+ * A termék létrehozása így nem vár a PNG kódolásra és a fájlírásra; a kész kép útvonala csak a qr_code
+ * oszlopba kerül. Ami még nem készült el (vagy a teli sor miatt kimaradt), azt a QR lekérés rendereli.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QRCodeRenderService {
+
+    private final ProductRepository productRepository;
+    private final QRCodeImageStore qrCodeImageStore;
+    private final TransactionTemplate transactionTemplate;
+
+    // Sorban álló vagy renderelés alatt lévő termékek (ugyanaz a termék nem kerül be kétszer)
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @Value("${qrcode.worker-threads:2}")
+    private int workerThreads = 2;
+
+    // Ennél több várakozó renderelésnél az újak kimaradnak (a lekérés pótolja)
+    @Value("${qrcode.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("qrcode-", 1).daemon(true).factory());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.CREATED && event.getProductId() != null) {
+            submit(event.getProductId());
+        }
+    }
+
+    /**
+     * Renderelés sorba állítása.
+     * @return false, ha már sorban van, vagy a sor megtelt
+     */
+    public boolean submit(Long productId) {
+        if (!pending.add(productId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(productId);
+                } catch (Exception e) {
+                    log.error("QR code rendering failed for product {}", productId, e);
+                } finally {
+                    pending.remove(productId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(productId);
+            log.warn("QR code queue is full, product {} will be rendered on first request", productId);
+            return false;
+        }
+    }
+
+    public boolean isPending(Long productId) {
+        return pending.contains(productId);
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Egy termék QR kódjának renderelése és mentése (ha közben a lekérés már elkészítette, kimarad).
+     */
+    void render(Long productId) throws Exception {
+        Optional<Product> product = productRepository.findById(productId);
+        if (product.isEmpty() || product.get().getQrCode() != null) {
+            return;
+        }
+        QRCodeImageStore.QRImage image = qrCodeImageStore.getProductImage(product.get(), QRCodeService.QR_CODE_WIDTH);
+        String path = qrCodeImageStore.pathOf(image.hash()).toString();
+        transactionTemplate.execute(status -> productRepository.updateQrCode(productId, path));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,66 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * QR kép tár takarítás: a termékek qr_code oszlopa által nem hivatkozott képek törlése
+ * (termék módosítás utáni régi képek, egyedi méretek). A türelmi időn belül írt képek megmaradnak;
+ * a törölt kép URL-je 404-et ad, a kliens a termék QR lekérésével újra megkapja.
+ * A tár node-onkénti helyi könyvtár, ezért a takarítás minden node-on fut (cluster szintű lease nélkül).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QRCodeRetentionService {
+
+    private final ProductRepository productRepository;
+    private final QRCodeImageStore qrCodeImageStore;
+    private final ScheduledJobService scheduledJobService;
+
+    @Value("${qrcode.store-retention-hours:24}")
+    private long retentionHours = 24;
+
+    @Scheduled(cron = "${qrcode.store-sweep.cron:0 45 3 * * *}")
+    public void sweepScheduled() {
+        scheduledJobService.submit(ScheduledJobService.MAINTENANCE, "qrcode-store-sweep", this::sweepLocal);
+    }
+
+    void sweepLocal() {
+        try {
+            int deleted = sweep();
+            log.info("QR code store sweep deleted {} unreferenced images", deleted);
+        } catch (RuntimeException e) {
+            log.error("QR code store sweep failed", e);
+        }
+    }
+
+    /**
+     * Nem hivatkozott képek törlése.
+     * @return törölt fájlok száma
+     */
+    public int sweep() {
+        // A határidő a hivatkozások beolvasása előtt áll be, így a közben írt képek biztosan újabbak nála
+        Instant olderThan = Instant.now().minus(Duration.ofHours(retentionHours));
+        Set<String> referenced = new HashSet<>();
+        for (String path : productRepository.findAllQrCodes()) {
+            QRCodeImageStore.hashFromPath(path).ifPresent(referenced::add);
+        }
+        try {
+            return qrCodeImageStore.deleteUnreferenced(referenced, olderThan);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -11,10 +11,6 @@ import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Base64;
 
 /**
  * QR kód generálás.
@@ -23,9 +19,12 @@ import java.util.Base64;
 @RequiredArgsConstructor
 public class QRCodeService {
 
-    private static final int QR_CODE_WIDTH = 300;
-    private static final int QR_CODE_HEIGHT = 300;
-    private static final String QR_CODE_DIRECTORY = "qrcodes/";
+    public static final int QR_CODE_WIDTH = 300;
+    public static final int QR_CODE_HEIGHT = 300;
+
+    // Lekérhető QR képméretek (pixel, négyzetes)
+    public static final int MIN_SIZE = 64;
+    public static final int MAX_SIZE = 1024;
 
     /**
      * QR kód generálás szövegből.
@@ -57,7 +56,7 @@ public class QRCodeService {
      * Termék QR tartalom építése.
      * Formátum: JSON-szerű string vagy egyedi formátum.
      */
-    private String buildProductQRContent(Product product) {
+    public String buildProductQRContent(Product product) {
         // Opció 1: JSON formátum
         return String.format(
                 "{\"id\":%d,\"name\":\"%s\",\"sku\":\"%s\",\"barcode\":\"%s\",\"price\":%.2f}",
@@ -71,57 +70,4 @@ public class QRCodeService {
         // Opció 2: Egyszerű URL (ha web alapú lenne)
         // return "https://yourapp.com/products/" + product.getId();
     }
-
-    /**
-     * QR kód mentése fájlként.
-     */
-    public String saveQRCodeAsFile(Product product) throws WriterException, IOException {
-        byte[] qrCodeBytes = generateProductQRCode(product);
-
-        // Könyvtár létrehozása, ha nem létezik
-        Path directory = Paths.get(QR_CODE_DIRECTORY);
-        if (!Files.exists(directory)) {
-            Files.createDirectories(directory);
-        }
-
-        // Fájl útvonal
-        String fileName = "product_" + product.getId() + ".png";
-        Path filePath = directory.resolve(fileName);
-
-        // Mentés
-        Files.write(filePath, qrCodeBytes);
-
-        return filePath.toString();
-    }
-
-    /**
-     * QR kód Base64 string-ként.
-     * Adatbázisba mentéshez.
-     * return = Base64 encoded string
-     */
-    public String generateQRCodeAsBase64(Product product) throws WriterException, IOException {
-        byte[] qrCodeBytes = generateProductQRCode(product);
-        return Base64.getEncoder().encodeToString(qrCodeBytes);
-    }
-
-    /**
-     * QR kód betöltése fájlból.
-     * return = PNG byte array vagy null
-     */
-    public byte[] loadQRCodeFromFile(Long productId) throws IOException {
-        String fileName = "product_" + productId + ".png";
-        Path filePath = Paths.get(QR_CODE_DIRECTORY).resolve(fileName);
-
-        if (Files.exists(filePath)) {
-            return Files.readAllBytes(filePath);
-        }
-        return null;
-    }
-
-    /**
-     * QR kód dekódolása byte arrayba.
-     */
-    public byte[] decodeBase64QRCode(String base64QRCode) {
-        return Base64.getDecoder().decode(base64QRCode);
-    }
 }
@@ -0,0 +1,157 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.ScheduledJobStatsDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ütemezett jobok futtatása nevesített sorokon, soronként saját szálkészlettel.
+ * A @Scheduled metódus csak beadja a jobot, így egy lassú job nem tartja fel a scheduler szálat és a többi jobot.
+ * Egy job egyszerre egy példányban fut (ha az előző még tart, a futás kimarad), és jobonként
+ * futási idő és indulási késés (lag) statisztika készül.
+ * Beállítás: scheduler.queues.analytics.threads=2 stb.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduledJobService {
+
+    // Készlet riasztások egyeztetése
+    public static final String ALERTS = "alerts";
+    // Cégenkénti elemzések (előrejelzés, besorolás, szezonalitás)
+    public static final String ANALYTICS = "analytics";
+    // Karbantartás (retention)
+    public static final String MAINTENANCE = "maintenance";
+
+    private static final Map<String, Integer> DEFAULT_THREADS = Map.of(ALERTS, 1, ANALYTICS, 2, MAINTENANCE, 1);
+
+    private final Environment environment;
+
+    private final ConcurrentHashMap<String, ExecutorService> queues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, JobStats> jobs = new ConcurrentHashMap<>();
+
+    static final class JobStats {
+        private final String queue;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private long runs;
+        private long failures;
+        private long skipped;
+        private LocalDateTime lastStartedAt;
+        private long lastDurationMs;
+        private long maxDurationMs;
+        private long totalDurationMs;
+        private long lastLagMs;
+        private long maxLagMs;
+
+        JobStats(String queue) {
+            this.queue = queue;
+        }
+
+        synchronized void started(long lagMs) {
+            lastStartedAt = LocalDateTime.now();
+            lastLagMs = lagMs;
+            maxLagMs = Math.max(maxLagMs, lagMs);
+        }
+
+        synchronized void finished(long durationMs, boolean failed) {
+            runs++;
+            if (failed) {
+                failures++;
+            }
+            lastDurationMs = durationMs;
+            maxDurationMs = Math.max(maxDurationMs, durationMs);
+            totalDurationMs += durationMs;
+        }
+
+        synchronized void skipped() {
+            skipped++;
+        }
+
+        synchronized ScheduledJobStatsDTO toDTO(String job) {
+            return ScheduledJobStatsDTO.builder()
+                    .job(job)
+                    .queue(queue)
+                    .running(running.get())
+                    .runs(runs)
+                    .failures(failures)
+                    .skipped(skipped)
+                    .lastStartedAt(lastStartedAt)
+                    .lastDurationMs(lastDurationMs)
+                    .maxDurationMs(maxDurationMs)
+                    .avgDurationMs(runs > 0 ? totalDurationMs / runs : 0)
+                    .lastLagMs(lastLagMs)
+                    .maxLagMs(maxLagMs)
+                    .build();
+        }
+    }
+
+    /**
+     * Job beadása a sorába.
+     * @return false, ha az előző futása még tart (ez a futás kimarad)
+     */
+    public boolean submit(String queue, String job, Runnable task) {
+        JobStats stats = jobs.computeIfAbsent(job, name -> new JobStats(queue));
+        if (!stats.running.compareAndSet(false, true)) {
+            stats.skipped();
+            log.warn("Scheduled job {} is still running, this run is skipped", job);
+            return false;
+        }
+        long submittedAt = System.currentTimeMillis();
+        try {
+            queue(queue).execute(() -> run(job, stats, submittedAt, task));
+        } catch (RejectedExecutionException e) {
+            stats.running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    public List<ScheduledJobStatsDTO> getStats() {
+        return jobs.entrySet().stream()
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .sorted(Comparator.comparing(ScheduledJobStatsDTO::getJob))
+                .toList();
+    }
+
+    private void run(String job, JobStats stats, long submittedAt, Runnable task) {
+        long started = System.currentTimeMillis();
+        stats.started(started - submittedAt);
+        boolean failed = false;
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            failed = true;
+            log.error("Scheduled job {} failed", job, e);
+        } finally {
+            stats.finished(System.currentTimeMillis() - started, failed);
+            stats.running.set(false);
+        }
+    }
+
+    private ExecutorService queue(String name) {
+        return queues.computeIfAbsent(name, key -> {
+            int threads = environment.getProperty("scheduler.queues." + key + ".threads", Integer.class,
+                    DEFAULT_THREADS.getOrDefault(key, 1));
+            return Executors.newFixedThreadPool(Math.max(1, threads),
+                    Thread.ofPlatform().name("job-" + key + "-", 1).daemon(true).factory());
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        queues.values().forEach(ExecutorService::shutdown);
+    }
+}
@@ -0,0 +1,226 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.exception.LeaseLostException;
+import com.founders404.backend.repository.SchedulerLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Ütemezett jobok zárolása több backend node között (scheduler_leases tábla).
+ * Egy jobot (vagy cégenkénti jobnál egy cég feldolgozását) egyszerre csak a lease-t tartó node futtat;
+ * a lease legfeljebb atMostFor ideig él (összeomlott node után átvehető), és legalább atLeastFor ideig
+ * foglalt marad, hogy a kicsit később ütemező node ugyanazt a futást ne ismételje meg.
+ * A lejáratot a node-ok órája adja, ezért az órák eltérése legyen jóval kisebb az atLeastFor-nál (NTP).
+ * A lease-elt jobok adatbázis írásai a saját tranzakciójukban Lease.fence()-t hívnak, így egy lease-ét
+ * vesztett node írása nem kerülhet az új tulajdonosé mellé.
+ * Memóriabeli állapot több node mellett: a kereslet modellek (DemandStateService) és a mozgás sketch-ek
+ * (MovementSketchService) az adatbázisból követik a más node-on rögzített mozgásokat, a kereslet alapállapotot
+ * a cég lease-ét tartó előrejelző job menti; az elavult előrejelzéseket (ForecastService) a termékek updated_at-je
+ * jelzi; a beszerzési várólistát (PurchaseOrderService) minden node a saját eseményeiből tölti és a lease alatt
+ * dolgozza fel; a statisztika cache (StatisticsCacheService) és az olvasatlan számlálók (UnreadCounterService)
+ * más node változását legfeljebb a TTL-ig nem látják.
+ */
+@Slf4j
+@Service
+public class SchedulerLockService {
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+
+    // Ennyi idő után a lease akkor is lejár, ha a node nem engedte el (meghosszabbítás: Lease.checkpoint)
+    @Value("${scheduler.lock.at-most-for-ms:1800000}")
+    private long atMostForMs = 1_800_000L;
+
+    @Value("${scheduler.lock.at-least-for-ms:300000}")
+    private long atLeastForMs = 300_000L;
+
+    // Cégenkénti jobnál egyszerre ennyi cég fut párhuzamosan
+    @Value("${scheduler.company-parallelism:4}")
+    private int companyParallelism = 4;
+
+    public SchedulerLockService(SchedulerLeaseRepository leaseRepository, PlatformTransactionManager transactionManager,
+                                @Value("${scheduler.node-id:}") String nodeId) {
+        this.leaseRepository = leaseRepository;
+        // Saját tranzakció, hogy a lease művelet akkor is azonnal commitolódjon, ha a job tranzakcióban hívja
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId;
+    }
+
+    /**
+     * Megszerzett lease; a job hosszabb futás közben a checkpoint-tal hosszabbít,
+     * ami egyben fencing ellenőrzés is: ha közben más vette át, LeaseLostException-nel leáll.
+     */
+    public final class Lease {
+        private final String name;
+        private final long token;
+        private final LocalDateTime lockedAt;
+
+        private Lease(String name, long token, LocalDateTime lockedAt) {
+            this.name = name;
+            this.token = token;
+            this.lockedAt = lockedAt;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getToken() {
+            return token;
+        }
+
+        /**
+         * Fencing ellenőrzés a hívó (író) tranzakciójában; a lease sor a commitig zárolva marad.
+         * A tranzakción belül nem hívható checkpoint (ugyanazt a sort írná egy másik tranzakcióból).
+         */
+        public void fence() {
+            if (leaseRepository.fence(name, token, LocalDateTime.now()) == 0) {
+                throw new LeaseLostException(name, token);
+            }
+        }
+
+        public void checkpoint() {
+            LocalDateTime now = LocalDateTime.now();
+            Integer extended = transactionTemplate.execute(status -> leaseRepository.extend(
+                    name, nodeId, token, now, now.plus(Duration.ofMillis(atMostForMs))));
+            if (extended == null || extended == 0) {
+                throw new LeaseLostException(name, token);
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Lease megszerzése, ha senki nem tartja (vagy lejárt).
+     */
+    public Optional<Lease> tryAcquire(String name) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(atMostForMs));
+        try {
+            Long token = transactionTemplate.execute(status -> {
+                if (leaseRepository.takeOver(name, nodeId, now, expiresAt) == 1) {
+                    return leaseRepository.findTokenByName(name).orElse(null);
+                }
+                if (leaseRepository.existsById(name)) {
+                    return null;
+                }
+                leaseRepository.insert(name, nodeId, now, expiresAt);
+                return 1L;
+            });
+            return token != null ? Optional.of(new Lease(name, token, now)) : Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            // Egy másik node ugyanekkor szúrta be
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Elengedés; a lease a megszerzéstől számított atLeastFor végéig még foglalt marad.
+     */
+    public void release(Lease lease, Duration atLeastFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime holdUntil = lease.lockedAt.plus(atLeastFor);
+        LocalDateTime expiresAt = holdUntil.isAfter(now) ? holdUntil : now;
+        try {
+            transactionTemplate.execute(status -> leaseRepository.release(lease.name, nodeId, lease.token, expiresAt));
+        } catch (RuntimeException e) {
+            // Nem kritikus: a lease legkésőbb atMostFor után magától lejár
+            log.warn("Scheduler lease {} release failed", lease.name, e);
+        }
+    }
+
+    /**
+     * Job futtatása, ha ez a node szerzi meg a lease-t.
+     * @return false, ha egy másik node tartja
+     */
+    public boolean runExclusive(String name, Consumer<Lease> task) {
+        return runExclusive(name, Duration.ofMillis(atLeastForMs), task);
+    }
+
+    public boolean runExclusive(String name, Duration atLeastFor, Consumer<Lease> task) {
+        Optional<Lease> lease = tryAcquire(name);
+        if (lease.isEmpty()) {
+            log.debug("Scheduler lease {} is held by another node, skipped", name);
+            return false;
+        }
+        try {
+            task.accept(lease.get());
+            return true;
+        } finally {
+            release(lease.get(), atLeastFor);
+        }
+    }
+
+    /**
+     * Cégenkénti job: minden cégre külön lease, így a node-ok szétosztják egymás között a cégeket.
+     * Egy node-on egyszerre legfeljebb scheduler.company-parallelism cég fut (virtuális szálakon),
+     * így a cégek számának növekedése nem nyújtja arányosan a futást, de az adatbázis kapcsolatokat sem meríti ki.
+     * A node-ok véletlen sorrendben járják be a cégeket, hogy ne ugyanarra versenyezzenek.
+     * Egy cég hibája nem állítja meg a többit.
+     * @return az ezen a node-on feldolgozott cégek száma
+     */
+    public int runPerCompany(String job, Collection<Long> companyIds, BiConsumer<Long, Lease> task) {
+        List<Long> order = new ArrayList<>(companyIds);
+        Collections.shuffle(order);
+        Semaphore permits = new Semaphore(Math.max(1, companyParallelism));
+        AtomicInteger processed = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long companyId : order) {
+                permits.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        if (runExclusive(companyLease(job, companyId), lease -> task.accept(companyId, lease))) {
+                            processed.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        log.error("Scheduled job {} failed for company {}", job, companyId, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return processed.get();
+    }
+
+    public static String companyLease(String job, Long companyId) {
+        return job + ":company:" + companyId;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,348 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.analytics.DemandMatrix;
+import com.founders404.backend.analytics.SeasonalProfile;
+import com.founders404.backend.analytics.SeasonalityDetector;
+import com.founders404.backend.model.ProductSeasonality;
+import com.founders404.backend.repository.InventoryRepository;
+import com.founders404.backend.repository.ProductRepository;
+import com.founders404.backend.repository.ProductSeasonalityRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Szezonalitás batch job a teljes katalógusra.
+ * Cégenként termék id szerint lapozott darabokban: darabonként egy csoportosított lekérdezés tölti a napi kereslet
+ * mátrixot, a felismerés párhuzamosan, primitív tömbökön fut; az eredmény a product_seasonality táblába kerül.
+ * A szezonális termékek indexei a memóriában is megvannak, az előrejelzések ezekkel korrigálnak.
+ * Több node esetén egy céget csak a lease-t tartó node számol újra; a többi node a cégenkénti
+ * computed_at alapján periodikusan újratölti a megváltozott cégeket.
+ * Induláskor az indexek háttérszálon töltődnek be (ApplicationReadyEvent); addig az olvasások várnak
+ * (seasonality.ready-timeout-ms), így az előrejelzések nem számolódnak szezonalitás nélkül.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeasonalityService {
+
+    private static final int SAVE_CHUNK_SIZE = 1000;
+    private static final String JOB = "seasonality";
+
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ProductSeasonalityRepository seasonalityRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService schedulerLockService;
+    private final ScheduledJobService scheduledJobService;
+
+    private final ConcurrentHashMap<Long, SeasonalProfile> profiles = new ConcurrentHashMap<>();
+
+    // cég -> a betöltött számítás ideje és szezonális termékei
+    private final ConcurrentHashMap<Long, Loaded> loaded = new ConcurrentHashMap<>();
+
+    // Elemzett időszak (éves szezonalitáshoz legalább 2 év kell)
+    @Value("${seasonality.history-days:730}")
+    private int historyDays = 730;
+
+    // Egyszerre elemzett termékek száma (memória: darab x historyDays double)
+    @Value("${seasonality.chunk-size:2000}")
+    private int chunkSize = 2000;
+
+    @Value("${seasonality.min-autocorrelation:0.3}")
+    private double minAutocorrelation = 0.3;
+
+    // Ennyi napos múltbeli időszakhoz viszonyít a korrekció (a kereslet modell szintje ezt követi)
+    @Value("${seasonality.baseline-days:28}")
+    private int baselineDays = 28;
+
+    // Az olvasások legfeljebb ennyit várnak az induláskori betöltésre
+    @Value("${seasonality.ready-timeout-ms:120000}")
+    private long readyTimeoutMs = 120_000L;
+
+    // Nyitva, ha lefutott az induláskori betöltés (sikertelenül is: akkor szezonalitás nélkül)
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    record Loaded(LocalDateTime computedAt, Set<Long> productIds) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoad() {
+        Thread.ofVirtual().name("seasonality-load").start(this::loadOnStartup);
+    }
+
+    /**
+     * Induláskori betöltés; utána nyílnak meg az olvasások.
+     */
+    void loadOnStartup() {
+        try {
+            reloadChanged();
+            log.info("Seasonal profiles loaded for {} products", profiles.size());
+        } catch (RuntimeException e) {
+            log.error("Seasonal profile load failed, forecasts run without seasonality", e);
+        } finally {
+            ready.countDown();
+        }
+    }
+
+    /**
+     * Heti futás minden cégre (több node esetén a cégek a node-ok között szétosztva).
+     */
+    @Scheduled(cron = "${seasonality.cron:0 0 4 * * SUN}")
+    public void analyzeAllCompanies() {
+        scheduledJobService.submit(ScheduledJobService.ANALYTICS, JOB,
+                () -> schedulerLockService.runPerCompany(JOB, productRepository.findDistinctCompanyIds(),
+                        this::analyzeCompany));
+    }
+
+    /**
+     * Más node által újraszámolt cégek indexeinek betöltése (minden node-on fut, lease nélkül).
+     */
+    @Scheduled(fixedDelayString = "${seasonality.reload-interval-ms:600000}",
+            initialDelayString = "${seasonality.reload-interval-ms:600000}")
+    public void reloadScheduled() {
+        scheduledJobService.submit(ScheduledJobService.MAINTENANCE, "seasonality-reload", this::reloadChanged);
+    }
+
+    /**
+     * Azon cégek újratöltése, amelyek utolsó számítása eltér a betöltöttől.
+     * @return újratöltött cégek száma
+     */
+    int reloadChanged() {
+        Map<Long, LocalDateTime> current = new HashMap<>();
+        for (Object[] row : seasonalityRepository.findComputedAtByCompany()) {
+            current.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+        int reloaded = 0;
+        for (Map.Entry<Long, LocalDateTime> entry : current.entrySet()) {
+            Loaded previous = loaded.get(entry.getKey());
+            if (previous == null || !previous.computedAt().equals(entry.getValue())) {
+                Map<Long, SeasonalProfile> seasonal = new HashMap<>();
+                for (ProductSeasonality row : seasonalityRepository.findSeasonalByCompanyId(entry.getKey())) {
+                    seasonal.put(row.getProductId(), toProfile(row));
+                }
+                apply(entry.getKey(), entry.getValue(), seasonal);
+                reloaded++;
+            }
+        }
+        // Azóta törölt cégek
+        for (Long companyId : new ArrayList<>(loaded.keySet())) {
+            if (!current.containsKey(companyId)) {
+                apply(companyId, null, Map.of());
+            }
+        }
+        return reloaded;
+    }
+
+    /**
+     * Egy cég összes aktív termékének elemzése.
+     * @return elemzett termékek száma
+     */
+    public int analyzeCompany(Long companyId) {
+        return analyzeCompany(companyId, null);
+    }
+
+    /**
+     * Kézi futtatás az ütemezett jobbal azonos cégenkénti lease-en (így a két futás nem fedi egymást).
+     * @return a feldolgozott termékek száma, vagy üres, ha a cégre éppen fut egy elemzés
+     */
+    public Optional<Integer> analyzeCompanyExclusive(Long companyId) {
+        int[] processed = new int[1];
+        boolean ran = schedulerLockService.runExclusive(SchedulerLockService.companyLease(JOB, companyId), Duration.ZERO,
+                lease -> processed[0] = analyzeCompany(companyId, lease));
+        return ran ? Optional.of(processed[0]) : Optional.empty();
+    }
+
+    /**
+     * Elemzés lease alatt, termék id szerint lapozott darabokban: darabonként betöltés primitív tömbbe,
+     * felismerés, mentés, majd a darab eldobása, így a memória a darab méretével arányos, nem a katalóguséval.
+     * Mentés előtt checkpoint (hosszabbítás), a mentő tranzakciók elején fencing, így ha a lease közben lejárt
+     * és más node átvette, a mentés nem íródik be a másik node eredménye mellé.
+     */
+    public int analyzeCompany(Long companyId, SchedulerLockService.Lease lease) {
+        long started = System.currentTimeMillis();
+        LocalDate from = LocalDate.now().minusDays(historyDays);
+        // Az adatbázis ms pontossággal tárolja, így az újratöltés összehasonlítása egyezik
+        LocalDateTime computedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Map<Long, SeasonalProfile> seasonal = new HashMap<>();
+        int analysed = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = productRepository.findActiveIdsByCompanyIdAfter(companyId, afterId,
+                    PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            DemandMatrix matrix = loadChunk(companyId, afterId, ids, from);
+            SeasonalityDetector.Result result = SeasonalityDetector.detect(matrix, minAutocorrelation);
+            checkpoint(lease);
+            saveChunk(companyId, matrix, result, computedAt, lease);
+
+            for (int i = 0; i < matrix.size(); i++) {
+                if (result.weeklySeasonal()[i] || result.yearlySeasonal()[i]) {
+                    seasonal.put(matrix.productId(i), result.profile(i));
+                }
+            }
+            analysed += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        // Az ebben a futásban újra nem írt sorok (azóta inaktív termékek) törlése
+        checkpoint(lease);
+        transactionTemplate.executeWithoutResult(status -> {
+            fence(lease);
+            seasonalityRepository.deleteStale(companyId, computedAt);
+        });
+
+        // Memóriabeli indexek frissítése commit után
+        apply(companyId, analysed > 0 ? computedAt : null, seasonal);
+
+        log.info("Seasonality analysed for {} products of company {} ({} seasonal) in {} ms",
+                analysed, companyId, seasonal.size(), System.currentTimeMillis() - started);
+        return analysed;
+    }
+
+    /**
+     * Egy darab (afterId, utolsó id] napi keresletének betöltése; az ids közé nem eső (inaktív) termékek kimaradnak.
+     */
+    private DemandMatrix loadChunk(Long companyId, long afterId, List<Long> ids, LocalDate from) {
+        long[] productIds = ids.stream().mapToLong(Long::longValue).toArray();
+        return DemandMatrix.fromDailyRows(productIds, inventoryRepository.findDailyOutDemandInProductRange(companyId,
+                afterId, productIds[productIds.length - 1], from.atStartOfDay()), from, historyDays);
+    }
+
+    private void saveChunk(Long companyId, DemandMatrix matrix, SeasonalityDetector.Result result,
+                           LocalDateTime computedAt, SchedulerLockService.Lease lease) {
+        int n = matrix.size();
+        List<Long> productIds = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            productIds.add(matrix.productId(i));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            fence(lease);
+            seasonalityRepository.deleteByProductIds(productIds);
+            List<ProductSeasonality> batch = new ArrayList<>(SAVE_CHUNK_SIZE);
+            for (int i = 0; i < n; i++) {
+                SeasonalProfile profile = result.profile(i);
+                ProductSeasonality row = new ProductSeasonality();
+                row.setProductId(matrix.productId(i));
+                row.setCompanyId(companyId);
+                row.setWeeklyStrength(result.weeklyStrength()[i]);
+                row.setYearlyStrength(result.yearlyStrength()[i]);
+                row.setWeeklySeasonal(result.weeklySeasonal()[i]);
+                row.setYearlySeasonal(result.yearlySeasonal()[i]);
+                row.setWeeklyIndices(profile.weekly());
+                row.setMonthlyIndices(profile.monthly());
+                row.setHistoryDays(historyDays);
+                row.setComputedAt(computedAt);
+                batch.add(row);
+
+                if (batch.size() == SAVE_CHUNK_SIZE || i == n - 1) {
+                    seasonalityRepository.saveAll(batch);
+                    seasonalityRepository.flush();
+                    entityManager.clear();
+                    batch.clear();
+                }
+            }
+        });
+    }
+
+    /**
+     * Egy cég indexeinek cseréje; régebbi számítás nem írja felül az újabbat
+     * (pl. ha az újratöltés a helyi futás commitja előtt olvasott).
+     */
+    private synchronized void apply(Long companyId, LocalDateTime computedAt, Map<Long, SeasonalProfile> seasonal) {
+        Loaded previous = loaded.get(companyId);
+        if (previous != null && computedAt != null && previous.computedAt().isAfter(computedAt)) {
+            return;
+        }
+        profiles.putAll(seasonal);
+        if (previous != null) {
+            for (Long productId : previous.productIds()) {
+                if (!seasonal.containsKey(productId)) {
+                    profiles.remove(productId);
+                }
+            }
+        }
+        if (computedAt != null) {
+            loaded.put(companyId, new Loaded(computedAt, Set.copyOf(seasonal.keySet())));
+        } else {
+            loaded.remove(companyId);
+        }
+    }
+
+    private static void checkpoint(SchedulerLockService.Lease lease) {
+        if (lease != null) {
+            lease.checkpoint();
+        }
+    }
+
+    private static void fence(SchedulerLockService.Lease lease) {
+        if (lease != null) {
+            lease.fence();
+        }
+    }
+
+    /**
+     * Szezonális szorzó a [from, from + days) időszak átlagos keresletére (1, ha a termék nem szezonális).
+     */
+    public double factor(Long productId, LocalDate from, int days) {
+        awaitReady();
+        SeasonalProfile profile = profiles.get(productId);
+        return profile != null ? profile.factor(from, days, baselineDays) : 1.0;
+    }
+
+    public Optional<SeasonalProfile> getProfile(Long productId) {
+        awaitReady();
+        return Optional.ofNullable(profiles.get(productId));
+    }
+
+    public List<ProductSeasonality> findByCompanyId(Long companyId) {
+        return seasonalityRepository.findByCompanyId(companyId);
+    }
+
+    public Optional<ProductSeasonality> findByProductId(Long productId) {
+        return seasonalityRepository.findById(productId);
+    }
+
+    private void awaitReady() {
+        try {
+            if (!ready.await(readyTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Seasonal profiles are still loading");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for seasonal profiles", e);
+        }
+    }
+
+    private static SeasonalProfile toProfile(ProductSeasonality row) {
+        double[] weekly = row.getWeeklyIndices() != null && row.getWeeklyIndices().length == 7
+                ? row.getWeeklyIndices() : SeasonalProfile.FLAT.weekly();
+        double[] monthly = row.getMonthlyIndices() != null && row.getMonthlyIndices().length == 12
+                ? row.getMonthlyIndices() : SeasonalProfile.FLAT.monthly();
+        return new SeasonalProfile(weekly, monthly);
+    }
+}
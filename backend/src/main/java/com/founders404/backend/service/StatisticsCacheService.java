@@ -0,0 +1,205 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.*;
+import com.founders404.backend.event.ProductChangedEvent;
+import com.founders404.backend.event.StockMovementEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache réteg a StatisticsService felett.
+ * Kulcs: (endpoint, company, dátum intervallum + egyéb paraméterek).
+ * Készletmozgás / termék változás esetén csak az érintett cég bejegyzései törlődnek,
+ * az azonos, egyszerre érkező kérések egyetlen számításra várnak.
+ * A cache node-onkénti: más node-on rögzített mozgás nem érvényteleníti, ott legfeljebb a TTL-ig látszik régi érték.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatisticsCacheService {
+
+    private final StatisticsService statisticsService;
+
+    private final ConcurrentHashMap<CacheKey, CacheEntry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Biztonsági lejárat (pl. kategória átnevezés nem küld eseményt)
+    @Value("${statistics.cache.ttl-seconds:300}")
+    private long ttlSeconds = 300;
+
+    @Value("${statistics.cache.max-entries:2000}")
+    private int maxEntries = 2000;
+
+    public List<TopSellingProductDTO> getTopSellingProducts(int limit, Long companyId) {
+        return get("top-selling", companyId, null, null, limit,
+                () -> statisticsService.getTopSellingProducts(limit, companyId));
+    }
+
+    public InventoryTurnoverDTO calculateInventoryTurnover(LocalDateTime startDate, LocalDateTime endDate, Long companyId) {
+        return get("inventory-turnover", companyId, startDate, endDate, null,
+                () -> statisticsService.calculateInventoryTurnover(startDate, endDate, companyId));
+    }
+
+    public FinancialStatsDTO calculateFinancialStats(LocalDateTime startDate, LocalDateTime endDate, Long companyId) {
+        return get("financial", companyId, startDate, endDate, null,
+                () -> statisticsService.calculateFinancialStats(startDate, endDate, companyId));
+    }
+
+    public FinancialSeriesDTO getFinancialSeries(LocalDate from, LocalDate to, TimeGranularity granularity,
+                                                 ZoneId zone, Long companyId) {
+        return get("financial-series", companyId, from.atStartOfDay(), to.atStartOfDay(), granularity + "|" + zone.getId(),
+                () -> statisticsService.getFinancialSeries(from, to, granularity, zone, companyId));
+    }
+
+    public List<CategoryDistributionDTO> getCategoryDistribution(Long companyId) {
+        return get("category-distribution", companyId, null, null, null,
+                () -> statisticsService.getCategoryDistribution(companyId));
+    }
+
+    /**
+     * Általános lekérés: találat esetén a tárolt eredmény, különben (egyszer) kiszámolja.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(String endpoint, Long companyId, LocalDateTime startDate, LocalDateTime endDate,
+              Object extra, Supplier<T> loader) {
+        CacheKey key = new CacheKey(endpoint, companyId, startDate, endDate, extra);
+        long now = System.currentTimeMillis();
+
+        CacheEntry existing = entries.get(key);
+        if (existing != null && existing.isExpired(now, ttlSeconds)) {
+            entries.remove(key, existing);
+            existing = null;
+        }
+
+        if (existing != null) {
+            if (existing.future.isDone()) {
+                hits.increment();
+            } else {
+                coalesced.increment();
+            }
+            return (T) join(existing.future);
+        }
+
+        CacheEntry created = new CacheEntry(now);
+        CacheEntry winner = entries.putIfAbsent(key, created);
+        if (winner != null) {
+            // Másik szál épp most kezdte el ugyanezt
+            coalesced.increment();
+            return (T) join(winner.future);
+        }
+
+        misses.increment();
+        evictIfFull(now);
+        try {
+            T value = loader.get();
+            created.future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Egy cég bejegyzéseinek törlése (a cégfüggetlen, companyId = null bejegyzésekkel együtt).
+     */
+    public void invalidateCompany(Long companyId) {
+        boolean removed = entries.keySet().removeIf(key -> key.companyId == null || Objects.equals(key.companyId, companyId));
+        if (removed) {
+            invalidations.increment();
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+        invalidations.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        invalidateCompany(event.getCompanyId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateCompany(event.getCompanyId());
+    }
+
+    /**
+     * Hit/miss statisztika.
+     */
+    public StatisticsCacheStatsDTO getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long coalescedCount = coalesced.sum();
+        long total = hitCount + missCount + coalescedCount;
+        double hitRatio = total > 0 ? (double) (hitCount + coalescedCount) / total : 0.0;
+
+        return StatisticsCacheStatsDTO.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .coalesced(coalescedCount)
+                .invalidations(invalidations.sum())
+                .evictions(evictions.sum())
+                .size(entries.size())
+                .hitRatio(hitRatio)
+                .build();
+    }
+
+    private void evictIfFull(long now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.entrySet().removeIf(e -> e.getValue().future.isDone() && e.getValue().isExpired(now, ttlSeconds));
+        if (entries.size() > maxEntries) {
+            // Még mindig tele: a kész bejegyzések eldobása, a folyamatban lévők maradnak
+            entries.entrySet().removeIf(e -> e.getValue().future.isDone());
+        }
+        evictions.increment();
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private record CacheKey(String endpoint, Long companyId, LocalDateTime startDate, LocalDateTime endDate, Object extra) {
+    }
+
+    private static final class CacheEntry {
+        private final long createdAt;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private CacheEntry(long createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        private boolean isExpired(long now, long ttlSeconds) {
+            return future.isDone() && now - createdAt > ttlSeconds * 1000;
+        }
+    }
+}
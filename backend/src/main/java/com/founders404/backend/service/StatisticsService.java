@@ -3,6 +3,7 @@ package com.founders404.backend.service;
 import com.founders404.backend.dto.*;
 import com.founders404.backend.model.Category;
 import com.founders404.backend.model.InventoryMovement;
+import com.founders404.backend.model.MovementType;
 import com.founders404.backend.model.Product;
 import com.founders404.backend.repository.CategoryRepository;
 import com.founders404.backend.repository.InventoryRepository;
@@ -12,16 +13,28 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class StatisticsService {
 
+    private static final Locale HUNGARIAN = Locale.forLanguageTag("hu-HU");
+    private static final DateTimeFormatter DAY_LABEL = DateTimeFormatter.ofPattern("yyyy. MM. dd.", HUNGARIAN);
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("yyyy. MMMM", HUNGARIAN);
+
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
@@ -117,4 +130,106 @@ public class StatisticsService {
                 })
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Bevétel / költség / profit idősor egyetlen csoportosított query-ből.
+     * A DB napi+órás bontást ad (a mozgások időbélyege szerver időzónában van tárolva),
+     * ebből a kért időzóna szerinti napokra, hetekre (hétfő kezdettel) vagy hónapokra gyűjtünk.
+     */
+    public FinancialSeriesDTO getFinancialSeries(LocalDate from, LocalDate to, TimeGranularity granularity,
+                                                 ZoneId zone, Long companyId) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+
+        ZoneId storageZone = ZoneId.systemDefault();
+        LocalDateTime start = from.atStartOfDay(zone).withZoneSameInstant(storageZone).toLocalDateTime();
+        LocalDateTime end = to.plusDays(1).atStartOfDay(zone).withZoneSameInstant(storageZone).toLocalDateTime();
+
+        // Üres periódusok is szerepeljenek a grafikonon
+        TreeMap<LocalDate, BigDecimal[]> buckets = new TreeMap<>();
+        for (LocalDate period = periodStart(from, granularity); !period.isAfter(to); period = nextPeriod(period, granularity)) {
+            buckets.put(period, new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+        }
+
+        for (Object[] row : inventoryRepository.findHourlyFinancials(start, end, companyId)) {
+            LocalDate storedDate = (LocalDate) row[0];
+            int hour = ((Number) row[1]).intValue();
+            LocalDate localDate = storageZone.equals(zone)
+                    ? storedDate
+                    : storedDate.atTime(hour, 0).atZone(storageZone).withZoneSameInstant(zone).toLocalDate();
+
+            BigDecimal[] bucket = buckets.get(periodStart(localDate, granularity));
+            if (bucket == null) {
+                continue;
+            }
+            if (row[2] == MovementType.OUT && row[3] != null) {
+                bucket[0] = bucket[0].add((BigDecimal) row[3]);
+            } else if (row[2] == MovementType.IN && row[4] != null) {
+                bucket[1] = bucket[1].add((BigDecimal) row[4]);
+            }
+        }
+
+        List<FinancialSeriesPointDTO> points = new ArrayList<>();
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        BigDecimal totalCost = BigDecimal.ZERO;
+        for (Map.Entry<LocalDate, BigDecimal[]> entry : buckets.entrySet()) {
+            LocalDate periodStart = entry.getKey();
+            LocalDate periodEnd = nextPeriod(periodStart, granularity).minusDays(1);
+            BigDecimal revenue = entry.getValue()[0];
+            BigDecimal cost = entry.getValue()[1];
+            totalRevenue = totalRevenue.add(revenue);
+            totalCost = totalCost.add(cost);
+
+            points.add(FinancialSeriesPointDTO.builder()
+                    .periodStart(periodStart.isBefore(from) ? from : periodStart)
+                    .periodEnd(periodEnd.isAfter(to) ? to : periodEnd)
+                    .label(periodLabel(periodStart, granularity))
+                    .revenue(revenue)
+                    .cost(cost)
+                    .profit(revenue.subtract(cost))
+                    .build());
+        }
+
+        return FinancialSeriesDTO.builder()
+                .companyId(companyId)
+                .granularity(granularity)
+                .zone(zone.getId())
+                .from(from)
+                .to(to)
+                .totalRevenue(totalRevenue)
+                .totalCost(totalCost)
+                .totalProfit(totalRevenue.subtract(totalCost))
+                .points(points)
+                .build();
+    }
+
+    private static LocalDate periodStart(LocalDate date, TimeGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDate nextPeriod(LocalDate periodStart, TimeGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> periodStart.plusDays(1);
+            case WEEK -> periodStart.plusWeeks(1);
+            case MONTH -> periodStart.plusMonths(1);
+        };
+    }
+
+    /**
+     * Magyar címke: "2025. 03. 14.", "2025. 11. hét", "2025. március".
+     */
+    private static String periodLabel(LocalDate periodStart, TimeGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> DAY_LABEL.format(periodStart);
+            case WEEK -> String.format("%d. %02d. hét",
+                    periodStart.get(IsoFields.WEEK_BASED_YEAR),
+                    periodStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> MONTH_LABEL.format(periodStart);
+        };
+    }
 }
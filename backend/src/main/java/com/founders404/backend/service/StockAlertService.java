@@ -0,0 +1,362 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.NotificationResponse;
+import com.founders404.backend.event.NotificationCreatedEvent;
+import com.founders404.backend.event.ProductChangedEvent;
+import com.founders404.backend.event.StockMovementEvent;
+import com.founders404.backend.model.CompanyNotification;
+import com.founders404.backend.model.NotificationType;
+import com.founders404.backend.model.Product;
+import com.founders404.backend.repository.CompanyNotificationRepository;
+import com.founders404.backend.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Alacsony / elfogyott / túlkészlet riasztások a commitolt készletmozgásokból.
+ * Riasztás csak küszöb átlépéskor megy (a termék saját minStockLevel / reorderPoint / maxStockLevel értékéhez képest),
+ * így nem kell minden percben minden terméket végignézni. Az elveszett események (pl. újraindítás)
+ * és a küszöb módosítások miatt a NotificationScheduler időnként egyeztet a legutóbb módosult termékeken;
+ * a riasztott állapot a terméken tárolódik (alertState), így az egyeztetés csak az elmaradt riasztásokat pótolja.
+ * A riasztások (cég, típus) szerint notifications.digest-window-ms ideig gyűlnek, és egy összesítő
+ * értesítésként mennek ki (pl. késő szállítmánynál sok termék egyszerre fogy le).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockAlertService {
+
+    // Összesítő értesítés üzenetében legfeljebb ennyi terméknév szerepel
+    private static final int DIGEST_MAX_NAMES = 20;
+
+    private final ProductRepository productRepository;
+    private final CompanyNotificationRepository companyNotificationRepository;
+    private final NotificationThrottle notificationThrottle;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // A riasztások írása nem lassítja a készletmozgás kérést; egy szál, így sorrendben mennek,
+    // és a gyűjtő puffert (pending) csak ez a szál éri el
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+            Thread.ofPlatform().name("stock-alerts").daemon(true).factory());
+
+    // Gyűjtési ablak; 0: minden riasztás azonnal, külön értesítésként megy
+    @Value("${notifications.digest-window-ms:10000}")
+    private long digestWindowMs = 10_000L;
+
+    // (cég, típus) -> a gyűjtési ablakban összegyűlt termékek (termék id szerint, a legutóbbi állapottal)
+    private final Map<DigestKey, Map<Long, Product>> pending = new HashMap<>();
+
+    record DigestKey(Long companyId, NotificationType type) {
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        if (event.getNewStock() != null && !event.getNewStock().equals(event.getPreviousStock())) {
+            evaluateAsync(event.getProductId(), event.getPreviousStock(), event.getNewStock());
+        }
+    }
+
+    /**
+     * Mozgás nélküli készletkorrekció (ProductService.adjustQuantity). A küszöbök módosítása nem lépés,
+     * azt az egyeztetés (updated_at) veszi fel.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isStockChanged()) {
+            evaluateAsync(event.getProductId(), event.getPreviousStock(), event.getNewStock());
+        }
+    }
+
+    private void evaluateAsync(Long productId, Integer previousStock, int newStock) {
+        if (productId == null) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                evaluate(productId, previousStock, newStock);
+            } catch (RuntimeException e) {
+                log.error("Stock alert evaluation failed for product {}", productId, e);
+            }
+        });
+    }
+
+    /**
+     * Egy készletváltozás kiértékelése: riasztás, ha átlépett egy küszöböt.
+     */
+    void evaluate(Long productId, Integer previousStock, int newStock) {
+        productRepository.findById(productId).ifPresent(product -> {
+            NotificationType type = crossedThreshold(product, previousStock, newStock);
+            if (type != null) {
+                submit(product, type);
+            } else if (product.getAlertState() != null && currentState(product) == null) {
+                // Visszatért a küszöbökön belülre: a következő kilépés újra riasztást ér
+                updateAlertState(List.of(productId), null);
+            }
+        });
+    }
+
+    /**
+     * Riasztás a gyűjtő pufferbe; az ablak első riasztása ütemezi a kiküldést.
+     * Az ismétlés szűrés már itt megtörténik, így az ablakon belüli újabb mozgások nem gyűlnek újra.
+     */
+    private void submit(Product product, NotificationType type) {
+        if (digestWindowMs <= 0) {
+            alert(List.of(product), type);
+            return;
+        }
+        if (product.getCompanyId() == null
+                || !notificationThrottle.tryAcquire(product.getCompanyId(), product.getId(), type)) {
+            return;
+        }
+        DigestKey key = new DigestKey(product.getCompanyId(), type);
+        Map<Long, Product> products = pending.computeIfAbsent(key, k -> new LinkedHashMap<>());
+        if (products.isEmpty()) {
+            executor.schedule(() -> flush(key), digestWindowMs, TimeUnit.MILLISECONDS);
+        }
+        products.put(product.getId(), product);
+    }
+
+    /**
+     * Egy (cég, típus) gyűjtési ablakának kiküldése.
+     */
+    void flush(DigestKey key) {
+        Map<Long, Product> products = pending.remove(key);
+        if (products == null || products.isEmpty()) {
+            return;
+        }
+        try {
+            persist(Map.of(key.companyId(), new ArrayList<>(products.values())), key.type());
+        } catch (RuntimeException e) {
+            log.error("Stock alert digest failed for company {} ({})", key.companyId(), key.type(), e);
+        }
+    }
+
+    /**
+     * Minden függő gyűjtési ablak azonnali kiküldése.
+     */
+    void flushPending() {
+        for (DigestKey key : new ArrayList<>(pending.keySet())) {
+            flush(key);
+        }
+    }
+
+    /**
+     * Egyeztetés: a since óta módosult, küszöbön túli termékek, amelyekről a jelenlegi állapotukba lépés óta
+     * még nem ment riasztás (alertState). A küszöbökön belül visszatértek állapota törlődik, az elfogyásból
+     * alacsony készletre javultaké riasztás nélkül lép (a mozgás esemény sem riaszt ilyenkor).
+     * Típusonként és cégenként egy (összesítő) értesítés megy.
+     * @return riasztott termékek száma
+     */
+    public int reconcile(LocalDateTime since) {
+        Map<NotificationType, List<Product>> byType = new EnumMap<>(NotificationType.class);
+        Map<NotificationType, List<Long>> silent = new EnumMap<>(NotificationType.class);
+        List<Long> cleared = new ArrayList<>();
+        for (Product product : productRepository.findStockAlertCandidatesUpdatedSince(since)) {
+            NotificationType type = currentState(product);
+            NotificationType alerted = product.getAlertState();
+            if (type == null) {
+                if (alerted != null) {
+                    cleared.add(product.getId());
+                }
+            } else if (alerted == NotificationType.STOCK_OUT && type == NotificationType.LOW_STOCK) {
+                silent.computeIfAbsent(type, key -> new ArrayList<>()).add(product.getId());
+            } else if (type != alerted) {
+                byType.computeIfAbsent(type, key -> new ArrayList<>()).add(product);
+            }
+        }
+        if (!cleared.isEmpty()) {
+            updateAlertState(cleared, null);
+        }
+        silent.forEach((type, ids) -> updateAlertState(ids, type));
+        int created = 0;
+        for (Map.Entry<NotificationType, List<Product>> entry : byType.entrySet()) {
+            created += alert(entry.getValue(), entry.getKey());
+        }
+        return created;
+    }
+
+    /**
+     * Átlépett küszöb a previousStock -> newStock változásnál (null: nem lépett át).
+     * Elfogyás > alacsony készlet (min. szint vagy újrarendelési pont, a magasabb) > túlkészlet.
+     */
+    static NotificationType crossedThreshold(Product product, Integer previousStock, int newStock) {
+        int previous = previousStock != null ? previousStock : Integer.MAX_VALUE;
+        if (newStock <= 0 && previous > 0) {
+            return NotificationType.STOCK_OUT;
+        }
+        Integer low = lowThreshold(product);
+        if (low != null && newStock <= low && previous > low) {
+            return NotificationType.LOW_STOCK;
+        }
+        Integer max = product.getMaxStockLevel();
+        if (max != null && newStock >= max && (previousStock == null || previousStock < max)) {
+            return NotificationType.OVER_STOCK;
+        }
+        return null;
+    }
+
+    /**
+     * A termék jelenlegi állapota (null: a küszöbökön belül van).
+     */
+    static NotificationType currentState(Product product) {
+        int stock = product.getCurrentStock() != null ? product.getCurrentStock() : 0;
+        if (stock <= 0) {
+            return NotificationType.STOCK_OUT;
+        }
+        Integer low = lowThreshold(product);
+        if (low != null && stock <= low) {
+            return NotificationType.LOW_STOCK;
+        }
+        if (product.isOverStock()) {
+            return NotificationType.OVER_STOCK;
+        }
+        return null;
+    }
+
+    private void updateAlertState(List<Long> productIds, NotificationType state) {
+        transactionTemplate.execute(status -> productRepository.updateAlertState(productIds, state));
+    }
+
+    private static Integer lowThreshold(Product product) {
+        Integer min = product.getMinStockLevel();
+        Integer reorder = product.getReorderPoint();
+        if (min == null) {
+            return reorder;
+        }
+        return reorder == null ? min : Math.max(min, reorder);
+    }
+
+    /**
+     * Riasztás a még nem értesített termékekről, cégenként egy értesítéssel.
+     * Az ismétlés szűrés memóriában fut (NotificationThrottle), az adatbázist csak a beszúrás éri.
+     * @return riasztott termékek száma
+     */
+    private int alert(List<Product> products, NotificationType type) {
+        Map<Long, List<Product>> byCompany = new LinkedHashMap<>();
+        int count = 0;
+        for (Product product : products) {
+            if (product.getCompanyId() != null
+                    && notificationThrottle.tryAcquire(product.getCompanyId(), product.getId(), type)) {
+                byCompany.computeIfAbsent(product.getCompanyId(), key -> new ArrayList<>()).add(product);
+                count++;
+            }
+        }
+        if (count > 0) {
+            persist(byCompany, type);
+        }
+        return count;
+    }
+
+    /**
+     * Cégszintű értesítések mentése egy tranzakcióban (a cég minden userének szól, az olvasottság userenként külön van),
+     * a termékek riasztott állapotával együtt.
+     * Egy termék: külön értesítés; több termék: egy összesítő értesítés a terméklistával.
+     */
+    private void persist(Map<Long, List<Product>> byCompany, NotificationType type) {
+        List<CompanyNotification> notifications = new ArrayList<>();
+        for (List<Product> products : byCompany.values()) {
+            notifications.add(products.size() == 1 ? toNotification(products.get(0), type) : toDigest(products, type));
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                for (CompanyNotification saved : companyNotificationRepository.saveAll(notifications)) {
+                    eventPublisher.publishEvent(new NotificationCreatedEvent(
+                            null, saved.getCompanyId(), null, NotificationResponse.fromEntity(saved, false)));
+                }
+                productRepository.updateAlertState(byCompany.values().stream()
+                        .flatMap(products -> products.stream().map(Product::getId)).toList(), type);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // Sikertelen beszúrás: a foglalások felszabadulnak, az egyeztetés később újrapróbálja
+            byCompany.values().forEach(products -> products.forEach(
+                    product -> notificationThrottle.release(product.getCompanyId(), product.getId(), type)));
+            throw e;
+        }
+        log.info("{} alert sent in {} notifications", type, notifications.size());
+    }
+
+    private static CompanyNotification toDigest(List<Product> products, NotificationType type) {
+        CompanyNotification notification = new CompanyNotification();
+        notification.setCompanyId(products.get(0).getCompanyId());
+        notification.setType(type);
+        notification.setProductIdList(products.stream().map(Product::getId).toList());
+        String names = products.stream().limit(DIGEST_MAX_NAMES)
+                .map(product -> "'" + product.getName() + "'")
+                .collect(Collectors.joining(", "));
+        if (products.size() > DIGEST_MAX_NAMES) {
+            names += String.format(" és további %d", products.size() - DIGEST_MAX_NAMES);
+        }
+        int count = products.size();
+        switch (type) {
+            case STOCK_OUT -> {
+                notification.setTitle(String.format("Elfogyott a készlet: %d termék", count));
+                notification.setMessage(String.format("%d termék készlete elfogyott: %s", count, names));
+            }
+            case OVER_STOCK -> {
+                notification.setTitle(String.format("Túlkészlet: %d termék", count));
+                notification.setMessage(String.format("%d termék készlete a maximum felett van: %s", count, names));
+            }
+            default -> {
+                notification.setTitle(String.format("Alacsony készlet: %d termék", count));
+                notification.setMessage(String.format("%d termék készlete alacsony: %s", count, names));
+            }
+        }
+        return notification;
+    }
+
+    private static CompanyNotification toNotification(Product product, NotificationType type) {
+        CompanyNotification notification = new CompanyNotification();
+        notification.setCompanyId(product.getCompanyId());
+        notification.setProductId(product.getId());
+        notification.setType(type);
+        switch (type) {
+            case STOCK_OUT -> {
+                notification.setTitle("Elfogyott a készlet!");
+                notification.setMessage(String.format("A(z) '%s' termék készlete elfogyott.", product.getName()));
+            }
+            case OVER_STOCK -> {
+                notification.setTitle("Túlkészlet!");
+                notification.setMessage(String.format("A(z) '%s' termék készlete a maximum felett van! Jelenlegi: %d, maximum: %d",
+                        product.getName(), product.getCurrentStock(), product.getMaxStockLevel()));
+            }
+            default -> {
+                notification.setTitle("Alacsony készlet!");
+                notification.setMessage(String.format("A(z) '%s' termék készlete alacsony! Jelenlegi: %d",
+                        product.getName(), product.getCurrentStock()));
+            }
+        }
+        return notification;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // A függő ablakok leállításkor azonnal kimennek, nem várnak az ütemezett időpontra
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor.execute(this::flushPending);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.analytics.DemandMatrix;
+import com.founders404.backend.analytics.StockoutSimulator;
+import com.founders404.backend.analytics.SyntheticDemandGenerator;
+import com.founders404.backend.dto.StockoutRiskDTO;
+import com.founders404.backend.dto.StockoutSimulationDTO;
+import com.founders404.backend.model.Product;
+import com.founders404.backend.repository.InventoryRepository;
+import com.founders404.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Készlethiány valószínűség termékenként Monte Carlo szimulációval (a pontbecslés mellé).
+ * A keresleti pályák a termék elmúlt historyDays napjának napi OUT keresletéből húzódnak.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockoutSimulationService {
+
+    private static final double[] PERCENTILES = {0.05, 0.25, 0.5, 0.75, 0.95};
+    private static final String[] PERCENTILE_NAMES = {"p5", "p25", "p50", "p75", "p95"};
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductRepository productRepository;
+
+    @Value("${simulation.max-trials:20000}")
+    private int maxTrials = 20_000;
+
+    @Value("${simulation.max-horizon-days:365}")
+    private int maxHorizonDays = 365;
+
+    @Value("${simulation.max-history-days:1095}")
+    private int maxHistoryDays = 1095;
+
+    // Memória korlát a szintetikus adathalmazhoz: termékek x napok
+    @Value("${simulation.max-cells:20000000}")
+    private long maxCells = 20_000_000L;
+
+    // Számítási korlát: termékek x próbák x napok
+    @Value("${simulation.max-samples:5000000000}")
+    private long maxSamples = 5_000_000_000L;
+
+    /**
+     * Cég aktív termékeinek szimulációja (companyId = null: minden cég).
+     * @param minProbability csak az ennél nagyobb kockázatú termékek kerülnek a válaszba
+     * @param limit          legfeljebb ennyi termék a válaszban
+     */
+    public StockoutSimulationDTO simulateCompany(Long companyId, int horizonDays, int trials, int historyDays,
+                                                 long seed, double minProbability, int limit) {
+        validate(horizonDays, trials, historyDays);
+        // A kereslet mátrix (termékek x napok) méretét a lekérdezés előtt ellenőrizzük
+        long products = productRepository.countActiveProductsByCompanyId(companyId);
+        checkCells(products, historyDays);
+        checkSamples(products, trials, horizonDays);
+        LocalDate from = LocalDate.now().minusDays(historyDays - 1L);
+        DemandMatrix matrix = DemandMatrix.fromRows(
+                inventoryRepository.findDailyOutDemandForActiveProducts(companyId, from.atStartOfDay()), from, historyDays);
+
+        StockoutSimulator.Result result = StockoutSimulator.simulate(matrix, horizonDays, trials, seed, PERCENTILES);
+        return toReport("history", companyId, historyDays, seed, matrix, result, minProbability, limit);
+    }
+
+    /**
+     * Egy termék szimulációja.
+     */
+    public StockoutRiskDTO simulateProduct(Long productId, int horizonDays, int trials, int historyDays, long seed) {
+        validate(horizonDays, trials, historyDays);
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+
+        LocalDate from = LocalDate.now().minusDays(historyDays - 1L);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{productId, product.getCurrentStock(), product.getMinStockLevel(), null, null});
+        for (Object[] daily : inventoryRepository.findDailyOutMovements(productId, from.atStartOfDay())) {
+            rows.add(new Object[]{productId, product.getCurrentStock(), product.getMinStockLevel(), daily[0], daily[1]});
+        }
+        DemandMatrix matrix = DemandMatrix.fromRows(rows, from, historyDays);
+
+        StockoutSimulator.Result result = StockoutSimulator.simulate(matrix, horizonDays, trials, seed, PERCENTILES);
+        return toRisk(result, 0, productId, product.getCurrentStock(), product);
+    }
+
+    /**
+     * Áteresztőképesség mérés szintetikus termékeken (csak összesítés, termék lista nélkül).
+     */
+    public StockoutSimulationDTO benchmark(int products, int horizonDays, int trials, int historyDays, long seed) {
+        validate(horizonDays, trials, historyDays);
+        checkCells(products, historyDays);
+        checkSamples(products, trials, horizonDays);
+        DemandMatrix matrix = SyntheticDemandGenerator.generate(products, historyDays,
+                LocalDate.now().minusDays(historyDays), seed);
+        // Készlet ~ 20 napnyi átlagos kereslet
+        int[] stock = new int[products];
+        for (int i = 0; i < products; i++) {
+            stock[i] = (int) Math.round(matrix.total(i) / historyDays * 20);
+        }
+
+        StockoutSimulator.Result result = StockoutSimulator.simulate(matrix, stock, horizonDays, trials, seed, PERCENTILES);
+        return toReport("synthetic", null, historyDays, seed, matrix, result, 0.0, 0);
+    }
+
+    private StockoutSimulationDTO toReport(String dataset, Long companyId, int historyDays, long seed,
+                                           DemandMatrix matrix, StockoutSimulator.Result result,
+                                           double minProbability, int limit) {
+        double[] probability = result.stockoutProbability();
+        List<Integer> selected = IntStream.range(0, result.products())
+                .filter(i -> probability[i] > minProbability)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> probability[i]).reversed()
+                        .thenComparingInt(i -> result.stockoutDayPercentiles()[i * PERCENTILES.length + 2]))
+                .toList();
+        int atRisk = selected.size();
+        if (selected.size() > limit) {
+            selected = selected.subList(0, Math.max(0, limit));
+        }
+
+        Map<Long, Product> products = selected.isEmpty() ? Map.of()
+                : productRepository.findAllById(selected.stream().map(matrix::productId).toList()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<StockoutRiskDTO> risks = selected.stream()
+                .map(i -> toRisk(result, i, matrix.productId(i), matrix.currentStock(i), products.get(matrix.productId(i))))
+                .toList();
+
+        return StockoutSimulationDTO.builder()
+                .dataset(dataset)
+                .companyId(companyId)
+                .horizonDays(result.horizonDays())
+                .trials(result.trials())
+                .historyDays(historyDays)
+                .seed(seed)
+                .products(result.products())
+                .atRisk(atRisk)
+                .elapsedMs(result.elapsedNanos() / 1_000_000)
+                .skusPerMinute(result.skusPerMinute())
+                .results(risks)
+                .build();
+    }
+
+    private static StockoutRiskDTO toRisk(StockoutSimulator.Result result, int i, long productId, Integer currentStock,
+                                          Product product) {
+        int p = PERCENTILES.length;
+        Map<String, Integer> days = new LinkedHashMap<>();
+        Map<String, Double> demand = new LinkedHashMap<>();
+        for (int k = 0; k < p; k++) {
+            int day = result.stockoutDayPercentiles()[i * p + k];
+            days.put(PERCENTILE_NAMES[k], day > result.horizonDays() ? null : day);
+            demand.put(PERCENTILE_NAMES[k], result.demandPercentiles()[i * p + k]);
+        }
+        return StockoutRiskDTO.builder()
+                .productId(productId)
+                .productName(product != null ? product.getName() : null)
+                .sku(product != null ? product.getSku() : null)
+                .currentStock(currentStock)
+                .stockoutProbability(result.stockoutProbability()[i])
+                .daysUntilStockout(days)
+                .horizonDemand(demand)
+                .build();
+    }
+
+    private void validate(int horizonDays, int trials, int historyDays) {
+        if (horizonDays < 1 || horizonDays > maxHorizonDays) {
+            throw new RuntimeException("Horizon must be between 1 and " + maxHorizonDays + " days");
+        }
+        if (trials < 1 || trials > maxTrials) {
+            throw new RuntimeException("Trials must be between 1 and " + maxTrials);
+        }
+        if (historyDays < 1 || historyDays > maxHistoryDays) {
+            throw new RuntimeException("History must be between 1 and " + maxHistoryDays + " days");
+        }
+    }
+
+    private void checkCells(long products, long historyDays) {
+        if (products * historyDays > maxCells) {
+            throw new RuntimeException("Dataset too large: " + products + " products x " + historyDays
+                    + " days (max " + maxCells + " cells)");
+        }
+    }
+
+    private void checkSamples(long products, long trials, long horizonDays) {
+        if (products * trials * horizonDays > maxSamples) {
+            throw new RuntimeException("Simulation too large: " + products + " products x " + trials + " trials x "
+                    + horizonDays + " days (max " + maxSamples + " samples)");
+        }
+    }
+}
@@ -156,6 +156,9 @@ public class SupplierService {
         if (supplierDetails.getNotes() != null) {
             supplier.setNotes(supplierDetails.getNotes());
         }
+        if (supplierDetails.getLeadTimeDays() != null) {
+            supplier.setLeadTimeDays(supplierDetails.getLeadTimeDays());
+        }
 
         return supplierRepository.save(supplier);
     }
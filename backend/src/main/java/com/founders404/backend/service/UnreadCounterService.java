@@ -0,0 +1,154 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.event.NotificationCreatedEvent;
+import com.founders404.backend.event.NotificationsReadEvent;
+import com.founders404.backend.model.Role;
+import com.founders404.backend.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Userenkénti olvasatlan értesítés számláló a memóriában (badge).
+ * Első lekéréskor az adatbázisból töltődik, utána a commitolt létrehozás / olvasott jelölés események
+ * atomikusan léptetik, így a badge frissítés nem kérdez le semmit.
+ * A számláló a lekérdezés előtt regisztrálódik; ha a lekérdezés közben esemény érkezett, az eredmény nem
+ * egyértelmű (az esemény benne lehet a lekérdezésben), ezért a betöltés megismétlődik.
+ * A számlálók node-onkéntiek: csak a helyi node eseményei léptetik őket. A más node-on létrehozott (pl. a
+ * reconcile vagy a riasztás worker által) vagy ott olvasottnak jelölt értesítéseket a bejegyzés ttl utáni
+ * újratöltése hozza be, ezért a ttl másodperces nagyságrendű; a badge lekérés így ttl-enként egy COUNT.
+ */
+@Service
+@RequiredArgsConstructor
+public class UnreadCounterService {
+
+    // Ennyiszer próbál esemény nélküli betöltést, utána a következő lekérés újratölt
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final NotificationService notificationService;
+
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    // cég -> a cég betöltött számlálójú userei (cégszintű értesítés léptetéséhez)
+    private final ConcurrentHashMap<Long, Set<Long>> companyUsers = new ConcurrentHashMap<>();
+
+    // Ennyi ideig lehet eltérés a más node-on történt változásokhoz képest
+    @Value("${notifications.unread-counter-ttl-ms:15000}")
+    private long ttlMs = 15_000L;
+
+    /**
+     * Egy user számlálója; changes minden eseménnyel nő, ebből látszik, ha a betöltés közben esemény érkezett.
+     */
+    static final class Counter {
+        private final Long companyId;
+        private final Role role;
+        private final long loadedAt;
+        private long count;
+        private long changes;
+        private boolean loaded;
+
+        Counter(Long companyId, Role role, long loadedAt) {
+            this.companyId = companyId;
+            this.role = role;
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized long changes() {
+            return changes;
+        }
+
+        synchronized boolean isLoaded() {
+            return loaded;
+        }
+
+        synchronized void add(long delta) {
+            count = Math.max(0, count + delta);
+            changes++;
+        }
+
+        /**
+         * Betöltött érték beállítása, ha a lekérdezés óta nem érkezett esemény.
+         */
+        synchronized boolean complete(long unread, long changesBefore) {
+            if (changes != changesBefore) {
+                return false;
+            }
+            count = unread;
+            loaded = true;
+            return true;
+        }
+    }
+
+    public long getUnreadCount(User user) {
+        Counter counter = counters.get(user.getId());
+        if (counter != null && counter.isLoaded() && System.currentTimeMillis() - counter.loadedAt <= ttlMs) {
+            return counter.count();
+        }
+        return load(user);
+    }
+
+    private long load(User user) {
+        Long companyId = user.getCompany() != null ? user.getCompany().getId() : null;
+        // A lekérdezés előtt regisztrál, hogy a közben commitolt események ne vesszenek el észrevétlenül
+        Counter counter = new Counter(companyId, user.getRole(), System.currentTimeMillis());
+        counters.put(user.getId(), counter);
+        if (companyId != null) {
+            companyUsers.computeIfAbsent(companyId, key -> ConcurrentHashMap.newKeySet()).add(user.getId());
+        }
+        long unread = 0L;
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            long changesBefore = counter.changes();
+            unread = notificationService.countUnread(user);
+            if (counter.complete(unread, changesBefore)) {
+                return counter.count();
+            }
+        }
+        // Folyamatos forgalom: a legutóbbi érték megy ki, a következő lekérés újratölt
+        counters.remove(user.getId(), counter);
+        return unread;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        if (event.getUserId() != null) {
+            increment(event.getUserId(), null, null);
+        } else if (event.getCompanyId() != null) {
+            for (Long userId : companyUsers.getOrDefault(event.getCompanyId(), Set.of())) {
+                increment(userId, event.getCompanyId(), event.getTargetRole());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsRead(NotificationsReadEvent event) {
+        Counter counter = counters.get(event.getUserId());
+        if (counter != null) {
+            counter.add(-event.getCount());
+        }
+    }
+
+    /**
+     * Minden számláló eldobása (pl. tömeges törlés után); a következő lekérés újratölt.
+     */
+    public void invalidateAll() {
+        counters.clear();
+        companyUsers.clear();
+    }
+
+    private void increment(Long userId, Long companyId, Role targetRole) {
+        Counter counter = counters.get(userId);
+        if (counter != null
+                && (companyId == null || companyId.equals(counter.companyId))
+                && (targetRole == null || targetRole == counter.role)) {
+            counter.add(1);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.founders404.backend.analytics;
+
+import com.founders404.backend.model.AbcClass;
+import com.founders404.backend.model.XyzClass;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AbcXyzClassifierTest {
+
+    private final AbcXyzClassifier classifier = new AbcXyzClassifier(0.80, 0.95, 0.5, 1.0);
+
+    @Test
+    void classifyAbc_ShouldAssignByCumulativeShare() {
+        // Arrange
+        double[] values = {5.0, 70.0, 0.0, 15.0, 10.0};
+
+        // Act
+        AbcClass[] result = classifier.classifyAbc(values);
+
+        // Assert
+        assertEquals(AbcClass.A, result[1]);
+        assertEquals(AbcClass.A, result[3]); // 70% előtte, átlépi a 80%-ot
+        assertEquals(AbcClass.B, result[4]);
+        assertEquals(AbcClass.C, result[0]);
+        assertEquals(AbcClass.C, result[2]);
+    }
+
+    @Test
+    void classifyAbc_ShouldReturnAllC_WhenNoConsumption() {
+        // Act
+        AbcClass[] result = classifier.classifyAbc(new double[]{0.0, 0.0});
+
+        // Assert
+        assertArrayEquals(new AbcClass[]{AbcClass.C, AbcClass.C}, result);
+    }
+
+    @Test
+    void classifyXyz_ShouldUseCoefficientOfVariation() {
+        // Arrange: 3 termék x 4 hónap
+        double[] demand = {
+                10, 10, 10, 10,  // stabil
+                0, 20, 0, 20,    // cv = 1.0
+                0, 0, 0, 0       // nincs kereslet
+        };
+
+        // Act
+        double[] cv = AbcXyzClassifier.coefficientsOfVariation(demand, 4);
+        XyzClass[] result = classifier.classifyXyz(cv);
+
+        // Assert
+        assertEquals(0.0, cv[0], 1e-9);
+        assertEquals(1.0, cv[1], 1e-9);
+        assertTrue(Double.isNaN(cv[2]));
+        assertArrayEquals(new XyzClass[]{XyzClass.X, XyzClass.Y, XyzClass.Z}, result);
+    }
+}
@@ -0,0 +1,85 @@
+package com.founders404.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktesterTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2022, 1, 1);
+
+    @Test
+    void constantDemand_hasZeroError_forAllStrategies() {
+        // Arrange
+        double[] demand = new double[2 * 60];
+        Arrays.fill(demand, 5.0);
+        DemandMatrix matrix = DemandMatrix.of(FIRST_DAY, 60, new long[]{1, 2}, demand);
+
+        for (ForecastStrategy strategy : new ForecastStrategy[]{
+                new MovingAverageStrategy(30),
+                new ExponentialSmoothingStrategy(0.3),
+                new HoltStrategy(new HoltDemandModel.Parameters(0.3, 0.1, 0.1))}) {
+            // Act
+            Backtester.Result result = Backtester.run(strategy, matrix, 30);
+
+            // Assert
+            assertEquals(2 * 30, result.forecasts(), strategy.name());
+            assertEquals(0.0, result.mape(), 1e-9, strategy.name());
+            assertEquals(0.0, result.bias(), 1e-9, strategy.name());
+        }
+    }
+
+    @Test
+    void trendingDemand_holtHasLessBiasThanMovingAverage() {
+        // Arrange: napi +1 növekedés
+        double[] demand = new double[200];
+        for (int d = 0; d < demand.length; d++) {
+            demand[d] = 10.0 + d;
+        }
+        DemandMatrix matrix = DemandMatrix.of(FIRST_DAY, 200, new long[]{1}, demand);
+
+        // Act
+        Backtester.Result movingAverage = Backtester.run(new MovingAverageStrategy(30), matrix, 60);
+        Backtester.Result holt = Backtester.run(new HoltStrategy(new HoltDemandModel.Parameters(0.3, 0.1, 0.1)), matrix, 60);
+
+        // Assert: a mozgóátlag ~15.5 nappal le van maradva
+        assertEquals(-15.5, movingAverage.bias(), 1e-9);
+        assertTrue(Math.abs(holt.bias()) < 1.0);
+    }
+
+    @Test
+    void holtStrategy_matchesLiveModelForecasts() {
+        // Arrange: szakaszos kereslet üres napokkal
+        HoltDemandModel.Parameters parameters = new HoltDemandModel.Parameters(0.3, 0.1, 0.1);
+        double[] demand = {4, 0, 0, 7, 3, 0, 12, 5, 0, 6};
+        HoltDemandModel live = new HoltDemandModel();
+        double[] expected = new double[demand.length];
+        for (int d = 0; d < demand.length; d++) {
+            expected[d] = d == 0 ? 0.0 : live.forecastDaily(FIRST_DAY.plusDays(d), parameters);
+            live.recordDay(FIRST_DAY.plusDays(d), demand[d], parameters);
+        }
+        double[] out = new double[demand.length];
+
+        // Act
+        new HoltStrategy(parameters).forecastSeries(demand, 0, demand.length, out);
+
+        // Assert
+        assertArrayEquals(expected, out, 1e-12);
+    }
+
+    @Test
+    void syntheticDataset_isReproducibleForSeed() {
+        // Act
+        DemandMatrix first = SyntheticDemandGenerator.generate(50, 3 * 365, FIRST_DAY, 42L);
+        DemandMatrix second = SyntheticDemandGenerator.generate(50, 3 * 365, FIRST_DAY, 42L);
+        DemandMatrix other = SyntheticDemandGenerator.generate(50, 3 * 365, FIRST_DAY, 7L);
+
+        // Assert
+        assertArrayEquals(first.demandArray(), second.demandArray());
+        assertFalse(Arrays.equals(first.demandArray(), other.demandArray()));
+        assertTrue(Arrays.stream(first.demandArray()).allMatch(value -> value >= 0.0));
+    }
+}
@@ -0,0 +1,29 @@
+package com.founders404.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimate_neverUnderestimates_andStaysWithinBound() {
+        // Arrange
+        CountMinSketch first = new CountMinSketch(4, 1024);
+        CountMinSketch second = new CountMinSketch(4, 1024);
+        for (long item = 0; item < 5_000; item++) {
+            first.add(item, 1);
+        }
+        first.add(42L, 500);
+        second.add(42L, 250);
+
+        // Act
+        first.merge(second);
+
+        // Assert
+        long estimate = first.estimate(42L);
+        assertTrue(estimate >= 751);
+        assertTrue(estimate <= 751 + first.errorBound());
+        assertEquals(5_750, first.getTotalCount());
+    }
+}
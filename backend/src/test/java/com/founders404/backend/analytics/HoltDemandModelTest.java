@@ -0,0 +1,49 @@
+package com.founders404.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoltDemandModelTest {
+
+    private static final HoltDemandModel.Parameters PARAMETERS = new HoltDemandModel.Parameters(0.3, 0.1, 0.1);
+
+    @Test
+    void constantDemand_convergesWithZeroVariance() {
+        // Arrange
+        HoltDemandModel model = new HoltDemandModel();
+        LocalDate day = LocalDate.of(2025, 1, 1);
+
+        // Act: napi 2 x 5 db, 20 napon át
+        long movementId = 1;
+        for (int d = 0; d < 20; d++) {
+            model.record(day.plusDays(d), 5, movementId++, PARAMETERS);
+            model.record(day.plusDays(d), 5, movementId++, PARAMETERS);
+        }
+
+        // Assert: a 20. nap még nyitott, 19 lezárt nap
+        assertEquals(19, model.getObservations());
+        assertEquals(10.0, model.forecastDaily(day.plusDays(19), PARAMETERS), 1e-9);
+        assertEquals(0.0, model.standardDeviation(), 1e-9);
+        assertEquals(10.0, model.getPendingQuantity(), 1e-9);
+    }
+
+    @Test
+    void gapDaysCountAsZero_andLastMovementIdIsTheMaximum() {
+        // Arrange
+        HoltDemandModel model = new HoltDemandModel();
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        model.record(day, 10, 5, PARAMETERS);
+
+        // Act: a 3-as később commitolódott
+        model.record(day.plusDays(3), 10, 3, PARAMETERS);
+
+        // Assert: 1. nap (10) + 2 üres nap lezárva
+        assertEquals(5L, model.getLastMovementId());
+        assertEquals(3, model.getObservations());
+        assertTrue(model.forecastDaily(day.plusDays(3), PARAMETERS) < 10.0);
+        assertTrue(model.standardDeviation() > 0.0);
+    }
+}
@@ -0,0 +1,40 @@
+package com.founders404.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_withinErrorBound_andMergeIsUnion() {
+        // Arrange
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (long i = 0; i < 60_000; i++) {
+            first.add(i);
+        }
+        for (long i = 40_000; i < 100_000; i++) {
+            second.add(i);
+        }
+
+        // Act
+        first.merge(second);
+        long estimate = first.estimate();
+
+        // Assert: 100 000 különböző elem, 4 szigmán belül
+        double tolerance = 4 * first.relativeStandardError() * 100_000;
+        assertTrue(Math.abs(estimate - 100_000) < tolerance, "estimate was " + estimate);
+    }
+
+    @Test
+    void estimate_smallCardinality_isExact() {
+        HyperLogLog hll = new HyperLogLog(12);
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (long i = 1; i <= 20; i++) {
+                hll.add(i);
+            }
+        }
+        assertEquals(20, hll.estimate());
+    }
+}
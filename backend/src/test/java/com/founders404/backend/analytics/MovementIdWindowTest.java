@@ -0,0 +1,41 @@
+package com.founders404.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementIdWindowTest {
+
+    @Test
+    void outOfOrderId_isAcceptedOnce() {
+        // Arrange
+        MovementIdWindow window = new MovementIdWindow(4);
+        window.add(5);
+
+        // Act: a 3-as később commitolódott, majd a visszajátszás újra hozza
+        boolean late = window.add(3);
+        boolean replayed = window.add(3);
+
+        // Assert
+        assertTrue(late);
+        assertFalse(replayed);
+        assertFalse(window.add(5));
+    }
+
+    @Test
+    void watermarkAdvances_whenWindowIsFull() {
+        // Arrange
+        MovementIdWindow window = new MovementIdWindow(3);
+
+        // Act
+        for (long id = 2; id <= 5; id++) {
+            window.add(id);
+        }
+
+        // Assert: a legkisebb a vízszint alá került, az alatta lévő, még nem látott id már nem fér be
+        assertEquals(2L, window.getWatermark());
+        assertEquals(3, window.size());
+        assertFalse(window.add(1));
+        assertTrue(window.add(6));
+    }
+}
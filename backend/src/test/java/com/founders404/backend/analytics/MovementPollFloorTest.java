@@ -0,0 +1,39 @@
+package com.founders404.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementPollFloorTest {
+
+    @Test
+    void floorRises_onlyWithMarksOlderThanTheMargin() {
+        // Arrange
+        LocalDateTime t0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+        MovementPollFloor floor = new MovementPollFloor();
+        floor.mark(10, t0);
+        floor.mark(25, t0.plusSeconds(5));
+
+        // Act + Assert: a since utáni jelölő még nem számít (közben kisebb id is commitolódhat)
+        assertEquals(10L, floor.advance(t0.plusSeconds(1)));
+        assertEquals(25L, floor.advance(t0.plusSeconds(5)));
+    }
+
+    @Test
+    void floorNeverDrops_whenALaterPollSawSmallerIds() {
+        // Arrange: a második lekérdezés a szűrő miatt kisebb id-ig látott
+        LocalDateTime t0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+        MovementPollFloor floor = new MovementPollFloor();
+        floor.mark(40, t0);
+        floor.mark(30, t0.plusSeconds(5));
+
+        // Act
+        long advanced = floor.advance(t0.plusSeconds(10));
+
+        // Assert
+        assertEquals(40L, advanced);
+        assertEquals(40L, floor.getFloor());
+    }
+}
@@ -0,0 +1,42 @@
+package com.founders404.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReorderPointCalculatorTest {
+
+    @Test
+    void zScore_matchesStandardNormalQuantiles() {
+        assertEquals(0.0, ReorderPointCalculator.zScore(0.5), 1e-6);
+        assertEquals(1.6449, ReorderPointCalculator.zScore(0.95), 1e-3);
+        assertEquals(2.3263, ReorderPointCalculator.zScore(0.99), 1e-3);
+        assertEquals(-1.2816, ReorderPointCalculator.zScore(0.10), 1e-3);
+        assertThrows(IllegalArgumentException.class, () -> ReorderPointCalculator.zScore(1.0));
+    }
+
+    @Test
+    void compute_scalesSafetyStockWithSqrtLeadTime() {
+        // Arrange
+        double[] demand = {10.0, 10.0, 0.0};
+        double[] stdDev = {2.0, 2.0, 0.0};
+        int[] leadTime = {4, 16, 7};
+        int[] safety = new int[3];
+        int[] reorder = new int[3];
+
+        // Act
+        ReorderPointCalculator.compute(demand, stdDev, leadTime, 2.0, safety, reorder);
+
+        // Assert
+        assertArrayEquals(new int[]{8, 16, 0}, safety);
+        assertArrayEquals(new int[]{48, 176, 0}, reorder);
+    }
+
+    @Test
+    void economicOrderQuantity_followsWilsonFormula() {
+        // sqrt(2 * 1000 * 50 / 2.5) = 200
+        assertEquals(200, ReorderPointCalculator.economicOrderQuantity(1000, 50, 2.5));
+        assertEquals(0, ReorderPointCalculator.economicOrderQuantity(0, 50, 2.5));
+        assertEquals(0, ReorderPointCalculator.economicOrderQuantity(1000, 50, 0));
+    }
+}
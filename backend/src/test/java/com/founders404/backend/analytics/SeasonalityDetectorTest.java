@@ -0,0 +1,106 @@
+package com.founders404.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeasonalityDetectorTest {
+
+    // Hétfő
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void weeklyPattern_isDetected_withWeekendIndices() {
+        // Arrange: hétköznap 10, hétvégén 30 db, kis zajjal
+        int days = 140;
+        double[] demand = new double[days];
+        SplittableRandom random = new SplittableRandom(1L);
+        for (int d = 0; d < days; d++) {
+            int dow = FIRST_DAY.plusDays(d).getDayOfWeek().getValue();
+            demand[d] = (dow >= 6 ? 30.0 : 10.0) + random.nextDouble() - 0.5;
+        }
+        DemandMatrix matrix = DemandMatrix.of(FIRST_DAY, days, new long[]{1}, demand);
+
+        // Act
+        SeasonalityDetector.Result result = SeasonalityDetector.detect(matrix, 0.3);
+
+        // Assert: átlag = (5 * 10 + 2 * 30) / 7 = 15.71 -> hétköznap 0.636, hétvége 1.909
+        assertTrue(result.weeklySeasonal()[0]);
+        assertTrue(result.weeklyStrength()[0] > 0.8);
+        assertFalse(result.yearlySeasonal()[0]);
+        assertEquals(0.636, result.weeklyIndices()[0], 0.02);
+        assertEquals(1.909, result.weeklyIndices()[6], 0.02);
+    }
+
+    @Test
+    void trendAndNoise_areNotSeasonal() {
+        // Arrange
+        int days = 800;
+        double[] demand = new double[2 * days];
+        SplittableRandom random = new SplittableRandom(2L);
+        for (int d = 0; d < days; d++) {
+            demand[d] = 5.0 + 0.05 * d;                       // tiszta trend
+            demand[days + d] = 20.0 + random.nextGaussian() * 4; // fehér zaj
+        }
+        DemandMatrix matrix = DemandMatrix.of(FIRST_DAY, days, new long[]{1, 2}, demand);
+
+        // Act
+        SeasonalityDetector.Result result = SeasonalityDetector.detect(matrix, 0.3);
+
+        // Assert
+        for (int i = 0; i < 2; i++) {
+            assertFalse(result.weeklySeasonal()[i]);
+            assertFalse(result.yearlySeasonal()[i]);
+            assertEquals(1.0, result.profile(i).index(FIRST_DAY.plusDays(10)), 1e-12);
+        }
+    }
+
+    @Test
+    void yearlyPattern_isDetected_andFactorComparesWithRecentSeason() {
+        // Arrange: decemberben 3x kereslet, 2 évnyi adat
+        int days = 2 * 365 + 7;
+        double[] demand = new double[days];
+        for (int d = 0; d < days; d++) {
+            demand[d] = FIRST_DAY.plusDays(d).getMonthValue() == 12 ? 30.0 : 10.0;
+        }
+        DemandMatrix matrix = DemandMatrix.of(FIRST_DAY, days, new long[]{1}, demand);
+
+        // Act
+        SeasonalityDetector.Result result = SeasonalityDetector.detect(matrix, 0.3);
+        SeasonalProfile profile = result.profile(0);
+
+        // Assert: átlag (11 * 10 + 30) / 12 = 11.67 -> december 2.571
+        assertTrue(result.yearlySeasonal()[0]);
+        assertEquals(2.571, profile.monthly()[11], 0.01);
+        // November végéről nézve a következő 30 nap ~ (1 + 29 * 3) / 30 -szoros az elmúlt 28 naphoz képest
+        assertEquals(88.0 / 30.0, profile.factor(LocalDate.of(2026, 11, 30), 30, 28), 0.01);
+        assertEquals(1.0, SeasonalProfile.FLAT.factor(LocalDate.of(2026, 11, 30), 30, 28), 1e-12);
+    }
+
+    @Test
+    void factor_matchesDayByDayIndex_acrossLeapYearEnd() {
+        // Arrange: minden nap és hónap más indexet kap
+        double[] weekly = {0.7, 0.8, 0.9, 1.0, 1.1, 1.2, 1.3};
+        double[] monthly = {0.5, 0.6, 0.7, 0.8, 0.9, 1.0, 1.1, 1.2, 1.3, 1.4, 1.5, 1.6};
+        SeasonalProfile profile = new SeasonalProfile(weekly, monthly);
+        LocalDate from = LocalDate.of(2024, 2, 20);
+        int days = 400;
+
+        // Act
+        double factor = profile.factor(from, days, 28);
+
+        // Assert
+        double target = 0.0;
+        for (int d = 0; d < days; d++) {
+            target += profile.index(from.plusDays(d));
+        }
+        double baseline = 0.0;
+        for (int d = 0; d < 28; d++) {
+            baseline += profile.index(from.minusDays(28).plusDays(d));
+        }
+        assertEquals((target / days) / (baseline / 28), factor, 1e-9);
+    }
+}
@@ -0,0 +1,70 @@
+package com.founders404.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockoutSimulatorTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final double[] PERCENTILES = {0.05, 0.5, 0.95};
+
+    @Test
+    void constantDemand_stocksOutOnDeterministicDay() {
+        // Arrange: napi 5 db, 20 db készlet -> a 4. napon fogy el
+        double[] demand = new double[30];
+        Arrays.fill(demand, 5.0);
+        DemandMatrix matrix = DemandMatrix.of(FIRST_DAY, 30, new long[]{1}, demand);
+
+        // Act
+        StockoutSimulator.Result within = StockoutSimulator.simulate(matrix, new int[]{20}, 10, 500, 42L, PERCENTILES);
+        StockoutSimulator.Result beyond = StockoutSimulator.simulate(matrix, new int[]{20}, 3, 500, 42L, PERCENTILES);
+
+        // Assert
+        assertEquals(1.0, within.stockoutProbability()[0], 1e-12);
+        assertArrayEquals(new int[]{4, 4, 4}, within.stockoutDayPercentiles());
+        assertArrayEquals(new double[]{50.0, 50.0, 50.0}, within.demandPercentiles(), 1e-9);
+        assertEquals(0.0, beyond.stockoutProbability()[0], 1e-12);
+        assertArrayEquals(new int[]{4, 4, 4}, beyond.stockoutDayPercentiles());
+    }
+
+    @Test
+    void intermittentDemand_matchesAnalyticProbability() {
+        // Arrange: minden második napon 1 db; 1 db készlet, 2 napos horizont -> P = 1 - 0.5^2
+        double[] demand = new double[100];
+        for (int d = 0; d < demand.length; d += 2) {
+            demand[d] = 1.0;
+        }
+        DemandMatrix matrix = DemandMatrix.of(FIRST_DAY, 100, new long[]{7}, demand);
+
+        // Act
+        StockoutSimulator.Result result = StockoutSimulator.simulate(matrix, new int[]{1}, 2, 20_000, 1L, PERCENTILES);
+
+        // Assert
+        assertEquals(0.75, result.stockoutProbability()[0], 0.02);
+    }
+
+    @Test
+    void sameSeed_givesIdenticalResults_andEmptyStockIsImmediateStockout() {
+        // Arrange
+        DemandMatrix matrix = SyntheticDemandGenerator.generate(200, 365, FIRST_DAY, 5L);
+        int[] stock = new int[200];
+        for (int i = 1; i < stock.length; i++) {
+            stock[i] = (int) (matrix.total(i) / 365 * 15);
+        }
+
+        // Act
+        StockoutSimulator.Result first = StockoutSimulator.simulate(matrix, stock, 30, 300, 9L, PERCENTILES);
+        StockoutSimulator.Result second = StockoutSimulator.simulate(matrix, stock, 30, 300, 9L, PERCENTILES);
+
+        // Assert
+        assertArrayEquals(first.stockoutProbability(), second.stockoutProbability());
+        assertArrayEquals(first.stockoutDayPercentiles(), second.stockoutDayPercentiles());
+        assertArrayEquals(first.demandPercentiles(), second.demandPercentiles());
+        assertEquals(1.0, first.stockoutProbability()[0]);
+        assertEquals(0, first.stockoutDayPercentiles()[0]);
+    }
+}
@@ -0,0 +1,160 @@
+package com.founders404.backend.controller;
+
+import com.founders404.backend.model.Company;
+import com.founders404.backend.model.Role;
+import com.founders404.backend.model.User;
+import com.founders404.backend.service.BacktestService;
+import com.founders404.backend.service.ForecastService;
+import com.founders404.backend.service.SeasonalityService;
+import com.founders404.backend.service.StockoutSimulationService;
+import com.founders404.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PredictionControllerTest {
+
+    @Mock
+    private ForecastService forecastService;
+
+    @Mock
+    private BacktestService backtestService;
+
+    @Mock
+    private StockoutSimulationService stockoutSimulationService;
+
+    @Mock
+    private SeasonalityService seasonalityService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private Authentication authentication;
+
+    @InjectMocks
+    private PredictionController predictionController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(authentication.getName()).thenReturn("user");
+    }
+
+    @Test
+    void runForecastJob_isForbiddenForNonAdmins() {
+        // Arrange
+        when(userService.findByUsername("user")).thenReturn(user(Role.OWNER, 1L));
+
+        // Act
+        ResponseEntity<Object> response = predictionController.runForecastJob(authentication);
+
+        // Assert: a job nem indul
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(forecastService, never()).startJob();
+    }
+
+    @Test
+    void backtestSynthetic_isForbiddenForNonAdmins() {
+        // Arrange
+        when(userService.findByUsername("user")).thenReturn(user(Role.OWNER, 1L));
+
+        // Act
+        ResponseEntity<Object> response = predictionController.backtestSynthetic(1000, 3, 42L, 30, authentication);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(backtestService);
+    }
+
+    @Test
+    void backtest_nonAdminIsScopedToOwnCompany() {
+        // Arrange
+        when(userService.findByUsername("user")).thenReturn(user(Role.OWNER, 1L));
+
+        // Act
+        ResponseEntity<Object> own = predictionController.backtestHistory(null, 365, 30, authentication);
+        ResponseEntity<Object> other = predictionController.backtestHistory(2L, 365, 30, authentication);
+
+        // Assert: companyId nélkül a saját cégre szűkül, más cég tiltott
+        assertEquals(HttpStatus.OK, own.getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, other.getStatusCode());
+        verify(backtestService).runHistorical(1L, 365, 30);
+        verify(backtestService, never()).runHistorical(eq(2L), anyInt(), anyInt());
+    }
+
+    @Test
+    void stockoutBenchmark_isForbiddenForNonAdmins() {
+        // Arrange
+        when(userService.findByUsername("user")).thenReturn(user(Role.OWNER, 1L));
+
+        // Act
+        ResponseEntity<Object> response = predictionController.benchmarkStockoutSimulation(10000, 30, 1000, 365, 42L,
+                authentication);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(stockoutSimulationService);
+    }
+
+    @Test
+    void stockoutRisk_nonAdminCannotQueryAnotherCompany() {
+        // Arrange
+        when(userService.findByUsername("user")).thenReturn(user(Role.CLERK, 1L));
+
+        // Act
+        ResponseEntity<Object> response = predictionController.getStockoutRisk(2L, 30, 2000, 90, 42L, 0.0, 100,
+                authentication);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(stockoutSimulationService);
+    }
+
+    @Test
+    void stockoutRisk_adminCanQueryAnyCompany() {
+        // Arrange
+        when(userService.findByUsername("user")).thenReturn(user(Role.SYSTEM_ADMIN, null));
+
+        // Act
+        ResponseEntity<Object> response = predictionController.getStockoutRisk(2L, 30, 2000, 90, 42L, 0.0, 100,
+                authentication);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(stockoutSimulationService).simulateCompany(2L, 30, 2000, 90, 42L, 0.0, 100);
+    }
+
+    @Test
+    void runSeasonality_isForbiddenForNonAdmins() {
+        // Arrange
+        when(userService.findByUsername("user")).thenReturn(user(Role.OWNER, 1L));
+
+        // Act
+        ResponseEntity<Object> response = predictionController.runSeasonality(1L, authentication);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(seasonalityService);
+    }
+
+    private static User user(Role role, Long companyId) {
+        User user = new User();
+        user.setRole(role);
+        if (companyId != null) {
+            Company company = new Company();
+            company.setId(companyId);
+            user.setCompany(company);
+        }
+        return user;
+    }
+}
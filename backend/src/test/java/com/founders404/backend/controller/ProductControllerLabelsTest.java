@@ -0,0 +1,90 @@
+package com.founders404.backend.controller;
+
+import com.founders404.backend.model.Product;
+import com.founders404.backend.service.CategoryService;
+import com.founders404.backend.service.InventoryService;
+import com.founders404.backend.service.LabelSheetService;
+import com.founders404.backend.service.ProductClassificationService;
+import com.founders404.backend.service.ProductService;
+import com.founders404.backend.service.QRCodeImageStore;
+import com.founders404.backend.service.QRCodeService;
+import com.founders404.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductControllerLabelsTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ProductClassificationService productClassificationService;
+
+    @Mock
+    private QRCodeImageStore qrCodeImageStore;
+
+    @Mock
+    private LabelSheetService labelSheetService;
+
+    @InjectMocks
+    private ProductController productController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(labelSheetService.getMaxProducts()).thenReturn(5000);
+        when(labelSheetService.getStreamTimeoutMs()).thenReturn(600_000L);
+    }
+
+    @Test
+    void getLabels_streamRunsWithTheLabelTimeoutInsteadOfTheContainerDefault() throws Exception {
+        // Arrange: a kérés úgy, ahogy a RequestMappingHandlerAdapter átadja (async időkorlát beállítás nélkül)
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+        when(productService.findAllById(List.of(1L))).thenReturn(List.of(product(1L)));
+
+        // Act: a controller, majd a StreamingResponseBody kezelő async indítása
+        ResponseEntity<StreamingResponseBody> response = productController.getLabels(List.of(1L), null, null,
+                "labels", QRCodeService.QR_CODE_WIDTH, 3, 8, request);
+        asyncManager.startCallableProcessing(() -> null);
+
+        // Assert: a servlet async kontextus a címke időkorlátjával indult
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(600_000L, request.getAsyncContext().getTimeout());
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Termék " + id);
+        product.setSku("SKU-" + id);
+        return product;
+    }
+}
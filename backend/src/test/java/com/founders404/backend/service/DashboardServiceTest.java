@@ -0,0 +1,69 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.DashboardSummaryDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class DashboardServiceTest {
+
+    @Mock
+    private StatisticsCacheService statisticsCacheService;
+
+    @Mock
+    private ForecastService forecastService;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        dashboardService = new DashboardService(statisticsCacheService, forecastService, inventoryService);
+        ReflectionTestUtils.setField(dashboardService, "partTimeoutMs", 100L);
+        when(inventoryService.getRecentMovements(any(), anyInt())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    @Test
+    void getSummary_interruptsPartThatTimedOut() throws InterruptedException {
+        // Arrange: a top eladások rész "beragad"
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(statisticsCacheService.getTopSellingProducts(anyInt(), any())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of();
+        });
+
+        // Act
+        DashboardSummaryDTO summary = dashboardService.getSummary(1L, LocalDateTime.now().minusDays(30),
+                LocalDateTime.now(), 10, 10);
+
+        // Assert: a rész kimarad, és a szála nem fut tovább a háttérben
+        assertNull(summary.getTopSelling());
+        assertEquals("timeout after 100 ms", summary.getFailedParts().get("topSelling"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,163 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.analytics.HoltDemandModel;
+import com.founders404.backend.event.StockMovementEvent;
+import com.founders404.backend.model.MovementType;
+import com.founders404.backend.model.ProductDemandState;
+import com.founders404.backend.repository.InventoryRepository;
+import com.founders404.backend.repository.ProductDemandStateRepository;
+import com.founders404.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DemandStateServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductDemandStateRepository demandStateRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private DemandStateService demandStateService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        demandStateService.init();
+        // Induláskori betöltés üres adatbázissal: az olvasások megnyílnak
+        demandStateService.loadOnStartup();
+    }
+
+    @Test
+    void reads_waitForStartupLoad_andMovementsDuringLoadComeFromThePoll() {
+        // Arrange: még nem futott le az induláskori betöltés
+        DemandStateService loading = new DemandStateService(inventoryRepository, productRepository,
+                demandStateRepository, entityManager, transactionTemplate);
+        loading.init();
+        ReflectionTestUtils.setField(loading, "readyTimeoutMs", 0L);
+        LocalDateTime now = LocalDateTime.now();
+        loading.record(1L, 30L, now, 4);
+
+        // Act + Assert: betöltés előtt nincs (üres modellből számolt) előrejelzés
+        assertThrows(RuntimeException.class, () -> loading.forecastDailyDemand(1L));
+
+        // Act: a betöltés visszajátszása a közben rögzített mozgást az adatbázisból építi be, egyszer
+        when(inventoryRepository.findOutMovementRows(eq(0L), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{30L, 1L, now, 4}));
+        loading.loadOnStartup();
+
+        // Assert
+        assertEquals(4.0, loading.getModel(1L).orElseThrow().getPendingQuantity());
+    }
+
+    @Test
+    void poll_pagesFromTheHighWaterIdOnceItIsOlderThanTheMargin() throws InterruptedException {
+        // Arrange: egy más node-on rögzített mozgás (id 40); margó nélkül
+        ReflectionTestUtils.setField(demandStateService, "pollMarginSeconds", 0);
+        when(inventoryRepository.findOutMovementRows(eq(0L), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{40L, 1L, LocalDateTime.now(), 2}));
+
+        // Act: az első lekérdezés beolvassa, a második még a vízszint emelése előtti ponttól indul
+        demandStateService.poll();
+        Thread.sleep(5);
+        demandStateService.poll();
+        Thread.sleep(5);
+        clearInvocations(inventoryRepository);
+        demandStateService.poll();
+
+        // Assert: a harmadik lekérdezés már csak a látott legnagyobb id felett olvas, a mozgás egyszer számít
+        verify(inventoryRepository).findOutMovementRows(eq(40L), any(), any());
+        verify(inventoryRepository, never()).findOutMovementRows(eq(0L), any(), any());
+        assertEquals(2.0, demandStateService.getModel(1L).orElseThrow().getPendingQuantity());
+    }
+
+    @Test
+    void load_replaysOnlyMovementsAfterTheSavedClosedDay() {
+        // Arrange: a tegnapi nap már benne van az alapállapotban, a tegnapi mozgás nem számolódhat kétszer
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        ProductDemandState state = new ProductDemandState();
+        state.setProductId(1L);
+        state.setLevel(2.0);
+        state.setTrend(0.0);
+        state.setVariance(0.0);
+        state.setObservations(10L);
+        state.setLastDay(yesterday);
+        state.setPendingQuantity(2.0);
+        state.setLastMovementId(0L);
+        when(demandStateRepository.findAll()).thenReturn(List.of(state));
+        when(inventoryRepository.findOutMovementRows(eq(0L), any(), any())).thenReturn(List.of(
+                new Object[]{10L, 1L, yesterday.atTime(12, 0), 5},
+                new Object[]{11L, 1L, LocalDateTime.now(), 3}));
+
+        // Act
+        demandStateService.load();
+
+        // Assert
+        HoltDemandModel model = demandStateService.getModel(1L).orElseThrow();
+        assertEquals(LocalDate.now(), model.getLastDay());
+        assertEquals(3.0, model.getPendingQuantity());
+        assertEquals(11L, model.getObservations());
+        assertEquals(11L, model.getLastMovementId());
+    }
+
+    @Test
+    void rebuildCompany_fencesBaseline_andSkipsTodaysMovementsOnRedelivery() {
+        // Arrange: egy termék, tegnap 4 db kereslet, ma egy 2 db-os mozgás (id 20)
+        LocalDate today = LocalDate.now();
+        SchedulerLockService.Lease lease = mock(SchedulerLockService.Lease.class);
+        when(productRepository.findActiveIdsByCompanyIdAfter(eq(7L), eq(0L), any())).thenReturn(List.of(1L));
+        when(inventoryRepository.findDailyOutDemandInProductRange(eq(7L), eq(0L), eq(1L), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, today.minusDays(1), 4L}));
+        when(inventoryRepository.findOutMovementRowsInProductRange(eq(7L), eq(0L), eq(1L), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{20L, 1L, LocalDateTime.now(), 2}));
+
+        // Act
+        int rebuilt = demandStateService.rebuildCompany(7L, lease);
+        demandStateService.onStockMovement(new StockMovementEvent(7L, 1L, 20L, null, MovementType.OUT, 2,
+                10, 8, LocalDateTime.now()));
+
+        // Assert: a mentett alapállapot a tegnapi napig tart, a memóriabeli modell a mai mozgást egyszer tartalmazza
+        assertEquals(1, rebuilt);
+        InOrder inOrder = inOrder(lease, demandStateRepository, entityManager);
+        inOrder.verify(lease).checkpoint();
+        inOrder.verify(lease).fence();
+        inOrder.verify(demandStateRepository).deleteByProductIds(List.of(1L));
+        inOrder.verify(entityManager).persist(argThat(saved -> saved instanceof ProductDemandState s
+                && today.minusDays(1).equals(s.getLastDay()) && s.getPendingQuantity() == 4.0));
+
+        HoltDemandModel model = demandStateService.getModel(1L).orElseThrow();
+        assertEquals(today, model.getLastDay());
+        assertEquals(2.0, model.getPendingQuantity());
+    }
+}
@@ -0,0 +1,138 @@
+package com.founders404.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.founders404.backend.dto.NotificationResponse;
+import com.founders404.backend.event.NotificationCreatedEvent;
+import com.founders404.backend.event.StockMovementEvent;
+import com.founders404.backend.model.MovementType;
+import com.founders404.backend.model.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventStreamServiceTest {
+
+    private EventStreamService eventStreamService;
+
+    @BeforeEach
+    void setUp() {
+        eventStreamService = new EventStreamService();
+    }
+
+    @Test
+    void companyNotification_reachesOnlyMatchingCompanyAndRole() throws InterruptedException {
+        // Arrange
+        RecordingEmitter clerk = register(1L, 10L, Role.CLERK);
+        RecordingEmitter owner = register(2L, 10L, Role.OWNER);
+        RecordingEmitter otherCompany = register(3L, 20L, Role.OWNER);
+
+        // Act
+        eventStreamService.onNotificationCreated(new NotificationCreatedEvent(
+                null, 10L, Role.OWNER, NotificationResponse.builder().id(5L).build()));
+
+        // Életjel mindenkinek: előfizetőnként sorrendben megy, így ha megérkezett, az értesítés is megérkezett volna
+        eventStreamService.heartbeat();
+
+        // Assert: a "connected" üzenet után csak az owner kapja meg
+        clerk.await(2);
+        owner.await(3);
+        otherCompany.await(2);
+        assertEquals(List.of(false, true), clerk.sent.stream().map(e -> e.contains("ping")).toList());
+        assertTrue(owner.sent.get(1).contains("\"id\":5"), owner.sent.get(1));
+        assertTrue(owner.sent.get(2).contains("ping"));
+        assertEquals(List.of(false, true), otherCompany.sent.stream().map(e -> e.contains("ping")).toList());
+    }
+
+    @Test
+    void stockMovement_reachesAllCompanySubscribers_inOrder() throws InterruptedException {
+        // Arrange
+        RecordingEmitter subscriber = register(1L, 10L, Role.CLERK);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            eventStreamService.onStockMovement(new StockMovementEvent(
+                    10L, 7L, (long) i, 1L, MovementType.OUT, 1, 100 - i, 99 - i, LocalDateTime.now()));
+        }
+
+        // Assert
+        subscriber.await(51);
+        List<String> stockEvents = subscriber.sent.stream().filter(e -> e.contains("event:stock")).toList();
+        assertEquals(50, stockEvents.size());
+        for (int i = 0; i < 50; i++) {
+            assertTrue(stockEvents.get(i).contains("\"movementId\":" + i + ","), stockEvents.get(i));
+        }
+    }
+
+    @Test
+    void failedSend_removesSubscriber() throws InterruptedException {
+        // Arrange
+        RecordingEmitter broken = register(1L, 10L, Role.CLERK);
+        broken.failing = true;
+
+        // Act
+        eventStreamService.heartbeat();
+
+        // Assert: a lezárás előtt már kikerült
+        assertTrue(broken.completed.await(2, TimeUnit.SECONDS));
+        assertEquals(0, eventStreamService.getConnectionCount());
+    }
+
+    private RecordingEmitter register(Long userId, Long companyId, Role role) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        eventStreamService.register(emitter, userId, companyId, role);
+        return emitter;
+    }
+
+    /**
+     * A küldött események szöveges formáját gyűjti (valódi HTTP kapcsolat nélkül).
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final Semaphore sends = new Semaphore(0);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("broken pipe");
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData() instanceof String s ? s : toJson(part.getData())));
+            sent.add(text.toString());
+            sends.release();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        private static String toJson(Object data) {
+            try {
+                return new ObjectMapper().findAndRegisterModules().writeValueAsString(data);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Pontosan count küldött esemény (a már megérkezetteket is beleszámolva).
+         */
+        void await(int count) throws InterruptedException {
+            assertTrue(sends.tryAcquire(count, 2, TimeUnit.SECONDS), "expected " + count + " events, got " + sent.size());
+            assertEquals(count, sent.size());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.ReorderPointDTO;
+import com.founders404.backend.dto.StockForecastDTO;
+import com.founders404.backend.model.ProductForecast;
+import com.founders404.backend.repository.ProductForecastRepository;
+import com.founders404.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ForecastServiceTest {
+
+    @Mock
+    private PredictionService predictionService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductForecastRepository forecastRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ScheduledJobService scheduledJobService;
+
+    @Mock
+    private DemandStateService demandStateService;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @InjectMocks
+    private ForecastService forecastService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void getForecast_servesFreshRowWithoutRecompute() {
+        // Arrange
+        ProductForecast row = forecast(1L, LocalDateTime.now().minusHours(1));
+        when(forecastRepository.findFresh(eq(1L), any())).thenReturn(Optional.of(row));
+
+        // Act
+        StockForecastDTO result = forecastService.getForecast(1L);
+
+        // Assert
+        assertEquals(5, result.getDaysUntilStockout());
+        verifyNoInteractions(predictionService, productRepository);
+    }
+
+    @Test
+    void getForecast_recomputesSingleProduct_whenTouchedSinceComputed() {
+        // Arrange: a termék updated_at-je (bármelyik node-on) újabb a sornál, így nincs friss sor
+        ProductForecast row = forecast(1L, LocalDateTime.now().minusHours(1));
+        when(forecastRepository.findFresh(eq(1L), any())).thenReturn(Optional.empty()).thenReturn(Optional.of(row));
+        when(forecastRepository.findAllById(List.of(1L))).thenReturn(List.of(row));
+        when(productRepository.findStockLevelsByIds(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 1L, 4, 2, true, 5}));
+        when(predictionService.forecastFromStock(1L, 4)).thenReturn(StockForecastDTO.builder()
+                .productId(1L).currentStock(4).averageDailySales(new BigDecimal("2.00")).daysUntilStockout(2).build());
+        when(predictionService.calculateReorderPoints(new long[]{1L}, new int[]{5})).thenReturn(List.of(ReorderPointDTO.builder()
+                .productId(1L).leadTimeDays(5).safetyStock(3).reorderPoint(13).build()));
+
+        // Act
+        StockForecastDTO result = forecastService.getForecast(1L);
+
+        // Assert
+        assertEquals(2, result.getDaysUntilStockout());
+        assertEquals(4, result.getCurrentStock());
+        assertEquals(13, row.getReorderPoint());
+        assertEquals(5, row.getLeadTimeDays());
+        verify(productRepository, times(1)).findStockLevelsByIds(anyList());
+
+        // Act: a következő lekérés már a frissített sort adja
+        forecastService.getForecast(1L);
+
+        // Assert
+        verify(productRepository, times(1)).findStockLevelsByIds(anyList());
+    }
+
+    @Test
+    void getCriticalForecasts_recomputesRowsOlderThanStaleAfter() {
+        // Arrange: egy friss és egy két napja számolt kritikus sor; az újraszámolás után csak a friss kritikus
+        ProductForecast fresh = forecast(1L, LocalDateTime.now().minusHours(1));
+        ProductForecast stale = forecast(2L, LocalDateTime.now().minusDays(2));
+        when(forecastRepository.findCritical(7L, 7)).thenReturn(List.of(fresh, stale)).thenReturn(List.of(fresh));
+        when(forecastRepository.findAllById(List.of(2L))).thenReturn(List.of(stale));
+        when(productRepository.findStockLevelsByIds(List.of(2L)))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, 7L, 40, 2, true, 5}));
+        when(predictionService.forecastFromStock(2L, 40)).thenReturn(StockForecastDTO.builder()
+                .productId(2L).currentStock(40).averageDailySales(new BigDecimal("1.00")).daysUntilStockout(40).build());
+        when(predictionService.calculateReorderPoints(new long[]{2L}, new int[]{5})).thenReturn(List.of(ReorderPointDTO.builder()
+                .productId(2L).leadTimeDays(5).safetyStock(2).reorderPoint(7).build()));
+
+        // Act
+        List<StockForecastDTO> result = forecastService.getCriticalForecasts(7L);
+
+        // Assert
+        assertEquals(List.of(1L), result.stream().map(StockForecastDTO::getProductId).toList());
+        assertEquals(40, stale.getDaysUntilStockout());
+        verify(productRepository).findStockLevelsByIds(List.of(2L));
+    }
+
+    @Test
+    void getReorderRecommendations_recomputesRowsOlderThanStaleAfter() {
+        // Arrange: a két napja számolt sor újrarendelési pontja elavult
+        ProductForecast fresh = forecast(1L, LocalDateTime.now().minusHours(1));
+        fresh.setReorderPoint(9);
+        ProductForecast stale = forecast(2L, LocalDateTime.now().minusDays(2));
+        stale.setReorderPoint(3);
+        when(forecastRepository.findByCompany(7L)).thenReturn(List.of(fresh, stale));
+        when(forecastRepository.findAllById(List.of(2L))).thenReturn(List.of(stale));
+        when(productRepository.findStockLevelsByIds(List.of(2L)))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, 7L, 40, 2, true, 5}));
+        when(predictionService.forecastFromStock(2L, 40)).thenReturn(StockForecastDTO.builder()
+                .productId(2L).currentStock(40).averageDailySales(new BigDecimal("1.00")).daysUntilStockout(40).build());
+        when(predictionService.calculateReorderPoints(new long[]{2L}, new int[]{5})).thenReturn(List.of(ReorderPointDTO.builder()
+                .productId(2L).leadTimeDays(5).safetyStock(2).reorderPoint(7).build()));
+
+        // Act
+        List<ReorderPointDTO> result = forecastService.getReorderRecommendations(7L);
+
+        // Assert
+        assertEquals(List.of(9, 7), result.stream().map(ReorderPointDTO::getReorderPoint).toList());
+        verify(productRepository).findStockLevelsByIds(List.of(2L));
+        verify(forecastRepository, times(2)).findByCompany(7L);
+    }
+
+    @Test
+    void startJob_returnsFalse_whenForecastJobIsAlreadyRunning() {
+        // Arrange: az éjszakai (vagy induláskori) futás még tart
+        when(scheduledJobService.submit(eq(ScheduledJobService.ANALYTICS), eq("forecast"), any())).thenReturn(false);
+
+        // Act + Assert
+        assertFalse(forecastService.startJob());
+    }
+
+    @Test
+    void runJob_distributesCompaniesThroughPerCompanyLeases() {
+        // Arrange
+        when(productRepository.findDistinctCompanyIds()).thenReturn(List.of(1L, 2L));
+
+        // Act
+        forecastService.runJob(LocalDateTime.now());
+
+        // Assert: a cégenkénti párhuzamosság és lease a közös ütemező szolgáltatásé
+        verify(schedulerLockService).runPerCompany(eq("forecast"), eq(List.of(1L, 2L)), any());
+        assertNotNull(forecastService.getJobStatus().get("lastFinishedAt"));
+        assertEquals(false, forecastService.getJobStatus().get("running"));
+    }
+
+    private static ProductForecast forecast(Long productId, LocalDateTime computedAt) {
+        ProductForecast forecast = new ProductForecast();
+        forecast.setProductId(productId);
+        forecast.setCompanyId(1L);
+        forecast.setCurrentStock(10);
+        forecast.setAverageDailySales(new BigDecimal("2.00"));
+        forecast.setDaysUntilStockout(5);
+        forecast.setComputedAt(computedAt);
+        return forecast;
+    }
+}
@@ -0,0 +1,146 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LabelSheetServiceTest {
+
+    @TempDir
+    Path storeDir;
+
+    private LabelSheetService labelSheetService;
+
+    private QRCodeImageStore imageStore;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = new QRCodeImageStore(new QRCodeService());
+        ReflectionTestUtils.setField(imageStore, "storeDir", storeDir.toString());
+        labelSheetService = new LabelSheetService(imageStore);
+        ReflectionTestUtils.setField(labelSheetService, "renderThreads", 4);
+        ReflectionTestUtils.setField(labelSheetService, "maxInFlight", 2);
+        labelSheetService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        labelSheetService.shutdown();
+    }
+
+    @Test
+    void writeZip_labels_oneEntryPerProductInRequestOrder() throws Exception {
+        // Arrange
+        List<Product> products = products(7);
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        labelSheetService.writeZip(products, LabelSheetService.Layout.LABELS, 128, 3, 8, out);
+
+        // Assert: a párhuzamos renderelés ellenére a sorrend megmarad, a QR a kért méretű
+        List<String> names = new ArrayList<>();
+        List<BufferedImage> images = new ArrayList<>();
+        readZip(out.toByteArray(), names, images);
+        assertEquals(7, names.size());
+        for (int i = 0; i < 7; i++) {
+            assertEquals("label-" + (i + 1) + "-SKU_" + (i + 1) + ".png", names.get(i));
+        }
+        assertEquals(128 + 24, images.get(0).getHeight());
+        assertEquals(2 * (128 + 24), images.get(0).getWidth());
+    }
+
+    @Test
+    void writeZip_sheet_tilesProductsOntoA4Pages() throws Exception {
+        // Arrange: 3 x 2 rács, 7 termék -> 2 oldal
+        List<Product> products = products(7);
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        labelSheetService.writeZip(products, LabelSheetService.Layout.SHEET, 300, 3, 2, out);
+
+        // Assert
+        List<String> names = new ArrayList<>();
+        List<BufferedImage> images = new ArrayList<>();
+        readZip(out.toByteArray(), names, images);
+        assertEquals(List.of("sheet-001.png", "sheet-002.png"), names);
+        assertEquals(LabelSheetService.PAGE_WIDTH, images.get(0).getWidth());
+        assertEquals(LabelSheetService.PAGE_HEIGHT, images.get(0).getHeight());
+    }
+
+    @Test
+    void writeZip_sheet_reusesDefaultSizeQrImages() throws Exception {
+        // Arrange
+        List<Product> products = products(3);
+
+        // Act: két különböző rács
+        labelSheetService.writeZip(products, LabelSheetService.Layout.SHEET, 300, 3, 8, new ByteArrayOutputStream());
+        labelSheetService.writeZip(products, LabelSheetService.Layout.SHEET, 300, 2, 4, new ByteArrayOutputStream());
+
+        // Assert: csak a termékek alap méretű QR képei kerültek a tárba
+        try (Stream<Path> stored = Files.list(storeDir)) {
+            assertEquals(3, stored.count());
+        }
+        for (Product product : products) {
+            assertTrue(Files.exists(imageStore.pathOf(imageStore.hashOf(product, QRCodeService.QR_CODE_WIDTH))));
+        }
+    }
+
+    @Test
+    void writeZip_clientDisconnect_stopsWithIOException() {
+        // Arrange: a kliens az első bájtok után lezárja a kapcsolatot
+        OutputStream broken = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++written > 100) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        // Act + Assert
+        assertThrows(IOException.class, () ->
+                labelSheetService.writeZip(products(20), LabelSheetService.Layout.LABELS, 64, 3, 8, broken));
+    }
+
+    private static void readZip(byte[] zip, List<String> names, List<BufferedImage> images) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                names.add(entry.getName());
+                images.add(ImageIO.read(new ByteArrayInputStream(in.readAllBytes())));
+            }
+        }
+    }
+
+    private static List<Product> products(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(id -> {
+            Product product = new Product();
+            product.setId(id);
+            product.setName("Termék " + id + " nagyon hosszú névvel, ami nem fér ki a címkén");
+            product.setSku("SKU/" + id);
+            return product;
+        }).toList();
+    }
+}
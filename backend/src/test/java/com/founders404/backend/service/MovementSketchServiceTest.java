@@ -0,0 +1,120 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.CardinalityEstimateDTO;
+import com.founders404.backend.dto.HeavyHitterDTO;
+import com.founders404.backend.event.StockMovementEvent;
+import com.founders404.backend.model.MovementType;
+import com.founders404.backend.repository.InventoryRepository;
+import com.founders404.backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MovementSketchServiceTest {
+
+    private InventoryRepository inventoryRepository;
+
+    private MovementSketchService sketchService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(InventoryRepository.class);
+        sketchService = new MovementSketchService(inventoryRepository, mock(ProductRepository.class));
+    }
+
+    @Test
+    void backfill_doesNotRecountMovementsRecordedBeforeTheUpperBoundWasSet() {
+        // Arrange: induláskor (a határ beállítása előtt) érkezett mozgás, amit a visszatöltés is lát
+        LocalDateTime now = LocalDateTime.now();
+        sketchService.onStockMovement(movement(5L, now));
+        when(inventoryRepository.findMaxId()).thenReturn(5L);
+        when(inventoryRepository.findSketchRows(eq(0L), eq(5L), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{5L, 1L, 10L, 3L, MovementType.OUT, now}));
+
+        // Act
+        assertTrue(sketchService.beginBackfill());
+        sketchService.backfill(now);
+
+        // Assert
+        assertEquals(1L, heavyHitterCount());
+    }
+
+    @Test
+    void backfill_resetsUpperBoundOnFailure_soLiveMovementsAreStillRecorded() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        when(inventoryRepository.findMaxId()).thenReturn(10L);
+        when(inventoryRepository.findSketchRows(anyLong(), anyLong(), any(), any()))
+                .thenThrow(new RuntimeException("db down"));
+
+        // Act: a sikertelen visszatöltés után a határ alatti (később commitolt) mozgás is rögzül
+        assertTrue(sketchService.beginBackfill());
+        sketchService.backfill(now);
+        sketchService.onStockMovement(movement(7L, now));
+
+        // Assert
+        assertEquals(1L, heavyHitterCount());
+    }
+
+    @Test
+    void estimate_rejectsToBeforeFrom() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+
+        // Act + Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> sketchService.estimateDistinctSkusSold(1L, today, today.minusDays(1)));
+    }
+
+    @Test
+    void estimate_clampsToToday() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+
+        // Act
+        CardinalityEstimateDTO estimate = sketchService.estimateDistinctSkusSold(1L, today.minusDays(2), today.plusYears(100));
+
+        // Assert: jövőbeli napok nem iterálódnak
+        assertEquals(today, estimate.getTo());
+        assertEquals(3, estimate.getDailyEstimates().size());
+    }
+
+    @Test
+    void record_dropsOldestDays_whenSketchLimitIsReached() {
+        // Arrange
+        ReflectionTestUtils.setField(sketchService, "maxSketches", 2);
+        LocalDate today = LocalDate.now();
+
+        // Act: három nap, a korlát kettő
+        for (int daysAgo = 2; daysAgo >= 0; daysAgo--) {
+            sketchService.record(1L, 10L, 5L, MovementType.OUT, today.minusDays(daysAgo).atTime(12, 0));
+        }
+        sketchService.record(1L, 11L, 5L, MovementType.OUT, today.minusDays(2).atTime(13, 0));
+
+        // Assert: a legrégebbi nap kiesett, és utólag sem kerül vissza
+        CardinalityEstimateDTO estimate = sketchService.estimateDistinctSkusSold(1L, today.minusDays(2), today);
+        assertEquals(today.minusDays(1), estimate.getFrom());
+        assertEquals(1L, estimate.getDailyEstimates().get(today.minusDays(1)));
+        assertEquals(1L, estimate.getDailyEstimates().get(today));
+    }
+
+    private long heavyHitterCount() {
+        List<HeavyHitterDTO> top = sketchService.getHeavyHitters(1L, LocalDate.now(), LocalDate.now(), 1);
+        return top.isEmpty() ? 0L : top.get(0).getEstimatedCount();
+    }
+
+    private static StockMovementEvent movement(Long movementId, LocalDateTime timestamp) {
+        return new StockMovementEvent(1L, 10L, movementId, 3L, MovementType.OUT, 1, 5, 4, timestamp);
+    }
+}
@@ -0,0 +1,211 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.exception.LeaseLostException;
+import com.founders404.backend.model.NotificationType;
+import com.founders404.backend.model.User;
+import com.founders404.backend.repository.CompanyNotificationRepository;
+import com.founders404.backend.repository.NotificationReadStateRepository;
+import com.founders404.backend.repository.NotificationRepository;
+import com.founders404.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationRetentionServiceTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private CompanyNotificationRepository companyNotificationRepository;
+
+    @Mock
+    private NotificationReadStateRepository readStateRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private UnreadCounterService unreadCounterService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private ScheduledJobService scheduledJobService;
+
+    private MockEnvironment environment;
+
+    private NotificationRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        environment = new MockEnvironment();
+        retentionService = new NotificationRetentionService(notificationRepository, companyNotificationRepository,
+                readStateRepository, userRepository, notificationService, unreadCounterService, transactionTemplate,
+                environment, schedulerLockService, scheduledJobService);
+        when(transactionTemplate.execute(ArgumentMatchers.<TransactionCallback<Object>>any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(notificationRepository.findIdsByTypeCreatedBefore(any(), any(), any())).thenReturn(List.of());
+        when(companyNotificationRepository.findIdsByTypeCreatedBefore(any(), any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void retentionDays_usesPerTypeOverride() {
+        // Arrange
+        environment.setProperty("notifications.retention-days.low_stock", "7");
+
+        // Act + Assert
+        assertEquals(7, retentionService.retentionDays(NotificationType.LOW_STOCK));
+        assertEquals(30, retentionService.retentionDays(NotificationType.STOCK_OUT));
+        assertEquals(90, retentionService.retentionDays(NotificationType.SYSTEM));
+    }
+
+    @Test
+    void purge_deletesInChunks_untilNothingLeft() {
+        // Arrange: két chunk LOW_STOCK, utána üres
+        when(notificationRepository.findIdsByTypeCreatedBefore(eq(NotificationType.LOW_STOCK), any(), any()))
+                .thenReturn(List.of(1L, 2L)).thenReturn(List.of(3L)).thenReturn(List.of());
+
+        // Act
+        NotificationRetentionService.PurgeResult result = retentionService.purge();
+
+        // Assert
+        assertEquals(3, result.userNotifications());
+        verify(notificationRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(notificationRepository).deleteByIdIn(List.of(3L));
+        verify(transactionTemplate, atLeast(3)).execute(any());
+        verify(unreadCounterService).invalidateAll();
+        verify(readStateRepository, never()).findUserIdsWithExceptionsBelow(any(), any(), any());
+    }
+
+    @Test
+    void purge_usesCutoffPerType_andSkipsDisabledTypes() {
+        // Arrange
+        environment.setProperty("notifications.retention-days.system", "0");
+        environment.setProperty("notifications.retention-days.low_stock", "10");
+
+        // Act
+        LocalDateTime before = LocalDateTime.now();
+        retentionService.purge();
+
+        // Assert
+        verify(notificationRepository, never()).findIdsByTypeCreatedBefore(eq(NotificationType.SYSTEM), any(), any());
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(notificationRepository).findIdsByTypeCreatedBefore(eq(NotificationType.LOW_STOCK), cutoff.capture(), any());
+        assertFalse(cutoff.getValue().isAfter(before.minusDays(10).plusSeconds(5)));
+        assertFalse(cutoff.getValue().isBefore(before.minusDays(10).minusSeconds(5)));
+        verify(unreadCounterService, never()).invalidateAll();
+    }
+
+    @Test
+    void purgeScheduled_runsOnMaintenanceQueue() {
+        // Act
+        retentionService.purgeScheduled();
+
+        // Assert: a scheduler szál csak beadja, a törlés a sor szálán fut
+        verify(scheduledJobService).submit(eq(ScheduledJobService.MAINTENANCE), eq("notification-retention"), any());
+        verifyNoInteractions(notificationRepository, companyNotificationRepository);
+    }
+
+    @Test
+    void purgeExclusive_skipsWhenAnotherNodeHoldsLease() {
+        // Arrange
+        when(schedulerLockService.runExclusive(eq("notification-retention"), any())).thenReturn(false);
+
+        // Act
+        retentionService.purgeExclusive();
+
+        // Assert
+        verifyNoInteractions(notificationRepository, companyNotificationRepository);
+    }
+
+    @Test
+    void purge_compactsReadStatesBelowLargestDeletedCompanyNotification() {
+        // Arrange
+        when(companyNotificationRepository.findIdsByTypeCreatedBefore(eq(NotificationType.STOCK_OUT), any(), any()))
+                .thenReturn(List.of(40L, 55L)).thenReturn(List.of());
+        User user = new User();
+        user.setId(9L);
+        when(readStateRepository.findUserIdsWithExceptionsBelow(eq(55L), eq(0L), any())).thenReturn(List.of(9L));
+        when(readStateRepository.findUserIdsWithExceptionsBelow(eq(55L), eq(9L), any())).thenReturn(List.of());
+        when(userRepository.findById(9L)).thenReturn(Optional.of(user));
+
+        // Act
+        NotificationRetentionService.PurgeResult result = retentionService.purge();
+
+        // Assert
+        assertEquals(2, result.companyNotifications());
+        assertEquals(1, result.compactedReadStates());
+        verify(notificationService).compactReadState(user);
+    }
+
+    @Test
+    void purge_checkpointsLeasePerCompactionPage() {
+        // Arrange: két oldalnyi read state; az első oldal után egy másik node átveszi a lease-t
+        when(companyNotificationRepository.findIdsByTypeCreatedBefore(eq(NotificationType.STOCK_OUT), any(), any()))
+                .thenReturn(List.of(55L)).thenReturn(List.of());
+        AtomicBoolean firstPageServed = new AtomicBoolean();
+        when(readStateRepository.findUserIdsWithExceptionsBelow(eq(55L), eq(0L), any())).thenAnswer(invocation -> {
+            firstPageServed.set(true);
+            return List.of(9L);
+        });
+        User user = new User();
+        user.setId(9L);
+        when(userRepository.findById(9L)).thenReturn(Optional.of(user));
+        SchedulerLockService.Lease lease = mock(SchedulerLockService.Lease.class);
+        doAnswer(invocation -> {
+            if (firstPageServed.get()) {
+                throw new LeaseLostException("notification-retention", 1L);
+            }
+            return null;
+        }).when(lease).checkpoint();
+
+        // Act + Assert: a tömörítés a következő oldal előtt leáll
+        assertThrows(LeaseLostException.class, () -> retentionService.purge(lease));
+        verify(notificationService).compactReadState(user);
+        verify(readStateRepository, never()).findUserIdsWithExceptionsBelow(eq(55L), eq(9L), any());
+    }
+
+    @Test
+    void purge_doesNotDelete_whenLeaseIsFencedOut() {
+        // Arrange: a lease-t közben egy másik node vette át, a fencing a törlő tranzakcióban elbukik
+        when(companyNotificationRepository.findIdsByTypeCreatedBefore(eq(NotificationType.STOCK_OUT), any(), any()))
+                .thenReturn(List.of(55L));
+        SchedulerLockService.Lease lease = mock(SchedulerLockService.Lease.class);
+        doThrow(new LeaseLostException("notification-retention", 1L)).when(lease).fence();
+
+        // Act + Assert
+        assertThrows(LeaseLostException.class, () -> retentionService.purge(lease));
+        verify(companyNotificationRepository, never()).deleteByIdIn(any());
+        verify(notificationRepository, never()).deleteByIdIn(any());
+    }
+}
@@ -0,0 +1,334 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.NotificationPageResponse;
+import com.founders404.backend.dto.NotificationResponse;
+import com.founders404.backend.model.Company;
+import com.founders404.backend.event.NotificationsReadEvent;
+import com.founders404.backend.model.CompanyNotification;
+import com.founders404.backend.model.Notification;
+import com.founders404.backend.model.NotificationReadState;
+import com.founders404.backend.model.NotificationType;
+import com.founders404.backend.model.Role;
+import com.founders404.backend.model.User;
+import com.founders404.backend.repository.CompanyNotificationRepository;
+import com.founders404.backend.repository.NotificationReadStateRepository;
+import com.founders404.backend.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private CompanyNotificationRepository companyNotificationRepository;
+
+    @Mock
+    private NotificationReadStateRepository readStateRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private NotificationService notificationService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Company company = new Company();
+        company.setId(1L);
+        user = new User();
+        user.setId(7L);
+        user.setRole(Role.CLERK);
+        user.setCompany(company);
+    }
+
+    @Test
+    void countUnread_usesWatermarkAndExceptions() {
+        // Arrange: 10-ig minden olvasott, felette a 12-es is
+        NotificationReadState state = new NotificationReadState(7L);
+        state.setLastReadId(10L);
+        state.markRead(12L);
+        when(readStateRepository.findById(7L)).thenReturn(Optional.of(state));
+        when(notificationRepository.countByUserIdAndIsReadFalse(7L)).thenReturn(1L);
+        when(companyNotificationRepository.countVisibleAfter(1L, Role.CLERK, 10L)).thenReturn(4L);
+
+        // Act
+        long count = notificationService.countUnread(user);
+
+        // Assert
+        assertEquals(1 + 4 - 1, count);
+    }
+
+    @Test
+    void countUnread_newMember_startsAtLatestVisibleNotification() {
+        // Arrange: még nincs állapot, a cégnek 40-ig vannak látható értesítései
+        when(readStateRepository.findById(7L)).thenReturn(Optional.empty());
+        when(companyNotificationRepository.findMaxVisibleId(1L, Role.CLERK)).thenReturn(40L);
+
+        // Act
+        long count = notificationService.countUnread(user);
+
+        // Assert: a belépés előtti előzmény nem olvasatlan, az állapot a 40-es vízjellel jön létre
+        assertEquals(0, count);
+        verify(readStateRepository).insert(eq(7L), eq(40L), any());
+        verify(companyNotificationRepository).countVisibleAfter(1L, Role.CLERK, 40L);
+    }
+
+    @Test
+    void countUnread_newMember_createsStateInOwnTransaction_andReadsConcurrentlyCreatedOne() {
+        // Arrange: közben egy másik kérés beszúrta az állapotot (35-ös vízjellel)
+        NotificationReadState concurrent = new NotificationReadState(7L);
+        concurrent.setLastReadId(35L);
+        when(readStateRepository.findById(7L)).thenReturn(Optional.empty()).thenReturn(Optional.of(concurrent));
+        when(companyNotificationRepository.findMaxVisibleId(1L, Role.CLERK)).thenReturn(40L);
+        when(readStateRepository.insert(eq(7L), eq(40L), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // Act
+        notificationService.countUnread(user);
+
+        // Assert: a beszúrás saját (REQUIRES_NEW) tranzakciója görgetődik vissza, a már létező állapot számít
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                        && !definition.isReadOnly()));
+        verify(transactionManager).rollback(any());
+        verify(companyNotificationRepository).countVisibleAfter(1L, Role.CLERK, 35L);
+    }
+
+    @Test
+    void getUnreadNotifications_filtersReadExceptions() {
+        // Arrange
+        NotificationReadState state = new NotificationReadState(7L);
+        state.setLastReadId(10L);
+        state.markRead(12L);
+        when(readStateRepository.findById(7L)).thenReturn(Optional.of(state));
+        when(companyNotificationRepository.findVisibleAfter(1L, Role.CLERK, 10L))
+                .thenReturn(List.of(notification(13L), notification(12L), notification(11L)));
+
+        // Act
+        List<NotificationResponse> unread = notificationService.getUnreadNotifications(user);
+
+        // Assert
+        assertEquals(List.of(13L, 11L), unread.stream().map(NotificationResponse::getId).toList());
+        assertTrue(unread.stream().noneMatch(NotificationResponse::getIsRead));
+    }
+
+    @Test
+    void markCompanyNotificationAsRead_advancesWatermarkPastReadPrefix() {
+        // Arrange: látható 11, 14, 15 (a köztes azonosítók más cégé); a 14 már olvasott
+        NotificationReadState state = new NotificationReadState(7L);
+        state.setLastReadId(10L);
+        state.markRead(14L);
+        when(readStateRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(state));
+        when(companyNotificationRepository.findById(11L)).thenReturn(Optional.of(notification(11L)));
+        when(companyNotificationRepository.findVisibleIdsAfter(1L, Role.CLERK, 10L)).thenReturn(List.of(11L, 14L, 15L));
+
+        // Act
+        notificationService.markCompanyNotificationAsRead(11L, user);
+
+        // Assert: a vízjel a 15 elé lép, kivétel nem marad
+        ArgumentCaptor<NotificationReadState> saved = ArgumentCaptor.forClass(NotificationReadState.class);
+        verify(readStateRepository).save(saved.capture());
+        assertEquals(14L, saved.getValue().getLastReadId());
+        assertEquals(0, saved.getValue().exceptionCount());
+        assertFalse(saved.getValue().isRead(15L));
+    }
+
+    @Test
+    void markCompanyNotificationAsRead_rejectsOtherRoleOrCompany() {
+        // Arrange
+        CompanyNotification ownerOnly = notification(11L);
+        ownerOnly.setTargetRole(Role.OWNER);
+        CompanyNotification otherCompany = notification(12L);
+        otherCompany.setCompanyId(2L);
+        when(companyNotificationRepository.findById(11L)).thenReturn(Optional.of(ownerOnly));
+        when(companyNotificationRepository.findById(12L)).thenReturn(Optional.of(otherCompany));
+
+        // Act + Assert
+        assertThrows(RuntimeException.class, () -> notificationService.markCompanyNotificationAsRead(11L, user));
+        assertThrows(RuntimeException.class, () -> notificationService.markCompanyNotificationAsRead(12L, user));
+        verify(readStateRepository, never()).save(any());
+    }
+
+    @Test
+    void markAllAsRead_movesWatermarkToLatestVisible() {
+        // Arrange: 2 saját olvasatlan, cégszintűből 5 látható a vízjel felett, ebből 1 már olvasott
+        NotificationReadState state = new NotificationReadState(7L);
+        state.markRead(3L);
+        when(readStateRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(state));
+        when(notificationRepository.markReadMatching(7L, null, null, null)).thenReturn(2);
+        when(companyNotificationRepository.findMaxVisibleId(1L, Role.CLERK)).thenReturn(20L);
+        when(companyNotificationRepository.countVisibleAfter(1L, Role.CLERK, 0L)).thenReturn(5L);
+
+        // Act
+        long updated = notificationService.markAllAsRead(user);
+
+        // Assert
+        assertEquals(2 + 4, updated);
+        assertEquals(20L, state.getLastReadId());
+        assertEquals(0, state.exceptionCount());
+        verify(readStateRepository).save(state);
+        verify(notificationRepository, never()).findByUserIdAndIsReadFalse(any());
+        verify(notificationRepository, never()).saveAll(any());
+        ArgumentCaptor<NotificationsReadEvent> event = ArgumentCaptor.forClass(NotificationsReadEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(6, event.getValue().getCount());
+    }
+
+    @Test
+    void markRead_byProduct_marksOnlyMatchingCompanyNotifications() {
+        // Arrange: a vízjel felett 11, 12, 13 látható; a 12 és 13 a termékhez tartozik
+        NotificationReadState state = new NotificationReadState(7L);
+        state.setLastReadId(10L);
+        when(readStateRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(state));
+        when(notificationRepository.markReadMatching(7L, null, 5L, null)).thenReturn(0);
+        when(companyNotificationRepository.findVisibleIdsMatchingAfter(1L, Role.CLERK, 10L, null, 5L, null))
+                .thenReturn(List.of(12L, 13L));
+        when(companyNotificationRepository.findVisibleIdsAfter(1L, Role.CLERK, 10L)).thenReturn(List.of(11L, 12L, 13L));
+
+        // Act
+        long updated = notificationService.markRead(user, null, 5L, null);
+
+        // Assert: a 11 olvasatlan marad, így a vízjel nem lép
+        assertEquals(2, updated);
+        assertEquals(10L, state.getLastReadId());
+        assertFalse(state.isRead(11L));
+        assertTrue(state.isRead(12L));
+        assertTrue(state.isRead(13L));
+    }
+
+    @Test
+    void markAsRead_publishesEventOnlyWhenNotificationBecameRead() {
+        // Arrange
+        when(notificationRepository.markReadByIdAndUserId(1L, 7L)).thenReturn(1);
+        when(notificationRepository.markReadByIdAndUserId(2L, 7L)).thenReturn(0);
+        when(notificationRepository.findByIdAndUserId(2L, 7L)).thenReturn(new Notification());
+
+        // Act
+        notificationService.markAsRead(1L, 7L);
+        notificationService.markAsRead(2L, 7L);
+
+        // Assert
+        verify(eventPublisher, times(1)).publishEvent(any(NotificationsReadEvent.class));
+        assertThrows(RuntimeException.class, () -> notificationService.markAsRead(3L, 7L));
+    }
+
+    @Test
+    void listNotifications_mergesScopes_andPagesByCursor() {
+        // Arrange: a 11-es cégszintű és a 3-as saját értesítés ugyanabban az időpontban jött létre
+        LocalDateTime tie = LocalDateTime.of(2025, 3, 1, 12, 0);
+        Notification own = new Notification();
+        own.setId(3L);
+        own.setCreatedAt(tie);
+        CompanyNotification newer = notification(12L);
+        newer.setCreatedAt(tie.plusMinutes(1));
+        CompanyNotification sameTime = notification(11L);
+        sameTime.setCreatedAt(tie);
+        when(readStateRepository.findById(7L)).thenReturn(Optional.empty());
+        when(notificationRepository.findPageByUserId(eq(7L), isNull(), isNull(), any())).thenReturn(List.of(own));
+        when(companyNotificationRepository.findVisiblePage(eq(1L), eq(Role.CLERK), isNull(), isNull(), any()))
+                .thenReturn(List.of(newer, sameTime));
+
+        // Act
+        NotificationPageResponse page = notificationService.listNotifications(user, null, 2);
+
+        // Assert: azonos időpontnál a USER scope jön előbb
+        assertEquals(List.of(12L, 3L), page.getItems().stream().map(NotificationResponse::getId).toList());
+        assertEquals(tie + "_USER_3", page.getNextCursor());
+
+        // Act: következő oldal - a saját táblából a 3 alattiak, a cégszintűből az összes azonos időpontú
+        notificationService.listNotifications(user, page.getNextCursor(), 2);
+
+        // Assert
+        verify(notificationRepository).findPageByUserId(eq(7L), eq(tie), eq(3L), any());
+        verify(companyNotificationRepository).findVisiblePage(eq(1L), eq(Role.CLERK), eq(tie), eq(Long.MAX_VALUE), any());
+    }
+
+    @Test
+    void listNotifications_rejectsInvalidCursorAndLimit() {
+        assertThrows(RuntimeException.class, () -> notificationService.listNotifications(user, "garbage", 10));
+        assertThrows(RuntimeException.class, () -> notificationService.listNotifications(user, null, 0));
+        assertThrows(RuntimeException.class, () -> notificationService.listNotifications(user, null, 1000));
+    }
+
+    @Test
+    void compactReadState_dropsExceptionsOfDeletedNotifications() {
+        // Arrange: a 12 és 14 olvasott kivétel; a 12-t a retention törölte, a 11 már nem létezik, a 13 olvasatlan
+        NotificationReadState state = new NotificationReadState(7L);
+        state.setLastReadId(10L);
+        state.markRead(12L);
+        state.markRead(14L);
+        when(readStateRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(state));
+        when(companyNotificationRepository.findVisibleIdsAfter(1L, Role.CLERK, 10L)).thenReturn(List.of(13L, 14L));
+
+        // Act
+        notificationService.compactReadState(user);
+
+        // Assert: a vízjel a 13 elé lép, csak a 14 kivétel marad
+        assertEquals(12L, state.getLastReadId());
+        assertEquals(1, state.exceptionCount());
+        assertTrue(state.isRead(14L));
+        assertFalse(state.isRead(13L));
+        verify(readStateRepository).save(state);
+    }
+
+    @Test
+    void readState_keepsExceptionsFarAboveTheWatermark() {
+        // Arrange: a cég értesítései a globális id térben messze vannak egymástól
+        NotificationReadState state = new NotificationReadState(7L);
+        state.setLastReadId(10L);
+
+        // Act
+        state.markRead(5_000_000_000L);
+        state.markRead(20L);
+        NotificationReadState reloaded = new NotificationReadState(7L);
+        reloaded.setLastReadId(state.getLastReadId());
+        reloaded.setReadExceptionIds(state.getReadExceptionIds());
+
+        // Assert: 8 bájt kivételenként, újratöltés után is olvasott
+        assertEquals(16, state.getReadExceptionIds().length);
+        assertTrue(reloaded.isRead(5_000_000_000L));
+        assertTrue(reloaded.isRead(20L));
+        assertFalse(reloaded.isRead(21L));
+
+        // Act: a vízjel a 20 fölé lép
+        reloaded.advanceTo(30L);
+
+        // Assert
+        assertEquals(1, reloaded.exceptionCount());
+        assertTrue(reloaded.isRead(5_000_000_000L));
+    }
+
+    private static CompanyNotification notification(Long id) {
+        CompanyNotification notification = new CompanyNotification();
+        notification.setId(id);
+        notification.setCompanyId(1L);
+        notification.setType(NotificationType.LOW_STOCK);
+        notification.setTitle("Alacsony készlet!");
+        notification.setCreatedAt(LocalDateTime.now().minusMinutes(20 - id));
+        return notification;
+    }
+}
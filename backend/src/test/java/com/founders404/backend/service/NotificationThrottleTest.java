@@ -0,0 +1,97 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.model.CompanyNotification;
+import com.founders404.backend.model.NotificationType;
+import com.founders404.backend.repository.CompanyNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationThrottleTest {
+
+    @Mock
+    private CompanyNotificationRepository companyNotificationRepository;
+
+    @InjectMocks
+    private NotificationThrottle notificationThrottle;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void tryAcquire_blocksSameKeyUntilExpiry() {
+        // Arrange
+        long now = System.currentTimeMillis();
+
+        // Act + Assert
+        assertTrue(notificationThrottle.tryAcquire(1L, 10L, NotificationType.LOW_STOCK, now));
+        assertFalse(notificationThrottle.tryAcquire(1L, 10L, NotificationType.LOW_STOCK, now + 60_000));
+        assertTrue(notificationThrottle.tryAcquire(2L, 10L, NotificationType.LOW_STOCK, now));
+        assertTrue(notificationThrottle.tryAcquire(1L, 10L, NotificationType.STOCK_OUT, now));
+        assertTrue(notificationThrottle.tryAcquire(1L, 10L, NotificationType.LOW_STOCK, now + 30 * 60_000));
+    }
+
+    @Test
+    void rebuild_loadsRecentNotifications_withRemainingTtl() {
+        // Arrange: 10 perce ment értesítés, a 30 perces ablakból még 20 perc van hátra
+        when(companyNotificationRepository.findDedupeKeysCreatedSince(any())).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 10L, NotificationType.LOW_STOCK, LocalDateTime.now().minusMinutes(10)}));
+
+        // Act
+        int loaded = notificationThrottle.rebuild();
+
+        // Assert
+        long now = System.currentTimeMillis();
+        assertEquals(1, loaded);
+        assertFalse(notificationThrottle.tryAcquire(1L, 10L, NotificationType.LOW_STOCK, now));
+        assertTrue(notificationThrottle.tryAcquire(1L, 10L, NotificationType.LOW_STOCK, now + 21 * 60_000));
+    }
+
+    @Test
+    void rebuild_expandsDigestNotifications_toEveryProduct() {
+        // Arrange: összesítő értesítés 3 termékről (product_id nélkül, a termékek a product_ids listában)
+        CompanyNotification digest = new CompanyNotification();
+        digest.setCompanyId(1L);
+        digest.setType(NotificationType.LOW_STOCK);
+        digest.setProductIdList(List.of(10L, 11L, 12L));
+        digest.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+        when(companyNotificationRepository.findDedupeKeysCreatedSince(any())).thenReturn(List.<Object[]>of(
+                new Object[]{digest.getCompanyId(), digest.getProductId(), digest.getType(), digest.getCreatedAt(),
+                        digest.getProductIds()}));
+
+        // Act
+        int loaded = notificationThrottle.rebuild();
+
+        // Assert: újraindítás után egyik termékről sem megy újra riasztás
+        assertEquals(3, loaded);
+        for (Long productId : digest.getProductIdList()) {
+            assertFalse(notificationThrottle.tryAcquire(1L, productId, NotificationType.LOW_STOCK));
+        }
+        assertTrue(notificationThrottle.tryAcquire(1L, 13L, NotificationType.LOW_STOCK));
+    }
+
+    @Test
+    void evictExpired_removesOnlyExpiredKeys() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        notificationThrottle.tryAcquire(1L, 10L, NotificationType.LOW_STOCK, now - 31 * 60_000);
+        notificationThrottle.tryAcquire(1L, 11L, NotificationType.LOW_STOCK, now);
+
+        // Act
+        notificationThrottle.evictExpired();
+
+        // Assert
+        assertEquals(1, notificationThrottle.size());
+    }
+}
@@ -0,0 +1,106 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.ReorderPointDTO;
+import com.founders404.backend.dto.StockForecastDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PredictionServiceBatchTest {
+
+    @Mock
+    private DemandStateService demandStateService;
+
+    @Mock
+    private SeasonalityService seasonalityService;
+
+    @InjectMocks
+    private PredictionService predictionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(seasonalityService.factor(anyLong(), any(), anyInt())).thenReturn(1.0);
+    }
+
+    @Test
+    void forecastFromStock_usesModelLookup() {
+        // Arrange: 10 db készlet, 2/nap -> 5 nap; kereslet nélküli termék nem fogy el
+        when(demandStateService.forecastDailyDemand(1L)).thenReturn(2.0);
+        when(demandStateService.forecastDailyDemand(3L)).thenReturn(0.0);
+
+        // Act
+        LocalDate before = LocalDate.now();
+        StockForecastDTO forecast = predictionService.forecastFromStock(1L, 10);
+        LocalDate after = LocalDate.now();
+        StockForecastDTO noDemand = predictionService.forecastFromStock(3L, null);
+
+        // Assert
+        assertEquals(1L, forecast.getProductId());
+        assertEquals(0, new BigDecimal("2.00").compareTo(forecast.getAverageDailySales()));
+        assertEquals(5, forecast.getDaysUntilStockout());
+        // Éjfélkor a két now() eltérhet: a dátum a hívás alatti napok egyikéhez tartozik
+        assertFalse(forecast.getEstimatedStockoutDate().isBefore(before.plusDays(5)));
+        assertFalse(forecast.getEstimatedStockoutDate().isAfter(after.plusDays(5)));
+        assertEquals(999, noDemand.getDaysUntilStockout());
+        assertEquals(0, noDemand.getCurrentStock());
+        assertNull(noDemand.getEstimatedStockoutDate());
+    }
+
+    @Test
+    void reorderPoints_useDemandVarianceAndLeadTime() {
+        // Arrange: 1. termék beszállítója 4 nap átfutású, a 2. az alapértelmezett 7 napot kapja
+        when(demandStateService.forecastDailyDemand(eq(1L))).thenReturn(2.0);
+        when(demandStateService.demandStandardDeviation(eq(1L))).thenReturn(1.0);
+
+        // Act
+        List<ReorderPointDTO> result = predictionService.calculateReorderPoints(new long[]{1L, 2L},
+                new int[]{4, predictionService.getDefaultLeadTimeDays()});
+
+        // Assert: SS = ceil(1.645 * 1 * sqrt(4)) = 4, ROP = 2 * 4 + 4 = 12
+        assertEquals(2, result.size());
+        assertEquals(4, result.get(0).getLeadTimeDays());
+        assertEquals(4, result.get(0).getSafetyStock());
+        assertEquals(12, result.get(0).getReorderPoint());
+        assertEquals(0.95, result.get(0).getServiceLevel());
+        assertEquals(7, result.get(1).getLeadTimeDays());
+        assertEquals(0, result.get(1).getReorderPoint());
+    }
+
+    @Test
+    void seasonalFactor_scalesDemandOverLeadTime() {
+        // Arrange: a következő 4 napban 1.5x-es szezonális kereslet
+        when(demandStateService.forecastDailyDemand(1L)).thenReturn(2.0);
+        when(demandStateService.demandStandardDeviation(1L)).thenReturn(1.0);
+        when(seasonalityService.factor(eq(1L), any(), eq(4))).thenReturn(1.5);
+
+        // Act
+        LocalDate before = LocalDate.now();
+        List<ReorderPointDTO> result = predictionService.calculateReorderPoints(new long[]{1L}, new int[]{4});
+        LocalDate after = LocalDate.now();
+
+        // Assert: SS = ceil(1.645 * 1.5 * 2) = 5, ROP = 3 * 4 + 5 = 17
+        assertEquals(5, result.get(0).getSafetyStock());
+        assertEquals(17, result.get(0).getReorderPoint());
+        assertEquals(0, new BigDecimal("3.00").compareTo(result.get(0).getAverageDailyDemand()));
+        // A szezonális szorzó a mai naptól számít (éjfélkor a hívás alatti napok egyike)
+        ArgumentCaptor<LocalDate> from = ArgumentCaptor.forClass(LocalDate.class);
+        verify(seasonalityService).factor(eq(1L), from.capture(), eq(4));
+        assertFalse(from.getValue().isBefore(before));
+        assertFalse(from.getValue().isAfter(after));
+    }
+}
@@ -0,0 +1,258 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.event.ProductChangedEvent;
+import com.founders404.backend.event.StockMovementEvent;
+import com.founders404.backend.model.MovementType;
+import com.founders404.backend.model.Product;
+import com.founders404.backend.model.PurchaseOrder;
+import com.founders404.backend.model.PurchaseOrderLine;
+import com.founders404.backend.model.PurchaseOrderStatus;
+import com.founders404.backend.model.User;
+import com.founders404.backend.repository.ProductRepository;
+import com.founders404.backend.repository.PurchaseOrderLineRepository;
+import com.founders404.backend.repository.PurchaseOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PurchaseOrderServiceTest {
+
+    @Mock
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Mock
+    private PurchaseOrderLineRepository lineRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private DemandStateService demandStateService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @InjectMocks
+    private PurchaseOrderService purchaseOrderService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        AtomicLong ids = new AtomicLong(100);
+        when(purchaseOrderRepository.save(any(PurchaseOrder.class))).thenAnswer(invocation -> {
+            PurchaseOrder order = invocation.getArgument(0);
+            if (order.getId() == null) {
+                order.setId(ids.incrementAndGet());
+            }
+            return order;
+        });
+        when(schedulerLockService.runExclusive(anyString(), any(Duration.class), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<SchedulerLockService.Lease>>getArgument(2).accept(null);
+            return true;
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processPending_groupsBySupplier_andSkipsProductsAlreadyOnOrder() {
+        // Arrange
+        Product a = product(1L, 10L, 2, 8, 30);
+        Product b = product(2L, 10L, 0, 5, 20);
+        Product c = product(3L, 20L, 1, 4, 10);
+        Product onOrder = product(4L, 20L, 0, 4, 10);
+        purchaseOrderService.onStockMovement(outEvent(1L));
+        purchaseOrderService.onStockMovement(outEvent(2L));
+        purchaseOrderService.onStockMovement(outEvent(3L));
+        purchaseOrderService.onStockMovement(outEvent(4L));
+        when(productRepository.findReorderCandidatesByIds(anyList())).thenReturn(List.of(
+                new Object[]{a, 8}, new Object[]{b, 5}, new Object[]{c, 4}, new Object[]{onOrder, 4}));
+        when(lineRepository.findProductIdsOnOrders(anyList(), anyCollection())).thenReturn(List.of(4L));
+        when(purchaseOrderRepository.findOpenAutoDraftsForUpdate(anyCollection())).thenReturn(List.of());
+
+        // Act
+        purchaseOrderService.processPending();
+
+        // Assert: két beszállító -> két tervezet, a már rendelt termék kimarad
+        ArgumentCaptor<List<PurchaseOrderLine>> lines = ArgumentCaptor.forClass(List.class);
+        verify(lineRepository).saveAll(lines.capture());
+        verify(purchaseOrderRepository, times(2)).save(any(PurchaseOrder.class));
+        assertEquals(List.of(1L, 2L, 3L), lines.getValue().stream().map(PurchaseOrderLine::getProductId).toList());
+        assertEquals(List.of(30, 20, 10), lines.getValue().stream().map(PurchaseOrderLine::getQuantity).toList());
+        assertEquals(lines.getValue().get(0).getOrderId(), lines.getValue().get(1).getOrderId());
+        assertNotEquals(lines.getValue().get(0).getOrderId(), lines.getValue().get(2).getOrderId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generateForCompany_usesComputedReorderPoint_whenManualIsMissing() {
+        // Arrange: kézi újrarendelési pont nincs, az előrejelzésből számolt 12
+        Product product = product(1L, 10L, 3, 0, null);
+        product.setReorderPoint(null);
+        when(productRepository.findReorderCandidates(1L)).thenReturn(List.<Object[]>of(new Object[]{product, 12}));
+        when(lineRepository.findProductIdsOnOrders(anyList(), anyCollection())).thenReturn(List.of());
+        when(purchaseOrderRepository.findOpenAutoDraftsForUpdate(anyCollection())).thenReturn(List.of());
+
+        // Act
+        List<PurchaseOrder> orders = purchaseOrderService.generateForCompany(1L);
+
+        // Assert: legalább a számolt pont fölé (12 - 3 + 1)
+        assertEquals(1, orders.size());
+        ArgumentCaptor<List<PurchaseOrderLine>> lines = ArgumentCaptor.forClass(List.class);
+        verify(lineRepository).saveAll(lines.capture());
+        assertEquals(10, lines.getValue().get(0).getQuantity());
+    }
+
+    @Test
+    void processPending_keepsProducts_whenAnotherNodeHoldsTheLease() {
+        // Arrange
+        purchaseOrderService.onStockMovement(outEvent(1L));
+        when(schedulerLockService.runExclusive(eq("purchase-order-drafts"), any(Duration.class), any())).thenReturn(false);
+        when(productRepository.findReorderCandidatesByIds(anyList())).thenReturn(List.of());
+
+        // Act
+        purchaseOrderService.processPending();
+        reset(schedulerLockService);
+        when(schedulerLockService.runExclusive(anyString(), any(Duration.class), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<SchedulerLockService.Lease>>getArgument(2).accept(null);
+            return true;
+        });
+        purchaseOrderService.processPending();
+
+        // Assert: a második körben ugyanaz a termék kerül feldolgozásra
+        verify(productRepository, times(1)).findReorderCandidatesByIds(List.of(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onProductChanged_queuesStockDecreasesAndThresholdChanges() {
+        // Arrange: kézi csökkentés (1), kézi növelés (2), újrarendelési pont módosítás (3), egyéb módosítás (4)
+        purchaseOrderService.onProductChanged(new ProductChangedEvent(1L, 1L, ProductChangedEvent.ChangeType.UPDATED,
+                5, 2, false));
+        purchaseOrderService.onProductChanged(new ProductChangedEvent(1L, 2L, ProductChangedEvent.ChangeType.UPDATED,
+                2, 5, false));
+        purchaseOrderService.onProductChanged(new ProductChangedEvent(1L, 3L, ProductChangedEvent.ChangeType.UPDATED,
+                null, null, true));
+        purchaseOrderService.onProductChanged(new ProductChangedEvent(1L, 4L, ProductChangedEvent.ChangeType.UPDATED));
+        when(productRepository.findReorderCandidatesByIds(anyList())).thenReturn(List.of());
+
+        // Act
+        purchaseOrderService.processPending();
+
+        // Assert
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        verify(productRepository).findReorderCandidatesByIds(ids.capture());
+        assertEquals(Set.of(1L, 3L), Set.copyOf(ids.getValue()));
+    }
+
+    @Test
+    void onStockMovement_ignoresIncreasingStock() {
+        // Arrange
+        purchaseOrderService.onStockMovement(new StockMovementEvent(1L, 1L, 1L, 1L, MovementType.IN, 5, 3, 8, LocalDateTime.now()));
+
+        // Act
+        purchaseOrderService.processPending();
+
+        // Assert
+        verifyNoInteractions(productRepository, transactionTemplate);
+    }
+
+    @Test
+    void orderQuantity_usesEoq_whenReorderQuantityMissing() {
+        // Arrange: D = 4 * 365 = 1460, S = 50, H = 0.25 * 40 = 10 -> sqrt(14600) = 120.8
+        Product product = product(1L, 10L, 2, 8, null);
+        product.setNetPurchasePrice(new BigDecimal("40.00"));
+        when(demandStateService.forecastDailyDemand(1L)).thenReturn(4.0);
+
+        // Act + Assert
+        assertEquals(121, purchaseOrderService.orderQuantity(product, 8));
+    }
+
+    @Test
+    void orderQuantity_liftsStockAboveReorderPoint() {
+        // Arrange
+        Product product = product(1L, 10L, 0, 50, 10);
+
+        // Act + Assert
+        assertEquals(51, purchaseOrderService.orderQuantity(product, 50));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void receive_postsAllLinesInOneBatch() {
+        // Arrange
+        PurchaseOrder order = new PurchaseOrder();
+        order.setId(7L);
+        order.setStatus(PurchaseOrderStatus.SENT);
+        User user = new User();
+        user.setId(3L);
+        when(purchaseOrderRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(order));
+        when(lineRepository.findByOrderIdOrderById(7L)).thenReturn(List.of(
+                new PurchaseOrderLine(1L, 7L, 1L, 30, null),
+                new PurchaseOrderLine(2L, 7L, 2L, 20, null)));
+
+        // Act
+        PurchaseOrder received = purchaseOrderService.receive(7L, user);
+
+        // Assert
+        ArgumentCaptor<Map<Long, Integer>> quantities = ArgumentCaptor.forClass(Map.class);
+        verify(inventoryService, times(1)).recordInMovements(quantities.capture(), eq("PURCHASE_ORDER"), anyString(), eq(user));
+        assertEquals(Map.of(1L, 30, 2L, 20), quantities.getValue());
+        assertEquals(PurchaseOrderStatus.RECEIVED, received.getStatus());
+        assertEquals(3L, received.getReceivedBy());
+    }
+
+    @Test
+    void receive_rejectsAlreadyReceivedOrder() {
+        // Arrange
+        PurchaseOrder order = new PurchaseOrder();
+        order.setId(7L);
+        order.setStatus(PurchaseOrderStatus.RECEIVED);
+        when(purchaseOrderRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(order));
+
+        // Act + Assert
+        assertThrows(RuntimeException.class, () -> purchaseOrderService.receive(7L, new User()));
+        verifyNoInteractions(inventoryService);
+    }
+
+    private static StockMovementEvent outEvent(Long productId) {
+        return new StockMovementEvent(1L, productId, productId, 1L, MovementType.OUT, 1, 10, 9, LocalDateTime.now());
+    }
+
+    private static Product product(Long id, Long supplierId, int stock, int reorderPoint, Integer reorderQuantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCompanyId(1L);
+        product.setSupplierId(supplierId);
+        product.setCurrentStock(stock);
+        product.setReorderPoint(reorderPoint);
+        product.setReorderQuantity(reorderQuantity);
+        return product;
+    }
+}
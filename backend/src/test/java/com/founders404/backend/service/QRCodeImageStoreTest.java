@@ -0,0 +1,139 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class QRCodeImageStoreTest {
+
+    @Mock
+    private QRCodeService qrCodeService;
+
+    @TempDir
+    Path storeDir;
+
+    private QRCodeImageStore imageStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        imageStore = new QRCodeImageStore(qrCodeService);
+        ReflectionTestUtils.setField(imageStore, "storeDir", storeDir.toString());
+        when(qrCodeService.buildProductQRContent(any())).thenAnswer(invocation ->
+                "product-" + ((Product) invocation.getArgument(0)).getId());
+        when(qrCodeService.generateQRCode(anyString(), anyInt(), anyInt())).thenReturn(new byte[100]);
+    }
+
+    @Test
+    void hash_dependsOnContentAndSize() {
+        // Act + Assert
+        String hash = QRCodeImageStore.hash("content", 300);
+        assertEquals(hash, QRCodeImageStore.hash("content", 300));
+        assertNotEquals(hash, QRCodeImageStore.hash("content", 600));
+        assertNotEquals(hash, QRCodeImageStore.hash("other", 300));
+        assertTrue(QRCodeImageStore.isValidHash(hash));
+        assertFalse(QRCodeImageStore.isValidHash("../secret"));
+    }
+
+    @Test
+    void getProductImage_rendersOnce_thenServesFromMemory() throws Exception {
+        // Arrange
+        Product product = product(1L);
+
+        // Act
+        QRCodeImageStore.QRImage first = imageStore.getProductImage(product, 300);
+        QRCodeImageStore.QRImage second = imageStore.getProductImage(product, 300);
+
+        // Assert: egy renderelés, a kép a tartalom címén a fájl tárban is megvan
+        assertEquals(first.hash(), second.hash());
+        assertEquals(imageStore.hashOf(product, 300), first.hash());
+        verify(qrCodeService, times(1)).generateQRCode(anyString(), eq(300), eq(300));
+        assertTrue(Files.exists(storeDir.resolve(first.hash() + ".png")));
+        assertEquals(1L, imageStore.getStats().get("hits"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed_andReloadsFromDisk() throws Exception {
+        // Arrange: két 100 bájtos kép fér el
+        ReflectionTestUtils.setField(imageStore, "maxBytes", 250L);
+        String first = imageStore.getProductImage(product(1L), 300).hash();
+        String second = imageStore.getProductImage(product(2L), 300).hash();
+        imageStore.getByHash(first);
+
+        // Act: a harmadik kiszorítja a legrégebben használtat (second)
+        imageStore.getProductImage(product(3L), 300);
+
+        // Assert
+        assertEquals(2, imageStore.getStats().get("entries"));
+        assertEquals(200L, imageStore.getStats().get("bytes"));
+        assertTrue(imageStore.getByHash(second).isPresent());
+        assertEquals(1L, imageStore.getStats().get("diskHits"));
+        verify(qrCodeService, times(3)).generateQRCode(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getByHash_returnsEmptyForUnknownOrInvalidHash() throws Exception {
+        // Act + Assert
+        assertTrue(imageStore.getByHash(QRCodeImageStore.hash("missing", 300)).isEmpty());
+        assertTrue(imageStore.getByHash("../../etc/passwd").isEmpty());
+    }
+
+    @Test
+    void deleteUnreferenced_keepsReferencedAndRecentImages() throws Exception {
+        // Arrange: 3 kép, ebből 1 hivatkozott, 1 régi nem hivatkozott, 1 friss nem hivatkozott
+        String referenced = imageStore.getProductImage(product(1L), 300).hash();
+        String orphan = imageStore.getProductImage(product(2L), 300).hash();
+        String recent = imageStore.getProductImage(product(3L), 300).hash();
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        Files.setLastModifiedTime(imageStore.pathOf(referenced), FileTime.from(old));
+        Files.setLastModifiedTime(imageStore.pathOf(orphan), FileTime.from(old));
+        Path staleTemp = Files.createFile(storeDir.resolve(orphan + "123.tmp"));
+        Files.setLastModifiedTime(staleTemp, FileTime.from(old));
+
+        // Act
+        int deleted = imageStore.deleteUnreferenced(
+                Set.of(QRCodeImageStore.hashFromPath("qrcodes/cas/" + referenced + ".png").orElseThrow()),
+                Instant.now().minus(Duration.ofDays(1)));
+
+        // Assert
+        assertEquals(2, deleted);
+        assertTrue(Files.exists(imageStore.pathOf(referenced)));
+        assertFalse(Files.exists(imageStore.pathOf(orphan)));
+        assertTrue(Files.exists(imageStore.pathOf(recent)));
+        assertFalse(Files.exists(staleTemp));
+    }
+
+    @Test
+    void storedImages_areWorldReadable() throws Exception {
+        // Act
+        String hash = imageStore.getProductImage(product(1L), 300).hash();
+
+        // Assert
+        assumeTrue(storeDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        assertEquals(PosixFilePermissions.fromString("rw-r--r--"),
+                Files.getPosixFilePermissions(imageStore.pathOf(hash)));
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,112 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.event.ProductChangedEvent;
+import com.founders404.backend.model.Product;
+import com.founders404.backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class QRCodeRenderServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private QRCodeImageStore qrCodeImageStore;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private QRCodeRenderService renderService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        renderService = new QRCodeRenderService(productRepository, qrCodeImageStore, transactionTemplate);
+        renderService.init();
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        renderService.shutdown();
+    }
+
+    @Test
+    void render_storesPathWithoutSavingWholeProduct() throws Exception {
+        // Arrange
+        Product product = product(5L, null);
+        when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+        when(qrCodeImageStore.getProductImage(product, QRCodeService.QR_CODE_WIDTH))
+                .thenReturn(new QRCodeImageStore.QRImage("abc", new byte[]{1}));
+        when(qrCodeImageStore.pathOf("abc")).thenReturn(Path.of("qrcodes/cas/abc.png"));
+
+        // Act
+        renderService.render(5L);
+
+        // Assert: csak a qr_code oszlop frissül, a közben módosított mezők nem íródnak felül
+        verify(productRepository).updateQrCode(5L, Path.of("qrcodes/cas/abc.png").toString());
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void render_skipsProductAlreadyRenderedOnRequest() throws Exception {
+        // Arrange
+        when(productRepository.findById(5L)).thenReturn(Optional.of(product(5L, "qrcodes/product_5.png")));
+
+        // Act
+        renderService.render(5L);
+
+        // Assert
+        verifyNoInteractions(qrCodeImageStore);
+        verify(productRepository, never()).updateQrCode(any(), any());
+    }
+
+    @Test
+    void onProductChanged_queuesCreatedProductsOnce() throws Exception {
+        // Arrange: a renderelés addig blokkol, amíg el nem engedjük
+        CountDownLatch release = new CountDownLatch(1);
+        Product product = product(7L, null);
+        when(productRepository.findById(7L)).thenReturn(Optional.of(product));
+        when(qrCodeImageStore.getProductImage(product, QRCodeService.QR_CODE_WIDTH)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new QRCodeImageStore.QRImage("def", new byte[]{1});
+        });
+        when(qrCodeImageStore.pathOf("def")).thenReturn(Path.of("qrcodes/cas/def.png"));
+
+        // Act
+        renderService.onProductChanged(new ProductChangedEvent(1L, 7L, ProductChangedEvent.ChangeType.UPDATED));
+        assertFalse(renderService.isPending(7L));
+        renderService.onProductChanged(new ProductChangedEvent(1L, 7L, ProductChangedEvent.ChangeType.CREATED));
+        boolean duplicate = renderService.submit(7L);
+        release.countDown();
+
+        // Assert
+        assertFalse(duplicate);
+        verify(productRepository, timeout(5000)).updateQrCode(7L, Path.of("qrcodes/cas/def.png").toString());
+        verify(qrCodeImageStore, times(1)).getProductImage(product, QRCodeService.QR_CODE_WIDTH);
+    }
+
+    private static Product product(Long id, String qrCode) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("P" + id);
+        product.setQrCode(qrCode);
+        return product;
+    }
+}
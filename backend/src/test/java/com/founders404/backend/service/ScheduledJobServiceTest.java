@@ -0,0 +1,106 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.ScheduledJobStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduledJobServiceTest {
+
+    private ScheduledJobService scheduledJobService;
+
+    @BeforeEach
+    void setUp() {
+        scheduledJobService = new ScheduledJobService(new MockEnvironment());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduledJobService.shutdown();
+    }
+
+    @Test
+    void submit_skipsRunWhilePreviousIsStillRunning() throws InterruptedException {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        // Act
+        boolean first = scheduledJobService.submit(ScheduledJobService.ALERTS, "slow", () -> {
+            await(release);
+            done.countDown();
+        });
+        boolean second = scheduledJobService.submit(ScheduledJobService.ALERTS, "slow", () -> { });
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        ScheduledJobStatsDTO stats = awaitRuns("slow", 1);
+        assertEquals(1L, stats.getSkipped());
+        assertEquals(ScheduledJobService.ALERTS, stats.getQueue());
+    }
+
+    @Test
+    void submit_slowJobDoesNotDelayOtherQueue() throws InterruptedException {
+        // Arrange: a maintenance sor foglalt
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastDone = new CountDownLatch(1);
+        scheduledJobService.submit(ScheduledJobService.MAINTENANCE, "slow", () -> await(release));
+
+        // Act
+        scheduledJobService.submit(ScheduledJobService.ALERTS, "fast", fastDone::countDown);
+
+        // Assert
+        assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void submit_recordsFailuresAndLagOnBusyQueue() throws InterruptedException {
+        // Arrange: egyszálú sor, az első job foglalja
+        CountDownLatch release = new CountDownLatch(1);
+        scheduledJobService.submit(ScheduledJobService.ALERTS, "blocker", () -> await(release));
+
+        // Act
+        scheduledJobService.submit(ScheduledJobService.ALERTS, "failing", () -> {
+            throw new RuntimeException("boom");
+        });
+        Thread.sleep(50);
+        release.countDown();
+
+        // Assert: a második job a sorban várt, és hibásként számolódik
+        ScheduledJobStatsDTO stats = awaitRuns("failing", 1);
+        assertEquals(1L, stats.getFailures());
+        assertTrue(stats.getLastLagMs() >= 40);
+        assertFalse(stats.getRunning());
+    }
+
+    private ScheduledJobStatsDTO awaitRuns(String job, long runs) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            ScheduledJobStatsDTO stats = scheduledJobService.getStats().stream()
+                    .filter(s -> s.getJob().equals(job))
+                    .findFirst().orElse(null);
+            if (stats != null && stats.getRuns() >= runs && !stats.getRunning()) {
+                return stats;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + job + " did not finish");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.exception.LeaseLostException;
+import com.founders404.backend.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SchedulerLockServiceTest {
+
+    @Mock
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SchedulerLockService lockService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        lockService = new SchedulerLockService(leaseRepository, transactionManager, "node-a");
+    }
+
+    @Test
+    void tryAcquire_takesOverExpiredLeaseWithNewToken() {
+        // Arrange
+        when(leaseRepository.takeOver(eq("job"), eq("node-a"), any(), any())).thenReturn(1);
+        when(leaseRepository.findTokenByName("job")).thenReturn(Optional.of(7L));
+
+        // Act
+        Optional<SchedulerLockService.Lease> lease = lockService.tryAcquire("job");
+
+        // Assert
+        assertTrue(lease.isPresent());
+        assertEquals(7L, lease.get().getToken());
+        verify(leaseRepository, never()).insert(any(), any(), any(), any());
+    }
+
+    @Test
+    void tryAcquire_insertsFirstLease_andLosesInsertRace() {
+        // Arrange
+        when(leaseRepository.takeOver(any(), any(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById(any())).thenReturn(false);
+        when(leaseRepository.insert(eq("second"), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // Act + Assert
+        assertEquals(1L, lockService.tryAcquire("first").orElseThrow().getToken());
+        assertTrue(lockService.tryAcquire("second").isEmpty());
+    }
+
+    @Test
+    void runExclusive_skipsWhenHeld_andReleasesAfterMinimumHold() {
+        // Arrange: a "held" lease-t más tartja, a "free" megszerezhető
+        when(leaseRepository.takeOver(eq("held"), any(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById("held")).thenReturn(true);
+        when(leaseRepository.takeOver(eq("free"), any(), any(), any())).thenReturn(1);
+        when(leaseRepository.findTokenByName("free")).thenReturn(Optional.of(3L));
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // Act
+        boolean heldRan = lockService.runExclusive("held", lease -> ran.set(true));
+        LocalDateTime before = LocalDateTime.now();
+        boolean freeRan = lockService.runExclusive("free", Duration.ofMinutes(10), lease -> ran.set(true));
+
+        // Assert
+        assertFalse(heldRan);
+        assertTrue(freeRan);
+        assertTrue(ran.get());
+        ArgumentCaptor<LocalDateTime> expiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(leaseRepository).release(eq("free"), eq("node-a"), eq(3L), expiresAt.capture());
+        assertFalse(expiresAt.getValue().isBefore(before.plusMinutes(10)));
+        verify(leaseRepository, never()).release(eq("held"), any(), any(), any());
+    }
+
+    @Test
+    void checkpoint_throwsWhenAnotherNodeTookOver() {
+        // Arrange
+        when(leaseRepository.takeOver(any(), any(), any(), any())).thenReturn(1);
+        when(leaseRepository.findTokenByName("job")).thenReturn(Optional.of(4L));
+        SchedulerLockService.Lease lease = lockService.tryAcquire("job").orElseThrow();
+        when(leaseRepository.extend(eq("job"), eq("node-a"), eq(4L), any(), any())).thenReturn(1, 0);
+
+        // Act + Assert: első hosszabbítás sikerül, a másodiknál már más token van a táblában
+        lease.checkpoint();
+        assertThrows(LeaseLostException.class, lease::checkpoint);
+    }
+
+    @Test
+    void runPerCompany_runsAcquiredCompanies_andContinuesAfterFailure() {
+        // Arrange: a 2-es cég egy másik node-nál van
+        when(leaseRepository.takeOver(any(), any(), any(), any())).thenReturn(1);
+        when(leaseRepository.takeOver(eq("job:company:2"), any(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById("job:company:2")).thenReturn(true);
+        when(leaseRepository.findTokenByName(any())).thenReturn(Optional.of(1L));
+        List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        int count = lockService.runPerCompany("job", List.of(1L, 2L, 3L), (companyId, lease) -> {
+            if (companyId == 3L) {
+                throw new RuntimeException("boom");
+            }
+            processed.add(companyId);
+        });
+
+        // Assert
+        assertEquals(List.of(1L), processed);
+        assertEquals(1, count);
+        verify(leaseRepository).release(eq("job:company:3"), any(), any(), any());
+    }
+
+    @Test
+    void runPerCompany_boundsParallelCompanies() {
+        // Arrange
+        ReflectionTestUtils.setField(lockService, "companyParallelism", 2);
+        when(leaseRepository.takeOver(any(), any(), any(), any())).thenReturn(1);
+        when(leaseRepository.findTokenByName(any())).thenReturn(Optional.of(1L));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // Act
+        int count = lockService.runPerCompany("job", List.of(1L, 2L, 3L, 4L, 5L, 6L), (companyId, lease) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+        });
+
+        // Assert
+        assertEquals(6, count);
+        assertTrue(maxRunning.get() <= 2);
+    }
+}
@@ -0,0 +1,181 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.model.ProductSeasonality;
+import com.founders404.backend.repository.InventoryRepository;
+import com.founders404.backend.repository.ProductRepository;
+import com.founders404.backend.repository.ProductSeasonalityRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SeasonalityServiceTest {
+
+    @Mock
+    private ProductSeasonalityRepository seasonalityRepository;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SeasonalityService seasonalityService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        // Induláskori betöltés üres táblával: az olvasások megnyílnak
+        seasonalityService.loadOnStartup();
+    }
+
+    @Test
+    void analyzeCompany_processesProductsInIdChunks_andDropsStaleRowsAtTheEnd() {
+        // Arrange: 3 aktív termék, 2-es darabokban; a 3-as terméknek erős heti mintája van
+        ReflectionTestUtils.setField(seasonalityService, "chunkSize", 2);
+        ReflectionTestUtils.setField(seasonalityService, "historyDays", 56);
+        when(productRepository.findActiveIdsByCompanyIdAfter(eq(1L), eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(productRepository.findActiveIdsByCompanyIdAfter(eq(1L), eq(2L), any())).thenReturn(List.of(3L));
+        when(productRepository.findActiveIdsByCompanyIdAfter(eq(1L), eq(3L), any())).thenReturn(List.of());
+        LocalDate from = LocalDate.now().minusDays(56);
+        List<Object[]> weekly = new ArrayList<>();
+        for (int d = 0; d < 56; d++) {
+            weekly.add(new Object[]{3L, from.plusDays(d), d % 7 == 0 ? 50L : 5L});
+        }
+        when(inventoryRepository.findDailyOutDemandInProductRange(eq(1L), eq(0L), eq(2L), any())).thenReturn(List.of());
+        when(inventoryRepository.findDailyOutDemandInProductRange(eq(1L), eq(2L), eq(3L), any())).thenReturn(weekly);
+
+        // Act
+        int analysed = seasonalityService.analyzeCompany(1L);
+
+        // Assert: darabonként csere, a végén a régi sorok törlése
+        assertEquals(3, analysed);
+        verify(seasonalityRepository).deleteByProductIds(List.of(1L, 2L));
+        verify(seasonalityRepository).deleteByProductIds(List.of(3L));
+        verify(seasonalityRepository).deleteStale(eq(1L), any(LocalDateTime.class));
+        assertTrue(seasonalityService.getProfile(3L).isPresent());
+        assertTrue(seasonalityService.getProfile(1L).isEmpty());
+    }
+
+    @Test
+    void factor_waitsForStartupLoad() {
+        // Arrange: még nem futott le az induláskori betöltés
+        SeasonalityService loading = new SeasonalityService(productRepository, inventoryRepository,
+                seasonalityRepository, entityManager, transactionTemplate, schedulerLockService,
+                mock(ScheduledJobService.class));
+        ReflectionTestUtils.setField(loading, "readyTimeoutMs", 0L);
+
+        // Act + Assert: betöltés előtt nem ad (szezonalitás nélküli) szorzót, utána igen
+        assertThrows(RuntimeException.class, () -> loading.factor(1L, LocalDate.now(), 7));
+        loading.loadOnStartup();
+        assertEquals(1.0, loading.factor(1L, LocalDate.now(), 7));
+    }
+
+    @Test
+    void reloadChanged_loadsOnlyCompaniesRecomputedSinceLastLoad() {
+        // Arrange: első betöltés, az 1-es cég 10-es terméke szezonális
+        LocalDateTime firstRun = LocalDateTime.of(2025, 3, 2, 4, 0);
+        when(seasonalityRepository.findComputedAtByCompany()).thenReturn(List.<Object[]>of(new Object[]{1L, firstRun}));
+        when(seasonalityRepository.findSeasonalByCompanyId(1L)).thenReturn(List.of(row(10L, firstRun)));
+        assertEquals(1, seasonalityService.reloadChanged());
+        assertTrue(seasonalityService.getProfile(10L).isPresent());
+
+        // Act: változatlan computed_at -> nincs újratöltés
+        int unchanged = seasonalityService.reloadChanged();
+
+        // Assert
+        assertEquals(0, unchanged);
+        verify(seasonalityRepository, times(1)).findSeasonalByCompanyId(1L);
+
+        // Act: egy másik node újraszámolta, most a 11-es a szezonális
+        LocalDateTime secondRun = firstRun.plusWeeks(1);
+        when(seasonalityRepository.findComputedAtByCompany()).thenReturn(List.<Object[]>of(new Object[]{1L, secondRun}));
+        when(seasonalityRepository.findSeasonalByCompanyId(1L)).thenReturn(List.of(row(11L, secondRun)));
+        int reloaded = seasonalityService.reloadChanged();
+
+        // Assert: a régi profil kiesik, az új betöltődik
+        assertEquals(1, reloaded);
+        assertTrue(seasonalityService.getProfile(10L).isEmpty());
+        assertTrue(seasonalityService.getProfile(11L).isPresent());
+    }
+
+    @Test
+    void reloadChanged_dropsProfilesOfCompaniesNoLongerAnalysed() {
+        // Arrange
+        LocalDateTime run = LocalDateTime.of(2025, 3, 2, 4, 0);
+        when(seasonalityRepository.findComputedAtByCompany()).thenReturn(List.<Object[]>of(new Object[]{1L, run}));
+        when(seasonalityRepository.findSeasonalByCompanyId(1L)).thenReturn(List.of(row(10L, run)));
+        seasonalityService.reloadChanged();
+
+        // Act: a cég sorai törlődtek
+        when(seasonalityRepository.findComputedAtByCompany()).thenReturn(List.of());
+        seasonalityService.reloadChanged();
+
+        // Assert
+        assertTrue(seasonalityService.getProfile(10L).isEmpty());
+        assertEquals(1.0, seasonalityService.factor(10L, run.toLocalDate(), 7));
+    }
+
+    @Test
+    void analyzeCompanyExclusive_returnsEmpty_whenCompanyLeaseIsHeld() {
+        // Arrange: az ütemezett futás (ezen vagy más node-on) tartja a cég lease-ét
+        when(schedulerLockService.runExclusive(eq("seasonality:company:1"), any(Duration.class), any()))
+                .thenReturn(false);
+
+        // Act
+        Optional<Integer> result = seasonalityService.analyzeCompanyExclusive(1L);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(seasonalityRepository, never()).deleteByProductIds(any());
+    }
+
+    private static ProductSeasonality row(Long productId, LocalDateTime computedAt) {
+        double[] weekly = new double[7];
+        Arrays.fill(weekly, 1.0);
+        weekly[5] = 2.0;
+        double[] monthly = new double[12];
+        Arrays.fill(monthly, 1.0);
+        ProductSeasonality row = new ProductSeasonality();
+        row.setProductId(productId);
+        row.setCompanyId(1L);
+        row.setWeeklySeasonal(true);
+        row.setYearlySeasonal(false);
+        row.setWeeklyIndices(weekly);
+        row.setMonthlyIndices(monthly);
+        row.setComputedAt(computedAt);
+        return row;
+    }
+}
@@ -0,0 +1,118 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.CategoryDistributionDTO;
+import com.founders404.backend.dto.StatisticsCacheStatsDTO;
+import com.founders404.backend.event.StockMovementEvent;
+import com.founders404.backend.model.MovementType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StatisticsCacheServiceTest {
+
+    @Mock
+    private StatisticsService statisticsService;
+
+    @InjectMocks
+    private StatisticsCacheService statisticsCacheService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void secondCall_isHit_untilCompanyInvalidated() {
+        // Arrange
+        List<CategoryDistributionDTO> distribution = List.of(new CategoryDistributionDTO("Electronics", 2L, BigDecimal.TEN));
+        when(statisticsService.getCategoryDistribution(1L)).thenReturn(distribution);
+        when(statisticsService.getCategoryDistribution(2L)).thenReturn(distribution);
+
+        // Act
+        statisticsCacheService.getCategoryDistribution(1L);
+        statisticsCacheService.getCategoryDistribution(1L);
+        statisticsCacheService.getCategoryDistribution(2L);
+        statisticsCacheService.onStockMovement(new StockMovementEvent(
+                2L, 10L, 100L, 5L, MovementType.OUT, 1, 5, 4, LocalDateTime.now()));
+        statisticsCacheService.getCategoryDistribution(1L);
+        statisticsCacheService.getCategoryDistribution(2L);
+
+        // Assert
+        verify(statisticsService, times(1)).getCategoryDistribution(1L);
+        verify(statisticsService, times(2)).getCategoryDistribution(2L);
+        StatisticsCacheStatsDTO stats = statisticsCacheService.getStats();
+        assertEquals(2L, stats.getHits());
+        assertEquals(3L, stats.getMisses());
+    }
+
+    @Test
+    void concurrentIdenticalRequests_areCoalesced() throws Exception {
+        // Arrange
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Act: az első kérés betöltője jelez, amikor elindult, és a release-ig fut
+        Future<Object> first = executor.submit(() -> statisticsCacheService.get("test", 1L, null, null, null, () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "result";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Thread> secondThread = new CompletableFuture<>();
+        Future<Object> second = executor.submit(() -> {
+            secondThread.complete(Thread.currentThread());
+            return statisticsCacheService.get("test", 1L, null, null, null, () -> {
+                computations.incrementAndGet();
+                return "other";
+            });
+        });
+        // A release csak azután, hogy a második kérés a folyamatban lévő számításra vár
+        awaitWaiting(secondThread.get(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        // Assert
+        assertEquals("result", first.get(5, TimeUnit.SECONDS));
+        assertEquals("result", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, computations.get());
+        assertEquals(1L, statisticsCacheService.getStats().getCoalesced());
+        executor.shutdown();
+    }
+
+    /**
+     * Megvárja, hogy a szál parkoljon (a folyamatban lévő számítás join-jában); nem fix idejű várakozás.
+     */
+    private static void awaitWaiting(Thread thread) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() < deadline, "Second request did not join the running computation");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.FinancialSeriesDTO;
+import com.founders404.backend.dto.TimeGranularity;
+import com.founders404.backend.model.MovementType;
+import com.founders404.backend.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StatisticsServiceSeriesTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @InjectMocks
+    private StatisticsService statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void monthlySeries_usesSingleQuery_andFillsEmptyMonths() {
+        // Arrange
+        List<Object[]> rows = List.of(
+                new Object[]{LocalDate.of(2025, 1, 15), 10, MovementType.OUT, new BigDecimal("1000"), new BigDecimal("400")},
+                new Object[]{LocalDate.of(2025, 1, 20), 9, MovementType.IN, new BigDecimal("900"), new BigDecimal("300")},
+                new Object[]{LocalDate.of(2025, 3, 2), 14, MovementType.OUT, new BigDecimal("250"), new BigDecimal("100")}
+        );
+        when(inventoryRepository.findHourlyFinancials(any(), any(), eq(1L))).thenReturn(rows);
+
+        // Act
+        FinancialSeriesDTO series = statisticsService.getFinancialSeries(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31),
+                TimeGranularity.MONTH, ZoneId.systemDefault(), 1L);
+
+        // Assert
+        verify(inventoryRepository, times(1)).findHourlyFinancials(any(), any(), eq(1L));
+        assertEquals(12, series.getPoints().size());
+        assertEquals("2025. január", series.getPoints().get(0).getLabel());
+        assertEquals(0, new BigDecimal("1000").compareTo(series.getPoints().get(0).getRevenue()));
+        assertEquals(0, new BigDecimal("300").compareTo(series.getPoints().get(0).getCost()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(series.getPoints().get(1).getRevenue()));
+        assertEquals(0, new BigDecimal("950").compareTo(series.getTotalProfit()));
+    }
+
+    @Test
+    void weeklySeries_startsOnMonday() {
+        when(inventoryRepository.findHourlyFinancials(any(), any(), any())).thenReturn(List.of());
+
+        FinancialSeriesDTO series = statisticsService.getFinancialSeries(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 14),
+                TimeGranularity.WEEK, ZoneId.systemDefault(), null);
+
+        assertEquals(3, series.getPoints().size());
+        assertEquals("2025. 01. hét", series.getPoints().get(0).getLabel());
+        assertEquals(LocalDate.of(2025, 1, 6), series.getPoints().get(1).getPeriodStart());
+    }
+}
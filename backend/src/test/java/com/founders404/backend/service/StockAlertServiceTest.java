@@ -0,0 +1,265 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.event.NotificationCreatedEvent;
+import com.founders404.backend.event.ProductChangedEvent;
+import com.founders404.backend.model.CompanyNotification;
+import com.founders404.backend.model.NotificationType;
+import com.founders404.backend.model.Product;
+import com.founders404.backend.repository.CompanyNotificationRepository;
+import com.founders404.backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StockAlertServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CompanyNotificationRepository companyNotificationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private NotificationThrottle notificationThrottle;
+
+    private StockAlertService stockAlertService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        notificationThrottle = new NotificationThrottle(companyNotificationRepository);
+        stockAlertService = new StockAlertService(productRepository, companyNotificationRepository,
+                notificationThrottle, transactionTemplate, eventPublisher);
+        // Alapból azonnali kiküldés; a gyűjtést a digest tesztek kapcsolják be
+        ReflectionTestUtils.setField(stockAlertService, "digestWindowMs", 0L);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void crossedThreshold_firesOnlyWhenCrossing() {
+        // Arrange: min 5, újrarendelési pont 8 -> alacsony küszöb 8; max 50
+        Product product = product(1L, 20, 5, 8, 50);
+
+        // Act + Assert
+        assertEquals(NotificationType.LOW_STOCK, StockAlertService.crossedThreshold(product, 10, 8));
+        assertNull(StockAlertService.crossedThreshold(product, 8, 6));
+        assertEquals(NotificationType.STOCK_OUT, StockAlertService.crossedThreshold(product, 6, 0));
+        assertEquals(NotificationType.OVER_STOCK, StockAlertService.crossedThreshold(product, 40, 55));
+        assertNull(StockAlertService.crossedThreshold(product, 55, 60));
+        assertNull(StockAlertService.crossedThreshold(product(2L, 20, null, null, null), 20, 3));
+    }
+
+    @Test
+    void evaluate_storesOneCompanyNotification() {
+        // Arrange
+        Product product = product(1L, 4, 5, null, null);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        // Act
+        stockAlertService.evaluate(1L, 6, 4);
+
+        // Assert: egy sor a cégnek, a userek számától függetlenül
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CompanyNotification>> saved = ArgumentCaptor.forClass(List.class);
+        verify(companyNotificationRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        CompanyNotification notification = saved.getValue().get(0);
+        assertEquals(NotificationType.LOW_STOCK, notification.getType());
+        assertEquals(1L, notification.getCompanyId());
+        assertEquals(1L, notification.getProductId());
+        assertNull(notification.getTargetRole());
+        verify(productRepository).updateAlertState(List.of(1L), NotificationType.LOW_STOCK);
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void onProductChanged_evaluatesStockAdjustedWithoutMovement() {
+        // Arrange: kézi korrekció 6 -> 4, a min. szint 5
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, 4, 5, null, null)));
+
+        // Act
+        stockAlertService.onProductChanged(new ProductChangedEvent(1L, 1L, ProductChangedEvent.ChangeType.UPDATED,
+                6, 4, false));
+        stockAlertService.onProductChanged(new ProductChangedEvent(1L, 2L, ProductChangedEvent.ChangeType.UPDATED));
+        stockAlertService.shutdown();
+
+        // Assert: a készletváltozás riaszt, a készletet nem érintő módosítás nem értékelődik
+        verify(productRepository).updateAlertState(List.of(1L), NotificationType.LOW_STOCK);
+        verify(productRepository, never()).findById(2L);
+    }
+
+    @Test
+    void reconcile_skipsRecentlyNotifiedProducts() {
+        // Arrange
+        Product notified = product(1L, 2, 5, null, null);
+        Product missed = product(2L, 3, 5, null, null);
+        when(productRepository.findStockAlertCandidatesUpdatedSince(any())).thenReturn(List.of(notified, missed));
+        notificationThrottle.tryAcquire(1L, 1L, NotificationType.LOW_STOCK);
+
+        // Act
+        int created = stockAlertService.reconcile(LocalDateTime.now().minusMinutes(10));
+
+        // Assert
+        assertEquals(1, created);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CompanyNotification>> saved = ArgumentCaptor.forClass(List.class);
+        verify(companyNotificationRepository).saveAll(saved.capture());
+        assertEquals(2L, saved.getValue().get(0).getProductId());
+    }
+
+    @Test
+    void reconcile_fillsOnlyMissedAlerts_andClearsStateOfRecoveredProducts() {
+        // Arrange: még mindig alacsony (már riasztva), elfogyott (alacsonyként riasztva), visszatöltött (riasztva)
+        Product stillLow = product(1L, 2, 5, null, null);
+        stillLow.setAlertState(NotificationType.LOW_STOCK);
+        Product nowOut = product(2L, 0, 5, null, null);
+        nowOut.setAlertState(NotificationType.LOW_STOCK);
+        Product recovered = product(3L, 20, 5, null, null);
+        recovered.setAlertState(NotificationType.LOW_STOCK);
+        when(productRepository.findStockAlertCandidatesUpdatedSince(any()))
+                .thenReturn(List.of(stillLow, nowOut, recovered));
+
+        // Act
+        int created = stockAlertService.reconcile(LocalDateTime.now().minusMinutes(10));
+
+        // Assert
+        assertEquals(1, created);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CompanyNotification>> saved = ArgumentCaptor.forClass(List.class);
+        verify(companyNotificationRepository).saveAll(saved.capture());
+        assertEquals(2L, saved.getValue().get(0).getProductId());
+        assertEquals(NotificationType.STOCK_OUT, saved.getValue().get(0).getType());
+        verify(productRepository).updateAlertState(List.of(2L), NotificationType.STOCK_OUT);
+        verify(productRepository).updateAlertState(List.of(3L), null);
+    }
+
+    @Test
+    void reconcile_doesNotRepeatAlert_whenRecoveringFromStockOutToLowStock() {
+        // Arrange: elfogyáskor riasztott termék részleges feltöltés után még alacsony
+        Product product = product(1L, 3, 5, null, null);
+        product.setAlertState(NotificationType.STOCK_OUT);
+        when(productRepository.findStockAlertCandidatesUpdatedSince(any())).thenReturn(List.of(product));
+
+        // Act
+        int created = stockAlertService.reconcile(LocalDateTime.now().minusMinutes(10));
+
+        // Assert
+        assertEquals(0, created);
+        verify(companyNotificationRepository, never()).saveAll(anyList());
+        verify(productRepository).updateAlertState(List.of(1L), NotificationType.LOW_STOCK);
+    }
+
+    @Test
+    void evaluate_doesNotRepeatAlertWithinDedupeWindow() {
+        // Arrange
+        Product product = product(1L, 4, 5, null, null);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        // Act
+        stockAlertService.evaluate(1L, 6, 4);
+        stockAlertService.evaluate(1L, 7, 3);
+
+        // Assert: egy beszúrás, a második döntés adatbázis nélkül született
+        verify(companyNotificationRepository, times(1)).saveAll(anyList());
+        verifyNoMoreInteractions(companyNotificationRepository);
+    }
+
+    @Test
+    void alert_releasesKeysWhenInsertFails() {
+        // Arrange
+        Product product = product(1L, 4, 5, null, null);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(companyNotificationRepository.saveAll(anyList())).thenThrow(new RuntimeException("db down"));
+
+        // Act
+        assertThrows(RuntimeException.class, () -> stockAlertService.evaluate(1L, 6, 4));
+
+        // Assert
+        assertTrue(notificationThrottle.tryAcquire(1L, 1L, NotificationType.LOW_STOCK));
+    }
+
+    @Test
+    void evaluate_collectsAlertsIntoOneDigestPerCompany() {
+        // Arrange: gyűjtési ablak bekapcsolva, három termék fogy le egymás után
+        ReflectionTestUtils.setField(stockAlertService, "digestWindowMs", 60_000L);
+        when(companyNotificationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        for (long id = 1; id <= 3; id++) {
+            when(productRepository.findById(id)).thenReturn(Optional.of(product(id, 4, 5, null, null)));
+        }
+
+        // Act
+        stockAlertService.evaluate(1L, 6, 4);
+        stockAlertService.evaluate(2L, 6, 4);
+        stockAlertService.evaluate(1L, 7, 3);
+        stockAlertService.evaluate(3L, 6, 4);
+        verify(companyNotificationRepository, never()).saveAll(anyList());
+        stockAlertService.flushPending();
+
+        // Assert: egy beszúrás, egy összesítő értesítés a terméklistával
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CompanyNotification>> saved = ArgumentCaptor.forClass(List.class);
+        verify(companyNotificationRepository, times(1)).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        CompanyNotification digest = saved.getValue().get(0);
+        assertEquals(NotificationType.LOW_STOCK, digest.getType());
+        assertNull(digest.getProductId());
+        assertEquals(List.of(1L, 2L, 3L), digest.getProductIdList());
+        assertEquals("Alacsony készlet: 3 termék", digest.getTitle());
+        verify(eventPublisher, times(1)).publishEvent(any(NotificationCreatedEvent.class));
+    }
+
+    @Test
+    void reconcile_sendsOneDigestPerCompanyAndType() {
+        // Arrange
+        Product first = product(1L, 2, 5, null, null);
+        Product second = product(2L, 3, 5, null, null);
+        Product otherCompany = product(3L, 3, 5, null, null);
+        otherCompany.setCompanyId(2L);
+        when(productRepository.findStockAlertCandidatesUpdatedSince(any()))
+                .thenReturn(List.of(first, second, otherCompany));
+
+        // Act
+        int alerted = stockAlertService.reconcile(LocalDateTime.now().minusMinutes(10));
+
+        // Assert
+        assertEquals(3, alerted);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CompanyNotification>> saved = ArgumentCaptor.forClass(List.class);
+        verify(companyNotificationRepository, times(1)).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertEquals(List.of(1L, 2L), saved.getValue().get(0).getProductIdList());
+        assertEquals(3L, saved.getValue().get(1).getProductId());
+    }
+
+    private static Product product(Long id, int stock, Integer min, Integer reorderPoint, Integer max) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCompanyId(1L);
+        product.setName("P" + id);
+        product.setCurrentStock(stock);
+        product.setMinStockLevel(min);
+        product.setReorderPoint(reorderPoint);
+        product.setMaxStockLevel(max);
+        return product;
+    }
+}
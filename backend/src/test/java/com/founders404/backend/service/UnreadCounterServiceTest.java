@@ -0,0 +1,132 @@
+package com.founders404.backend.service;
+
+import com.founders404.backend.dto.NotificationResponse;
+import com.founders404.backend.event.NotificationCreatedEvent;
+import com.founders404.backend.event.NotificationsReadEvent;
+import com.founders404.backend.model.Company;
+import com.founders404.backend.model.Role;
+import com.founders404.backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UnreadCounterServiceTest {
+
+    @Mock
+    private NotificationService notificationService;
+
+    @InjectMocks
+    private UnreadCounterService unreadCounterService;
+
+    private User clerk;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Company company = new Company();
+        company.setId(1L);
+        clerk = user(7L, Role.CLERK, company);
+        owner = user(8L, Role.OWNER, company);
+    }
+
+    @Test
+    void getUnreadCount_loadsOnce_thenServesFromMemory() {
+        // Arrange
+        when(notificationService.countUnread(clerk)).thenReturn(3L);
+
+        // Act
+        unreadCounterService.getUnreadCount(clerk);
+        long count = unreadCounterService.getUnreadCount(clerk);
+
+        // Assert
+        assertEquals(3, count);
+        verify(notificationService, times(1)).countUnread(any());
+    }
+
+    @Test
+    void events_adjustLoadedCounters() {
+        // Arrange
+        when(notificationService.countUnread(clerk)).thenReturn(3L);
+        when(notificationService.countUnread(owner)).thenReturn(0L);
+        unreadCounterService.getUnreadCount(clerk);
+        unreadCounterService.getUnreadCount(owner);
+
+        // Act
+        unreadCounterService.onNotificationCreated(new NotificationCreatedEvent(null, 1L, null, new NotificationResponse()));
+        unreadCounterService.onNotificationCreated(new NotificationCreatedEvent(null, 1L, Role.OWNER, new NotificationResponse()));
+        unreadCounterService.onNotificationCreated(new NotificationCreatedEvent(null, 2L, null, new NotificationResponse()));
+        unreadCounterService.onNotificationCreated(new NotificationCreatedEvent(7L, null, null, new NotificationResponse()));
+        unreadCounterService.onNotificationsRead(new NotificationsReadEvent(7L, 2));
+        unreadCounterService.onNotificationsRead(new NotificationsReadEvent(8L, 10));
+
+        // Assert: clerk 3 + 1 (cég) + 1 (saját) - 2; owner 0 + 2 - 10 -> 0
+        assertEquals(3, unreadCounterService.getUnreadCount(clerk));
+        assertEquals(0, unreadCounterService.getUnreadCount(owner));
+        verify(notificationService, times(2)).countUnread(any());
+    }
+
+    @Test
+    void getUnreadCount_reloads_whenEventArrivesDuringLoad() {
+        // Arrange: az első lekérdezés közben commitolódik egy cégszintű értesítés (benne lehet az eredményben)
+        when(notificationService.countUnread(clerk))
+                .thenAnswer(invocation -> {
+                    unreadCounterService.onNotificationCreated(
+                            new NotificationCreatedEvent(null, 1L, null, new NotificationResponse()));
+                    return 3L;
+                })
+                .thenReturn(4L);
+
+        // Act
+        long count = unreadCounterService.getUnreadCount(clerk);
+
+        // Assert: nem 3 + 1 = 5 és nem is 3, hanem az esemény nélküli második betöltés
+        assertEquals(4, count);
+        verify(notificationService, times(2)).countUnread(clerk);
+        assertEquals(4, unreadCounterService.getUnreadCount(clerk));
+    }
+
+    @Test
+    void invalidateAll_reloadsOnNextRead() {
+        // Arrange
+        when(notificationService.countUnread(clerk)).thenReturn(3L, 1L);
+        unreadCounterService.getUnreadCount(clerk);
+
+        // Act
+        unreadCounterService.invalidateAll();
+
+        // Assert
+        assertEquals(1, unreadCounterService.getUnreadCount(clerk));
+    }
+
+    @Test
+    void getUnreadCount_reloadsAfterTtl_toPickUpOtherNodesChanges() throws InterruptedException {
+        // Arrange: a másik node-on létrejött értesítésről nem jön helyi esemény
+        ReflectionTestUtils.setField(unreadCounterService, "ttlMs", 1L);
+        when(notificationService.countUnread(clerk)).thenReturn(3L, 4L);
+        unreadCounterService.getUnreadCount(clerk);
+
+        // Act
+        Thread.sleep(5);
+        long count = unreadCounterService.getUnreadCount(clerk);
+
+        // Assert
+        assertEquals(4, count);
+        verify(notificationService, times(2)).countUnread(clerk);
+    }
+
+    private static User user(Long id, Role role, Company company) {
+        User user = new User();
+        user.setId(id);
+        user.setRole(role);
+        user.setCompany(company);
+        return user;
+    }
+}